@@ -0,0 +1,116 @@
+package com.vehicleinventory.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.vehicleinventory.cache.CustomerSnapshot;
+import com.vehicleinventory.dedup.DuplicateCustomerFinder;
+import com.vehicleinventory.dedup.DuplicateScan;
+import com.vehicleinventory.dedup.MergeSuggestion;
+import com.vehicleinventory.entity.CustomerAccount;
+
+// speed and accuracy of the duplicate customer scan, run with
+//   java -cp <app classpath> com.vehicleinventory.bench.DuplicateCustomerBenchmark [customers] [duplicate %] [threshold]
+// duplicates are copies of a generated customer with a typo in one name, a new email or a reformatted phone;
+// a suggestion is correct when both accounts come from the same generated person
+public final class DuplicateCustomerBenchmark {
+
+	private static final String[] FIRST_NAMES = { "JAMES", "MARY", "ROBERT", "PATRICIA", "JOHN", "JENNIFER", "MICHAEL", "LINDA",
+			"DAVID", "ELIZABETH", "WILLIAM", "BARBARA", "RICHARD", "SUSAN", "JOSEPH", "JESSICA", "THOMAS", "SARAH", "CARLOS", "MARIA",
+			"DANIEL", "KAREN", "MATTHEW", "NANCY", "ANTHONY", "LISA", "MARK", "BETTY", "DONALD", "SANDRA", "STEVEN", "ASHLEY" };
+	private static final String[] STREETS = { "MAIN ST", "OAK AVE", "PINE RD", "MAPLE DR", "CEDAR LN", "ELM ST", "LAKE BLVD", "HILL CT" };
+	private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	private DuplicateCustomerBenchmark() {}
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		double duplicateShare = (args.length > 1 ? Double.parseDouble(args[1]) : 5) / 100;
+		double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DuplicateCustomerFinder.DEFAULT_THRESHOLD;
+
+		Random random = new Random(42);
+		// customerId -> generated person, duplicates share the person of the account they copy
+		Map<Integer, Integer> personOf = new HashMap<>(count * 2);
+		List<CustomerAccount> accounts = generate(count, duplicateShare, random, personOf);
+		CustomerSnapshot customers = CustomerSnapshot.of(accounts);
+		int duplicates = count - (int) personOf.values().stream().distinct().count();
+
+		// one warm-up scan, then the timed one
+		DuplicateCustomerFinder.find(customers, threshold);
+		DuplicateScan scan = DuplicateCustomerFinder.find(customers, threshold);
+
+		int correct = 0;
+		for (MergeSuggestion suggestion : scan.getSuggestions()) {
+			if (personOf.get(suggestion.getDuplicateId()).equals(personOf.get(suggestion.getSurvivorId()))) {
+				correct++;
+			}
+		}
+		int found = scan.getSuggestions().size();
+		System.out.printf("%,d customers, %,d planted duplicates, threshold %.2f%n", count, duplicates, threshold);
+		System.out.printf("%,d blocks (%,d oversized), %,d pairs compared in %,d ms%n",
+				scan.getBlocks(), scan.getOversizedBlocks(), scan.getComparisons(), scan.getElapsedMillis());
+		System.out.printf("%,d suggestions, precision %.3f, recall %.3f%n",
+				found, found == 0 ? 0 : (double) correct / found, duplicates == 0 ? 0 : (double) correct / duplicates);
+	}
+
+	private static List<CustomerAccount> generate(int count, double duplicateShare, Random random, Map<Integer, Integer> personOf) {
+		List<CustomerAccount> accounts = new ArrayList<>(count);
+		for (int id = 1; id <= count; id++) {
+			if (id > 1 && random.nextDouble() < duplicateShare) {
+				CustomerAccount original = accounts.get(random.nextInt(accounts.size()));
+				accounts.add(duplicate(id, original, random));
+				personOf.put(id, personOf.get(original.getCustomerId()));
+			} else {
+				accounts.add(person(id, random));
+				personOf.put(id, id);
+			}
+		}
+		return accounts;
+	}
+
+	// last names are random syllables so the name blocks are as varied as a real customer table
+	private static CustomerAccount person(int id, Random random) {
+		String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+		StringBuilder last = new StringBuilder();
+		for (int syllables = 2 + random.nextInt(2); syllables > 0; syllables--) {
+			last.append(LETTERS.charAt(random.nextInt(26))).append("AEIOU".charAt(random.nextInt(5)));
+		}
+		last.append(LETTERS.charAt(random.nextInt(26)));
+		String phone = String.format("%03d%07d", 200 + random.nextInt(800), random.nextInt(10000000));
+		String email = first.toLowerCase() + "." + last.toString().toLowerCase() + random.nextInt(1000) + "@example.com";
+		String address = (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)];
+		return new CustomerAccount(id, "user" + id, null, first, last.toString(), email, phone, address);
+	}
+
+	private static CustomerAccount duplicate(int id, CustomerAccount original, Random random) {
+		String first = original.getFirstName();
+		String last = original.getLastName();
+		String email = original.getEmailAddress();
+		String phone = original.getPhoneNumber();
+		switch (random.nextInt(4)) {
+			case 0: first = typo(first, random); break;
+			case 1: last = typo(last, random); break;
+			case 2: email = "new" + random.nextInt(100000) + "@example.org"; break;
+			default: phone = "(" + phone.substring(0, 3) + ") " + phone.substring(3, 6) + "-" + phone.substring(6); break;
+		}
+		return new CustomerAccount(id, "user" + id, null, first, last, email, phone, original.getMailingAddress());
+	}
+
+	// swaps two neighbouring letters or replaces one
+	private static String typo(String value, Random random) {
+		char[] chars = value.toCharArray();
+		int at = 1 + random.nextInt(chars.length - 2);
+		if (random.nextBoolean()) {
+			char swap = chars[at];
+			chars[at] = chars[at + 1];
+			chars[at + 1] = swap;
+		} else {
+			chars[at] = LETTERS.charAt(random.nextInt(26));
+		}
+		return new String(chars);
+	}
+
+}
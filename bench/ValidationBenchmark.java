@@ -0,0 +1,153 @@
+package com.vehicleinventory.bench;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.entity.VinCheck;
+import com.vehicleinventory.validation.CompiledValidator;
+import com.vehicleinventory.validation.FieldViolation;
+
+// compiled validators against Bean Validation, run with
+//   java -cp <app classpath> com.vehicleinventory.bench.ValidationBenchmark [beans] [rounds]
+// about a fifth of the generated vehicles and customers break one or more constraints; every bean must get the same
+// field/message pairs from both validators before anything is timed
+public final class ValidationBenchmark {
+
+	private static final String[] MAKES = { "HONDA", "TOYOTA", "FORD", "CHEVROLET", "NISSAN", "SUBARU", "BMW", "KIA" };
+	private static final String[] COLORS = { "BLACK", "WHITE", "SILVER", "GRAY", "RED", "BLUE" };
+	private static final char[] VIN_CHARS = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ".toCharArray();
+
+	private ValidationBenchmark() {}
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		Random random = new Random(42);
+		List<Vehicle> vehicles = vehicles(count, random);
+		List<CustomerAccount> customers = customers(count, random);
+
+		try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+			Validator beanValidator = factory.getValidator();
+			CompiledValidator<Vehicle> vehicleValidator = CompiledValidator.compile(Vehicle.class, () -> beanValidator);
+			CompiledValidator<CustomerAccount> customerValidator = CompiledValidator.compile(CustomerAccount.class, () -> beanValidator);
+
+			int mismatches = compare(vehicles, vehicleValidator, beanValidator) + compare(customers, customerValidator, beanValidator);
+			if (mismatches > 0) {
+				System.out.printf("%,d beans validated differently%n", mismatches);
+				System.exit(1);
+			}
+
+			// one warm-up round each, then the timed ones
+			time("vehicles, bean validation", vehicles, rounds, bean -> beanValidator.validate(bean).size());
+			time("vehicles, compiled", vehicles, rounds, bean -> vehicleValidator.validate(bean, (field, code, message) -> {}));
+			time("customers, bean validation", customers, rounds, bean -> beanValidator.validate(bean).size());
+			time("customers, compiled", customers, rounds, bean -> customerValidator.validate(bean, (field, code, message) -> {}));
+		}
+	}
+
+	private interface Check<T> {
+		int violations(T bean);
+	}
+
+	private static <T> void time(String label, List<T> beans, int rounds, Check<T> check) {
+		long violations = 0;
+		for (T bean : beans) {
+			violations += check.violations(bean);
+		}
+		long started = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			for (T bean : beans) {
+				violations += check.violations(bean);
+			}
+		}
+		long nanos = System.nanoTime() - started;
+		System.out.printf("%-28s %,12.0f beans/s  (%,d violations)%n", label,
+				(double) beans.size() * rounds * 1_000_000_000L / nanos, violations / (rounds + 1));
+	}
+
+	private static <T> int compare(List<T> beans, CompiledValidator<T> compiled, Validator beanValidator) {
+		int mismatches = 0;
+		for (T bean : beans) {
+			Set<String> expected = new HashSet<>();
+			for (ConstraintViolation<T> violation : beanValidator.validate(bean)) {
+				expected.add(violation.getPropertyPath() + " " + violation.getMessage());
+			}
+			Set<String> actual = new HashSet<>();
+			for (FieldViolation violation : compiled.validate(bean)) {
+				actual.add(violation.toString());
+			}
+			if (!expected.equals(actual)) {
+				if (mismatches == 0) {
+					System.out.println("expected " + expected + " but was " + actual);
+				}
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
+	private static List<Vehicle> vehicles(int count, Random random) {
+		List<Vehicle> vehicles = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			boolean broken = random.nextInt(5) == 0;
+			String vin = vin(random);
+			String make = MAKES[random.nextInt(MAKES.length)];
+			int year = 1995 + random.nextInt(27);
+			int mileage = random.nextInt(200000);
+			double price = 5000 + random.nextInt(60000);
+			if (broken) {
+				switch (random.nextInt(5)) {
+					case 0: vin = vin.substring(0, 8) + (vin.charAt(8) == 'X' ? '0' : 'X') + vin.substring(9); break;
+					case 1: vin = vin.substring(0, 12); break;
+					case 2: make = null; break;
+					case 3: year = 1850; mileage = 900000; break;
+					default: price = -1; break;
+				}
+			}
+			vehicles.add(new Vehicle(vin, make, "MODEL", year, COLORS[random.nextInt(COLORS.length)], COLORS[random.nextInt(COLORS.length)],
+					mileage, "USED", "CLEAN", "FWD", "AUTOMATIC", "GAS", price));
+		}
+		return vehicles;
+	}
+
+	private static String vin(Random random) {
+		char[] vin = new char[17];
+		for (int c = 0; c < vin.length; c++) {
+			vin[c] = VIN_CHARS[random.nextInt(VIN_CHARS.length)];
+		}
+		// a North American prefix so the check digit is enforced, and the right one
+		vin[0] = '1';
+		vin[8] = VinCheck.computeCheckDigit(new String(vin));
+		return new String(vin);
+	}
+
+	private static List<CustomerAccount> customers(int count, Random random) {
+		List<CustomerAccount> customers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String first = "JANE";
+			String email = "jane" + i + "@example.com";
+			String phone = String.format("%03d%07d", 200 + random.nextInt(800), random.nextInt(10000000));
+			if (random.nextInt(5) == 0) {
+				switch (random.nextInt(3)) {
+					case 0: email = "jane" + i + "@"; break;
+					case 1: phone = phone.substring(0, 7); break;
+					default: first = ""; break;
+				}
+			}
+			customers.add(new CustomerAccount(i + 1, "user" + i, null, first, "DOE", email, phone, "1 MAIN ST"));
+		}
+		return customers;
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.vehicleinventory.bench;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Random;
+
+import com.vehicleinventory.entity.Vehicle;
+
+// heap allocated while building vehicles through Vehicle.CarBuilder, run with
+//   java -cp <app classpath> com.vehicleinventory.bench.VehicleAllocationBenchmark [vehicles] [rounds]
+// the inputs are generated up front in mixed case, as forms and feeds send them. each build is compared with a bare
+// new Vehicle(), so anything above that is garbage made on the way; the run fails if that exceeds MAX_EXCESS per vehicle.
+// the builder itself does not count: once the loop is compiled it never leaves build() and is not allocated at all
+public final class VehicleAllocationBenchmark {
+
+	// bytes per vehicle above the entity itself that still pass, room for the odd TLAB refill being counted
+	private static final double MAX_EXCESS = 1.0;
+
+	private static final String[] MAKES = { "Honda", "toyota", "FORD", "Chevrolet", "nissan", "Subaru", "bmw", "Kia", "MAZDA", "Jeep" };
+	private static final String[] MODELS = { "Civic", "accord", "CAMRY", "Corolla", "f-150", "Escape", "SILVERADO", "malibu", "Altima",
+			"OUTBACK", "x3", "Sorento", "cx-5", "Wrangler", "RAV4", "explorer" };
+	private static final String[] COLORS = { "Black", "white", "SILVER", "Gray", "red", "BLUE", "Green" };
+	private static final String[] CONDITIONS = { "New", "used", "CERTIFIED" };
+	private static final String[] TITLES = { "Clean", "salvage", "REBUILT" };
+	private static final String[] DRIVETRAINS = { "fwd", "RWD", "Awd", "4wd" };
+	private static final String[] TRANSMISSIONS = { "Automatic", "manual", "CVT" };
+	private static final String[] FUELS = { "Gasoline", "diesel", "HYBRID", "Electric" };
+	private static final char[] VIN_CHARS = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ".toCharArray();
+
+	private VehicleAllocationBenchmark() {}
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		Inputs inputs = new Inputs(count, new Random(42));
+		Vehicle[] built = new Vehicle[count];
+
+		// warms up the JIT, and lets Vocabulary learn the models before anything is measured
+		for (int round = 0; round < rounds; round++) {
+			bare(built);
+			build(inputs, built);
+			buildLegacy(inputs, built);
+		}
+
+		long start = threads.getThreadAllocatedBytes(thread);
+		bare(built);
+		long bare = threads.getThreadAllocatedBytes(thread) - start;
+
+		start = threads.getThreadAllocatedBytes(thread);
+		build(inputs, built);
+		long builder = threads.getThreadAllocatedBytes(thread) - start;
+
+		start = threads.getThreadAllocatedBytes(thread);
+		buildLegacy(inputs, built);
+		long legacy = threads.getThreadAllocatedBytes(thread) - start;
+
+		System.out.printf("%,d vehicles%n", count);
+		System.out.printf("%-22s %16s %14s %14s%n", "construction", "bytes", "bytes/vehicle", "excess/vehicle");
+		print("new Vehicle()", bare, bare, count);
+		print("CarBuilder", builder, bare, count);
+		print("toUpperCase+BigDecimal", legacy, bare, count);
+
+		double excess = (double) (builder - bare) / count;
+		if (excess > MAX_EXCESS) {
+			System.err.printf("CarBuilder allocates %.1f bytes per vehicle beyond the entity%n", excess);
+			System.exit(1);
+		}
+	}
+
+	private static void print(String name, long bytes, long bare, int count) {
+		System.out.printf("%-22s %,16d %14.1f %14.1f%n", name, bytes, (double) bytes / count, (double) (bytes - bare) / count);
+	}
+
+	private static void bare(Vehicle[] built) {
+		for (int i = 0; i < built.length; i++) {
+			built[i] = new Vehicle();
+		}
+	}
+
+	private static void build(Inputs inputs, Vehicle[] built) {
+		for (int i = 0; i < built.length; i++) {
+			built[i] = new Vehicle.CarBuilder(inputs.vins[i], inputs.makes[i], inputs.models[i], inputs.years[i])
+					.color(inputs.exteriorColors[i], inputs.interiorColors[i])
+					.usageHist(inputs.mileages[i], inputs.titles[i], inputs.conditions[i])
+					.engine(inputs.drivetrains[i], inputs.transmissions[i], inputs.fuels[i])
+					.cost(inputs.prices[i])
+					.build();
+		}
+	}
+
+	// what the builder did before Vocabulary and Cents, for comparison
+	private static void buildLegacy(Inputs inputs, Vehicle[] built) {
+		for (int i = 0; i < built.length; i++) {
+			Vehicle car = new Vehicle();
+			car.setVehicleIdNumber(inputs.vins[i].toUpperCase(Locale.ROOT));
+			car.setYear(inputs.years[i]);
+			car.setMileage(inputs.mileages[i]);
+			car.setTitleStatus(inputs.titles[i].toUpperCase(Locale.ROOT));
+			car.setCondition(inputs.conditions[i].toUpperCase(Locale.ROOT));
+			car.setDrivetrainType(inputs.drivetrains[i].toUpperCase(Locale.ROOT));
+			car.setTransmissionType(inputs.transmissions[i].toUpperCase(Locale.ROOT));
+			car.setFuelType(inputs.fuels[i].toUpperCase(Locale.ROOT));
+			car.setPrice(BigDecimal.valueOf(inputs.prices[i]).setScale(2, RoundingMode.HALF_UP).doubleValue());
+			// the setters below go through Vocabulary now, so the old upper casing is reproduced on top of them
+			car.setMake(inputs.makes[i].toUpperCase(Locale.ROOT));
+			car.setModel(inputs.models[i].toUpperCase(Locale.ROOT));
+			car.setExteriorColor(inputs.exteriorColors[i].toUpperCase(Locale.ROOT));
+			car.setInteriorColor(inputs.interiorColors[i].toUpperCase(Locale.ROOT));
+			built[i] = car;
+		}
+	}
+
+	// ----------------------------------------------------------------------------------- >
+
+	private static final class Inputs {
+		final String[] vins, makes, models, exteriorColors, interiorColors, titles, conditions, drivetrains, transmissions, fuels;
+		final int[] years, mileages;
+		final double[] prices;
+
+		Inputs(int count, Random random) {
+			vins = new String[count];
+			makes = new String[count];
+			models = new String[count];
+			exteriorColors = new String[count];
+			interiorColors = new String[count];
+			titles = new String[count];
+			conditions = new String[count];
+			drivetrains = new String[count];
+			transmissions = new String[count];
+			fuels = new String[count];
+			years = new int[count];
+			mileages = new int[count];
+			prices = new double[count];
+			char[] vin = new char[17];
+			for (int i = 0; i < count; i++) {
+				for (int c = 0; c < vin.length; c++) {
+					vin[c] = VIN_CHARS[random.nextInt(VIN_CHARS.length)];
+				}
+				vins[i] = new String(vin);
+				makes[i] = pick(MAKES, random);
+				models[i] = pick(MODELS, random);
+				exteriorColors[i] = pick(COLORS, random);
+				interiorColors[i] = pick(COLORS, random);
+				titles[i] = pick(TITLES, random);
+				conditions[i] = pick(CONDITIONS, random);
+				drivetrains[i] = pick(DRIVETRAINS, random);
+				transmissions[i] = pick(TRANSMISSIONS, random);
+				fuels[i] = pick(FUELS, random);
+				years[i] = 1995 + random.nextInt(30);
+				mileages[i] = random.nextInt(200000);
+				prices[i] = 2000 + random.nextInt(60000000) / 1000.0;
+			}
+		}
+
+		private static String pick(String[] values, Random random) {
+			return values[random.nextInt(values.length)];
+		}
+	}
+
+}
@@ -0,0 +1,231 @@
+package com.vehicleinventory.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import com.vehicleinventory.cache.InventorySnapshot;
+import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.json.EntitySerializers;
+import com.vehicleinventory.json.JsonWriter;
+import com.vehicleinventory.sync.VehicleBatchCodec;
+
+// size and throughput of the /sync/vehicles formats, run with
+//   java -cp <app classpath> com.vehicleinventory.bench.VehicleSyncBenchmark [vehicles] [rounds]
+// both formats are encoded from the same InventorySnapshot the endpoint uses; the JSON side is decoded with a
+// minimal flat-object reader so the decode numbers are not dominated by a general purpose parser
+public final class VehicleSyncBenchmark {
+
+	private static final String[] MAKES = { "HONDA", "TOYOTA", "FORD", "CHEVROLET", "NISSAN", "SUBARU", "BMW", "KIA", "MAZDA", "JEEP" };
+	private static final String[] MODELS = { "CIVIC", "ACCORD", "CAMRY", "COROLLA", "F-150", "ESCAPE", "SILVERADO", "MALIBU", "ALTIMA",
+			"OUTBACK", "X3", "SORENTO", "CX-5", "WRANGLER", "RAV4", "EXPLORER" };
+	private static final String[] COLORS = { "BLACK", "WHITE", "SILVER", "GRAY", "RED", "BLUE", "GREEN" };
+	private static final String[] CONDITIONS = { "NEW", "USED", "CERTIFIED" };
+	private static final String[] TITLES = { "CLEAN", "SALVAGE", "REBUILT" };
+	private static final String[] DRIVETRAINS = { "FWD", "RWD", "AWD", "4WD" };
+	private static final String[] TRANSMISSIONS = { "AUTOMATIC", "MANUAL", "CVT" };
+	private static final String[] FUELS = { "GASOLINE", "DIESEL", "HYBRID", "ELECTRIC" };
+	private static final char[] VIN_CHARS = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ".toCharArray();
+
+	private VehicleSyncBenchmark() {}
+
+	public static void main(String[] args) throws IOException {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		InventorySnapshot snapshot = InventorySnapshot.of(generate(count, new Random(42)));
+		byte[] json = encodeJson(snapshot);
+		byte[] binary = encodeBinary(snapshot);
+
+		System.out.printf("%,d vehicles%n", count);
+		System.out.printf("%-8s %14s %14s %12s%n", "format", "bytes", "gzip bytes", "bytes/row");
+		System.out.printf("%-8s %,14d %,14d %12.1f%n", "json", json.length, gzipSize(json), (double) json.length / count);
+		System.out.printf("%-8s %,14d %,14d %12.1f%n", "binary", binary.length, gzipSize(binary), (double) binary.length / count);
+
+		// first half of the rounds warms up the JIT, only the second half is timed
+		int warmup = Math.max(1, rounds / 2);
+		long jsonEncode = 0, binaryEncode = 0, jsonDecode = 0, binaryDecode = 0;
+		for (int round = 0; round < warmup + rounds; round++) {
+			boolean timed = round >= warmup;
+			long start = System.nanoTime();
+			encodeJson(snapshot);
+			long afterJsonEncode = System.nanoTime();
+			encodeBinary(snapshot);
+			long afterBinaryEncode = System.nanoTime();
+			check(JsonBatchReader.read(json), count);
+			long afterJsonDecode = System.nanoTime();
+			check(VehicleBatchCodec.decode(new ByteArrayInputStream(binary)), count);
+			long afterBinaryDecode = System.nanoTime();
+			if (timed) {
+				jsonEncode += afterJsonEncode - start;
+				binaryEncode += afterBinaryEncode - afterJsonEncode;
+				jsonDecode += afterJsonDecode - afterBinaryEncode;
+				binaryDecode += afterBinaryDecode - afterJsonDecode;
+			}
+		}
+
+		System.out.printf("%n%-8s %18s %18s%n", "format", "encode rows/s", "decode rows/s");
+		System.out.printf("%-8s %,18.0f %,18.0f%n", "json", rowsPerSecond(count, rounds, jsonEncode), rowsPerSecond(count, rounds, jsonDecode));
+		System.out.printf("%-8s %,18.0f %,18.0f%n", "binary", rowsPerSecond(count, rounds, binaryEncode), rowsPerSecond(count, rounds, binaryDecode));
+	}
+
+	private static List<Vehicle> generate(int count, Random random) {
+		List<Vehicle> vehicles = new ArrayList<>(count);
+		char[] vin = new char[17];
+		for (int i = 0; i < count; i++) {
+			for (int c = 0; c < vin.length; c++) {
+				vin[c] = VIN_CHARS[random.nextInt(VIN_CHARS.length)];
+			}
+			vehicles.add(new Vehicle.CarBuilder(new String(vin), pick(MAKES, random), pick(MODELS, random), 1995 + random.nextInt(30))
+					.color(pick(COLORS, random), pick(COLORS, random))
+					.usageHist(random.nextInt(200000), pick(TITLES, random), pick(CONDITIONS, random))
+					.engine(pick(DRIVETRAINS, random), pick(TRANSMISSIONS, random), pick(FUELS, random))
+					.cost(2000 + random.nextInt(6000000) / 100.0)
+					.build());
+		}
+		return vehicles;
+	}
+
+	private static String pick(String[] values, Random random) {
+		return values[random.nextInt(values.length)];
+	}
+
+	// the same envelope SyncController writes
+	private static byte[] encodeJson(InventorySnapshot snapshot) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.size() * 320);
+		Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+		JsonWriter out = new JsonWriter(writer);
+		int[] selection = EntitySerializers.VEHICLE.select(null);
+		out.raw("{\"total\":").number(snapshot.size()).raw(",\"items\":[");
+		for (int row = 0; row < snapshot.size(); row++) {
+			if (row > 0) {
+				out.raw(',');
+			}
+			EntitySerializers.VEHICLE.write(snapshot.toVehicle(row), selection, out);
+		}
+		out.raw("]}");
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static byte[] encodeBinary(InventorySnapshot snapshot) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.size() * 48);
+		VehicleBatchCodec.encode(snapshot, bytes);
+		return bytes.toByteArray();
+	}
+
+	private static int gzipSize(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(data);
+		}
+		return bytes.size();
+	}
+
+	private static void check(List<Vehicle> decoded, int count) {
+		if (decoded.size() != count) {
+			throw new IllegalStateException("Decoded " + decoded.size() + " vehicles, expected " + count);
+		}
+	}
+
+	private static double rowsPerSecond(int count, int rounds, long nanos) {
+		return (double) count * rounds / (nanos / 1e9);
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// reads the "items" array of flat objects written by EntitySerializers.VEHICLE, nothing more general
+
+	private static final class JsonBatchReader {
+		private final String text;
+		private int position;
+
+		private JsonBatchReader(String text) {
+			this.text = text;
+		}
+
+		static List<Vehicle> read(byte[] json) {
+			JsonBatchReader reader = new JsonBatchReader(new String(json, StandardCharsets.UTF_8));
+			reader.position = reader.text.indexOf("\"items\":[") + 9;
+			List<Vehicle> vehicles = new ArrayList<>();
+			while (reader.text.charAt(reader.position) == '{') {
+				vehicles.add(reader.readVehicle());
+				if (reader.text.charAt(reader.position) == ',') {
+					reader.position++;
+				}
+			}
+			return vehicles;
+		}
+
+		private Vehicle readVehicle() {
+			Vehicle car = new Vehicle();
+			position++;
+			while (text.charAt(position) != '}') {
+				String name = readString();
+				position++;
+				switch (name) {
+					case "vin": car.setVehicleIdNumber(readString()); break;
+					case "make": car.setMake(readString()); break;
+					case "model": car.setModel(readString()); break;
+					case "year": car.setYear((int) readNumber()); break;
+					case "exteriorColor": car.setExteriorColor(readString()); break;
+					case "interiorColor": car.setInteriorColor(readString()); break;
+					case "mileage": car.setMileage((int) readNumber()); break;
+					case "condition": car.setCondition(readString()); break;
+					case "titleStatus": car.setTitleStatus(readString()); break;
+					case "drivetrain": car.setDrivetrainType(readString()); break;
+					case "transmission": car.setTransmissionType(readString()); break;
+					case "fuel": car.setFuelType(readString()); break;
+					case "price": car.setPrice(readNumber()); break;
+					default: skipValue();
+				}
+				if (text.charAt(position) == ',') {
+					position++;
+				}
+			}
+			position++;
+			return car;
+		}
+
+		// the generated data has no escapes, a \ is rejected rather than decoded
+		private String readString() {
+			if (text.startsWith("null", position)) {
+				position += 4;
+				return null;
+			}
+			int start = position + 1;
+			int end = start;
+			while (text.charAt(end) != '"') {
+				if (text.charAt(end) == '\\') {
+					throw new IllegalStateException("Escaped strings are not supported by the benchmark reader");
+				}
+				end++;
+			}
+			position = end + 1;
+			return text.substring(start, end);
+		}
+
+		private double readNumber() {
+			int start = position;
+			while (",}".indexOf(text.charAt(position)) < 0) {
+				position++;
+			}
+			return Double.parseDouble(text.substring(start, position));
+		}
+
+		private void skipValue() {
+			if (text.charAt(position) == '"' || text.startsWith("null", position)) {
+				readString();
+			} else {
+				readNumber();
+			}
+		}
+	}
+
+}
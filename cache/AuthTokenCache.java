@@ -0,0 +1,137 @@
+package com.vehicleinventory.cache;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.service.CustomerChangeEvent;
+import com.vehicleinventory.service.CustomerPrincipal;
+
+// portal session tokens, so an authenticated request is a map lookup instead of a CustomerAccountDAO query
+//
+// tokens are random and only live here: a restart logs every customer out. each lookup pushes the expiry forward
+// by auth.token.ttlMinutes, expired tokens are dropped on lookup and swept every SWEEP_INTERVAL issues
+// at most auth.token.maxTokens are kept: an issue that finds the map full sweeps it and, if that frees nothing,
+// drops the EVICT_SHARE of tokens closest to expiry (the ones idle longest), whose customers have to log in again
+@Component
+public class AuthTokenCache {
+
+	private static final int TOKEN_BYTES = 32;
+	private static final int SWEEP_INTERVAL = 1024;
+	private static final int EVICT_SHARE = 16;
+
+	@Value("${auth.token.ttlMinutes:30}")
+	private long ttlMinutes;
+
+	@Value("${auth.token.maxTokens:100000}")
+	private int maxTokens;
+
+	private final ConcurrentHashMap<String, CustomerPrincipal> tokens = new ConcurrentHashMap<>();
+	private final SecureRandom random = new SecureRandom();
+	private final AtomicInteger issued = new AtomicInteger();
+
+	public String issue(CustomerAccount account, long now) {
+		if (issued.incrementAndGet() % SWEEP_INTERVAL == 0 || tokens.size() >= maxTokens) {
+			sweep(now);
+			if (tokens.size() >= maxTokens) {
+				evictIdlest();
+			}
+		}
+		byte[] bytes = new byte[TOKEN_BYTES];
+		random.nextBytes(bytes);
+		String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+		tokens.put(token, new CustomerPrincipal(account.getCustomerId(), account.getUsername(),
+				account.getFirstName(), account.getLastName(), now + ttlMillis()));
+		return token;
+	}
+
+	// null for unknown or expired tokens
+	public CustomerPrincipal lookup(String token, long now) {
+		if (token == null) {
+			return null;
+		}
+		CustomerPrincipal principal = tokens.get(token);
+		if (principal == null) {
+			return null;
+		}
+		if (principal.getExpiresAt() <= now) {
+			tokens.remove(token, principal);
+			return null;
+		}
+		principal.setExpiresAt(now + ttlMillis());
+		return principal;
+	}
+
+	public void revoke(String token) {
+		if (token != null) {
+			tokens.remove(token);
+		}
+	}
+
+	public void revokeCustomer(int customerId) {
+		tokens.values().removeIf(principal -> principal.getCustomerId() == customerId);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCustomerChange(CustomerChangeEvent event) {
+		if (endsSessions(event)) {
+			revokeCustomer(event.getCustomerId());
+		}
+	}
+
+	// a deleted or merged account or a new password ends every session of that customer
+	public static boolean endsSessions(CustomerChangeEvent event) {
+		switch (event.getChangeType()) {
+			case SAVED:
+				String newPassword = event.getAccount().getNewPassword();
+				return newPassword != null && !newPassword.isEmpty();
+			case DELETED:
+			case MERGED:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private void sweep(long now) {
+		for (Iterator<CustomerPrincipal> it = tokens.values().iterator(); it.hasNext();) {
+			if (it.next().getExpiresAt() <= now) {
+				it.remove();
+			}
+		}
+	}
+
+	// one pass to find the expiry EVICT_SHARE of the tokens fall under, one to drop them
+	private synchronized void evictIdlest() {
+		if (tokens.size() < maxTokens) {
+			return;
+		}
+		long[] expiries = new long[tokens.size()];
+		int count = 0;
+		for (CustomerPrincipal principal : tokens.values()) {
+			if (count == expiries.length) {
+				break;
+			}
+			expiries[count++] = principal.getExpiresAt();
+		}
+		if (count == 0) {
+			return;
+		}
+		Arrays.sort(expiries, 0, count);
+		long threshold = expiries[Math.min(count - 1, Math.max(1, count / EVICT_SHARE) - 1)];
+		tokens.values().removeIf(principal -> principal.getExpiresAt() <= threshold);
+	}
+
+	private long ttlMillis() {
+		return ttlMinutes * 60000;
+	}
+
+}
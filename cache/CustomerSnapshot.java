@@ -0,0 +1,233 @@
+package com.vehicleinventory.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vehicleinventory.entity.CustomerAccount;
+
+// read-only columnar copy of the CustomerAccounts table, the customer side of InventorySnapshot
+// passwords are deliberately left out, the snapshot is written to disk by SnapshotFile
+// accounts merged into another (mergedInto set) are left out as well, they are only kept for undoing a merge by hand
+public final class CustomerSnapshot {
+
+	private final int size;
+	private final int[] ids;
+	private final String[] usernames;
+	private final String[] firstNames;
+	private final String[] lastNames;
+	private final String[] emails;
+	private final String[] phones;
+	private final String[] addresses;
+	private final Map<Integer, Integer> rowsById;
+
+	CustomerSnapshot(int[] ids, String[] usernames, String[] firstNames, String[] lastNames, String[] emails, String[] phones, String[] addresses) {
+		this.size = ids.length;
+		this.ids = ids;
+		this.usernames = usernames;
+		this.firstNames = firstNames;
+		this.lastNames = lastNames;
+		this.emails = emails;
+		this.phones = phones;
+		this.addresses = addresses;
+		this.rowsById = new HashMap<>(Math.max(16, size * 2));
+		for (int row = 0; row < size; row++) {
+			rowsById.put(ids[row], row);
+		}
+	}
+
+	public static CustomerSnapshot empty() {
+		return of(new ArrayList<>());
+	}
+
+	public static CustomerSnapshot of(List<CustomerAccount> all) {
+		List<CustomerAccount> accounts = new ArrayList<>(all.size());
+		for (CustomerAccount account : all) {
+			if (account.getMergedInto() == null) {
+				accounts.add(account);
+			}
+		}
+		int size = accounts.size();
+		int[] ids = new int[size];
+		String[] usernames = new String[size];
+		String[] firstNames = new String[size];
+		String[] lastNames = new String[size];
+		String[] emails = new String[size];
+		String[] phones = new String[size];
+		String[] addresses = new String[size];
+
+		for (int row = 0; row < size; row++) {
+			CustomerAccount account = accounts.get(row);
+			ids[row] = account.getCustomerId();
+			usernames[row] = account.getUsername();
+			firstNames[row] = account.getFirstName();
+			lastNames[row] = account.getLastName();
+			emails[row] = account.getEmailAddress();
+			phones[row] = account.getPhoneNumber();
+			addresses[row] = account.getMailingAddress();
+		}
+		return new CustomerSnapshot(ids, usernames, firstNames, lastNames, emails, phones, addresses);
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// patching, returns a copy like InventorySnapshot does
+
+	public CustomerSnapshot withSaved(CustomerAccount account) {
+		if (account.getMergedInto() != null) {
+			return withDeleted(account.getCustomerId());
+		}
+		Integer existing = rowsById.get(account.getCustomerId());
+		int row = existing == null ? size : existing;
+		int newSize = existing == null ? size + 1 : size;
+
+		int[] newIds = Arrays.copyOf(ids, newSize);
+		String[] newUsernames = Arrays.copyOf(usernames, newSize);
+		String[] newFirstNames = Arrays.copyOf(firstNames, newSize);
+		String[] newLastNames = Arrays.copyOf(lastNames, newSize);
+		String[] newEmails = Arrays.copyOf(emails, newSize);
+		String[] newPhones = Arrays.copyOf(phones, newSize);
+		String[] newAddresses = Arrays.copyOf(addresses, newSize);
+
+		newIds[row] = account.getCustomerId();
+		newUsernames[row] = account.getUsername();
+		newFirstNames[row] = account.getFirstName();
+		newLastNames[row] = account.getLastName();
+		newEmails[row] = account.getEmailAddress();
+		newPhones[row] = account.getPhoneNumber();
+		newAddresses[row] = account.getMailingAddress();
+
+		return new CustomerSnapshot(newIds, newUsernames, newFirstNames, newLastNames, newEmails, newPhones, newAddresses);
+	}
+
+	public CustomerSnapshot withDeleted(int customerId) {
+		Integer row = rowsById.get(customerId);
+		if (row == null) {
+			return this;
+		}
+		int last = size - 1;
+		int[] newIds = ids.clone();
+		String[][] columns = { usernames.clone(), firstNames.clone(), lastNames.clone(), emails.clone(), phones.clone(), addresses.clone() };
+		newIds[row] = newIds[last];
+		for (String[] column : columns) {
+			column[row] = column[last];
+		}
+
+		return new CustomerSnapshot(Arrays.copyOf(newIds, last), Arrays.copyOf(columns[0], last), Arrays.copyOf(columns[1], last),
+				Arrays.copyOf(columns[2], last), Arrays.copyOf(columns[3], last), Arrays.copyOf(columns[4], last), Arrays.copyOf(columns[5], last));
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// column access
+
+	public int size() {
+		return size;
+	}
+
+	public int row(int customerId) {
+		Integer row = rowsById.get(customerId);
+		return row == null ? -1 : row;
+	}
+
+	public int id(int row) {
+		return ids[row];
+	}
+
+	public String username(int row) {
+		return usernames[row];
+	}
+
+	public String firstName(int row) {
+		return firstNames[row];
+	}
+
+	public String lastName(int row) {
+		return lastNames[row];
+	}
+
+	public String email(int row) {
+		return emails[row];
+	}
+
+	public String phone(int row) {
+		return phones[row];
+	}
+
+	public String address(int row) {
+		return addresses[row];
+	}
+
+	// whole columns without copying, for SnapshotFile only, in constructor order after the ids
+	int[] idColumn() {
+		return ids;
+	}
+
+	String[][] stringColumns() {
+		return new String[][] { usernames, firstNames, lastNames, emails, phones, addresses };
+	}
+
+	// same order as CustomerAccountDAOImp.getCustomerAccounts
+	public int[] rowsByLastName() {
+		Integer[] rows = new Integer[size];
+		for (int row = 0; row < size; row++) {
+			rows[row] = row;
+		}
+		Arrays.sort(rows, Comparator.comparing((Integer row) -> lastNames[row], Comparator.nullsLast(Comparator.naturalOrder())));
+
+		int[] sorted = new int[size];
+		for (int i = 0; i < size; i++) {
+			sorted[i] = rows[i];
+		}
+		return sorted;
+	}
+
+	// rows of a /listAccounts page, filtered and ordered like CustomerAccountDAOImp's list query: lastName is a prefix,
+	// sort is lastName (then firstName), email or id and always ends with the customerId. text compares ignoring case
+	// with nulls first, as MySQL's default collation does, so the snapshot and the SQL fallback page alike
+	public int[] listRows(String lastNamePrefix, String email, String phone, String sort, boolean ascending) {
+		List<Integer> rows = new ArrayList<>();
+		for (int row = 0; row < size; row++) {
+			if ((lastNamePrefix == null || (lastNames[row] != null
+							&& lastNames[row].regionMatches(true, 0, lastNamePrefix, 0, lastNamePrefix.length())))
+					&& (email == null || email.equalsIgnoreCase(emails[row]))
+					&& (phone == null || phone.equals(phones[row]))) {
+				rows.add(row);
+			}
+		}
+
+		Comparator<String> text = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+		Comparator<Integer> order;
+		if ("email".equals(sort)) {
+			order = Comparator.comparing((Integer row) -> emails[row], text);
+		} else if ("id".equals(sort)) {
+			order = (a, b) -> 0;
+		} else {
+			order = Comparator.comparing((Integer row) -> lastNames[row], text).thenComparing(row -> firstNames[row], text);
+		}
+		order = order.thenComparingInt(row -> ids[row]);
+		rows.sort(ascending ? order : order.reversed());
+
+		int[] sorted = new int[rows.size()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = rows.get(i);
+		}
+		return sorted;
+	}
+
+	public CustomerAccount toCustomerAccount(int row) {
+		CustomerAccount account = new CustomerAccount(ids[row], usernames[row], null, firstNames[row], lastNames[row],
+				emails[row], phones[row], addresses[row]);
+		return account;
+	}
+
+	public List<CustomerAccount> toCustomerAccounts(int[] rows) {
+		List<CustomerAccount> accounts = new ArrayList<>(rows.length);
+		for (int row : rows) {
+			accounts.add(toCustomerAccount(row));
+		}
+		return accounts;
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.vehicleinventory.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.dao.ChangeLog;
+import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.service.VehicleService;
+import com.vehicleinventory.tenant.TenantContext;
+
+// a customer's finance records and vehicles, read in the background as soon as their account page is opened
+//
+// the account page links to the financed vehicles page, so the records are loaded while the user is still on the
+// account and that click is answered without a statement. a prefetched list is handed out once, and only if no write
+// was logged on this node since it was read (the ChangeLog sequence) and it is younger than finance.prefetch.ttlSeconds,
+// which bounds how long a write made on another node can go unseen
+// prefetching is best effort: with the queue full a prefetch is dropped, and a miss loads the page as before
+@Component
+public class FinanceDetailsPrefetch {
+
+	private static final Logger LOGGER = Logger.getLogger(FinanceDetailsPrefetch.class.getName());
+
+	// prefetches waiting per loader thread before new ones are dropped
+	private static final int QUEUE_PER_THREAD = 16;
+
+	@Autowired
+	VehicleService vehicleService;
+
+	@Autowired
+	ChangeLog changeLog;
+
+	@Value("${finance.prefetch.ttlSeconds:30}")
+	private long ttlSeconds;
+
+	@Value("${finance.prefetch.maxEntries:1000}")
+	private int maxEntries;
+
+	@Value("${finance.prefetch.threads:2}")
+	private int threads;
+
+	private ThreadPoolExecutor loaders;
+
+	// oldest first, guarded by itself
+	private final Map<Long, Prefetched> prefetched = new LinkedHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	private static final class Prefetched {
+		final long sequence;
+		final long loadedAt;
+		final List<FinanceRecord> records;
+
+		Prefetched(long sequence, long loadedAt, List<FinanceRecord> records) {
+			this.sequence = sequence;
+			this.loadedAt = loadedAt;
+			this.records = records;
+		}
+	}
+
+	@PostConstruct
+	public void start() {
+		int count = Math.max(1, threads);
+		AtomicInteger threadNumber = new AtomicInteger();
+		loaders = new ThreadPoolExecutor(count, count, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(count * QUEUE_PER_THREAD),
+				runnable -> {
+					Thread thread = new Thread(runnable, "finance-prefetch-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				(runnable, executor) -> dropped.increment());
+	}
+
+	@PreDestroy
+	public void stop() {
+		loaders.shutdownNow();
+	}
+
+	// starts loading the customer's records for the current lot, returns at once
+	public void prefetch(int customerId) {
+		Integer lotId = TenantContext.getLotId();
+		long key = key(lotId, customerId);
+		loaders.execute(() -> {
+			try {
+				// read before loading, so a write that lands during the load already makes the result stale
+				long sequence = changeLog.getLastSequence();
+				List<FinanceRecord> records = lotId == null
+						? vehicleService.getSingleCustomerFinancedVehicles(customerId)
+						: TenantContext.callAs(lotId, () -> vehicleService.getSingleCustomerFinancedVehicles(customerId));
+				store(key, new Prefetched(sequence, System.currentTimeMillis(), records));
+			} catch (RuntimeException e) {
+				LOGGER.log(Level.FINE, "Prefetch of finance records for customer " + customerId + " failed", e);
+			}
+		});
+	}
+
+	// the prefetched records if they are still current, otherwise null; either way the prefetch is used up
+	public List<FinanceRecord> take(int customerId) {
+		Prefetched entry;
+		synchronized (prefetched) {
+			entry = prefetched.remove(key(TenantContext.getLotId(), customerId));
+		}
+		if (entry == null || System.currentTimeMillis() - entry.loadedAt > ttlSeconds * 1000
+				|| entry.sequence != changeLog.getLastSequence()) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.records;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	private void store(long key, Prefetched entry) {
+		synchronized (prefetched) {
+			prefetched.remove(key);
+			prefetched.put(key, entry);
+			for (Iterator<Prefetched> it = prefetched.values().iterator(); it.hasNext() && prefetched.size() > maxEntries;) {
+				it.next();
+				it.remove();
+			}
+		}
+	}
+
+	// all lots is 0, lot ids start at 1
+	private static long key(Integer lotId, int customerId) {
+		return ((long) (lotId == null ? 0 : lotId) << 32) | (customerId & 0xffffffffL);
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.vehicleinventory.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+// bus between Tomcat nodes: every batch is POSTed to PATH on each peer, where InvalidationController hands it to receive
+//
+// each peer has its own sender thread, so a slow or dead node delays only its own batches. a batch is retried
+// RETRIES times with a growing pause; if a peer stays unreachable its snapshots go stale until it restarts, which
+// reloads them from the database anyway
+public class HttpInvalidationBus implements InvalidationBus {
+
+	private static final Logger LOGGER = Logger.getLogger(HttpInvalidationBus.class.getName());
+
+	public static final String PATH = "/internal/invalidations";
+	public static final String SECRET_HEADER = "X-Invalidation-Secret";
+
+	private static final int RETRIES = 3;
+	private static final long RETRY_PAUSE_MILLIS = 200;
+
+	private final List<Peer> peers = new CopyOnWriteArrayList<>();
+	private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+	private final String secret;
+	private final int timeoutMillis;
+
+	private static final class Peer {
+		final URL url;
+		final ExecutorService sender;
+
+		Peer(URL url) {
+			this.url = url;
+			this.sender = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "cache-invalidation-" + url.getHost() + ":" + url.getPort());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	// baseUrls are the application roots of the other nodes, e.g. http://node2:8080/VehicleInventoryMVC
+	public HttpInvalidationBus(List<String> baseUrls, String secret, int timeoutMillis) throws IOException {
+		for (String baseUrl : baseUrls) {
+			String root = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+			peers.add(new Peer(new URL(root + PATH)));
+		}
+		this.secret = secret;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	@Override
+	public void publish(Invalidation invalidation) {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try {
+			invalidation.write(body);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		byte[] bytes = body.toByteArray();
+		for (Peer peer : peers) {
+			peer.sender.execute(() -> send(peer, bytes));
+		}
+	}
+
+	@Override
+	public void subscribe(String nodeId, Consumer<Invalidation> listener) {
+		listeners.add(listener);
+	}
+
+	// a batch POSTed by another node
+	public void receive(Invalidation invalidation) {
+		for (Consumer<Invalidation> listener : listeners) {
+			listener.accept(invalidation);
+		}
+	}
+
+	public boolean acceptsSecret(String presented) {
+		return presented != null && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		for (Peer peer : peers) {
+			peer.sender.shutdownNow();
+		}
+	}
+
+	private void send(Peer peer, byte[] body) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				post(peer.url, body);
+				return;
+			} catch (IOException e) {
+				if (attempt > RETRIES) {
+					LOGGER.log(Level.WARNING, "Dropped cache invalidation for " + peer.url + " after " + attempt + " attempts", e);
+					return;
+				}
+			}
+			try {
+				Thread.sleep(RETRY_PAUSE_MILLIS * attempt);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void post(URL url, byte[] body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		try {
+			connection.setRequestMethod("POST");
+			connection.setConnectTimeout(timeoutMillis);
+			connection.setReadTimeout(timeoutMillis);
+			connection.setDoOutput(true);
+			connection.setFixedLengthStreamingMode(body.length);
+			connection.setRequestProperty("Content-Type", Invalidation.MEDIA_TYPE);
+			connection.setRequestProperty(SECRET_HEADER, secret);
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body);
+			}
+			int status = connection.getResponseCode();
+			if (status / 100 != 2) {
+				throw new IOException("HTTP " + status + " from " + url);
+			}
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.vehicleinventory.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// one batch of cache invalidations sent between application nodes, see InvalidationRelay
+//
+// it names keys only, never row contents: a receiving node reads the rows back from the shared database, so batches
+// arriving out of order or more than once still leave it with the committed data
+public final class Invalidation {
+
+	public static final String MEDIA_TYPE = "application/x-cache-invalidation";
+
+	private static final int VERSION = 1;
+
+	private final String origin;
+	private final List<String> vins;
+	private final List<Integer> customerIds;
+	// customers whose portal sessions end, see AuthTokenCache.endsSessions
+	private final List<Integer> revokedCustomerIds;
+
+	public Invalidation(String origin, Collection<String> vins, Collection<Integer> customerIds, Collection<Integer> revokedCustomerIds) {
+		this.origin = origin;
+		this.vins = Collections.unmodifiableList(new ArrayList<>(vins));
+		this.customerIds = Collections.unmodifiableList(new ArrayList<>(customerIds));
+		this.revokedCustomerIds = Collections.unmodifiableList(new ArrayList<>(revokedCustomerIds));
+	}
+
+	// node the batch was published on
+	public String getOrigin() {
+		return origin;
+	}
+
+	public List<String> getVins() {
+		return vins;
+	}
+
+	public List<Integer> getCustomerIds() {
+		return customerIds;
+	}
+
+	public List<Integer> getRevokedCustomerIds() {
+		return revokedCustomerIds;
+	}
+
+	public boolean isEmpty() {
+		return vins.isEmpty() && customerIds.isEmpty() && revokedCustomerIds.isEmpty();
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// wire format: version, origin, then each key list as a count followed by its keys
+
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeByte(VERSION);
+		data.writeUTF(origin);
+		data.writeInt(vins.size());
+		for (String vin : vins) {
+			data.writeUTF(vin);
+		}
+		writeIds(data, customerIds);
+		writeIds(data, revokedCustomerIds);
+		data.flush();
+	}
+
+	public static Invalidation read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int version = data.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported invalidation version " + version);
+		}
+		String origin = data.readUTF();
+		int vinCount = data.readInt();
+		List<String> vins = new ArrayList<>(vinCount);
+		for (int i = 0; i < vinCount; i++) {
+			vins.add(data.readUTF());
+		}
+		List<Integer> customerIds = readIds(data);
+		List<Integer> revokedCustomerIds = readIds(data);
+		return new Invalidation(origin, vins, customerIds, revokedCustomerIds);
+	}
+
+	private static void writeIds(DataOutputStream data, List<Integer> ids) throws IOException {
+		data.writeInt(ids.size());
+		for (int id : ids) {
+			data.writeInt(id);
+		}
+	}
+
+	private static List<Integer> readIds(DataInputStream data) throws IOException {
+		int count = data.readInt();
+		List<Integer> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add(data.readInt());
+		}
+		return ids;
+	}
+
+}
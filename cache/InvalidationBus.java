@@ -0,0 +1,13 @@
+package com.vehicleinventory.cache;
+
+import java.util.function.Consumer;
+
+// carries Invalidations between the application nodes, picked by InvalidationBusConfig
+public interface InvalidationBus {
+
+	// delivers to the subscribers of every other node, never back to the node named as the origin
+	void publish(Invalidation invalidation);
+
+	void subscribe(String nodeId, Consumer<Invalidation> listener);
+
+}
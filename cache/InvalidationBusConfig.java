@@ -0,0 +1,36 @@
+package com.vehicleinventory.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// cache.invalidation.peers lists the application roots of the other nodes, comma separated
+// with none the node runs alone on a LoopbackInvalidationBus, with peers batches go over HTTP and
+// cache.invalidation.secret must be set, the receiving endpoint refuses requests without it
+@Configuration
+public class InvalidationBusConfig {
+
+	@Bean
+	public InvalidationBus invalidationBus(@Value("${cache.invalidation.peers:}") String peers,
+			@Value("${cache.invalidation.secret:}") String secret,
+			@Value("${cache.invalidation.timeoutMillis:2000}") int timeoutMillis) throws IOException {
+		List<String> baseUrls = new ArrayList<>();
+		for (String peer : peers.split(",")) {
+			if (!peer.trim().isEmpty()) {
+				baseUrls.add(peer.trim());
+			}
+		}
+		if (baseUrls.isEmpty()) {
+			return new LoopbackInvalidationBus();
+		}
+		if (secret.isEmpty()) {
+			throw new IllegalStateException("cache.invalidation.secret must be set when cache.invalidation.peers is");
+		}
+		return new HttpInvalidationBus(baseUrls, secret, timeoutMillis);
+	}
+
+}
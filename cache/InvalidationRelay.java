@@ -0,0 +1,162 @@
+package com.vehicleinventory.cache;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.service.CustomerChangeEvent;
+import com.vehicleinventory.service.VehicleChangeEvent;
+import com.vehicleinventory.tenant.TenantContext;
+
+// keeps the snapshots and portal sessions of several nodes behind one load balancer coherent
+//
+// outgoing: the committed VehicleChangeEvents/CustomerChangeEvents of this node are collected as keys, a key written
+// many times is queued once, and the queue goes out as one Invalidation every cache.invalidation.flushMillis, or
+// sooner once it holds cache.invalidation.maxBatch keys
+// incoming: batches from other nodes are applied with InventorySnapshotHolder.refreshVehicles/refreshCustomers, which
+// patch the local snapshots directly and so raise no events of their own to be sent back
+@Component
+public class InvalidationRelay {
+
+	private static final Logger LOGGER = Logger.getLogger(InvalidationRelay.class.getName());
+
+	@Autowired
+	InvalidationBus invalidationBus;
+
+	@Autowired
+	InventorySnapshotHolder inventorySnapshotHolder;
+
+	@Autowired
+	AuthTokenCache authTokenCache;
+
+	// defaults to a random id, which is all the buses need to keep a node from receiving its own batches
+	@Value("${cache.invalidation.nodeId:}")
+	private String nodeId;
+
+	@Value("${cache.invalidation.flushMillis:50}")
+	private long flushMillis;
+
+	@Value("${cache.invalidation.maxBatch:1000}")
+	private int maxBatch;
+
+	private final Object lock = new Object();
+	private Set<String> pendingVins = new LinkedHashSet<>();
+	private Set<Integer> pendingCustomerIds = new LinkedHashSet<>();
+	private Set<Integer> pendingRevokedIds = new LinkedHashSet<>();
+
+	private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "cache-invalidation-flush");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@PostConstruct
+	public void start() {
+		if (nodeId.isEmpty()) {
+			nodeId = UUID.randomUUID().toString();
+		}
+		invalidationBus.subscribe(nodeId, this::apply);
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		flusher.shutdownNow();
+		flushQuietly();
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onVehicleChange(VehicleChangeEvent event) {
+		synchronized (lock) {
+			if (event.getChangeType() == VehicleChangeEvent.ChangeType.SAVED) {
+				for (Vehicle vehicle : event.getVehicles()) {
+					pendingVins.add(vehicle.getVehicleIdNumber());
+				}
+			} else {
+				pendingVins.addAll(event.getVins());
+			}
+			flushSoonIfFull();
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCustomerChange(CustomerChangeEvent event) {
+		synchronized (lock) {
+			pendingCustomerIds.add(event.getCustomerId());
+			if (AuthTokenCache.endsSessions(event)) {
+				pendingRevokedIds.add(event.getCustomerId());
+			}
+			flushSoonIfFull();
+		}
+	}
+
+	// sends whatever is queued now, without waiting for the next tick
+	public void flush() {
+		Invalidation invalidation;
+		synchronized (lock) {
+			invalidation = new Invalidation(nodeId, pendingVins, pendingCustomerIds, pendingRevokedIds);
+			pendingVins = new LinkedHashSet<>();
+			pendingCustomerIds = new LinkedHashSet<>();
+			pendingRevokedIds = new LinkedHashSet<>();
+		}
+		if (!invalidation.isEmpty()) {
+			invalidationBus.publish(invalidation);
+		}
+	}
+
+	// a batch from another node; runs across all lots because the keys may belong to any of them
+	void apply(Invalidation invalidation) {
+		try {
+			TenantContext.runAsAllLots(() -> {
+				inventorySnapshotHolder.refreshVehicles(invalidation.getVins());
+				inventorySnapshotHolder.refreshCustomers(invalidation.getCustomerIds());
+			});
+		} catch (RuntimeException e) {
+			// better to reload from the database on the next read than to keep serving rows we know are stale
+			LOGGER.log(Level.WARNING, "Could not apply cache invalidation from " + invalidation.getOrigin() + ", dropping snapshots", e);
+			inventorySnapshotHolder.invalidateAll();
+		}
+		for (int customerId : invalidation.getRevokedCustomerIds()) {
+			authTokenCache.revokeCustomer(customerId);
+		}
+	}
+
+	private void flushSoonIfFull() {
+		if (pendingVins.size() + pendingCustomerIds.size() >= maxBatch) {
+			try {
+				flusher.execute(this::flushQuietly);
+			} catch (RejectedExecutionException e) {
+				// shutting down, stop() sends the rest
+			}
+		}
+	}
+
+	// a failed flush must not cancel the schedule
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Cache invalidation flush failed", e);
+		}
+	}
+
+}
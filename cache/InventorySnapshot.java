@@ -0,0 +1,518 @@
+package com.vehicleinventory.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vehicleinventory.entity.Cents;
+import com.vehicleinventory.entity.CodeTable;
+import com.vehicleinventory.entity.CodedValue;
+import com.vehicleinventory.entity.CodedValues;
+import com.vehicleinventory.entity.Drivetrain;
+import com.vehicleinventory.entity.FuelType;
+import com.vehicleinventory.entity.TitleStatus;
+import com.vehicleinventory.entity.Transmission;
+import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.entity.VehicleCondition;
+
+// read-only columnar copy of the Cars table for filters, sorts and aggregates
+// every column is a primitive array indexed by row, strings are dictionary encoded into int codes
+// the snapshot is never modified, withSaved/withDeleted return a patched copy that readers pick up on their next call
+public final class InventorySnapshot {
+
+	// dictionary encoded String columns of Vehicle
+	// the CodedValue ones have a fixed dictionary, the enum's labels in code order, and a row holds the enum code - 1,
+	// so encoding them is arithmetic and filtering on them never goes through a dictionary's hash map
+	public enum Attribute {
+		MAKE(null), MODEL(null), EXTERIOR_COLOR(null), INTERIOR_COLOR(null),
+		CONDITION(VehicleCondition.CODES), TITLE_STATUS(TitleStatus.CODES), DRIVETRAIN(Drivetrain.CODES),
+		TRANSMISSION(Transmission.CODES), FUEL(FuelType.CODES);
+
+		private final CodeTable<?> codes;
+		private final StringDictionary fixed;
+
+		Attribute(CodeTable<?> codes) {
+			this.codes = codes;
+			if (codes == null) {
+				fixed = null;
+				return;
+			}
+			String[] labels = new String[codes.size()];
+			for (int code = 1; code <= codes.size(); code++) {
+				labels[code - 1] = codes.fromCode(code).getLabel();
+			}
+			fixed = StringDictionary.of(labels);
+		}
+
+		public boolean isCoded() {
+			return codes != null;
+		}
+
+		// dictionary code of a coded value, MISSING for null
+		int encode(CodedValue value) {
+			return value == null ? StringDictionary.MISSING : value.getCode() - 1;
+		}
+	}
+
+	private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+	private final int size;
+	private final String[] vins;
+	private final int[] years;
+	private final int[] mileages;
+	// whole cents, see Cents
+	private final long[] prices;
+	// codes[attribute.ordinal()][row]
+	private final int[][] codes;
+	private final StringDictionary[] dictionaries;
+	private final Map<String, Integer> rowsByVin;
+
+	private InventorySnapshot(int size, String[] vins, int[] years, int[] mileages, long[] prices, int[][] codes,
+			StringDictionary[] dictionaries, Map<String, Integer> rowsByVin) {
+		this.size = size;
+		this.vins = vins;
+		this.years = years;
+		this.mileages = mileages;
+		this.prices = prices;
+		this.codes = codes;
+		this.dictionaries = dictionaries;
+		this.rowsByVin = rowsByVin;
+	}
+
+	// used when the columns come from somewhere other than Vehicle objects (e.g. a snapshot file)
+	InventorySnapshot(String[] vins, int[] years, int[] mileages, long[] prices, int[][] codes, StringDictionary[] dictionaries) {
+		this(vins.length, vins, years, mileages, prices, codes, dictionaries, indexVins(vins, vins.length));
+	}
+
+	public static InventorySnapshot empty() {
+		return of(new ArrayList<>());
+	}
+
+	public static InventorySnapshot of(List<Vehicle> vehicles) {
+		int size = vehicles.size();
+		String[] vins = new String[size];
+		int[] years = new int[size];
+		int[] mileages = new int[size];
+		long[] prices = new long[size];
+		int[][] codes = new int[ATTRIBUTES.length][size];
+
+		StringDictionary.Builder[] builders = new StringDictionary.Builder[ATTRIBUTES.length];
+		for (Attribute attribute : ATTRIBUTES) {
+			if (!attribute.isCoded()) {
+				builders[attribute.ordinal()] = new StringDictionary.Builder();
+			}
+		}
+
+		for (int row = 0; row < size; row++) {
+			Vehicle car = vehicles.get(row);
+			vins[row] = car.getVehicleIdNumber();
+			years[row] = car.getYear();
+			mileages[row] = car.getMileage();
+			prices[row] = car.getPriceCents();
+			for (Attribute attribute : ATTRIBUTES) {
+				codes[attribute.ordinal()][row] = attribute.isCoded() ? attribute.encode(codedValue(car, attribute))
+						: builders[attribute.ordinal()].encode(attributeValue(car, attribute));
+			}
+		}
+
+		StringDictionary[] dictionaries = new StringDictionary[ATTRIBUTES.length];
+		for (Attribute attribute : ATTRIBUTES) {
+			dictionaries[attribute.ordinal()] = attribute.isCoded() ? attribute.fixed : builders[attribute.ordinal()].build();
+		}
+		return new InventorySnapshot(size, vins, years, mileages, prices, codes, dictionaries, indexVins(vins, size));
+	}
+
+	static String attributeValue(Vehicle car, Attribute attribute) {
+		switch (attribute) {
+			case MAKE: return car.getMake();
+			case MODEL: return car.getModel();
+			case EXTERIOR_COLOR: return car.getExteriorColor();
+			case INTERIOR_COLOR: return car.getInteriorColor();
+			default: return CodedValues.label(codedValue(car, attribute));
+		}
+	}
+
+	static CodedValue codedValue(Vehicle car, Attribute attribute) {
+		switch (attribute) {
+			case CONDITION: return car.getVehicleCondition();
+			case TITLE_STATUS: return car.getTitle();
+			case DRIVETRAIN: return car.getDrivetrain();
+			case TRANSMISSION: return car.getTransmission();
+			case FUEL: return car.getFuel();
+			default: throw new IllegalArgumentException(attribute + " is not a coded attribute");
+		}
+	}
+
+	private static Map<String, Integer> indexVins(String[] vins, int size) {
+		Map<String, Integer> rows = new HashMap<>(Math.max(16, size * 2));
+		for (int row = 0; row < size; row++) {
+			rows.put(vins[row], row);
+		}
+		return rows;
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// patching, each call copies the columns once no matter how many vehicles it applies
+
+	public InventorySnapshot withSaved(Collection<Vehicle> saved) {
+		int capacity = size + saved.size();
+		String[] newVins = Arrays.copyOf(vins, capacity);
+		int[] newYears = Arrays.copyOf(years, capacity);
+		int[] newMileages = Arrays.copyOf(mileages, capacity);
+		long[] newPrices = Arrays.copyOf(prices, capacity);
+		int[][] newCodes = new int[ATTRIBUTES.length][];
+		for (int a = 0; a < newCodes.length; a++) {
+			newCodes[a] = Arrays.copyOf(codes[a], capacity);
+		}
+		StringDictionary[] newDictionaries = dictionaries.clone();
+		Map<String, Integer> newRows = new HashMap<>(rowsByVin);
+
+		int newSize = size;
+		for (Vehicle car : saved) {
+			Integer existing = newRows.get(car.getVehicleIdNumber());
+			int row;
+			if (existing == null) {
+				row = newSize++;
+				newRows.put(car.getVehicleIdNumber(), row);
+			} else {
+				row = existing;
+			}
+			newVins[row] = car.getVehicleIdNumber();
+			newYears[row] = car.getYear();
+			newMileages[row] = car.getMileage();
+			newPrices[row] = car.getPriceCents();
+			for (Attribute attribute : ATTRIBUTES) {
+				if (attribute.isCoded()) {
+					newCodes[attribute.ordinal()][row] = attribute.encode(codedValue(car, attribute));
+					continue;
+				}
+				String value = attributeValue(car, attribute);
+				StringDictionary dictionary = newDictionaries[attribute.ordinal()].with(value);
+				newDictionaries[attribute.ordinal()] = dictionary;
+				newCodes[attribute.ordinal()][row] = value == null ? StringDictionary.MISSING : dictionary.code(value);
+			}
+		}
+
+		return trimmed(newSize, newVins, newYears, newMileages, newPrices, newCodes, newDictionaries, newRows);
+	}
+
+	// removes rows by moving the last row into the freed slot, row order carries no meaning
+	public InventorySnapshot withDeleted(Collection<String> deleted) {
+		String[] newVins = vins.clone();
+		int[] newYears = years.clone();
+		int[] newMileages = mileages.clone();
+		long[] newPrices = prices.clone();
+		int[][] newCodes = new int[ATTRIBUTES.length][];
+		for (int a = 0; a < newCodes.length; a++) {
+			newCodes[a] = codes[a].clone();
+		}
+		Map<String, Integer> newRows = new HashMap<>(rowsByVin);
+
+		int newSize = size;
+		for (String vin : deleted) {
+			Integer row = newRows.remove(vin);
+			if (row == null) {
+				continue;
+			}
+			int last = --newSize;
+			if (row != last) {
+				newVins[row] = newVins[last];
+				newYears[row] = newYears[last];
+				newMileages[row] = newMileages[last];
+				newPrices[row] = newPrices[last];
+				for (int a = 0; a < newCodes.length; a++) {
+					newCodes[a][row] = newCodes[a][last];
+				}
+				newRows.put(newVins[row], row);
+			}
+			newVins[last] = null;
+		}
+
+		return trimmed(newSize, newVins, newYears, newMileages, newPrices, newCodes, dictionaries, newRows);
+	}
+
+	// price-only patch in whole cents, copies just the price column
+	public InventorySnapshot withPrices(List<String> repriced, long[] newPrices) {
+		long[] patched = prices.clone();
+		for (int i = 0; i < newPrices.length; i++) {
+			Integer row = rowsByVin.get(repriced.get(i));
+			if (row != null) {
+				patched[row] = newPrices[i];
+			}
+		}
+		return new InventorySnapshot(size, vins, years, mileages, patched, codes, dictionaries, rowsByVin);
+	}
+
+	private static InventorySnapshot trimmed(int size, String[] vins, int[] years, int[] mileages, long[] prices, int[][] codes,
+			StringDictionary[] dictionaries, Map<String, Integer> rowsByVin) {
+		int[][] trimmedCodes = new int[codes.length][];
+		for (int a = 0; a < codes.length; a++) {
+			trimmedCodes[a] = Arrays.copyOf(codes[a], size);
+		}
+		return new InventorySnapshot(size, Arrays.copyOf(vins, size), Arrays.copyOf(years, size), Arrays.copyOf(mileages, size),
+				Arrays.copyOf(prices, size), trimmedCodes, dictionaries, rowsByVin);
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// column access
+
+	public int size() {
+		return size;
+	}
+
+	// row of the vin, or -1 if it is not in the snapshot
+	public int row(String vin) {
+		Integer row = rowsByVin.get(vin);
+		return row == null ? -1 : row;
+	}
+
+	public String vin(int row) {
+		return vins[row];
+	}
+
+	public int year(int row) {
+		return years[row];
+	}
+
+	public int mileage(int row) {
+		return mileages[row];
+	}
+
+	public double price(int row) {
+		return Cents.toAmount(prices[row]);
+	}
+
+	public long priceCents(int row) {
+		return prices[row];
+	}
+
+	public int code(Attribute attribute, int row) {
+		return codes[attribute.ordinal()][row];
+	}
+
+	public String value(Attribute attribute, int row) {
+		return dictionaries[attribute.ordinal()].value(codes[attribute.ordinal()][row]);
+	}
+
+	public StringDictionary dictionary(Attribute attribute) {
+		return dictionaries[attribute.ordinal()];
+	}
+
+	// whole columns without copying, for SnapshotFile only
+	String[] vinColumn() {
+		return vins;
+	}
+
+	int[] yearColumn() {
+		return years;
+	}
+
+	int[] mileageColumn() {
+		return mileages;
+	}
+
+	long[] priceColumn() {
+		return prices;
+	}
+
+	int[] codeColumn(Attribute attribute) {
+		return codes[attribute.ordinal()];
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// queries
+
+	public int[] allRows() {
+		int[] rows = new int[size];
+		for (int row = 0; row < size; row++) {
+			rows[row] = row;
+		}
+		return rows;
+	}
+
+	// rows matching every criteria set on the filter, in row order
+	// String criteria are turned into dictionary codes once so the scan only compares ints and doubles
+	public int[] filter(VehicleFilter filter) {
+		int make = criteriaCode(Attribute.MAKE, filter.getMake());
+		int model = criteriaCode(Attribute.MODEL, filter.getModel());
+		int condition = criteriaCode(Attribute.CONDITION, filter.getCondition());
+		int fuel = criteriaCode(Attribute.FUEL, filter.getFuelType());
+		if (make == StringDictionary.MISSING || model == StringDictionary.MISSING
+				|| condition == StringDictionary.MISSING || fuel == StringDictionary.MISSING) {
+			return new int[0];
+		}
+
+		int minYear = filter.getMinYear() == null ? Integer.MIN_VALUE : filter.getMinYear();
+		int maxYear = filter.getMaxYear() == null ? Integer.MAX_VALUE : filter.getMaxYear();
+		int maxMileage = filter.getMaxMileage() == null ? Integer.MAX_VALUE : filter.getMaxMileage();
+		long minPrice = filter.getMinPrice() == null ? Long.MIN_VALUE : Cents.round(filter.getMinPrice());
+		long maxPrice = filter.getMaxPrice() == null ? Long.MAX_VALUE : Cents.round(filter.getMaxPrice());
+
+		int[] makeCodes = codes[Attribute.MAKE.ordinal()];
+		int[] modelCodes = codes[Attribute.MODEL.ordinal()];
+		int[] conditionCodes = codes[Attribute.CONDITION.ordinal()];
+		int[] fuelCodes = codes[Attribute.FUEL.ordinal()];
+
+		int[] matches = new int[size];
+		int count = 0;
+		for (int row = 0; row < size; row++) {
+			if ((make >= 0 && makeCodes[row] != make)
+					|| (model >= 0 && modelCodes[row] != model)
+					|| (condition >= 0 && conditionCodes[row] != condition)
+					|| (fuel >= 0 && fuelCodes[row] != fuel)
+					|| years[row] < minYear || years[row] > maxYear
+					|| mileages[row] > maxMileage
+					|| prices[row] < minPrice || prices[row] > maxPrice) {
+				continue;
+			}
+			matches[count++] = row;
+		}
+		return Arrays.copyOf(matches, count);
+	}
+
+	// -2 means "not filtered", MISSING means the value does not occur so nothing can match
+	private int criteriaCode(Attribute attribute, String value) {
+		if (value == null) {
+			return -2;
+		}
+		if (!attribute.isCoded()) {
+			return dictionaries[attribute.ordinal()].code(value);
+		}
+		CodedValue coded = attribute.codes.find(value);
+		return coded == null ? StringDictionary.MISSING : attribute.encode(coded);
+	}
+
+	// prices are compared as longs, not packed with the row into one key, which would drop the high bits of a price
+	// past 2^31 cents (one written before repricing was capped, or straight into the table)
+	public int[] sortByPrice(int[] rows, boolean ascending) {
+		Comparator<Integer> order = Comparator.<Integer>comparingLong(row -> prices[row]).thenComparingInt(row -> row);
+		return sortRows(rows, ascending ? order : order.reversed());
+	}
+
+	// sorts without boxing: years and mileages are non-negative ints, so the value goes in the high bits of a long and
+	// the row in the low 32 bits and one primitive Arrays.sort orders them
+	public int[] sortBy(int[] column, int[] rows, boolean ascending) {
+		long[] keys = new long[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			keys[i] = ((long) column[rows[i]] << 32) | rows[i];
+		}
+		Arrays.sort(keys);
+
+		int[] sorted = new int[rows.length];
+		for (int i = 0; i < keys.length; i++) {
+			sorted[ascending ? i : keys.length - 1 - i] = (int) keys[i];
+		}
+		return sorted;
+	}
+
+	public int[] sortByYear(int[] rows, boolean ascending) {
+		return sortBy(years, rows, ascending);
+	}
+
+	public int[] sortByMileage(int[] rows, boolean ascending) {
+		return sortBy(mileages, rows, ascending);
+	}
+
+	// rows in the order of a /listAll sort (year, price, mileage or make, anything else is year), each ending with the vin
+	// and all keys in the one direction, the same order VehicleDAOImp.listOrder gives the SQL fallback
+	public int[] sortForList(int[] rows, String sort, boolean ascending) {
+		Comparator<String> text = Comparator.nullsFirst(Comparator.naturalOrder());
+		Comparator<Integer> order;
+		if ("price".equals(sort)) {
+			order = Comparator.comparingLong(row -> prices[row]);
+		} else if ("mileage".equals(sort)) {
+			order = Comparator.comparingInt(row -> mileages[row]);
+		} else if ("make".equals(sort)) {
+			order = Comparator.comparing((Integer row) -> value(Attribute.MAKE, row), text)
+					.thenComparing(row -> value(Attribute.MODEL, row), text)
+					.thenComparingInt(row -> years[row]);
+		} else {
+			order = Comparator.comparingInt(row -> years[row]);
+		}
+		order = order.thenComparing(row -> vins[row]);
+		return sortRows(rows, ascending ? order : order.reversed());
+	}
+
+	private static int[] sortRows(int[] rows, Comparator<Integer> order) {
+		Integer[] boxed = new Integer[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			boxed[i] = rows[i];
+		}
+		Arrays.sort(boxed, order);
+		int[] sorted = new int[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			sorted[i] = boxed[i];
+		}
+		return sorted;
+	}
+
+	public InventoryStats stats(int[] rows) {
+		if (rows.length == 0) {
+			return new InventoryStats(0, 0, 0, 0, 0);
+		}
+		// in cents the total is exact, the average is rounded half up once at the end
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		long priceTotal = 0;
+		long mileageTotal = 0;
+		for (int row : rows) {
+			long price = prices[row];
+			min = Math.min(min, price);
+			max = Math.max(max, price);
+			priceTotal += price;
+			mileageTotal += mileages[row];
+		}
+		long averageCents = Math.floorDiv(2 * priceTotal + rows.length, 2L * rows.length);
+		return new InventoryStats(rows.length, Cents.toAmount(min), Cents.toAmount(max), Cents.toAmount(averageCents),
+				(double) mileageTotal / rows.length);
+	}
+
+	// number of rows per value of the attribute, counted into a dense int[] indexed by dictionary code
+	public Map<String, Integer> countBy(Attribute attribute, int[] rows) {
+		int[] column = codes[attribute.ordinal()];
+		StringDictionary dictionary = dictionaries[attribute.ordinal()];
+		int[] counts = new int[dictionary.size()];
+		for (int row : rows) {
+			if (column[row] >= 0) {
+				counts[column[row]]++;
+			}
+		}
+
+		Map<String, Integer> result = new LinkedHashMap<>();
+		for (int code = 0; code < counts.length; code++) {
+			if (counts[code] > 0) {
+				result.put(dictionary.value(code), counts[code]);
+			}
+		}
+		return result;
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// materializing rows back into entities, only done for the rows a page actually shows
+
+	public Vehicle toVehicle(int row) {
+		Vehicle car = new Vehicle.CarBuilder(vins[row], value(Attribute.MAKE, row), value(Attribute.MODEL, row), years[row])
+				.color(value(Attribute.EXTERIOR_COLOR, row), value(Attribute.INTERIOR_COLOR, row))
+				.usageHist(mileages[row], TitleStatus.CODES.fromCode(code(Attribute.TITLE_STATUS, row) + 1),
+						VehicleCondition.CODES.fromCode(code(Attribute.CONDITION, row) + 1))
+				.engine(Drivetrain.CODES.fromCode(code(Attribute.DRIVETRAIN, row) + 1), Transmission.CODES.fromCode(code(Attribute.TRANSMISSION, row) + 1),
+						FuelType.CODES.fromCode(code(Attribute.FUEL, row) + 1))
+				.costCents(prices[row])
+				.build();
+		return car;
+	}
+
+	public List<Vehicle> toVehicles(int[] rows) {
+		List<Vehicle> vehicles = new ArrayList<>(rows.length);
+		for (int row : rows) {
+			vehicles.add(toVehicle(row));
+		}
+		return vehicles;
+	}
+
+}
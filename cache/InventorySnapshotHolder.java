@@ -0,0 +1,314 @@
+package com.vehicleinventory.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.vehicleinventory.dao.WatermarkDAO;
+import com.vehicleinventory.dao.WatermarkEvent;
+import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.service.CustomerChangeEvent;
+import com.vehicleinventory.service.VehicleChangeEvent;
+import com.vehicleinventory.service.VehicleService;
+import com.vehicleinventory.tenant.TenantContext;
+
+// keeps the current InventorySnapshot and CustomerSnapshot of each dealership lot, built from the database on first use
+// (or installed from a SnapshotFile at startup) and patched from VehicleChangeEvents/CustomerChangeEvents
+// readers take the volatile reference once and work on that immutable snapshot for the whole request
+//
+// every method works on the partition of TenantContext's lot (the default lot when none is set), so a lot's list
+// pages are filtered and sorted over its own rows only and never see another lot's vehicles
+@Component
+public class InventorySnapshotHolder {
+
+	@Autowired
+	VehicleService vehicleService;
+
+	private final Map<Integer, Partition> partitions = new ConcurrentHashMap<>();
+
+	private static final class Partition {
+		private final int lotId;
+		private volatile InventorySnapshot snapshot;
+		private volatile CustomerSnapshot customers;
+		// inventory watermark the snapshots are current at: the one they were loaded at, moved along by the
+		// WatermarkEvents of local writes, whose patches are applied after the same commit
+		private volatile long watermark = -1;
+
+		Partition(int lotId) {
+			this.lotId = lotId;
+		}
+	}
+
+	private Partition partition() {
+		return partitions.computeIfAbsent(TenantContext.getLotIdOrDefault(), Partition::new);
+	}
+
+	public InventorySnapshot current() {
+		Partition partition = partition();
+		InventorySnapshot current = partition.snapshot;
+		if (current == null) {
+			rebuildIfEmpty(partition);
+			current = partition.snapshot;
+		}
+		return current;
+	}
+
+	public CustomerSnapshot customers() {
+		Partition partition = partition();
+		CustomerSnapshot current = partition.customers;
+		if (current == null) {
+			rebuildIfEmpty(partition);
+			current = partition.customers;
+		}
+		return current;
+	}
+
+	public long getWatermark() {
+		return partition().watermark;
+	}
+
+	public boolean isLoaded() {
+		return partition().snapshot != null;
+	}
+
+	// lots whose snapshots are currently loaded
+	public List<Integer> loadedLots() {
+		List<Integer> lots = new ArrayList<>();
+		for (Partition partition : partitions.values()) {
+			if (partition.snapshot != null && partition.customers != null) {
+				lots.add(partition.lotId);
+			}
+		}
+		return lots;
+	}
+
+	private void rebuildIfEmpty(Partition partition) {
+		synchronized (partition) {
+			if (partition.snapshot == null || partition.customers == null) {
+				rebuild(partition);
+			}
+		}
+	}
+
+	// reloads both snapshots of the current lot from the database
+	public void rebuild() {
+		rebuild(partition());
+	}
+
+	// the watermark is read first, so writes racing with the load can only make it look older than the data, never newer
+	// the load runs as the partition's lot so the DAOs return that lot's rows only
+	private void rebuild(Partition partition) {
+		synchronized (partition) {
+			TenantContext.runAs(partition.lotId, () -> {
+				long loadedAt = vehicleService.getInventoryWatermark();
+				InventorySnapshot loadedVehicles = InventorySnapshot.of(vehicleService.getVehicles());
+				CustomerSnapshot loadedCustomers = CustomerSnapshot.of(vehicleService.getCustomerAccounts());
+				install(partition, loadedAt, loadedVehicles, loadedCustomers);
+			});
+		}
+	}
+
+	public void install(long loadedAt, InventorySnapshot vehicles, CustomerSnapshot accounts) {
+		install(partition(), loadedAt, vehicles, accounts);
+	}
+
+	private static void install(Partition partition, long loadedAt, InventorySnapshot vehicles, CustomerSnapshot accounts) {
+		synchronized (partition) {
+			partition.snapshot = vehicles;
+			partition.customers = accounts;
+			partition.watermark = loadedAt;
+		}
+	}
+
+	// throws the current lot's snapshots away, the next read rebuilds them from the database
+	public void invalidate() {
+		Partition partition = partition();
+		synchronized (partition) {
+			partition.snapshot = null;
+			partition.customers = null;
+			partition.watermark = -1;
+		}
+	}
+
+	// throws every lot's snapshots away
+	public void invalidateAll() {
+		for (Partition partition : partitions.values()) {
+			synchronized (partition) {
+				partition.snapshot = null;
+				partition.customers = null;
+				partition.watermark = -1;
+			}
+		}
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// patches for writes made on another node, see InvalidationRelay
+	// the rows are read back from the database, so a key invalidated several times is patched once with whatever
+	// committed last; keys that no longer exist are removed. call with no lot set, the rows may belong to any lot
+
+	public void refreshVehicles(Collection<String> vins) {
+		if (vins.isEmpty() || !anyLoaded()) {
+			return;
+		}
+		List<Vehicle> found = vehicleService.getVehicles(vins);
+		Set<String> missing = new HashSet<>(vins);
+		for (Vehicle vehicle : found) {
+			missing.remove(vehicle.getVehicleIdNumber());
+		}
+		applySaved(found);
+		if (!missing.isEmpty()) {
+			applyDeleted(new ArrayList<>(missing));
+		}
+	}
+
+	public void refreshCustomers(Collection<Integer> customerIds) {
+		if (customerIds.isEmpty() || !anyLoaded()) {
+			return;
+		}
+		Set<Integer> missing = new HashSet<>(customerIds);
+		for (CustomerAccount account : vehicleService.getCustomerAccounts(customerIds)) {
+			missing.remove(account.getCustomerId());
+			applySaved(account);
+		}
+		for (Integer customerId : missing) {
+			applyDeleted(customerId);
+		}
+	}
+
+	private boolean anyLoaded() {
+		for (Partition partition : partitions.values()) {
+			if (partition.snapshot != null || partition.customers != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// patches, they run after the saving transaction commits so rolled back writes never reach a snapshot
+	// saved rows go to the partition of their own lot; vins and customer ids are unique across lots, so deletes and
+	// reprices go to whichever partition holds them
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onVehicleChange(VehicleChangeEvent event) {
+		switch (event.getChangeType()) {
+			case SAVED:
+				applySaved(event.getVehicles());
+				break;
+			case DELETED:
+				applyDeleted(event.getVins());
+				break;
+			case REPRICED:
+				for (Partition partition : partitions.values()) {
+					synchronized (partition) {
+						if (partition.snapshot != null && holdsAny(partition.snapshot, event.getVins())) {
+							partition.snapshot = partition.snapshot.withPrices(event.getVins(), event.getPriceCents());
+						}
+					}
+				}
+				break;
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCustomerChange(CustomerChangeEvent event) {
+		switch (event.getChangeType()) {
+			case SAVED:
+				applySaved(event.getAccount());
+				break;
+			case DELETED:
+			case MERGED:
+				applyDeleted(event.getCustomerId());
+				break;
+		}
+	}
+
+	private void applySaved(List<Vehicle> vehicles) {
+		Map<Integer, List<Vehicle>> byLot = new HashMap<>();
+		for (Vehicle vehicle : vehicles) {
+			byLot.computeIfAbsent(vehicle.getLotId(), lotId -> new ArrayList<>()).add(vehicle);
+		}
+		for (Map.Entry<Integer, List<Vehicle>> saved : byLot.entrySet()) {
+			Partition partition = partitions.get(saved.getKey());
+			if (partition == null) {
+				continue;
+			}
+			synchronized (partition) {
+				if (partition.snapshot != null) {
+					partition.snapshot = partition.snapshot.withSaved(saved.getValue());
+				}
+			}
+		}
+	}
+
+	private void applyDeleted(List<String> vins) {
+		for (Partition partition : partitions.values()) {
+			synchronized (partition) {
+				if (partition.snapshot != null && holdsAny(partition.snapshot, vins)) {
+					partition.snapshot = partition.snapshot.withDeleted(vins);
+				}
+			}
+		}
+	}
+
+	private void applySaved(CustomerAccount account) {
+		Partition partition = partitions.get(account.getLotId());
+		if (partition == null) {
+			return;
+		}
+		synchronized (partition) {
+			if (partition.customers != null) {
+				partition.customers = partition.customers.withSaved(account);
+			}
+		}
+	}
+
+	private void applyDeleted(int customerId) {
+		for (Partition partition : partitions.values()) {
+			synchronized (partition) {
+				if (partition.customers != null) {
+					partition.customers = partition.customers.withDeleted(customerId);
+				}
+			}
+		}
+	}
+
+	// a bump that follows on from a partition's watermark only counts writes made on this node, which are all patched
+	// into it (or belong to another lot), so the partition is current at the new value; a gap means another node wrote
+	// as well and the partition keeps the older watermark, it is then reloaded on the next start instead of trusted
+	@EventListener
+	public void onWatermark(WatermarkEvent event) {
+		for (Partition partition : partitions.values()) {
+			if (!WatermarkDAO.inventory(partition.lotId).equals(event.getName())) {
+				continue;
+			}
+			synchronized (partition) {
+				if (partition.snapshot != null && partition.watermark == event.getVersion() - event.getAdvancedBy()) {
+					partition.watermark = event.getVersion();
+				}
+			}
+		}
+	}
+
+	// the snapshot patches copy whole columns, partitions without any of the vins are left alone
+	private static boolean holdsAny(InventorySnapshot snapshot, List<String> vins) {
+		for (String vin : vins) {
+			if (snapshot.row(vin) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.vehicleinventory.cache;
+
+// aggregates over a set of snapshot rows
+public class InventoryStats {
+	
+	private final int count;
+	private final double minPrice;
+	private final double maxPrice;
+	private final double averagePrice;
+	private final double averageMileage;
+	
+	public InventoryStats(int count, double minPrice, double maxPrice, double averagePrice, double averageMileage) {
+		this.count = count;
+		this.minPrice = minPrice;
+		this.maxPrice = maxPrice;
+		this.averagePrice = averagePrice;
+		this.averageMileage = averageMileage;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public double getMinPrice() {
+		return minPrice;
+	}
+
+	public double getMaxPrice() {
+		return maxPrice;
+	}
+
+	public double getAveragePrice() {
+		return averagePrice;
+	}
+
+	public double getAverageMileage() {
+		return averageMileage;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.vehicleinventory.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// bus for a single JVM: a single-node deployment, or tests that start several nodes side by side and share one instance
+// delivery is synchronous on the publishing thread, so once publish returns every other node has applied the batch
+public class LoopbackInvalidationBus implements InvalidationBus {
+
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	private static final class Subscriber {
+		final String nodeId;
+		final Consumer<Invalidation> listener;
+
+		Subscriber(String nodeId, Consumer<Invalidation> listener) {
+			this.nodeId = nodeId;
+			this.listener = listener;
+		}
+	}
+
+	@Override
+	public void publish(Invalidation invalidation) {
+		for (Subscriber subscriber : subscribers) {
+			if (!subscriber.nodeId.equals(invalidation.getOrigin())) {
+				subscriber.listener.accept(invalidation);
+			}
+		}
+	}
+
+	@Override
+	public void subscribe(String nodeId, Consumer<Invalidation> listener) {
+		subscribers.add(new Subscriber(nodeId, listener));
+	}
+
+}
@@ -0,0 +1,272 @@
+package com.vehicleinventory.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// compact binary image of the vehicle and customer snapshots, written and read through a memory-mapped file
+//
+// layout (big endian):
+//   header   magic, format version, watermark, CRC32 of the body
+//   body     vehicle count, one dictionary per attribute, vins, year/mileage columns, price column in cents,
+//            one code column per attribute (1, 2 or 4 bytes per code depending on dictionary size),
+//            customer count, id column, username/first/last/email/phone/address columns
+// strings are a short byte length (-1 for null) followed by UTF-8 bytes
+public final class SnapshotFile {
+
+	private static final int MAGIC = 0x56494E56; // "VINV"
+	// 2: the coded attributes hold enum code - 1 against a fixed dictionary, see InventorySnapshot.Attribute
+	// 3: prices are whole cents in longs instead of doubles
+	private static final int FORMAT_VERSION = 3;
+	private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+
+	private static final InventorySnapshot.Attribute[] ATTRIBUTES = InventorySnapshot.Attribute.values();
+
+	private SnapshotFile() {}
+
+	// contents of a valid snapshot file
+	public static final class Image {
+		private final long watermark;
+		private final InventorySnapshot vehicles;
+		private final CustomerSnapshot customers;
+
+		Image(long watermark, InventorySnapshot vehicles, CustomerSnapshot customers) {
+			this.watermark = watermark;
+			this.vehicles = vehicles;
+			this.customers = customers;
+		}
+
+		public long getWatermark() {
+			return watermark;
+		}
+
+		public InventorySnapshot getVehicles() {
+			return vehicles;
+		}
+
+		public CustomerSnapshot getCustomers() {
+			return customers;
+		}
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// writing, to a temp file first so a crash never leaves a half written snapshot behind
+
+	public static void write(Path path, long watermark, InventorySnapshot vehicles, CustomerSnapshot customers) throws IOException {
+		int vehicleCount = vehicles.size();
+		int customerCount = customers.size();
+
+		byte[][][] dictionaries = new byte[ATTRIBUTES.length][][];
+		int[] codeWidths = new int[ATTRIBUTES.length];
+		long size = HEADER_BYTES + 4;
+		for (InventorySnapshot.Attribute attribute : ATTRIBUTES) {
+			StringDictionary dictionary = vehicles.dictionary(attribute);
+			dictionaries[attribute.ordinal()] = encode(dictionary.values());
+			codeWidths[attribute.ordinal()] = codeWidth(dictionary.size());
+			size += 4 + encodedLength(dictionaries[attribute.ordinal()]) + (long) codeWidths[attribute.ordinal()] * vehicleCount;
+		}
+		byte[][] vins = encode(vehicles.vinColumn());
+		size += encodedLength(vins) + 4L * vehicleCount + 4L * vehicleCount + 8L * vehicleCount;
+
+		String[][] customerColumns = customers.stringColumns();
+		byte[][][] encodedCustomerColumns = new byte[customerColumns.length][][];
+		size += 4 + 4L * customerCount;
+		for (int c = 0; c < customerColumns.length; c++) {
+			encodedCustomerColumns[c] = encode(customerColumns[c]);
+			size += encodedLength(encodedCustomerColumns[c]);
+		}
+
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.position(HEADER_BYTES);
+
+			buffer.putInt(vehicleCount);
+			for (byte[][] dictionary : dictionaries) {
+				buffer.putInt(dictionary.length);
+				putStrings(buffer, dictionary);
+			}
+			putStrings(buffer, vins);
+			buffer.asIntBuffer().put(vehicles.yearColumn(), 0, vehicleCount);
+			buffer.position(buffer.position() + 4 * vehicleCount);
+			buffer.asIntBuffer().put(vehicles.mileageColumn(), 0, vehicleCount);
+			buffer.position(buffer.position() + 4 * vehicleCount);
+			buffer.asLongBuffer().put(vehicles.priceColumn(), 0, vehicleCount);
+			buffer.position(buffer.position() + 8 * vehicleCount);
+			for (InventorySnapshot.Attribute attribute : ATTRIBUTES) {
+				putCodes(buffer, vehicles.codeColumn(attribute), vehicleCount, codeWidths[attribute.ordinal()]);
+			}
+
+			buffer.putInt(customerCount);
+			buffer.asIntBuffer().put(customers.idColumn(), 0, customerCount);
+			buffer.position(buffer.position() + 4 * customerCount);
+			for (byte[][] column : encodedCustomerColumns) {
+				putStrings(buffer, column);
+			}
+
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, FORMAT_VERSION);
+			buffer.putLong(8, watermark);
+			buffer.putLong(16, checksum(buffer, size));
+			buffer.force();
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static byte[][] encode(String[] values) {
+		byte[][] encoded = new byte[values.length][];
+		for (int i = 0; i < values.length; i++) {
+			encoded[i] = values[i] == null ? null : values[i].getBytes(StandardCharsets.UTF_8);
+			if (encoded[i] != null && encoded[i].length > Short.MAX_VALUE) {
+				throw new IllegalArgumentException("String too long for snapshot file: " + encoded[i].length + " bytes");
+			}
+		}
+		return encoded;
+	}
+
+	private static long encodedLength(byte[][] values) {
+		long length = 0;
+		for (byte[] value : values) {
+			length += 2 + (value == null ? 0 : value.length);
+		}
+		return length;
+	}
+
+	private static void putStrings(ByteBuffer buffer, byte[][] values) {
+		for (byte[] value : values) {
+			if (value == null) {
+				buffer.putShort((short) -1);
+			} else {
+				buffer.putShort((short) value.length);
+				buffer.put(value);
+			}
+		}
+	}
+
+	// codes are stored +1 so MISSING (-1) fits in an unsigned byte or short
+	private static int codeWidth(int dictionarySize) {
+		if (dictionarySize < 0xFF) {
+			return 1;
+		}
+		return dictionarySize < 0xFFFF ? 2 : 4;
+	}
+
+	private static void putCodes(ByteBuffer buffer, int[] codes, int count, int width) {
+		for (int row = 0; row < count; row++) {
+			int stored = codes[row] + 1;
+			if (width == 1) {
+				buffer.put((byte) stored);
+			} else if (width == 2) {
+				buffer.putShort((short) stored);
+			} else {
+				buffer.putInt(stored);
+			}
+		}
+	}
+
+	private static long checksum(ByteBuffer buffer, long size) {
+		ByteBuffer body = buffer.duplicate();
+		body.position(HEADER_BYTES);
+		body.limit((int) size);
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		return crc.getValue();
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// reading, columns are bulk copied out of the mapping into the snapshot arrays
+
+	// returns null when the file is missing, truncated, from another format version or fails its checksum
+	public static Image read(Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				return null;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getLong(16) != checksum(buffer, size)) {
+				return null;
+			}
+			long watermark = buffer.getLong(8);
+			buffer.position(HEADER_BYTES);
+
+			int vehicleCount = buffer.getInt();
+			StringDictionary[] dictionaries = new StringDictionary[ATTRIBUTES.length];
+			for (int a = 0; a < dictionaries.length; a++) {
+				dictionaries[a] = StringDictionary.of(getStrings(buffer, buffer.getInt()));
+			}
+			String[] vins = getStrings(buffer, vehicleCount);
+			int[] years = new int[vehicleCount];
+			buffer.asIntBuffer().get(years);
+			buffer.position(buffer.position() + 4 * vehicleCount);
+			int[] mileages = new int[vehicleCount];
+			buffer.asIntBuffer().get(mileages);
+			buffer.position(buffer.position() + 4 * vehicleCount);
+			long[] prices = new long[vehicleCount];
+			buffer.asLongBuffer().get(prices);
+			buffer.position(buffer.position() + 8 * vehicleCount);
+			int[][] codes = new int[ATTRIBUTES.length][];
+			for (int a = 0; a < codes.length; a++) {
+				codes[a] = getCodes(buffer, vehicleCount, codeWidth(dictionaries[a].size()));
+			}
+
+			int customerCount = buffer.getInt();
+			int[] ids = new int[customerCount];
+			buffer.asIntBuffer().get(ids);
+			buffer.position(buffer.position() + 4 * customerCount);
+			String[][] columns = new String[6][];
+			for (int c = 0; c < columns.length; c++) {
+				columns[c] = getStrings(buffer, customerCount);
+			}
+
+			InventorySnapshot inventory = new InventorySnapshot(vins, years, mileages, prices, codes, dictionaries);
+			CustomerSnapshot customers = new CustomerSnapshot(ids, columns[0], columns[1], columns[2], columns[3], columns[4], columns[5]);
+			return new Image(watermark, inventory, customers);
+		}
+	}
+
+	private static String[] getStrings(ByteBuffer buffer, int count) {
+		String[] values = new String[count];
+		byte[] scratch = new byte[64];
+		for (int i = 0; i < count; i++) {
+			int length = buffer.getShort();
+			if (length < 0) {
+				continue;
+			}
+			if (length > scratch.length) {
+				scratch = new byte[length];
+			}
+			buffer.get(scratch, 0, length);
+			values[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+		}
+		return values;
+	}
+
+	private static int[] getCodes(ByteBuffer buffer, int count, int width) {
+		int[] codes = new int[count];
+		for (int row = 0; row < count; row++) {
+			int stored;
+			if (width == 1) {
+				stored = buffer.get() & 0xFF;
+			} else if (width == 2) {
+				stored = buffer.getShort() & 0xFFFF;
+			} else {
+				stored = buffer.getInt();
+			}
+			codes[row] = stored - 1;
+		}
+		return codes;
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.vehicleinventory.cache;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.dao.WatermarkDAO;
+import com.vehicleinventory.service.VehicleService;
+import com.vehicleinventory.tenant.TenantContext;
+
+// persists the in-process snapshots across redeploys
+// on startup the last SnapshotFile of each lot is mapped and installed straight away so list pages are served without
+// touching MySQL, then a background task compares each lot's watermark with the database and reloads only the lots
+// that changed in between. every lot has its own file (inventory.snapshot.file with "-<lotId>" before the extension)
+// and its own watermark, so a write in one lot does not send the others back to a cold start
+//
+// a file is written at shutdown only, once the local watermark bumps are flushed, and deleted as soon as it has been
+// read: bumps still pending when a process dies are lost (see WatermarkDAOImp), so after a crash there is no file
+// whose watermark could match a database that has moved on without it, and the next start is cold
+@Component
+public class SnapshotWarmStart {
+
+	private static final Logger LOGGER = Logger.getLogger(SnapshotWarmStart.class.getName());
+
+	@Autowired
+	InventorySnapshotHolder inventorySnapshotHolder;
+
+	@Autowired
+	VehicleService vehicleService;
+
+	@Autowired
+	WatermarkDAO watermarkDAO;
+
+	@Value("${inventory.snapshot.file:inventory-snapshot.bin}")
+	private String snapshotFile;
+
+	private final ExecutorService catchUp = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "inventory-snapshot-catch-up");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@PostConstruct
+	public void loadSnapshot() {
+		List<Integer> lots = new ArrayList<>();
+		for (Map.Entry<Integer, Path> file : lotFiles().entrySet()) {
+			int lotId = file.getKey();
+			Path path = file.getValue();
+			try {
+				SnapshotFile.Image image = SnapshotFile.read(path);
+				Files.deleteIfExists(path);
+				if (image != null) {
+					TenantContext.runAs(lotId,
+							() -> inventorySnapshotHolder.install(image.getWatermark(), image.getVehicles(), image.getCustomers()));
+					lots.add(lotId);
+					LOGGER.info("Installed inventory snapshot of lot " + lotId + " at watermark " + image.getWatermark() + " from " + path);
+				}
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Could not read inventory snapshot " + path + ", lot " + lotId + " starts cold", e);
+			}
+		}
+		if (!lots.contains(TenantContext.DEFAULT_LOT_ID)) {
+			lots.add(TenantContext.DEFAULT_LOT_ID);
+		}
+		for (int lotId : lots) {
+			catchUp.submit(() -> TenantContext.runAs(lotId, this::catchUp));
+		}
+	}
+
+	// reloads the current lot from the database when its file was missing or older than the database
+	void catchUp() {
+		try {
+			long current = vehicleService.getInventoryWatermark();
+			if (!inventorySnapshotHolder.isLoaded() || inventorySnapshotHolder.getWatermark() != current) {
+				inventorySnapshotHolder.rebuild();
+			}
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Inventory snapshot catch-up failed, snapshot will be rebuilt on first read", e);
+			inventorySnapshotHolder.invalidate();
+		}
+	}
+
+	// requests have stopped by now, so every local write is patched in and its bump is the last one to flush
+	@PreDestroy
+	public void shutdown() {
+		catchUp.shutdownNow();
+		watermarkDAO.flush();
+		for (int lotId : inventorySnapshotHolder.loadedLots()) {
+			TenantContext.runAs(lotId, () -> saveSnapshot(lotFile(lotId)));
+		}
+	}
+
+	private void saveSnapshot(Path path) {
+		if (!inventorySnapshotHolder.isLoaded()) {
+			return;
+		}
+		try {
+			SnapshotFile.write(path, inventorySnapshotHolder.getWatermark(), inventorySnapshotHolder.current(),
+					inventorySnapshotHolder.customers());
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Could not write inventory snapshot " + path, e);
+		}
+	}
+
+	// inventory-snapshot.bin becomes inventory-snapshot-<lotId>.bin
+	private Path lotFile(int lotId) {
+		int dot = snapshotFile.lastIndexOf('.');
+		int slash = Math.max(snapshotFile.lastIndexOf('/'), snapshotFile.lastIndexOf('\\'));
+		return dot > slash
+				? Paths.get(snapshotFile.substring(0, dot) + "-" + lotId + snapshotFile.substring(dot))
+				: Paths.get(snapshotFile + "-" + lotId);
+	}
+
+	// the lot files present next to inventory.snapshot.file, by lot
+	private Map<Integer, Path> lotFiles() {
+		Map<Integer, Path> files = new TreeMap<>();
+		Path pattern = lotFile(0).toAbsolutePath();
+		String name = pattern.getFileName().toString();
+		int lotAt = name.lastIndexOf("-0");
+		String prefix = name.substring(0, lotAt + 1);
+		String suffix = name.substring(lotAt + 2);
+		try (DirectoryStream<Path> candidates = Files.newDirectoryStream(pattern.getParent(), prefix + "*" + suffix)) {
+			for (Path candidate : candidates) {
+				String lot = candidate.getFileName().toString();
+				lot = lot.substring(prefix.length(), lot.length() - suffix.length());
+				if (!lot.isEmpty() && lot.length() <= 9 && lot.chars().allMatch(Character::isDigit)) {
+					files.put(Integer.valueOf(lot), candidate);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Could not list inventory snapshots in " + pattern.getParent() + ", starting cold", e);
+		}
+		return files;
+	}
+
+}
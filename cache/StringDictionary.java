@@ -0,0 +1,91 @@
+package com.vehicleinventory.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// immutable dictionary encoding for a low-cardinality String column (make, model, colors, enum-like fields)
+// a column stores the int code of each value, the value itself is stored once here
+public final class StringDictionary {
+	
+	public static final int MISSING = -1;
+	
+	private final String[] values;
+	private final Map<String, Integer> codes;
+	
+	private StringDictionary(String[] values, Map<String, Integer> codes) {
+		this.values = values;
+		this.codes = codes;
+	}
+	
+	public static StringDictionary empty() {
+		return new StringDictionary(new String[0], new HashMap<>());
+	}
+	
+	public static StringDictionary of(String[] values) {
+		Map<String, Integer> codes = new HashMap<>(values.length * 2);
+		for (int i = 0; i < values.length; i++) {
+			codes.put(values[i], i);
+		}
+		return new StringDictionary(values.clone(), codes);
+	}
+	
+	public int size() {
+		return values.length;
+	}
+	
+	// code of the value, or MISSING if the column never contains it
+	public int code(String value) {
+		Integer code = codes.get(value);
+		return code == null ? MISSING : code;
+	}
+	
+	public String value(int code) {
+		return code == MISSING ? null : values[code];
+	}
+	
+	// copy of the values in code order, used when writing a snapshot to disk
+	public String[] values() {
+		return values.clone();
+	}
+	
+	// returns this dictionary if the value is already encoded, otherwise a copy with the value appended
+	public StringDictionary with(String value) {
+		if (value == null || codes.containsKey(value)) {
+			return this;
+		}
+		String[] grown = Arrays.copyOf(values, values.length + 1);
+		grown[values.length] = value;
+		Map<String, Integer> grownCodes = new HashMap<>(codes);
+		grownCodes.put(value, values.length);
+		return new StringDictionary(grown, grownCodes);
+	}
+	
+	// mutable builder used while encoding a whole table in one pass
+	static final class Builder {
+		private final Map<String, Integer> codes = new HashMap<>();
+		private String[] values = new String[16];
+		
+		int encode(String value) {
+			if (value == null) {
+				return MISSING;
+			}
+			Integer code = codes.get(value);
+			if (code != null) {
+				return code;
+			}
+			int next = codes.size();
+			if (next == values.length) {
+				values = Arrays.copyOf(values, next * 2);
+			}
+			values[next] = value;
+			codes.put(value, next);
+			return next;
+		}
+		
+		StringDictionary build() {
+			return new StringDictionary(Arrays.copyOf(values, codes.size()), codes);
+		}
+	}
+
+}
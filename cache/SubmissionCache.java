@@ -0,0 +1,137 @@
+package com.vehicleinventory.cache;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// results of form submissions by idempotency token, so a double-clicked save runs once
+//
+// every form carries a random submitToken; the first POST with a token runs its handler, a repeat of it is answered
+// with the redirect the first one returned and never reaches the database. a repeat that arrives while the first
+// is still running waits for it. only redirects are kept: a handler that re-renders its form (validation errors)
+// or throws gives the token back, so the corrected form can be sent again with it
+// entries live in STRIPES insertion-ordered maps, each guarded by its own lock and picked by the key hash; they expire
+// after forms.submission.ttlSeconds and each stripe holds at most forms.submission.maxEntries / STRIPES of them
+// flash attributes of the first response are not replayed, a repeat only gets the redirect
+@Component
+public class SubmissionCache {
+
+	private static final int STRIPES = 64;
+	private static final int TOKEN_BYTES = 16;
+	private static final String REDIRECT = "redirect:";
+
+	@Value("${forms.submission.ttlSeconds:600}")
+	private long ttlSeconds;
+
+	@Value("${forms.submission.maxEntries:65536}")
+	private int maxEntries;
+
+	private final Object[] locks = new Object[STRIPES];
+	private final LinkedHashMap<String, Submission>[] stripes;
+	private final SecureRandom random = new SecureRandom();
+
+	// result is null while the first submit is still running
+	private static final class Submission {
+		final long expiresAt;
+		String result;
+
+		Submission(long expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	// the work behind a POST endpoint, returning its view name
+	@FunctionalInterface
+	public interface Handler<E extends Exception> {
+		String handle() throws E;
+	}
+
+	@SuppressWarnings("unchecked")
+	public SubmissionCache() {
+		stripes = new LinkedHashMap[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new Object();
+			stripes[i] = new LinkedHashMap<>();
+		}
+	}
+
+	public String newToken() {
+		byte[] bytes = new byte[TOKEN_BYTES];
+		random.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	// runs handler once per action and token; requests without a token are not deduplicated
+	public <E extends Exception> String submit(String action, String token, Handler<E> handler) throws E {
+		if (token == null || token.isEmpty()) {
+			return handler.handle();
+		}
+		String key = action + ':' + token;
+		int stripe = stripe(key);
+		Submission submission;
+		synchronized (locks[stripe]) {
+			Map<String, Submission> submissions = stripes[stripe];
+			while (true) {
+				long now = System.currentTimeMillis();
+				Submission existing = submissions.get(key);
+				if (existing == null || existing.expiresAt <= now) {
+					submissions.remove(key);
+					evict(submissions, now);
+					submission = new Submission(now + ttlSeconds * 1000);
+					submissions.put(key, submission);
+					break;
+				}
+				if (existing.result != null) {
+					return existing.result;
+				}
+				try {
+					// woken by every completion in the stripe, the loop checks again
+					locks[stripe].wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted waiting for an earlier submit of the same form", e);
+				}
+			}
+		}
+
+		String result = null;
+		try {
+			result = handler.handle();
+			return result;
+		} finally {
+			synchronized (locks[stripe]) {
+				if (result != null && result.startsWith(REDIRECT)) {
+					submission.result = result;
+				} else {
+					stripes[stripe].remove(key, submission);
+				}
+				locks[stripe].notifyAll();
+			}
+		}
+	}
+
+	// expired entries are at the head since every entry gets the same ttl; past the bound the oldest finished one goes
+	private void evict(Map<String, Submission> submissions, long now) {
+		int capacity = Math.max(1, maxEntries / STRIPES);
+		for (Iterator<Submission> it = submissions.values().iterator(); it.hasNext();) {
+			Submission oldest = it.next();
+			if (oldest.expiresAt <= now || (submissions.size() >= capacity && oldest.result != null)) {
+				it.remove();
+			} else if (submissions.size() < capacity) {
+				return;
+			}
+			// a submit still running is never dropped, the stripe runs over its bound until it finishes
+		}
+	}
+
+	private static int stripe(String key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (STRIPES - 1);
+	}
+
+}
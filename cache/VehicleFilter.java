@@ -0,0 +1,96 @@
+package com.vehicleinventory.cache;
+
+// criteria for InventorySnapshot.filter, any field left null is not filtered on
+// bound straight from request parameters by the search endpoint
+public class VehicleFilter {
+	
+	private String make;
+	private String model;
+	private String condition;
+	private String fuelType;
+	private Integer minYear;
+	private Integer maxYear;
+	private Integer maxMileage;
+	private Double minPrice;
+	private Double maxPrice;
+	
+	public VehicleFilter() {}
+
+	public String getMake() {
+		return make;
+	}
+
+	public void setMake(String make) {
+		this.make = blankToNull(make);
+	}
+
+	public String getModel() {
+		return model;
+	}
+
+	public void setModel(String model) {
+		this.model = blankToNull(model);
+	}
+
+	public String getCondition() {
+		return condition;
+	}
+
+	public void setCondition(String condition) {
+		this.condition = blankToNull(condition);
+	}
+
+	public String getFuelType() {
+		return fuelType;
+	}
+
+	public void setFuelType(String fuelType) {
+		this.fuelType = blankToNull(fuelType);
+	}
+
+	public Integer getMinYear() {
+		return minYear;
+	}
+
+	public void setMinYear(Integer minYear) {
+		this.minYear = minYear;
+	}
+
+	public Integer getMaxYear() {
+		return maxYear;
+	}
+
+	public void setMaxYear(Integer maxYear) {
+		this.maxYear = maxYear;
+	}
+
+	public Integer getMaxMileage() {
+		return maxMileage;
+	}
+
+	public void setMaxMileage(Integer maxMileage) {
+		this.maxMileage = maxMileage;
+	}
+
+	public Double getMinPrice() {
+		return minPrice;
+	}
+
+	public void setMinPrice(Double minPrice) {
+		this.minPrice = minPrice;
+	}
+
+	public Double getMaxPrice() {
+		return maxPrice;
+	}
+
+	public void setMaxPrice(Double maxPrice) {
+		this.maxPrice = maxPrice;
+	}
+	
+	// vehicle strings are stored upper case, see Vehicle setters
+	private static String blankToNull(String value) {
+		return (value == null || value.trim().isEmpty()) ? null : value.trim().toUpperCase();
+	}
+
+}
@@ -0,0 +1,251 @@
+package com.vehicleinventory.controllers;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.vehicleinventory.dao.AgingBucketCount;
+import com.vehicleinventory.dao.AgingBuckets;
+import com.vehicleinventory.dao.CustomerListQuery;
+import com.vehicleinventory.dao.FinanceListQuery;
+import com.vehicleinventory.dao.FinancePortfolio;
+import com.vehicleinventory.dao.Page;
+import com.vehicleinventory.dao.StatusTransition;
+import com.vehicleinventory.dao.VehicleListQuery;
+import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.json.EntitySerializers;
+import com.vehicleinventory.json.JsonSerializer;
+import com.vehicleinventory.json.JsonWriter;
+import com.vehicleinventory.service.InventoryAgingService;
+import com.vehicleinventory.service.VehicleService;
+import com.vehicleinventory.throttle.Throttled;
+
+// JSON API for the mobile app and website, the same data as the JSP pages without the HTML
+//
+// every collection is paged with the list page parameters (page, pageSize, sort, direction and the filters of
+// VehicleListQuery/CustomerListQuery/FinanceListQuery) and returned as {"page","pageSize","total","pageCount","items"}
+// ?fields=vin,price limits each item to the named fields, see EntitySerializers for the field names
+@Controller
+@RequestMapping("/api")
+public class ApiController {
+
+	private static final String CONTENT_TYPE = "application/json";
+
+	@Autowired
+	VehicleService vehicleService;
+
+	@Autowired
+	InventoryAgingService inventoryAgingService;
+
+	// ------------------- Vehicles ---------------------------------- >
+
+	@GetMapping("/vehicles")
+	@Throttled(Throttled.Kind.LIST)
+	public void listVehicles(@ModelAttribute VehicleListQuery listQuery, @RequestParam(value="fields", required=false) String fields,
+			HttpServletResponse response) throws IOException {
+		int[] selection = EntitySerializers.VEHICLE.select(fields);
+		writePage(vehicleService.getVehicles(listQuery), EntitySerializers.VEHICLE, selection, response);
+	}
+
+	@GetMapping("/vehicles/{vin}")
+	public void getVehicle(@PathVariable("vin") String vin, @RequestParam(value="fields", required=false) String fields,
+			HttpServletResponse response) throws IOException {
+		int[] selection = EntitySerializers.VEHICLE.select(fields);
+		writeItem(vehicleService.getVehicle(vin), EntitySerializers.VEHICLE, selection, response);
+	}
+
+	// every recorded status transition, oldest first; sold vehicles keep theirs
+	@GetMapping("/vehicles/{vin}/history")
+	public void getVehicleHistory(@PathVariable("vin") String vin, HttpServletResponse response) throws IOException {
+		List<StatusTransition> history = inventoryAgingService.getStatusHistory(vin.toUpperCase(Locale.ROOT));
+		response.setContentType(CONTENT_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		JsonWriter out = new JsonWriter(response.getWriter());
+		out.raw("{\"vin\":").string(vin.toUpperCase(Locale.ROOT)).raw(",\"items\":[");
+		for (int i = 0; i < history.size(); i++) {
+			StatusTransition transition = history.get(i);
+			out.raw(i == 0 ? "{\"status\":" : ",{\"status\":").string(transition.getStatus().name())
+				.raw(",\"occurredAt\":").string(transition.getOccurredAt().toString())
+				.raw(",\"price\":").number(transition.getPrice())
+				.raw('}');
+		}
+		out.raw("]}");
+		out.flush();
+	}
+
+	// ------------------- Inventory aging ---------------------------------- >
+
+	// days-on-lot distribution from the daily rollup: onLot is the lot at the end of the to day (default today),
+	// sold counts the vehicles that left between from (default to) and to, bucketed by their age when sold
+	@GetMapping("/aging")
+	@Throttled(Throttled.Kind.LIST)
+	public void getAging(@RequestParam(value="from", required=false) @DateTimeFormat(iso=DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(value="to", required=false) @DateTimeFormat(iso=DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(value="make", required=false) String make, @RequestParam(value="model", required=false) String model,
+			HttpServletResponse response) throws IOException {
+		LocalDate end = to == null ? LocalDate.now() : to;
+		LocalDate start = from == null ? end : from;
+		if (start.isAfter(end)) {
+			throw new IllegalArgumentException("from must not be after to");
+		}
+		String makeFilter = make == null || make.isEmpty() ? null : make.toUpperCase(Locale.ROOT);
+		String modelFilter = model == null || model.isEmpty() ? null : model.toUpperCase(Locale.ROOT);
+		List<AgingBucketCount> buckets = inventoryAgingService.getAging(start, end, makeFilter, modelFilter);
+
+		long onLot = 0, sold = 0, soldDays = 0;
+		response.setContentType(CONTENT_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		JsonWriter out = new JsonWriter(response.getWriter());
+		out.raw("{\"from\":").string(start.toString())
+			.raw(",\"to\":").string(end.toString())
+			.raw(",\"make\":").string(makeFilter)
+			.raw(",\"model\":").string(modelFilter)
+			.raw(",\"buckets\":[");
+		for (AgingBucketCount bucket : buckets) {
+			int maxDays = AgingBuckets.maxDays(bucket.getBucket());
+			out.raw(bucket.getBucket() == 0 ? "{\"label\":" : ",{\"label\":").string(AgingBuckets.label(bucket.getBucket()))
+				.raw(",\"minDays\":").number(AgingBuckets.minDays(bucket.getBucket()))
+				.raw(",\"maxDays\":");
+			if (maxDays < 0) {
+				out.raw("null");
+			} else {
+				out.number(maxDays);
+			}
+			out.raw(",\"onLot\":").number(bucket.getOnLot())
+				.raw(",\"sold\":").number(bucket.getSold())
+				.raw('}');
+			onLot += bucket.getOnLot();
+			sold += bucket.getSold();
+			soldDays += bucket.getSoldDays();
+		}
+		out.raw("],\"onLot\":").number(onLot)
+			.raw(",\"sold\":").number(sold)
+			.raw(",\"averageDaysToSale\":").number(sold == 0 ? Double.NaN : (double) soldDays / sold)
+			.raw('}');
+		out.flush();
+	}
+
+	// ------------------- Customers ---------------------------------- >
+
+	@GetMapping("/customers")
+	@Throttled(Throttled.Kind.LIST)
+	public void listCustomers(@ModelAttribute CustomerListQuery listQuery, @RequestParam(value="fields", required=false) String fields,
+			HttpServletResponse response) throws IOException {
+		int[] selection = EntitySerializers.CUSTOMER_ACCOUNT.select(fields);
+		writePage(vehicleService.getCustomerAccounts(listQuery), EntitySerializers.CUSTOMER_ACCOUNT, selection, response);
+	}
+
+	@GetMapping("/customers/{id}")
+	public void getCustomer(@PathVariable("id") int id, @RequestParam(value="fields", required=false) String fields,
+			HttpServletResponse response) throws IOException {
+		int[] selection = EntitySerializers.CUSTOMER_ACCOUNT.select(fields);
+		writeItem(vehicleService.getCustomerAccount(id), EntitySerializers.CUSTOMER_ACCOUNT, selection, response);
+	}
+
+	@GetMapping("/customers/{id}/financeRecords")
+	@Throttled(Throttled.Kind.LIST)
+	public void listCustomerFinanceRecords(@PathVariable("id") int id, @ModelAttribute FinanceListQuery listQuery,
+			@RequestParam(value="fields", required=false) String fields, HttpServletResponse response) throws IOException {
+		listQuery.setCustomerId(id);
+		listFinanceRecords(listQuery, fields, response);
+	}
+
+	// ------------------- Finance records ---------------------------------- >
+
+	@GetMapping("/financeRecords")
+	@Throttled(Throttled.Kind.LIST)
+	public void listFinanceRecords(@ModelAttribute FinanceListQuery listQuery, @RequestParam(value="fields", required=false) String fields,
+			HttpServletResponse response) throws IOException {
+		int[] selection = EntitySerializers.FINANCE_RECORD.select(fields);
+		writePage(vehicleService.getFinanceRecords(listQuery), EntitySerializers.FINANCE_RECORD, selection, response);
+	}
+
+	// open loans of the lot, amounts in dollars with exactly two decimals
+	@GetMapping("/financeRecords/portfolio")
+	@Throttled(Throttled.Kind.LIST)
+	public void getFinancePortfolio(HttpServletResponse response) throws IOException {
+		FinancePortfolio portfolio = vehicleService.getFinancePortfolio();
+		response.setContentType(CONTENT_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		JsonWriter out = new JsonWriter(response.getWriter());
+		out.raw("{\"openLoans\":").number(portfolio.getOpenLoans())
+			.raw(",\"principal\":").amount(portfolio.getPrincipalCents())
+			.raw(",\"outstanding\":").amount(portfolio.getOutstandingCents())
+			.raw(",\"monthlyDue\":").amount(portfolio.getMonthlyDueCents())
+			.raw('}');
+		out.flush();
+	}
+
+	@GetMapping("/financeRecords/{id}")
+	public void getFinanceRecord(@PathVariable("id") int id, @RequestParam(value="fields", required=false) String fields,
+			HttpServletResponse response) throws IOException {
+		int[] selection = EntitySerializers.FINANCE_RECORD.select(fields);
+		writeItem(vehicleService.getFinanceRecord(id), EntitySerializers.FINANCE_RECORD, selection, response);
+	}
+
+	// unknown names in ?fields= (and other bad parameters) come back as 400 with the message
+	@ExceptionHandler(IllegalArgumentException.class)
+	public void badRequest(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+		response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+		response.setContentType(CONTENT_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		JsonWriter out = new JsonWriter(response.getWriter());
+		out.raw("{\"error\":").string(e.getMessage()).raw('}');
+		out.flush();
+	}
+
+	// ----------------------------------------------------------------------------------- >
+
+	// rows are written as they are read from the page's RowStream, the page is closed even if the client goes away
+	private static <T> void writePage(Page<T> page, JsonSerializer<T> serializer, int[] selection, HttpServletResponse response) throws IOException {
+		try (Page<T> rows = page) {
+			response.setContentType(CONTENT_TYPE);
+			response.setCharacterEncoding("UTF-8");
+			JsonWriter out = new JsonWriter(response.getWriter());
+			out.raw("{\"page\":").number(rows.getPage())
+				.raw(",\"pageSize\":").number(rows.getPageSize())
+				.raw(",\"items\":[");
+			boolean first = true;
+			for (T item : rows.getItems()) {
+				if (!first) {
+					out.raw(',');
+				}
+				serializer.write(item, selection, out);
+				first = false;
+			}
+			// after the items, so the count does not delay the first row
+			out.raw("],\"total\":").number(rows.getTotal())
+				.raw(",\"pageCount\":").number(rows.getPageCount())
+				.raw('}');
+			out.flush();
+		}
+	}
+
+	private static <T> void writeItem(T item, JsonSerializer<T> serializer, int[] selection, HttpServletResponse response) throws IOException {
+		if (item == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		response.setContentType(CONTENT_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		JsonWriter out = new JsonWriter(response.getWriter());
+		serializer.write(item, selection, out);
+		out.flush();
+	}
+
+}
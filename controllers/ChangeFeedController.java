@@ -0,0 +1,61 @@
+package com.vehicleinventory.controllers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.vehicleinventory.dao.ChangeEvent;
+import com.vehicleinventory.dao.ChangeLog;
+import com.vehicleinventory.throttle.Throttled;
+
+// incremental sync for downstream consumers (pricing tools, website)
+// GET /changes?since=N returns the next batch of events after sequence N as newline-delimited JSON,
+// the X-Next-Since header is the value to pass on the following call. a non-zero X-Lost-Events means writes committed
+// since the last restart never made it into the log, consumers should then resync in full
+@Controller
+public class ChangeFeedController {
+	
+	private static final int DEFAULT_BATCH = 1000;
+	private static final int MAX_BATCH = 10000;
+	
+	@Autowired
+	ChangeLog changeLog;
+	
+	@GetMapping("/changes")
+	@Throttled(Throttled.Kind.EXPORT)
+	public void streamChanges(@RequestParam(value="since", defaultValue="0") long since,
+			@RequestParam(value="limit", defaultValue="" + DEFAULT_BATCH) int limit, HttpServletResponse response) throws IOException {
+		List<ChangeEvent> events = changeLog.readSince(since, Math.max(1, Math.min(limit, MAX_BATCH)));
+		long next = events.isEmpty() ? since : events.get(events.size() - 1).getSequence();
+		
+		response.setContentType("application/x-ndjson");
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("X-Next-Since", Long.toString(next));
+		response.setHeader("X-Last-Sequence", Long.toString(changeLog.getLastSequence()));
+		response.setHeader("X-Lost-Events", Long.toString(changeLog.getLostEvents()));
+		
+		Writer out = response.getWriter();
+		for (ChangeEvent event : events) {
+			out.write("{\"seq\":");
+			out.write(Long.toString(event.getSequence()));
+			out.write(",\"ts\":");
+			out.write(Long.toString(event.getTimestamp()));
+			out.write(",\"entity\":\"");
+			out.write(event.getEntity());
+			out.write("\",\"op\":\"");
+			out.write(event.getOperation().name());
+			out.write("\",\"key\":\"");
+			out.write(event.getKey().replace("\\", "\\\\").replace("\"", "\\\""));
+			out.write("\"}\n");
+		}
+		out.flush();
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.vehicleinventory.controllers;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.vehicleinventory.service.CustomerAuthService;
+import com.vehicleinventory.service.CustomerPrincipal;
+import com.vehicleinventory.service.LoginResult;
+
+// customer self service portal, logged in customers carry a token cookie checked against AuthTokenCache
+@Controller
+@RequestMapping("/portal")
+public class CustomerPortalController {
+
+	static final String TOKEN_COOKIE = "PORTAL_TOKEN";
+	
+	@Autowired
+	CustomerAuthService customerAuthService;
+	
+	@GetMapping("/login")
+	public String showLogin() {
+		return "portal-login";
+	}
+	
+	@PostMapping("/login")
+	public String login(@RequestParam("username") String username, @RequestParam("password") String password,
+			HttpServletRequest request, HttpServletResponse response, Model model) {
+		LoginResult result = customerAuthService.login(username, password);
+		switch (result.getStatus()) {
+			case OK:
+				response.addCookie(tokenCookie(request, result.getToken(), -1));
+				return "redirect:/portal/account";
+			case LOCKED:
+				response.setStatus(429);
+				response.setHeader("Retry-After", Long.toString(result.getRetryAfterSeconds()));
+				model.addAttribute("error", "Too many failed logins, try again in " + ((result.getRetryAfterSeconds() + 59) / 60) + " minutes");
+				break;
+			default:
+				response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+				model.addAttribute("error", "Incorrect username or password");
+		}
+		model.addAttribute("username", username);
+		return "portal-login";
+	}
+	
+	@GetMapping("/account")
+	public String showAccount(@CookieValue(value=TOKEN_COOKIE, required=false) String token, Model model) {
+		CustomerPrincipal principal = customerAuthService.authenticate(token);
+		if (principal == null) {
+			return "redirect:/portal/login";
+		}
+		model.addAttribute("Customer", principal);
+		return "portal-account";
+	}
+	
+	@PostMapping("/logout")
+	public String logout(@CookieValue(value=TOKEN_COOKIE, required=false) String token,
+			HttpServletRequest request, HttpServletResponse response) {
+		customerAuthService.logout(token);
+		response.addCookie(tokenCookie(request, "", 0));
+		return "redirect:/portal/login";
+	}
+	
+	private static Cookie tokenCookie(HttpServletRequest request, String token, int maxAge) {
+		Cookie cookie = new Cookie(TOKEN_COOKIE, token);
+		cookie.setHttpOnly(true);
+		cookie.setSecure(request.isSecure());
+		cookie.setPath(request.getContextPath() + "/portal");
+		cookie.setMaxAge(maxAge);
+		return cookie;
+	}
+
+}
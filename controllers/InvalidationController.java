@@ -0,0 +1,47 @@
+package com.vehicleinventory.controllers;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import com.vehicleinventory.cache.HttpInvalidationBus;
+import com.vehicleinventory.cache.Invalidation;
+import com.vehicleinventory.cache.InvalidationBus;
+
+// receiving end of HttpInvalidationBus, other nodes POST their cache invalidation batches here
+// the batch is applied before the response goes out
+@Controller
+public class InvalidationController {
+
+	@Autowired
+	InvalidationBus invalidationBus;
+
+	@PostMapping(value=HttpInvalidationBus.PATH, consumes=Invalidation.MEDIA_TYPE)
+	public void receive(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (!(invalidationBus instanceof HttpInvalidationBus)) {
+			// a node without peers has nothing to receive
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		HttpInvalidationBus bus = (HttpInvalidationBus) invalidationBus;
+		if (!bus.acceptsSecret(request.getHeader(HttpInvalidationBus.SECRET_HEADER))) {
+			response.sendError(HttpServletResponse.SC_FORBIDDEN);
+			return;
+		}
+		Invalidation invalidation;
+		try {
+			invalidation = Invalidation.read(request.getInputStream());
+		} catch (IOException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+			return;
+		}
+		bus.receive(invalidation);
+		response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.vehicleinventory.controllers;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import com.vehicleinventory.cache.FinanceDetailsPrefetch;
+import com.vehicleinventory.dao.StatementCounter;
+import com.vehicleinventory.json.JsonWriter;
+
+// SQL statements per page since startup, see StatementCounter, and how often the finance prefetch was used
+// GET /statements returns {"pages":[{"page","views","statements","perView","max"}],"prefetch":{"hits","misses","dropped"}}
+@Controller
+public class StatementCountController {
+
+	@Autowired
+	StatementCounter statementCounter;
+
+	@Autowired
+	FinanceDetailsPrefetch financeDetailsPrefetch;
+
+	@GetMapping("/statements")
+	public void getStatements(HttpServletResponse response) throws IOException {
+		response.setContentType("application/json");
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("Cache-Control", "no-store");
+		JsonWriter out = new JsonWriter(response.getWriter());
+		out.raw("{\"pages\":[");
+		boolean first = true;
+		for (StatementCounter.PageStatements page : statementCounter.getPages()) {
+			out.raw(first ? "{\"page\":" : ",{\"page\":").string(page.getPage())
+				.raw(",\"views\":").number(page.getViews())
+				.raw(",\"statements\":").number(page.getStatements())
+				.raw(",\"perView\":").number(page.getStatementsPerView())
+				.raw(",\"max\":").number(page.getMaxStatements())
+				.raw('}');
+			first = false;
+		}
+		out.raw("],\"prefetch\":{\"hits\":").number(financeDetailsPrefetch.getHits())
+			.raw(",\"misses\":").number(financeDetailsPrefetch.getMisses())
+			.raw(",\"dropped\":").number(financeDetailsPrefetch.getDropped())
+			.raw("}}");
+		out.flush();
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.vehicleinventory.controllers;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.vehicleinventory.cache.InventorySnapshot;
+import com.vehicleinventory.cache.InventorySnapshotHolder;
+import com.vehicleinventory.json.EntitySerializers;
+import com.vehicleinventory.json.JsonWriter;
+import com.vehicleinventory.sync.VehicleBatchCodec;
+import com.vehicleinventory.throttle.Throttled;
+
+// full inventory pull for partner dealers, served from the in-memory snapshot
+// the format is picked from the Accept header: application/x-vehicle-batch (see VehicleBatchCodec) or application/json
+@Controller
+public class SyncController {
+
+	@Autowired
+	InventorySnapshotHolder inventorySnapshotHolder;
+
+	@GetMapping(value="/sync/vehicles", produces=VehicleBatchCodec.MEDIA_TYPE)
+	@Throttled(Throttled.Kind.EXPORT)
+	public void syncVehiclesBinary(HttpServletResponse response) throws IOException {
+		InventorySnapshot snapshot = inventorySnapshotHolder.current();
+		response.setContentType(VehicleBatchCodec.MEDIA_TYPE);
+		response.setHeader("X-Vehicle-Count", Integer.toString(snapshot.size()));
+		VehicleBatchCodec.encode(snapshot, response.getOutputStream());
+	}
+
+	@GetMapping(value="/sync/vehicles", produces="application/json")
+	@Throttled(Throttled.Kind.EXPORT)
+	public void syncVehiclesJson(@RequestParam(value="fields", required=false) String fields, HttpServletResponse response) throws IOException {
+		int[] selection = EntitySerializers.VEHICLE.select(fields);
+		InventorySnapshot snapshot = inventorySnapshotHolder.current();
+		response.setContentType("application/json");
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("X-Vehicle-Count", Integer.toString(snapshot.size()));
+
+		JsonWriter out = new JsonWriter(response.getWriter());
+		out.raw("{\"total\":").number(snapshot.size()).raw(",\"items\":[");
+		for (int row = 0; row < snapshot.size(); row++) {
+			if (row > 0) {
+				out.raw(',');
+			}
+			EntitySerializers.VEHICLE.write(snapshot.toVehicle(row), selection, out);
+		}
+		out.raw("]}");
+		out.flush();
+	}
+
+	// unknown names in ?fields=
+	@ExceptionHandler(IllegalArgumentException.class)
+	public void badRequest(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+		response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.vehicleinventory.controllers;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import com.vehicleinventory.json.JsonWriter;
+import com.vehicleinventory.throttle.Throttle;
+import com.vehicleinventory.throttle.Throttled;
+
+// live rate limiting and shedding counters, totals since startup plus what is in flight right now
+// GET /throttle returns {"admitted","rateLimited","clients","kinds":{"list":{...},"export":{...}}}
+@Controller
+public class ThrottleController {
+
+	@Autowired
+	Throttle throttle;
+
+	@GetMapping("/throttle")
+	public void getThrottle(HttpServletResponse response) throws IOException {
+		response.setContentType("application/json");
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("Cache-Control", "no-store");
+		JsonWriter out = new JsonWriter(response.getWriter());
+		out.raw("{\"admitted\":").number(throttle.getAdmitted())
+			.raw(",\"rateLimited\":").number(throttle.getClientRateLimited())
+			.raw(",\"clients\":").number(throttle.getTrackedClients())
+			.raw(",\"kinds\":{");
+		for (Throttled.Kind kind : Throttled.Kind.values()) {
+			out.raw(kind.ordinal() == 0 ? "" : ",").string(kind.name().toLowerCase(Locale.ROOT))
+				.raw(":{\"admitted\":").number(throttle.getAdmitted(kind))
+				.raw(",\"rateLimited\":").number(throttle.getRateLimited(kind))
+				.raw(",\"shed\":").number(throttle.getShed(kind))
+				.raw(",\"inFlight\":").number(throttle.getInFlight(kind))
+				.raw(",\"maxConcurrent\":").number(throttle.getMaxConcurrent(kind))
+				.raw('}');
+		}
+		out.raw("}}");
+		out.flush();
+	}
+
+}
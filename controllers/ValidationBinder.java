@@ -0,0 +1,25 @@
+package com.vehicleinventory.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+
+import com.vehicleinventory.validation.EntityValidators;
+
+// @Valid form objects are checked by the compiled validators instead of Bean Validation
+@ControllerAdvice
+public class ValidationBinder {
+
+	@Autowired
+	private EntityValidators entityValidators;
+
+	@InitBinder
+	public void useCompiledValidators(WebDataBinder binder) {
+		Object target = binder.getTarget();
+		if (target != null && entityValidators.supports(target.getClass())) {
+			binder.setValidator(entityValidators);
+		}
+	}
+
+}
@@ -1,6 +1,14 @@
 package com.vehicleinventory.controllers;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.validation.Valid;
 
@@ -8,16 +16,46 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.ServletRequestBindingException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.vehicleinventory.cache.CustomerSnapshot;
+import com.vehicleinventory.cache.FinanceDetailsPrefetch;
+import com.vehicleinventory.cache.InventorySnapshot;
+import com.vehicleinventory.cache.InventorySnapshotHolder;
+import com.vehicleinventory.cache.SubmissionCache;
+import com.vehicleinventory.cache.VehicleFilter;
+import com.vehicleinventory.dao.CustomerListQuery;
+import com.vehicleinventory.dao.ListQuery;
+import com.vehicleinventory.dao.Page;
+import com.vehicleinventory.dao.RepricingRule;
+import com.vehicleinventory.dao.VehicleListQuery;
+import com.vehicleinventory.dedup.DuplicateCustomerFinder;
+import com.vehicleinventory.dedup.DuplicateScan;
+import com.vehicleinventory.dedup.MergeSuggestion;
 import com.vehicleinventory.entity.CustomerAccount;
 import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.entity.Payment;
 import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.entity.VinCheck;
+import com.vehicleinventory.service.CustomerMergeEngine;
+import com.vehicleinventory.service.PaymentFileImporter;
+import com.vehicleinventory.service.PaymentPostingResult;
+import com.vehicleinventory.service.PaymentService;
+import com.vehicleinventory.service.RepricingEngine;
+import com.vehicleinventory.service.RepricingService;
 import com.vehicleinventory.service.VehicleService;
+import com.vehicleinventory.service.VinInfo;
+import com.vehicleinventory.service.VinService;
+import com.vehicleinventory.throttle.Throttled;
 
 @Controller
 @RequestMapping("/inventory")
@@ -26,7 +64,40 @@ public class VehicleController {
 	// injection of the service gives access to multiple tables in the Schema
 	@Autowired
 	VehicleService vehicleService;
+
+	@Autowired
+	PaymentService paymentService;
+
+	@Autowired
+	PaymentFileImporter paymentFileImporter;
+
+	@Autowired
+	InventorySnapshotHolder inventorySnapshotHolder;
+
+	@Autowired
+	RepricingService repricingService;
+
+	@Autowired
+	RepricingEngine repricingEngine;
+
+	@Autowired
+	VinService vinService;
+
+	@Autowired
+	CustomerMergeEngine customerMergeEngine;
+
+	@Autowired
+	SubmissionCache submissionCache;
+
+	@Autowired
+	FinanceDetailsPrefetch financeDetailsPrefetch;
 	
+	private static final int REPRICING_PREVIEW_ROWS = 200;
+	private static final int DUPLICATE_PREVIEW_ROWS = 500;
+
+	// every POST form carries a submitToken, a double-clicked save runs once, see SubmissionCache
+	private static final String SUBMIT_TOKEN = "submitToken";
+
 	// button linking to home menu
 	@GetMapping("/mainMenu")
 	public String showMain() {
@@ -34,40 +105,124 @@ public class VehicleController {
 	}
 	
 	// mapping for listing all vehicles of directory
+	// sort, direction, filters and page are bound into VehicleListQuery. they are applied to the in-memory snapshot,
+	// which is warm right after a restart (see SnapshotWarmStart), and pushed down to SQL only while the lot's
+	// snapshot is not loaded yet, so the page never waits for a snapshot build
 	@GetMapping("/listAll")
-	public String listVehicles(Model model) {
-		List<Vehicle> inventory = vehicleService.getVehicles();
-		model.addAttribute("Vehicles", inventory);
+	@Throttled(Throttled.Kind.LIST)
+	public String listVehicles(@ModelAttribute("ListQuery") VehicleListQuery listQuery, Model model) {
+		Page<Vehicle> page;
+		if (inventorySnapshotHolder.isLoaded()) {
+			VehicleFilter filter = new VehicleFilter();
+			filter.setMake(listQuery.getMake());
+			filter.setModel(listQuery.getModel());
+			filter.setMinYear(listQuery.getMinYear());
+			filter.setMaxYear(listQuery.getMaxYear());
+			filter.setMaxMileage(listQuery.getMaxMileage());
+			filter.setMinPrice(listQuery.getMinPrice());
+			filter.setMaxPrice(listQuery.getMaxPrice());
+			InventorySnapshot snapshot = inventorySnapshotHolder.current();
+			int[] rows = snapshot.sortForList(snapshot.filter(filter), listQuery.getSort(), !listQuery.isDescending());
+			page = new Page<>(snapshot.toVehicles(pageOf(rows, listQuery)), listQuery.getPage(), listQuery.getPageSize(), rows.length);
+		} else {
+			page = vehicleService.getVehicles(listQuery);
+		}
+		closeAfterRequest(page);
+		model.addAttribute("Page", page);
+		model.addAttribute("Vehicles", page.getItems());
 		
 		return "all-vehicles";
 	}
 	
+	// the rows of the requested page out of all matching snapshot rows
+	private static int[] pageOf(int[] rows, ListQuery listQuery) {
+		int from = (int) Math.min(rows.length, (long) (listQuery.getPage() - 1) * listQuery.getPageSize());
+		return Arrays.copyOfRange(rows, from, Math.min(rows.length, from + listQuery.getPageSize()));
+	}
+	
+	// list pages stream their rows while the JSP renders, so the page is only closed once the request has completed
+	private static void closeAfterRequest(Page<?> page) {
+		RequestContextHolder.currentRequestAttributes().registerDestructionCallback(
+				Page.class.getName() + "@" + System.identityHashCode(page), page::close, RequestAttributes.SCOPE_REQUEST);
+	}
+	
+	// filtered and sorted listing served from the in-memory snapshot instead of the database
+	// sort is one of price, year, mileage, prefixed with '-' for descending
+	@GetMapping("/search")
+	public String searchVehicles(@ModelAttribute("VehicleFilter") VehicleFilter filter, 
+			@RequestParam(value="sort", required=false) String sort, Model model) {
+		InventorySnapshot snapshot = inventorySnapshotHolder.current();
+		int[] rows = snapshot.filter(filter);
+		
+		if (sort != null && !sort.isEmpty()) {
+			boolean ascending = !sort.startsWith("-");
+			String column = ascending ? sort : sort.substring(1);
+			if (column.equals("price")) {
+				rows = snapshot.sortByPrice(rows, ascending);
+			} else if (column.equals("year")) {
+				rows = snapshot.sortByYear(rows, ascending);
+			} else if (column.equals("mileage")) {
+				rows = snapshot.sortByMileage(rows, ascending);
+			}
+		}
+		
+		model.addAttribute("Vehicles", snapshot.toVehicles(rows));
+		model.addAttribute("InventoryStats", snapshot.stats(rows));
+		return "all-vehicles";
+	}
+	
 	// add vehicle button
 	@GetMapping("/addVehicle")
 	public String showAddVehicleForm(Model model) {
 		Vehicle car = new Vehicle();
 		model.addAttribute("Vehicle", car);
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
+		return "vehicle-add-form";
+	}
+	
+	// fills in make and year on the add form from the VIN typed so far
+	@GetMapping("/decodeVin")
+	public String decodeVin(@ModelAttribute("Vehicle") Vehicle car, Model model) {
+		VinInfo info = vinService.decode(car.getVehicleIdNumber());
+		if (info.isValid()) {
+			if (car.getMake() == null || car.getMake().isEmpty()) {
+				car.setMake(info.getMake() == null ? "" : info.getMake());
+			}
+			if (info.getModel() != null && (car.getModel() == null || car.getModel().isEmpty())) {
+				car.setModel(info.getModel());
+			}
+			if (car.getYear() == 0) {
+				car.setYear(info.getModelYear());
+			}
+		}
+		model.addAttribute("VinInfo", info);
 		return "vehicle-add-form";
 	}
 	
 	// submitting form information for adding vehicle
 	@PostMapping("/addVehicleSave")
-	public String addVehicleSave(@Valid @ModelAttribute("Vehicle") Vehicle car, BindingResult bindingResult) {
-		if (bindingResult.hasErrors()) {
-			return "vehicle-add-form";
-		}
-		vehicleService.saveVehicle(car);
-		return "redirect:/inventory/listAll";
+	public String addVehicleSave(@Valid @ModelAttribute("Vehicle") Vehicle car, BindingResult bindingResult,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken) {
+		return submissionCache.submit("addVehicleSave", submitToken, () -> {
+			if (bindingResult.hasErrors()) {
+				return "vehicle-add-form";
+			}
+			vehicleService.saveVehicle(car);
+			return "redirect:/inventory/listAll";
+		});
 	}
 	
 	// submitting form information for updating vehicle
 	@PostMapping("/updateVehicleSave")
-	public String updateVehicleSave(@Valid @ModelAttribute("Vehicle") Vehicle car, BindingResult bindingResult) {
-		if (bindingResult.hasErrors()) {
-			return "vehicle-update-form";
-		}
-		vehicleService.saveVehicle(car);
-		return "redirect:/inventory/listAll";
+	public String updateVehicleSave(@Valid @ModelAttribute("Vehicle") Vehicle car, BindingResult bindingResult,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken) {
+		return submissionCache.submit("updateVehicleSave", submitToken, () -> {
+			if (bindingResult.hasErrors()) {
+				return "vehicle-update-form";
+			}
+			vehicleService.saveVehicle(car);
+			return "redirect:/inventory/listAll";
+		});
 	}
 	
 	// ------ action links within main table ------ >
@@ -84,6 +239,7 @@ public class VehicleController {
 	public String showFormForUpdate(@RequestParam("vehicleIdNumber") String vin, Model model) {
 		Vehicle car = vehicleService.getVehicle(vin);
 		model.addAttribute("Vehicle", car);
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
 		return "vehicle-update-form";
 	}
 	
@@ -101,18 +257,68 @@ public class VehicleController {
 	
 	// mapping delete link in table
 	@GetMapping("/delete")
-	public String deleteVehicle(@RequestParam("vehicleIdNumber") String vin, Model model) {
+	public String deleteVehicle(@RequestParam("vehicleIdNumber") String vin, Model model) throws ServletRequestBindingException {
+		// every stored vin passed @ValidVin, anything else cannot name a vehicle and is not passed on to the change log
+		if (!VinCheck.isWellFormed(vin)) {
+			throw new ServletRequestBindingException("vehicleIdNumber is not a VIN");
+		}
 		vehicleService.deleteVehicle(vin);
 		return "redirect:/inventory/listAll";
 	}
 
+	// ------------------- Repricing methods ---------------------------------- >
+	
+	// shows the bulk repricing form
+	@GetMapping("/repricing")
+	public String showRepricingForm(Model model) {
+		model.addAttribute("RepricingRule", new RepricingRule());
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
+		return "repricing-form";
+	}
+	
+	// dry run, lists the first vehicles the rule would touch without changing anything
+	@GetMapping("/repricingPreview")
+	public String previewRepricing(@Valid @ModelAttribute("RepricingRule") RepricingRule rule, BindingResult bindingResult, Model model) {
+		if (bindingResult.hasErrors()) {
+			return "repricing-form";
+		}
+		model.addAttribute("PriceChanges", repricingService.previewRepricing(rule, REPRICING_PREVIEW_ROWS));
+		model.addAttribute("affectedCount", repricingService.countRepricing(rule));
+		return "repricing-form";
+	}
+	
+	// applies the rule to the whole lot in chunked transactions, afterVin resumes a run that failed after that vin
+	@PostMapping("/repricingApply")
+	public String applyRepricing(@Valid @ModelAttribute("RepricingRule") RepricingRule rule, BindingResult bindingResult, 
+			@RequestParam(value="afterVin", defaultValue="") String afterVin,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken, RedirectAttributes redirectAttributes) {
+		return submissionCache.submit("repricingApply", submitToken, () -> {
+			if (bindingResult.hasErrors()) {
+				return "repricing-form";
+			}
+			redirectAttributes.addFlashAttribute("repricedCount", repricingEngine.applyRule(rule, afterVin));
+			return "redirect:/inventory/listAll";
+		});
+	}
+
 	// ------------------- CustomerAccount methods ---------------------------------- >
 	
-	// listing all customer accounts
+	// listing all customer accounts, from the snapshot when it is loaded like /listAll
 	@GetMapping("/listAccounts")
-	public String listCustomerAccounts(Model model) {
-		List<CustomerAccount> users = vehicleService.getCustomerAccounts();
-		model.addAttribute("CustomerAccounts", users);
+	@Throttled(Throttled.Kind.LIST)
+	public String listCustomerAccounts(@ModelAttribute("ListQuery") CustomerListQuery listQuery, Model model) {
+		Page<CustomerAccount> page;
+		if (inventorySnapshotHolder.isLoaded()) {
+			CustomerSnapshot customers = inventorySnapshotHolder.customers();
+			int[] rows = customers.listRows(listQuery.getLastName(), listQuery.getEmailAddress(), listQuery.getPhoneNumber(),
+					listQuery.getSort(), !listQuery.isDescending());
+			page = new Page<>(customers.toCustomerAccounts(pageOf(rows, listQuery)), listQuery.getPage(), listQuery.getPageSize(), rows.length);
+		} else {
+			page = vehicleService.getCustomerAccounts(listQuery);
+		}
+		closeAfterRequest(page);
+		model.addAttribute("Page", page);
+		model.addAttribute("CustomerAccounts", page.getItems());
 		
 		return "all-customers";
 	}
@@ -129,41 +335,147 @@ public class VehicleController {
 	public String showAddCustomerForm(Model model) {
 		CustomerAccount account = new CustomerAccount();
 		model.addAttribute("CustomerAccount", account);
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
 		return "customer-add-form";
 	}
 	
 	// new customer data submission
+	// the generated customerId makes a repeated submit a second account, which the token prevents
 	@PostMapping("/addCustomerAccountSave")
-	public String addCustomerAccountSave(@Valid @ModelAttribute("CustomerAccount") CustomerAccount account, BindingResult bindingResult) {
-		if (bindingResult.hasErrors()) {
-			return "customer-add-form";
-		}
-		vehicleService.saveCustomerAccount(account);
-		return "redirect:/inventory/listAccounts";
+	public String addCustomerAccountSave(@Valid @ModelAttribute("CustomerAccount") CustomerAccount account, BindingResult bindingResult,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken) {
+		return submissionCache.submit("addCustomerAccountSave", submitToken, () -> {
+			// only required here, a blank password on the update form keeps the current one
+			if (account.getNewPassword() == null || account.getNewPassword().isEmpty()) {
+				bindingResult.rejectValue("newPassword", "NotBlank", "cannot be blank");
+			}
+			rejectTakenUsername(account, bindingResult);
+			if (bindingResult.hasErrors()) {
+				return "customer-add-form";
+			}
+			vehicleService.saveCustomerAccount(account);
+			return "redirect:/inventory/listAccounts";
+		});
 	}
 	
 	// displays update form for customer account
 	@GetMapping("/showCustomerUpdateForm")
 	public String showCustomerFormForUpdate(@RequestParam("customerId") int custId, Model model) {
 		CustomerAccount account = vehicleService.getCustomerAccount(custId);
+		if (account != null) {
+			// the page links to the customer's financed vehicles, see FinanceDetailsPrefetch
+			financeDetailsPrefetch.prefetch(custId);
+		}
 		model.addAttribute("CustomerAccount", account);
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
 		return "customer-update-form";
 	}
 	
 	// form for updating customer account/data submission
 	@PostMapping("/updateCustomerAccountSave")
-	public String updateCustomerAccountSave(@Valid @ModelAttribute("CustomerAccount") CustomerAccount account, BindingResult bindingResult) {
-		if (bindingResult.hasErrors()) {
-			return "customer-update-form";
+	public String updateCustomerAccountSave(@Valid @ModelAttribute("CustomerAccount") CustomerAccount account, BindingResult bindingResult,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken) {
+		return submissionCache.submit("updateCustomerAccountSave", submitToken, () -> {
+			rejectTakenUsername(account, bindingResult);
+			if (bindingResult.hasErrors()) {
+				return "customer-update-form";
+			}
+			vehicleService.saveCustomerAccount(account);
+			return "redirect:/inventory/listAccounts";
+		});
+	}
+	
+	// the username is the portal login, V14 enforces the same rule in the database
+	private void rejectTakenUsername(CustomerAccount account, BindingResult bindingResult) {
+		if (!bindingResult.hasFieldErrors("username") && vehicleService.isUsernameTaken(account)) {
+			bindingResult.rejectValue("username", "Unique", "is already taken");
+		}
+	}
+	
+	// scans every account for duplicates and lists the best suggestions, nothing is changed
+	@GetMapping("/duplicateCustomers")
+	@Throttled(Throttled.Kind.LIST)
+	public String showDuplicateCustomers(@RequestParam(value="threshold", defaultValue="" + DuplicateCustomerFinder.DEFAULT_THRESHOLD) double threshold,
+			Model model) {
+		DuplicateScan scan = customerMergeEngine.findDuplicates(threshold);
+		List<MergeSuggestion> suggestions = scan.getSuggestions();
+		model.addAttribute("DuplicateScan", scan);
+		model.addAttribute("MergeSuggestions", suggestions.subList(0, Math.min(DUPLICATE_PREVIEW_ROWS, suggestions.size())));
+		model.addAttribute("CustomerSnapshot", inventorySnapshotHolder.customers());
+		model.addAttribute("threshold", threshold);
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
+		return "duplicate-customers";
+	}
+	
+	// merges the ticked suggestions, each value is "duplicateId:survivorId"; anything else is a 400
+	@PostMapping("/mergeDuplicateCustomers")
+	public String mergeDuplicateCustomers(@RequestParam(value="merge", required=false) List<String> merges,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken, RedirectAttributes redirectAttributes)
+			throws ServletRequestBindingException {
+		List<MergeSuggestion> suggestions = new ArrayList<>();
+		if (merges != null) {
+			for (String merge : merges) {
+				suggestions.add(parseMerge(merge));
+			}
+		}
+		checkMerges(suggestions);
+		return submissionCache.submit("mergeDuplicateCustomers", submitToken, () -> {
+			redirectAttributes.addFlashAttribute("mergedCount", customerMergeEngine.merge(suggestions));
+			return "redirect:/inventory/listAccounts";
+		});
+	}
+	
+	private static MergeSuggestion parseMerge(String merge) throws ServletRequestBindingException {
+		int colon = merge.indexOf(':');
+		try {
+			if (colon > 0) {
+				int duplicateId = Integer.parseInt(merge.substring(0, colon));
+				int survivorId = Integer.parseInt(merge.substring(colon + 1));
+				if (duplicateId > 0 && survivorId > 0 && duplicateId != survivorId) {
+					return new MergeSuggestion(duplicateId, survivorId, 1);
+				}
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new ServletRequestBindingException("merge must be duplicateId:survivorId, got '" + merge + "'");
+	}
+	
+	// each account is merged at most once and never into an account that is itself merged away in the same post,
+	// which rules out cycles (1:2 with 2:1) and chains (1:2 with 2:3)
+	private static void checkMerges(List<MergeSuggestion> suggestions) throws ServletRequestBindingException {
+		Set<Integer> duplicates = new HashSet<>();
+		for (MergeSuggestion suggestion : suggestions) {
+			if (!duplicates.add(suggestion.getDuplicateId())) {
+				throw new ServletRequestBindingException("customer " + suggestion.getDuplicateId() + " is merged more than once");
+			}
+		}
+		for (MergeSuggestion suggestion : suggestions) {
+			if (duplicates.contains(suggestion.getSurvivorId())) {
+				throw new ServletRequestBindingException("customer " + suggestion.getSurvivorId()
+						+ " cannot be a survivor, it is merged away in the same request");
+			}
 		}
-		vehicleService.saveCustomerAccount(account);
-		return "redirect:/inventory/listAccounts";
+	}
+	
+	// re-runs the scan and merges every suggestion at or above the threshold
+	@PostMapping("/mergeAllDuplicateCustomers")
+	public String mergeAllDuplicateCustomers(@RequestParam("threshold") double threshold,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken, RedirectAttributes redirectAttributes) {
+		return submissionCache.submit("mergeAllDuplicateCustomers", submitToken, () -> {
+			DuplicateScan scan = customerMergeEngine.findDuplicates(threshold);
+			redirectAttributes.addFlashAttribute("mergedCount", customerMergeEngine.merge(scan.getSuggestions()));
+			return "redirect:/inventory/listAccounts";
+		});
 	}
 	
 	// getting all financed vehicles for a single customer
 	@GetMapping("/showCustomerFinanceDetails")
 	public String showCustomerFinanceDetails(@RequestParam("customerId") int custId, Model model) {
-		List<FinanceRecord> financeRecords = vehicleService.getSingleCustomerFinancedVehicles(custId);
+		List<FinanceRecord> financeRecords = financeDetailsPrefetch.take(custId);
+		if (financeRecords == null) {
+			financeRecords = vehicleService.getSingleCustomerFinancedVehicles(custId);
+		}
 		model.addAttribute("FinanceRecords", financeRecords);
 		return "customer-finance-details";
 	}
@@ -172,6 +484,7 @@ public class VehicleController {
 	
 	// listing all finance records
 	@GetMapping("/listFinanceRecords")
+	@Throttled(Throttled.Kind.LIST)
 	public String listFinanceRecords(Model model) {
 		List<FinanceRecord> record = vehicleService.getFinanceRecords();
 		model.addAttribute("FinanceRecord", record);
@@ -185,27 +498,60 @@ public class VehicleController {
 		vehicleService.deleteCustomerAccount(finId);
 		return "redirect:/inventory/listFinanceRecords";
 	}
-	
+
+	// posts one payment against a finance record
+	@PostMapping("/postPayment")
+	public String postPayment(@RequestParam("financeId") int finId, @RequestParam("amount") double amount,
+			@RequestParam(value="reference", required=false) String reference, @RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken)
+			throws ServletRequestBindingException {
+		Payment payment = new Payment(finId, amount, reference);
+		// the payment file is checked line by line by EntityValidators, a single payment only needs its amount checked
+		if (payment.getAmountCents() < 1) {
+			throw new ServletRequestBindingException("amount must be at least $0.01, got " + amount);
+		}
+		return submissionCache.submit("postPayment", submitToken, () -> {
+			paymentService.postPayment(payment);
+			return "redirect:/inventory/listFinanceRecords";
+		});
+	}
+
+	// uploads a day's payment file, each line is "financeId,amount,reference"
+	@PostMapping("/postPaymentFile")
+	public String postPaymentFile(@RequestParam("paymentFile") MultipartFile paymentFile,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken, RedirectAttributes redirectAttributes) throws IOException {
+		return submissionCache.submit("postPaymentFile", submitToken, () -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(paymentFile.getInputStream(), StandardCharsets.UTF_8))) {
+				PaymentPostingResult result = paymentFileImporter.importPaymentFile(reader);
+				redirectAttributes.addFlashAttribute("PaymentPostingResult", result);
+			}
+			return "redirect:/inventory/listFinanceRecords";
+		});
+	}
+
 	//--------- needs working on ---------------------------------------------------------------------------- >
 	// shows form for adding finance record in all-vehicles.jsp table link
 	@GetMapping("/addFinanceRecord")
 	public String showAddRecordForm(Model model) {
 		CustomerAccount account = new CustomerAccount();
 		model.addAttribute("CustomerAccount", account);
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
 		return "finance-record-add-form";
 	}
 	
 	// new finance record data submission
 	@PostMapping("/addFinanceRecordSave")
-	public String addFinanceRecordSave(@Valid @ModelAttribute("FinanceRecord") FinanceRecord record, BindingResult bindingResult, Model model) {
-		if (bindingResult.hasErrors()) {
-			return "finance-add-form";
-		}
-		Vehicle car = vehicleService.getVehicle(vin);
-		model.addAttribute("car", car);
-		record.setVehicle(car);
-		vehicleService.saveCustomerAccount(record);
-		return "redirect:/inventory/listFinRecords";
+	public String addFinanceRecordSave(@Valid @ModelAttribute("FinanceRecord") FinanceRecord record, BindingResult bindingResult,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken, Model model) {
+		return submissionCache.submit("addFinanceRecordSave", submitToken, () -> {
+			if (bindingResult.hasErrors()) {
+				return "finance-add-form";
+			}
+			Vehicle car = vehicleService.getVehicle(vin);
+			model.addAttribute("car", car);
+			record.setVehicle(car);
+			vehicleService.saveFinanceRecord(record);
+			return "redirect:/inventory/listFinRecords";
+		});
 	}
 	
 	// displays update form for finance record
@@ -213,17 +559,21 @@ public class VehicleController {
 	public String showFinanceFormForUpdate(@RequestParam("financeId") int finId, Model model) {
 		FinanceRecord record = vehicleService.getFinanceRecord(finId);
 		model.addAttribute("FinanceRecord", record);
+		model.addAttribute(SUBMIT_TOKEN, submissionCache.newToken());
 		return "finance-update-form";
 	}
 	
 	// form for updating finance record/data submission
 	@PostMapping("/updateFinanceRecordSave")
-	public String updateFinanceRecordSave(@Valid @ModelAttribute("FinanceRecord") FinanceRecord record, BindingResult bindingResult) {
-		if (bindingResult.hasErrors()) {
-			return "finance-update-form";
-		}
-		vehicleService.saveCustomerAccount(record);
-		return "redirect:/inventory/listFinanceRecords";
+	public String updateFinanceRecordSave(@Valid @ModelAttribute("FinanceRecord") FinanceRecord record, BindingResult bindingResult,
+			@RequestParam(value=SUBMIT_TOKEN, required=false) String submitToken) {
+		return submissionCache.submit("updateFinanceRecordSave", submitToken, () -> {
+			if (bindingResult.hasErrors()) {
+				return "finance-update-form";
+			}
+			vehicleService.saveFinanceRecord(record);
+			return "redirect:/inventory/listFinanceRecords";
+		});
 	}
 
 }
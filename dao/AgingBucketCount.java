@@ -0,0 +1,37 @@
+package com.vehicleinventory.dao;
+
+// one days-on-lot bucket of an aging distribution, summed over the matching rollup rows
+public class AgingBucketCount {
+	
+	private final int bucket;
+	private final long onLot;
+	private final long sold;
+	private final long soldDays;
+	
+	public AgingBucketCount(int bucket, long onLot, long sold, long soldDays) {
+		this.bucket = bucket;
+		this.onLot = onLot;
+		this.sold = sold;
+		this.soldDays = soldDays;
+	}
+
+	public int getBucket() {
+		return bucket;
+	}
+
+	// vehicles of this age on the lot at the end of the day
+	public long getOnLot() {
+		return onLot;
+	}
+
+	// vehicles sold at this age
+	public long getSold() {
+		return sold;
+	}
+
+	// total days on lot of the sold vehicles, for average time to sale
+	public long getSoldDays() {
+		return soldDays;
+	}
+
+}
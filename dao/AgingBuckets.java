@@ -0,0 +1,38 @@
+package com.vehicleinventory.dao;
+
+// days-on-lot buckets of the InventoryAgingDaily rollup, the bucket number is what is stored
+// bucket i holds ages up to UPPER_DAYS[i] days, the last bucket everything older
+public final class AgingBuckets {
+	
+	private static final int[] UPPER_DAYS = { 15, 30, 45, 60, 90, 120, 180 };
+	
+	public static final int COUNT = UPPER_DAYS.length + 1;
+	
+	// days on lot used for a vehicle acquired before dateAcquired was recorded: the lower bound of the last bucket
+	public static final long UNKNOWN_DAYS = UPPER_DAYS[UPPER_DAYS.length - 1] + 1;
+	
+	private AgingBuckets() {}
+	
+	public static int bucket(long daysOnLot) {
+		for (int bucket = 0; bucket < UPPER_DAYS.length; bucket++) {
+			if (daysOnLot <= UPPER_DAYS[bucket]) {
+				return bucket;
+			}
+		}
+		return UPPER_DAYS.length;
+	}
+	
+	public static int minDays(int bucket) {
+		return bucket == 0 ? 0 : UPPER_DAYS[bucket - 1] + 1;
+	}
+	
+	// -1 for the open-ended last bucket
+	public static int maxDays(int bucket) {
+		return bucket < UPPER_DAYS.length ? UPPER_DAYS[bucket] : -1;
+	}
+	
+	public static String label(int bucket) {
+		return bucket < UPPER_DAYS.length ? minDays(bucket) + "-" + maxDays(bucket) : minDays(bucket) + "+";
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.vehicleinventory.dao;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// initializes lazy proxies fetch.batchSize at a time, one "where id in (...)" select per batch instead of one per proxy
+//
+// the loaded entities land in the session, so each proxy finds its target there on first use without going back to
+// the database; proxies already initialized and repeated ids cost nothing
+@Component
+public class BatchFetcher {
+
+	@Value("${fetch.batchSize:50}")
+	private int batchSize;
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void initialize(Session session, Class<?> type, Collection<?> proxies) {
+		Set<Serializable> ids = new LinkedHashSet<>();
+		for (Object proxy : proxies) {
+			if (proxy instanceof HibernateProxy && !Hibernate.isInitialized(proxy)) {
+				ids.add(((HibernateProxy) proxy).getHibernateLazyInitializer().getIdentifier());
+			}
+		}
+		if (!ids.isEmpty()) {
+			session.byMultipleIds(type).enableSessionCheck(true).withBatchSize(Math.max(1, batchSize))
+					.multiLoad(new ArrayList<>(ids));
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.vehicleinventory.dao;
+
+// one committed write recorded in the ChangeLog
+public class ChangeEvent {
+	
+	public enum Operation { UPSERT, DELETE }
+	
+	private final long sequence;
+	private final long timestamp;
+	private final String entity;
+	private final Operation operation;
+	private final String key;
+	
+	public ChangeEvent(long sequence, long timestamp, String entity, Operation operation, String key) {
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.entity = entity;
+		this.operation = operation;
+		this.key = key;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	// epoch millis of the commit
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	// entity name, e.g. Vehicle, CustomerAccount, FinanceRecord
+	public String getEntity() {
+		return entity;
+	}
+
+	public Operation getOperation() {
+		return operation;
+	}
+
+	// primary key of the written row (vin, customerId or financeId)
+	public String getKey() {
+		return key;
+	}
+
+}
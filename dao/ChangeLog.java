@@ -0,0 +1,278 @@
+package com.vehicleinventory.dao;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// local, append-only log of every write made through the DAOs, read by the /changes feed
+//
+// each line is "sequence<TAB>timestamp<TAB>entity<TAB>operation<TAB>key", sequences start at 1 and never repeat
+// the file is plain ASCII: in the key a backslash, tab, CR and LF are written as \\, \t, \r and \n and any other
+// character outside printable ASCII as a backslash, 'u' and four hex digits, so no key can split a line or lose a character
+// events recorded inside a transaction are held until it commits and then appended with a single fsync,
+// rolled back writes never reach the log
+// the database has already committed when the events are appended, so an append that fails cannot undo the write:
+// it is logged as SEVERE, counted in getLostEvents and thrown (a caller outside a transaction sees it directly)
+@Component
+public class ChangeLog {
+
+	private static final Logger LOGGER = Logger.getLogger(ChangeLog.class.getName());
+
+	// one (sequence, offset) pair is kept in memory per INDEX_INTERVAL events so readSince seeks instead of scanning
+	private static final int INDEX_INTERVAL = 1024;
+
+	@Value("${changefeed.file:change-feed.log}")
+	private String logFile;
+
+	private Path path;
+	private FileChannel channel;
+	private long lastSequence;
+	private long committedBytes;
+	private long lostEvents;
+	private long[] indexSequences = new long[64];
+	private long[] indexOffsets = new long[64];
+	private int indexSize;
+
+	@PostConstruct
+	public synchronized void open() throws IOException {
+		path = Paths.get(logFile);
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		// recover the last sequence and rebuild the sparse index. offsets are counted in bytes and a line only counts
+		// once its '\n' has been read, so a torn last line left by a crash is cut off even when all its fields made it
+		long offset = 0;
+		long position = 0;
+		StringBuilder line = new StringBuilder(64);
+		try (InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(0)))) {
+			int b;
+			while ((b = in.read()) != -1) {
+				position++;
+				if (b != '\n') {
+					line.append((char) b);
+					continue;
+				}
+				long sequence = parseSequence(line);
+				if (sequence <= lastSequence) {
+					break;
+				}
+				indexIfDue(sequence, offset);
+				lastSequence = sequence;
+				offset = position;
+				line.setLength(0);
+			}
+		}
+		channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		channel.truncate(offset);
+		channel.force(true);
+		committedBytes = offset;
+	}
+
+	// sequence of a complete line, or -1 when the line is not a well-formed event
+	private static long parseSequence(CharSequence line) {
+		String[] fields = line.toString().split("\t", -1);
+		if (fields.length != 5) {
+			return -1;
+		}
+		try {
+			Long.parseLong(fields[1]);
+			return Long.parseLong(fields[0]);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	@PreDestroy
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	// records a write, deferred until commit when called inside a transaction
+	@SuppressWarnings("unchecked")
+	public void record(String entity, ChangeEvent.Operation operation, Object key) {
+		String[] pending = { entity, operation.name(), String.valueOf(key) };
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			append(Arrays.<String[]>asList(pending));
+			return;
+		}
+
+		List<String[]> transactionEvents = (List<String[]>) TransactionSynchronizationManager.getResource(this);
+		if (transactionEvents == null) {
+			List<String[]> events = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, events);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLog.this);
+					if (status == TransactionSynchronization.STATUS_COMMITTED) {
+						append(events);
+					}
+				}
+			});
+			transactionEvents = events;
+		}
+		transactionEvents.add(pending);
+	}
+
+	private synchronized void append(List<String[]> events) {
+		long timestamp = System.currentTimeMillis();
+		StringBuilder lines = new StringBuilder(events.size() * 48);
+		long[] offsets = new long[events.size()];
+		long sequence = lastSequence;
+		for (int i = 0; i < events.size(); i++) {
+			String[] event = events.get(i);
+			offsets[i] = committedBytes + lines.length();
+			lines.append(++sequence).append('\t').append(timestamp).append('\t')
+				.append(event[0]).append('\t').append(event[1]).append('\t');
+			escape(event[2], lines);
+			lines.append('\n');
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.US_ASCII));
+		try {
+			long position = committedBytes;
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+			channel.force(false);
+			committedBytes = position;
+		} catch (IOException e) {
+			// the sequences are not used, so the feed has no gap; a part written before the failure is cut off again
+			try {
+				channel.truncate(committedBytes);
+			} catch (IOException ignored) {
+				// open() cuts it off at the next start
+			}
+			lostEvents += events.size();
+			LOGGER.log(Level.SEVERE, "Lost " + events.size() + " committed change events, consumers of " + path + " need a full resync", e);
+			throw new IllegalStateException("Could not append to change log " + path, e);
+		}
+		for (int i = 0; i < offsets.length; i++) {
+			indexIfDue(lastSequence + 1 + i, offsets[i]);
+		}
+		lastSequence = sequence;
+	}
+
+	private void indexIfDue(long sequence, long offset) {
+		if ((sequence - 1) % INDEX_INTERVAL != 0) {
+			return;
+		}
+		if (indexSize == indexSequences.length) {
+			indexSequences = Arrays.copyOf(indexSequences, indexSize * 2);
+			indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+		}
+		indexSequences[indexSize] = sequence;
+		indexOffsets[indexSize] = offset;
+		indexSize++;
+	}
+
+	public synchronized long getLastSequence() {
+		return lastSequence;
+	}
+
+	// events whose transaction committed but that could not be appended since startup, reported by /changes
+	public synchronized long getLostEvents() {
+		return lostEvents;
+	}
+
+	// up to limit events with a sequence greater than since, oldest first
+	public List<ChangeEvent> readSince(long since, int limit) throws IOException {
+		long startOffset;
+		long endOffset;
+		synchronized (this) {
+			if (since >= lastSequence) {
+				return new ArrayList<>();
+			}
+			int slot = Arrays.binarySearch(indexSequences, 0, indexSize, since + 1);
+			if (slot < 0) {
+				slot = -slot - 2;
+			}
+			startOffset = slot < 0 ? 0 : indexOffsets[slot];
+			endOffset = committedBytes;
+		}
+
+		List<ChangeEvent> events = new ArrayList<>(Math.min(limit, 1024));
+		try (FileChannel reading = FileChannel.open(path, StandardOpenOption.READ);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(reading.position(startOffset)), StandardCharsets.US_ASCII))) {
+			long offset = startOffset;
+			String line;
+			while (events.size() < limit && offset < endOffset && (line = reader.readLine()) != null) {
+				offset += line.length() + 1;
+				String[] fields = line.split("\t", -1);
+				long sequence = Long.parseLong(fields[0]);
+				if (sequence <= since) {
+					continue;
+				}
+				events.add(new ChangeEvent(sequence, Long.parseLong(fields[1]), fields[2], ChangeEvent.Operation.valueOf(fields[3]), unescape(fields[4])));
+			}
+		}
+		return events;
+	}
+
+	// the key field of a line, see the class comment
+	private static void escape(String key, StringBuilder out) {
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (c >= 0x20 && c <= 0x7e && c != '\\') {
+				out.append(c);
+				continue;
+			}
+			switch (c) {
+				case '\\': out.append("\\\\"); break;
+				case '\t': out.append("\\t"); break;
+				case '\r': out.append("\\r"); break;
+				case '\n': out.append("\\n"); break;
+				default: out.append(String.format("\\u%04x", (int) c));
+			}
+		}
+	}
+
+	private static String unescape(String field) {
+		if (field.indexOf('\\') < 0) {
+			return field;
+		}
+		StringBuilder key = new StringBuilder(field.length());
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c != '\\' || i + 1 == field.length()) {
+				key.append(c);
+				continue;
+			}
+			c = field.charAt(++i);
+			switch (c) {
+				case 't': key.append('\t'); break;
+				case 'r': key.append('\r'); break;
+				case 'n': key.append('\n'); break;
+				case 'u':
+					key.append((char) Integer.parseInt(field.substring(i + 1, i + 5), 16));
+					i += 4;
+					break;
+				default: key.append(c);
+			}
+		}
+		return key.toString();
+	}
+
+}
@@ -1,6 +1,8 @@
 package com.vehicleinventory.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.vehicleinventory.entity.CustomerAccount;
 import com.vehicleinventory.entity.FinanceRecord;
@@ -10,10 +12,31 @@ public interface CustomerAccountDAO {
 	public void saveCustomerAccount(CustomerAccount account);
 
 	public List<CustomerAccount> getCustomerAccounts();
+	
+	public Page<CustomerAccount> getCustomerAccounts(CustomerListQuery listQuery);
 
 	public CustomerAccount getCustomerAccount(int custId);
+	
+	public List<CustomerAccount> getCustomerAccounts(Collection<Integer> custIds);
+	
+	public CustomerAccount getCustomerAccountByUsername(String username);
+	
+	// whether another account of the same lot that is not merged already uses this username
+	public boolean isUsernameTaken(CustomerAccount account);
+	
+	public String getPasswordHash(int custId);
+	
+	public void updatePasswordHash(int custId, String passwordHash);
 
 	public void deleteCustomerAccount(int custId);
+	
+	// lot of each given account that is in the current lot and not merged into another one, the rows stay locked
+	// until the transaction ends so no concurrent merge can turn one of them into a duplicate meanwhile
+	public Map<Integer, Integer> lockUnmerged(Collection<Integer> custIds);
+	
+	// points each duplicate at its survivor, accounts merged before keep their first survivor
+	// merged[i] tells whether duplicateIds[i] was actually marked, only those may have their records moved
+	public boolean[] markMerged(int[] duplicateIds, int[] survivorIds);
 
 	List<FinanceRecord> getFinancedVehicles(int id);
 }
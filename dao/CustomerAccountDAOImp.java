@@ -1,35 +1,129 @@
 package com.vehicleinventory.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import com.vehicleinventory.entity.CustomerAccount;
 import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.tenant.TenantContext;
 
 @Repository
 public class CustomerAccountDAOImp implements CustomerAccountDAO{
 	
+	// whitelist of sorts offered on the list page, each one matches an index declared on CustomerAccount
+	// customerId is always the last key so pages are stable between requests
+	private static final Map<String, String[]> SORTS = new HashMap<>();
+	private static final String DEFAULT_SORT = "lastName";
+	
+	static {
+		SORTS.put("lastName", new String[] { "lastName", "firstName" });
+		SORTS.put("email", new String[] { "emailAddress" });
+		SORTS.put("id", new String[0]);
+	}
+	
+	static final String FINANCED_VEHICLES_HQL =
+			"select f from FinanceRecord f join fetch f.customerAccount left join fetch f.vehicle "
+			+ "where f.customerAccount.customerId = :id order by f.financeId";
+	// usernames are not unique in older data, the oldest account wins
+	// at most one row, V14 makes the username unique among the accounts of a lot that are not merged
+	static final String BY_USERNAME_HQL = "from CustomerAccount c where c.username = :username and c.lotId = :lotId"
+			+ " and c.mergedInto is null";
+	
+	static final String USERNAME_TAKEN_HQL = "select count(c) from CustomerAccount c where c.username = :username"
+			+ " and c.lotId = :lotId and c.customerId <> :custId and c.mergedInto is null";
+	
 	@Autowired
 	private SessionFactory sessionFactory;
 	
+	@Autowired
+	private TenantSessions tenantSessions;
+	
+	@Autowired
+	private WatermarkDAO watermarkDAO;
+	
+	@Autowired
+	private ChangeLog changeLog;
+	
 	@Override
 	public List<CustomerAccount> getCustomerAccounts() {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
 		Query<CustomerAccount> theQuery = currentSession.createQuery("from customerAccounts order by lastName", CustomerAccount.class);
 		List<CustomerAccount> CustomerAccounts = theQuery.getResultList();
 				
 		return CustomerAccounts;
 	}
 	
+	@Override
+	public Page<CustomerAccount> getCustomerAccounts(CustomerListQuery listQuery) {
+		Map<String, Object> parameters = new HashMap<>();
+		String countHql = listCountHql(listQuery, parameters);
+		
+		// rows are streamed to the view instead of being loaded into a list here, rows and count run as the view reads them
+		RowStream<CustomerAccount> rows = RowStream.open(sessionFactory, listHql(listQuery, parameters), parameters,
+				listQuery.getFirstResult(), listQuery.getPageSize(), CustomerAccount.class);
+		return new Page<>(rows, listQuery.getPage(), listQuery.getPageSize(),
+				() -> RowStream.count(sessionFactory, countHql, parameters));
+	}
+	
+	static String listHql(CustomerListQuery listQuery, Map<String, Object> parameters) {
+		return "from CustomerAccount c" + listWhere(listQuery, parameters) + listOrder(listQuery);
+	}
+	
+	static String listCountHql(CustomerListQuery listQuery, Map<String, Object> parameters) {
+		return "select count(c) from CustomerAccount c" + listWhere(listQuery, parameters);
+	}
+	
+	// spelled out for the StatelessSession of RowStream, see TenantSessions
+	private static String listWhere(CustomerListQuery listQuery, Map<String, Object> parameters) {
+		StringBuilder where = new StringBuilder(TenantSessions.lotPredicate("c.", parameters));
+		if (listQuery.getLastName() != null) {
+			where.append(" and c.lastName like :lastName");
+			parameters.put("lastName", listQuery.getLastName().replace("%", "\\%").replace("_", "\\_") + "%");
+		}
+		if (listQuery.getEmailAddress() != null) {
+			where.append(" and c.emailAddress = :emailAddress");
+			parameters.put("emailAddress", listQuery.getEmailAddress());
+		}
+		if (listQuery.getPhoneNumber() != null) {
+			where.append(" and c.phoneNumber = :phoneNumber");
+			parameters.put("phoneNumber", listQuery.getPhoneNumber());
+		}
+		return where.length() == 0 ? "" : " where" + where.substring(4);
+	}
+	
+	private static String listOrder(ListQuery listQuery) {
+		String[] columns = SORTS.get(listQuery.getSort());
+		if (columns == null) {
+			columns = SORTS.get(DEFAULT_SORT);
+		}
+		String direction = listQuery.isDescending() ? " desc" : " asc";
+		StringBuilder order = new StringBuilder(" order by ");
+		for (String column : columns) {
+			order.append("c.").append(column).append(direction).append(", ");
+		}
+		return order.append("c.customerId").append(direction).toString();
+	}
+	
+	// the customer's finance records with their account and vehicle in one select
+	// (the inverse one-to-one to Vehicle cannot be lazy, without the fetch every record would cost one more select)
 	@Override
 	public List<FinanceRecord> getFinancedVehicles(int id){
-		Session currentSession = sessionFactory.getCurrentSession();
-		Query<FinanceRecord> theQuery = currentSession.createQuery("from financeRecords where customerId=:id", FinanceRecord.class);
+		Session currentSession = tenantSessions.current();
+		Query<FinanceRecord> theQuery = currentSession.createQuery(FINANCED_VEHICLES_HQL, FinanceRecord.class);
+		theQuery.setParameter("id", id);
 		List<FinanceRecord> financedVehicles = theQuery.getResultList();
 		
 		return financedVehicles;
@@ -37,25 +131,195 @@ public class CustomerAccountDAOImp implements CustomerAccountDAO{
 	
 	@Override
 	public void saveCustomerAccount(CustomerAccount account) {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
+		if (account.getCustomerId() != 0) {
+			tenantSessions.checkOwner("CustomerAccounts", "customerId", account.getCustomerId());
+			// not on the forms and not updatable, read back so the saved event does not put a merged account back in the snapshot
+			account.setMergedInto(currentSession.createQuery(
+					"select c.mergedInto from CustomerAccount c where c.customerId = :custId", Integer.class)
+					.setParameter("custId", account.getCustomerId())
+					.uniqueResult());
+		}
+		if (account.getLotId() == 0) {
+			account.setLotId(TenantContext.getLotIdOrDefault());
+		}
 		currentSession.saveOrUpdate(account);
+		watermarkDAO.advanceWatermark(WatermarkDAO.inventory(account.getLotId()));
+		changeLog.record("CustomerAccount", ChangeEvent.Operation.UPSERT, account.getCustomerId());
 	}
 
 	
 	@Override
 	public CustomerAccount getCustomerAccount(int custId) {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
 		CustomerAccount car = currentSession.get(CustomerAccount.class, custId);
 		
-		return car;
+		return car != null && TenantContext.canSee(car.getLotId()) ? car : null;
+	}
+	
+	// READ by id, ids that do not exist (or belong to another lot) are simply missing from the result
+	@Override
+	public List<CustomerAccount> getCustomerAccounts(Collection<Integer> custIds) {
+		if (custIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Session currentSession = tenantSessions.current();
+		Query<CustomerAccount> theQuery = currentSession.createQuery("from CustomerAccount c where c.customerId in (:custIds)", CustomerAccount.class);
+		theQuery.setParameterList("custIds", custIds);
+		
+		return theQuery.getResultList();
+	}
+	
+	@Override
+	public CustomerAccount getCustomerAccountByUsername(String username) {
+		Session currentSession = tenantSessions.current();
+		Query<CustomerAccount> theQuery = currentSession.createQuery(BY_USERNAME_HQL, CustomerAccount.class);
+		theQuery.setParameter("username", username);
+		// logins without a selected lot sign in to the default one, a username alone is only unique within a lot
+		theQuery.setParameter("lotId", TenantContext.getLotIdOrDefault());
+		
+		return theQuery.uniqueResult();
+	}
+	
+	@Override
+	public boolean isUsernameTaken(CustomerAccount account) {
+		Session currentSession = tenantSessions.current();
+		int lotId = account.getLotId();
+		if (lotId == 0 && account.getCustomerId() != 0) {
+			// not on the update form, the account stays in the lot it was created in
+			Integer storedLot = currentSession.createQuery(
+					"select c.lotId from CustomerAccount c where c.customerId = :custId", Integer.class)
+					.setParameter("custId", account.getCustomerId())
+					.uniqueResult();
+			lotId = storedLot != null ? storedLot : 0;
+		}
+		if (lotId == 0) {
+			lotId = TenantContext.getLotIdOrDefault();
+		}
+		Query<Long> theQuery = currentSession.createQuery(USERNAME_TAKEN_HQL, Long.class);
+		theQuery.setParameter("username", account.getUsername());
+		theQuery.setParameter("lotId", lotId);
+		theQuery.setParameter("custId", account.getCustomerId());
+		
+		return theQuery.uniqueResult() > 0;
+	}
+	
+	@Override
+	public String getPasswordHash(int custId) {
+		Session currentSession = tenantSessions.current();
+		Query<String> theQuery = currentSession.createQuery(
+				"select c.password from CustomerAccount c where c.customerId = :custId", String.class);
+		theQuery.setParameter("custId", custId);
+		
+		return theQuery.uniqueResult();
+	}
+	
+	// a rehash on login is not a profile change, so no watermark or change feed entry
+	@Override
+	public void updatePasswordHash(int custId, String passwordHash) {
+		Session currentSession = tenantSessions.current();
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("passwordHash", passwordHash);
+		parameters.put("custId", custId);
+		Query<?> theQuery = currentSession.createQuery("update CustomerAccount c set c.password = :passwordHash where c.customerId = :custId"
+				+ TenantSessions.lotPredicate("c.", parameters));
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			theQuery.setParameter(parameter.getKey(), parameter.getValue());
+		}
+		theQuery.executeUpdate();
 	}
 	
 	@SuppressWarnings("rawtypes")
 	@Override
 	public void deleteCustomerAccount(int custId) {
-		Session currentSession = sessionFactory.getCurrentSession();
-		Query carQuery = currentSession.createQuery("delete from customerAccounts where id=:custId");
-		carQuery.setParameter("custId", custId);
-		carQuery.executeUpdate();		
+		Session currentSession = tenantSessions.current();
+		List<Integer> lots = tenantSessions.lotsOf("CustomerAccounts", "customerId", Collections.singletonList(custId));
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("custId", custId);
+		Query carQuery = currentSession.createQuery("delete from customerAccounts where id=:custId" + TenantSessions.lotPredicate("", parameters));
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			carQuery.setParameter(parameter.getKey(), parameter.getValue());
+		}
+		if (carQuery.executeUpdate() == 0) {
+			return;
+		}
+		for (int lotId : lots) {
+			watermarkDAO.advanceWatermark(WatermarkDAO.inventory(lotId));
+		}
+		changeLog.record("CustomerAccount", ChangeEvent.Operation.DELETE, custId);
+	}
+	
+	// native so the rows can be locked, the lot filter does not apply to it
+	static String lockUnmergedSql(Map<String, Object> parameters) {
+		return "select customerId, lotId from CustomerAccounts where customerId in (:ids) and mergedInto is null"
+				+ TenantSessions.lotPredicate("", parameters) + " for update";
+	}
+	
+	@Override
+	public Map<Integer, Integer> lockUnmerged(Collection<Integer> custIds) {
+		Map<Integer, Integer> unmerged = new HashMap<>();
+		if (custIds.isEmpty()) {
+			return unmerged;
+		}
+		Map<String, Object> parameters = new HashMap<>();
+		NativeQuery<?> lockQuery = tenantSessions.current().createNativeQuery(lockUnmergedSql(parameters));
+		lockQuery.setParameterList("ids", custIds);
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			lockQuery.setParameter(parameter.getKey(), parameter.getValue());
+		}
+		for (Object row : lockQuery.getResultList()) {
+			Object[] columns = (Object[]) row;
+			unmerged.put(((Number) columns[0]).intValue(), ((Number) columns[1]).intValue());
+		}
+		return unmerged;
+	}
+	
+	// one JDBC batch for the whole chunk, like FinanceRecordDAOImp.reassignCustomers
+	@Override
+	public boolean[] markMerged(int[] duplicateIds, int[] survivorIds) {
+		Session currentSession = tenantSessions.current();
+		boolean[] merged = new boolean[duplicateIds.length];
+		if (duplicateIds.length == 0) {
+			return merged;
+		}
+		List<Integer> duplicates = new ArrayList<>(duplicateIds.length);
+		for (int id : duplicateIds) {
+			duplicates.add(id);
+		}
+		List<Integer> lots = tenantSessions.lotsOf("CustomerAccounts", "customerId", duplicates);
+		
+		// the update bypasses the session, anything it already holds would be stale
+		currentSession.flush();
+		Integer lotId = TenantContext.getLotId();
+		currentSession.doWork(connection -> {
+			try (PreparedStatement update = connection.prepareStatement(
+					"update CustomerAccounts set mergedInto = ? where customerId = ? and mergedInto is null"
+					+ (lotId == null ? "" : " and lotId = ?"))) {
+				for (int i = 0; i < duplicateIds.length; i++) {
+					update.setInt(1, survivorIds[i]);
+					update.setInt(2, duplicateIds[i]);
+					if (lotId != null) {
+						update.setInt(3, lotId);
+					}
+					update.addBatch();
+				}
+				int[] counts = update.executeBatch();
+				for (int i = 0; i < counts.length; i++) {
+					// SUCCESS_NO_INFO as in PaymentDAOImp, the rows were checked by lockUnmerged and are still locked
+					merged[i] = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+				}
+			}
+		});
+		currentSession.clear();
+		
+		for (int lot : lots) {
+			watermarkDAO.advanceWatermark(WatermarkDAO.inventory(lot));
+		}
+		for (int i = 0; i < duplicateIds.length; i++) {
+			if (merged[i]) {
+				changeLog.record("CustomerAccount", ChangeEvent.Operation.UPSERT, duplicateIds[i]);
+			}
+		}
+		return merged;
 	}
 }
@@ -0,0 +1,37 @@
+package com.vehicleinventory.dao;
+
+// list options for /inventory/listAccounts, every filter left null is not applied
+public class CustomerListQuery extends ListQuery {
+	
+	// matched as a prefix so the lastName index can be used
+	private String lastName;
+	private String emailAddress;
+	private String phoneNumber;
+	
+	public CustomerListQuery() {}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setLastName(String lastName) {
+		this.lastName = blankToNull(lastName);
+	}
+
+	public String getEmailAddress() {
+		return emailAddress;
+	}
+
+	public void setEmailAddress(String emailAddress) {
+		this.emailAddress = blankToNull(emailAddress);
+	}
+
+	public String getPhoneNumber() {
+		return phoneNumber;
+	}
+
+	public void setPhoneNumber(String phoneNumber) {
+		this.phoneNumber = blankToNull(phoneNumber);
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.vehicleinventory.dao;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// one customer's monthly statement: every loan posted at the month end, with the payments made on it during the month
+public class CustomerStatement {
+	
+	private final int customerId;
+	private final String firstName;
+	private final String lastName;
+	private final String emailAddress;
+	private final String mailingAddress;
+	private final List<Loan> loans = new ArrayList<>(2);
+	
+	public CustomerStatement(int customerId, String firstName, String lastName, String emailAddress, String mailingAddress) {
+		this.customerId = customerId;
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.emailAddress = emailAddress;
+		this.mailingAddress = mailingAddress;
+	}
+	
+	// a MonthEndPostings row and the vehicle it finances, amounts in whole cents
+	public static class Loan {
+		private final int financeId;
+		private final String vehicleIdNumber;
+		private final int installmentNumber;
+		private final int termLength;
+		private final long interestCents;
+		private final long principalCents;
+		private final long amountDueCents;
+		private final long balanceCents;
+		private final boolean paidOff;
+		private final List<PostedPayment> payments = new ArrayList<>(2);
+		
+		public Loan(int financeId, String vehicleIdNumber, int installmentNumber, int termLength, long interestCents,
+				long principalCents, long amountDueCents, long balanceCents, boolean paidOff) {
+			this.financeId = financeId;
+			this.vehicleIdNumber = vehicleIdNumber;
+			this.installmentNumber = installmentNumber;
+			this.termLength = termLength;
+			this.interestCents = interestCents;
+			this.principalCents = principalCents;
+			this.amountDueCents = amountDueCents;
+			this.balanceCents = balanceCents;
+			this.paidOff = paidOff;
+		}
+
+		public int getFinanceId() {
+			return financeId;
+		}
+
+		public String getVehicleIdNumber() {
+			return vehicleIdNumber;
+		}
+
+		public int getInstallmentNumber() {
+			return installmentNumber;
+		}
+
+		public int getTermLength() {
+			return termLength;
+		}
+
+		public long getInterestCents() {
+			return interestCents;
+		}
+
+		public long getPrincipalCents() {
+			return principalCents;
+		}
+
+		public long getAmountDueCents() {
+			return amountDueCents;
+		}
+
+		public long getBalanceCents() {
+			return balanceCents;
+		}
+
+		public boolean isPaidOff() {
+			return paidOff;
+		}
+
+		public List<PostedPayment> getPayments() {
+			return payments;
+		}
+	}
+	
+	// a Payments row posted during the statement month
+	public static class PostedPayment {
+		private final LocalDateTime postedAt;
+		private final long amountCents;
+		private final String reference;
+		
+		public PostedPayment(LocalDateTime postedAt, long amountCents, String reference) {
+			this.postedAt = postedAt;
+			this.amountCents = amountCents;
+			this.reference = reference;
+		}
+
+		public LocalDateTime getPostedAt() {
+			return postedAt;
+		}
+
+		public long getAmountCents() {
+			return amountCents;
+		}
+
+		public String getReference() {
+			return reference;
+		}
+	}
+
+	public int getCustomerId() {
+		return customerId;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public String getEmailAddress() {
+		return emailAddress;
+	}
+
+	public String getMailingAddress() {
+		return mailingAddress;
+	}
+
+	public List<Loan> getLoans() {
+		return loans;
+	}
+	
+	public long getAmountDueCents() {
+		long total = 0;
+		for (Loan loan : loans) {
+			total += loan.amountDueCents;
+		}
+		return total;
+	}
+	
+	public long getBalanceCents() {
+		long total = 0;
+		for (Loan loan : loans) {
+			total += loan.balanceCents;
+		}
+		return total;
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.vehicleinventory.dao;
+
+// list options for finance records, every filter left null is not applied
+public class FinanceListQuery extends ListQuery {
+
+	private Integer customerId;
+	private Boolean paidOff;
+
+	public FinanceListQuery() {}
+
+	public Integer getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Integer customerId) {
+		this.customerId = customerId;
+	}
+
+	public Boolean getPaidOff() {
+		return paidOff;
+	}
+
+	public void setPaidOff(Boolean paidOff) {
+		this.paidOff = paidOff;
+	}
+
+}
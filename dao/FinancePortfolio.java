@@ -0,0 +1,37 @@
+package com.vehicleinventory.dao;
+
+// totals over the finance records that are not paid off, summed by the database in whole cents
+public class FinancePortfolio {
+	
+	private final long openLoans;
+	private final long principalCents;
+	private final long outstandingCents;
+	private final long monthlyDueCents;
+	
+	public FinancePortfolio(long openLoans, long principalCents, long outstandingCents, long monthlyDueCents) {
+		this.openLoans = openLoans;
+		this.principalCents = principalCents;
+		this.outstandingCents = outstandingCents;
+		this.monthlyDueCents = monthlyDueCents;
+	}
+
+	public long getOpenLoans() {
+		return openLoans;
+	}
+
+	// vehicle price less down payment, what was lent
+	public long getPrincipalCents() {
+		return principalCents;
+	}
+
+	// remaining balances, interest included
+	public long getOutstandingCents() {
+		return outstandingCents;
+	}
+
+	// what the open loans bring in each month
+	public long getMonthlyDueCents() {
+		return monthlyDueCents;
+	}
+
+}
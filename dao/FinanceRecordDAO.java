@@ -9,9 +9,19 @@ public interface FinanceRecordDAO {
 	public void saveFinanceRecord(FinanceRecord record);
 
 	public List<FinanceRecord> getFinanceRecords();
+	
+	public Page<FinanceRecord> getFinanceRecords(FinanceListQuery listQuery);
 
 	public FinanceRecord getFinanceRecord(int finId);
+	
+	// every record for the vehicle, older ones included, with customer and vehicle loaded
+	public List<FinanceRecord> getVehicleFinanceRecords(String vin);
+	
+	public FinancePortfolio getFinancePortfolio();
 
 	public void deleteFinanceRecord(int finId);
+	
+	// moves every finance record of duplicateIds[i] to survivorIds[i], returns how many records moved
+	public int reassignCustomers(int[] duplicateIds, int[] survivorIds);
 
 }
@@ -1,6 +1,10 @@
 package com.vehicleinventory.dao;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -8,43 +12,176 @@ import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import com.vehicleinventory.entity.CustomerAccount;
 import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.tenant.TenantContext;
 
 @Repository
 public class FinanceRecordDAOImp implements FinanceRecordDAO{
 	@Autowired
 	private SessionFactory sessionFactory;
 	
+	@Autowired
+	private TenantSessions tenantSessions;
+	
+	static final String VEHICLE_FINANCE_RECORDS_HQL =
+			"select f from FinanceRecord f join fetch f.customerAccount left join fetch f.vehicle "
+			+ "where f.vehicleIdNumber = :vin order by f.financeId";
+	static final String PORTFOLIO_HQL =
+			"select count(f), coalesce(sum(f.vehiclePrice - f.downPayment), 0), coalesce(sum(f.balance), 0), "
+			+ "coalesce(sum(f.monthlyPaymentAmount), 0) from FinanceRecord f where f.paidOff = false";
+	
+	@Autowired
+	private ChangeLog changeLog;
+	
+	@Autowired
+	private BatchFetcher batchFetcher;
+	
+	// vehicles come with the records, customers are batch fetched since many records share one
 	@Override
 	public List<FinanceRecord> getFinanceRecords() {
-		Session currentSession = sessionFactory.getCurrentSession();
-		Query<FinanceRecord> theQuery = currentSession.createQuery("from FinanceRecord order by financeId", FinanceRecord.class);
+		Session currentSession = tenantSessions.current();
+		Query<FinanceRecord> theQuery = currentSession.createQuery(
+				"select f from FinanceRecord f left join fetch f.vehicle order by f.financeId", FinanceRecord.class);
 		List<FinanceRecord> FinanceRecords = theQuery.getResultList();
-				
+		
+		List<CustomerAccount> customers = new ArrayList<>(FinanceRecords.size());
+		for (FinanceRecord record : FinanceRecords) {
+			customers.add(record.getCustomerAccount());
+		}
+		batchFetcher.initialize(currentSession, CustomerAccount.class, customers);
 		return FinanceRecords;
 	}
 	
+	// READ page ordered by financeId, the customer and vehicle are fetched in the same query
+	// (the inverse one-to-one to Vehicle cannot be lazy, without the fetch every row would cost one more select)
+	@Override
+	public Page<FinanceRecord> getFinanceRecords(FinanceListQuery listQuery) {
+		Map<String, Object> parameters = new HashMap<>();
+		String countHql = listCountHql(listQuery, parameters);
+		
+		RowStream<FinanceRecord> rows = RowStream.open(sessionFactory, listHql(listQuery, parameters), parameters,
+				listQuery.getFirstResult(), listQuery.getPageSize(), FinanceRecord.class);
+		return new Page<>(rows, listQuery.getPage(), listQuery.getPageSize(),
+				() -> RowStream.count(sessionFactory, countHql, parameters));
+	}
+	
+	static String listHql(FinanceListQuery listQuery, Map<String, Object> parameters) {
+		String order = listQuery.isDescending() ? " order by f.financeId desc" : " order by f.financeId asc";
+		return "select f from FinanceRecord f join fetch f.customerAccount left join fetch f.vehicle"
+				+ listWhere(listQuery, parameters) + order;
+	}
+	
+	static String listCountHql(FinanceListQuery listQuery, Map<String, Object> parameters) {
+		return "select count(f) from FinanceRecord f" + listWhere(listQuery, parameters);
+	}
+	
+	// spelled out for the StatelessSession of RowStream, see TenantSessions
+	private static String listWhere(FinanceListQuery listQuery, Map<String, Object> parameters) {
+		StringBuilder where = new StringBuilder(TenantSessions.lotPredicate("f.", parameters));
+		if (listQuery.getCustomerId() != null) {
+			where.append(" and f.customerAccount.customerId = :customerId");
+			parameters.put("customerId", listQuery.getCustomerId());
+		}
+		if (listQuery.getPaidOff() != null) {
+			where.append(" and f.paidOff = :paidOff");
+			parameters.put("paidOff", listQuery.getPaidOff());
+		}
+		return where.length() == 0 ? "" : " where" + where.substring(4);
+	}
+	
 	@Override
 	public void saveFinanceRecord(FinanceRecord record) {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
+		if (record.getFinanceId() != 0) {
+			tenantSessions.checkOwner("FinanceRecords", "financeId", record.getFinanceId());
+		}
+		if (record.getLotId() == 0) {
+			record.setLotId(TenantContext.getLotIdOrDefault());
+		}
 		currentSession.saveOrUpdate(record);
+		changeLog.record("FinanceRecord", ChangeEvent.Operation.UPSERT, record.getFinanceId());
 	}
 
 
 	@Override
 	public FinanceRecord getFinanceRecord(int finId) {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
 		FinanceRecord car = currentSession.get(FinanceRecord.class, finId);
 		
-		return car;
+		return car != null && TenantContext.canSee(car.getLotId()) ? car : null;
+	}
+	
+	@Override
+	public List<FinanceRecord> getVehicleFinanceRecords(String vin) {
+		Session currentSession = tenantSessions.current();
+		Query<FinanceRecord> theQuery = currentSession.createQuery(VEHICLE_FINANCE_RECORDS_HQL, FinanceRecord.class);
+		theQuery.setParameter("vin", vin);
+		return theQuery.getResultList();
+	}
+	
+	// one aggregate row, the amounts are cents so the sums are exact however many records there are
+	@Override
+	public FinancePortfolio getFinancePortfolio() {
+		Session currentSession = tenantSessions.current();
+		Object[] totals = currentSession.createQuery(PORTFOLIO_HQL, Object[].class).uniqueResult();
+		return new FinancePortfolio(((Number) totals[0]).longValue(), ((Number) totals[1]).longValue(),
+				((Number) totals[2]).longValue(), ((Number) totals[3]).longValue());
 	}
 	
 	@SuppressWarnings("rawtypes")
 	@Override
 	public void deleteFinanceRecord(int finId) {
-		Session currentSession = sessionFactory.getCurrentSession();
-		Query carQuery = currentSession.createQuery("delete from FinanceRecords where id=:finID");
-		carQuery.setParameter("finID", finId);
-		carQuery.executeUpdate();		
+		Session currentSession = tenantSessions.current();
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("finID", finId);
+		Query carQuery = currentSession.createQuery("delete from FinanceRecords where id=:finID" + TenantSessions.lotPredicate("", parameters));
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			carQuery.setParameter(parameter.getKey(), parameter.getValue());
+		}
+		if (carQuery.executeUpdate() > 0) {
+			changeLog.record("FinanceRecord", ChangeEvent.Operation.DELETE, finId);
+		}
+	}
+	
+	// one JDBC batch of updates for the whole chunk, the moved ids are read first for the change log
+	@Override
+	public int reassignCustomers(int[] duplicateIds, int[] survivorIds) {
+		Session currentSession = tenantSessions.current();
+		List<Integer> duplicates = new ArrayList<>(duplicateIds.length);
+		for (int id : duplicateIds) {
+			duplicates.add(id);
+		}
+		List<Integer> moved = currentSession.createQuery(
+				"select f.financeId from FinanceRecord f where f.customerAccount.customerId in (:duplicates)", Integer.class)
+				.setParameterList("duplicates", duplicates)
+				.getResultList();
+		if (moved.isEmpty()) {
+			return 0;
+		}
+		
+		// the bulk update bypasses the session, anything it already holds would be stale
+		currentSession.flush();
+		Integer lotId = TenantContext.getLotId();
+		currentSession.doWork(connection -> {
+			try (PreparedStatement update = connection.prepareStatement("update FinanceRecords set customerId = ? where customerId = ?"
+					+ (lotId == null ? "" : " and lotId = ?"))) {
+				for (int i = 0; i < duplicateIds.length; i++) {
+					update.setInt(1, survivorIds[i]);
+					update.setInt(2, duplicateIds[i]);
+					if (lotId != null) {
+						update.setInt(3, lotId);
+					}
+					update.addBatch();
+				}
+				update.executeBatch();
+			}
+		});
+		currentSession.clear();
+		
+		for (Integer finId : moved) {
+			changeLog.record("FinanceRecord", ChangeEvent.Operation.UPSERT, finId);
+		}
+		return moved.size();
 	}
 }
@@ -0,0 +1,62 @@
+package com.vehicleinventory.dao;
+
+// sort and paging options for the list pages, bound from request parameters
+// sort is a key from the DAO's whitelist of index-backed sorts, anything else falls back to the default sort
+public class ListQuery {
+	
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+	
+	private String sort;
+	private String direction = "asc";
+	private int page = 1;
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	
+	public ListQuery() {}
+
+	public String getSort() {
+		return sort;
+	}
+
+	public void setSort(String sort) {
+		this.sort = sort;
+	}
+
+	public String getDirection() {
+		return direction;
+	}
+
+	public void setDirection(String direction) {
+		this.direction = "desc".equalsIgnoreCase(direction) ? "desc" : "asc";
+	}
+	
+	public boolean isDescending() {
+		return "desc".equals(direction);
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public void setPage(int page) {
+		this.page = Math.max(1, page);
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public void setPageSize(int pageSize) {
+		this.pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+	}
+	
+	public int getFirstResult() {
+		return (page - 1) * pageSize;
+	}
+	
+	// normalizes blank filter parameters to null
+	protected static String blankToNull(String value) {
+		return (value == null || value.trim().isEmpty()) ? null : value.trim();
+	}
+
+}
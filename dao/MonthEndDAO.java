@@ -0,0 +1,19 @@
+package com.vehicleinventory.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MonthEndDAO {
+	
+	// the stored partitions of the month, empty if its run never started
+	public List<MonthEndPartition> getPartitions(LocalDate monthEnd);
+	
+	// splits the current financeId range into count partitions; rows another node stored first are kept
+	// called only when the month has no partitions yet, so loans created while a month is resumed are not in it
+	public void createPartitions(LocalDate monthEnd, int count);
+	
+	// closes the next chunk of open loans of the partition and moves its checkpoint, returns the partition as it now stands
+	// the checkpoint row is locked first, so two nodes working the same partition take turns instead of doubling up
+	public MonthEndPartition closeChunk(LocalDate monthEnd, int partitionNo, int chunkSize);
+
+}
@@ -0,0 +1,233 @@
+package com.vehicleinventory.dao;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.vehicleinventory.entity.FinanceRecord;
+
+// MonthEndPostings and MonthEndCheckpoints, plain JDBC through the current session's connection
+//
+// a chunk is read into primitive columns, closed in memory and written back with one batch per statement;
+// the postings, the paidOff flips and the checkpoint all commit in the caller's transaction or not at all
+@Repository
+public class MonthEndDAOImp implements MonthEndDAO {
+
+	static final String PARTITIONS_SQL =
+			"select partitionNo, firstFinanceId, lastFinanceId, checkpointFinanceId, processed, completedAt "
+			+ "from MonthEndCheckpoints where monthEnd = ? order by partitionNo";
+
+	static final String LOCK_PARTITION_SQL =
+			"select partitionNo, firstFinanceId, lastFinanceId, checkpointFinanceId, processed, completedAt "
+			+ "from MonthEndCheckpoints where monthEnd = ? and partitionNo = ? for update";
+
+	static final String SELECT_CHUNK_SQL =
+			"select financeId, lotId, customerId, vehiclePriceCents - downPaymentCents, monthlyPaymentCents, balanceCents, apr, "
+			+ "paymentsMade from FinanceRecords "
+			+ "where financeId > ? and financeId <= ? and paidOff = false order by financeId limit ?";
+
+	// a re-run of the same month overwrites its postings with the same values
+	private static final String POSTING_SQL =
+			"insert into MonthEndPostings (monthEnd, financeId, lotId, customerId, installmentNumber, interestCents, principalCents, "
+			+ "amountDueCents, balanceCents, paidOff) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+			+ "on duplicate key update installmentNumber = values(installmentNumber), interestCents = values(interestCents), "
+			+ "principalCents = values(principalCents), amountDueCents = values(amountDueCents), "
+			+ "balanceCents = values(balanceCents), paidOff = values(paidOff)";
+
+	static final String PAID_OFF_SQL = "update FinanceRecords set paidOff = true where financeId = ?";
+
+	static final String CHECKPOINT_SQL =
+			"update MonthEndCheckpoints set checkpointFinanceId = ?, processed = processed + ?, completedAt = ? "
+			+ "where monthEnd = ? and partitionNo = ?";
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@Autowired
+	private ChangeLog changeLog;
+
+	@Override
+	public List<MonthEndPartition> getPartitions(LocalDate monthEnd) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		List<MonthEndPartition> partitions = new ArrayList<>();
+		currentSession.doWork(connection -> {
+			try (PreparedStatement select = connection.prepareStatement(PARTITIONS_SQL)) {
+				select.setDate(1, Date.valueOf(monthEnd));
+				try (ResultSet rows = select.executeQuery()) {
+					while (rows.next()) {
+						partitions.add(partition(rows));
+					}
+				}
+			}
+		});
+		return partitions;
+	}
+
+	// the financeId range is read once, when the month is first started, and kept while it is resumed on later days:
+	// the loans of the close are the ones that existed when it started, a loan created after that is left to the
+	// next month. a first run that starts late (the application was down on the 1st) takes in the loans created since
+	@Override
+	public void createPartitions(LocalDate monthEnd, int count) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		currentSession.doWork(connection -> {
+			int first;
+			int last;
+			try (PreparedStatement range = connection.prepareStatement("select min(financeId), max(financeId) from FinanceRecords");
+					ResultSet rows = range.executeQuery()) {
+				rows.next();
+				first = rows.getInt(1);
+				last = rows.getInt(2);
+				if (rows.wasNull()) {
+					// no loans at all, one empty partition still records that the month was run
+					first = 1;
+					last = 0;
+				}
+			}
+			long span = (long) last - first + 1;
+			int partitions = (int) Math.max(1, Math.min(count, span));
+			try (PreparedStatement insert = connection.prepareStatement(
+					"insert into MonthEndCheckpoints (monthEnd, partitionNo, firstFinanceId, lastFinanceId, checkpointFinanceId) "
+					+ "values (?, ?, ?, ?, ?) on duplicate key update partitionNo = partitionNo")) {
+				for (int p = 0; p < partitions; p++) {
+					int from = (int) (first + span * p / partitions);
+					int to = (int) (first + span * (p + 1) / partitions - 1);
+					insert.setDate(1, Date.valueOf(monthEnd));
+					insert.setInt(2, p);
+					insert.setInt(3, from);
+					insert.setInt(4, to);
+					insert.setInt(5, from - 1);
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+		});
+	}
+
+	@Override
+	public MonthEndPartition closeChunk(LocalDate monthEnd, int partitionNo, int chunkSize) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		MonthEndPartition[] result = new MonthEndPartition[1];
+		List<Integer> paidOffIds = new ArrayList<>();
+		currentSession.doWork(connection -> {
+			MonthEndPartition partition;
+			try (PreparedStatement lock = connection.prepareStatement(LOCK_PARTITION_SQL)) {
+				lock.setDate(1, Date.valueOf(monthEnd));
+				lock.setInt(2, partitionNo);
+				try (ResultSet rows = lock.executeQuery()) {
+					if (!rows.next()) {
+						throw new IllegalStateException("No month-end partition " + partitionNo + " for " + monthEnd);
+					}
+					partition = partition(rows);
+				}
+			}
+			if (partition.isCompleted()) {
+				result[0] = partition;
+				return;
+			}
+
+			int[] financeIds = new int[chunkSize];
+			int[] lotIds = new int[chunkSize];
+			int[] customerIds = new int[chunkSize];
+			long[] principals = new long[chunkSize];
+			long[] payments = new long[chunkSize];
+			long[] balances = new long[chunkSize];
+			double[] aprs = new double[chunkSize];
+			int[] paymentsMade = new int[chunkSize];
+			int count = 0;
+			try (PreparedStatement select = connection.prepareStatement(SELECT_CHUNK_SQL)) {
+				select.setInt(1, partition.getCheckpointFinanceId());
+				select.setInt(2, partition.getLastFinanceId());
+				select.setInt(3, chunkSize);
+				select.setFetchSize(chunkSize);
+				try (ResultSet rows = select.executeQuery()) {
+					while (rows.next()) {
+						financeIds[count] = rows.getInt(1);
+						lotIds[count] = rows.getInt(2);
+						customerIds[count] = rows.getInt(3);
+						principals[count] = rows.getLong(4);
+						payments[count] = rows.getLong(5);
+						balances[count] = rows.getLong(6);
+						aprs[count] = rows.getDouble(7);
+						paymentsMade[count] = rows.getInt(8);
+						count++;
+					}
+				}
+			}
+
+			Date monthEndDate = Date.valueOf(monthEnd);
+			if (count > 0) {
+				try (PreparedStatement posting = connection.prepareStatement(POSTING_SQL);
+						PreparedStatement paidOff = connection.prepareStatement(PAID_OFF_SQL)) {
+					for (int i = 0; i < count; i++) {
+						// settled by the balance alone, a loan past its term with money still owed keeps getting installments
+						boolean settled = balances[i] <= 0;
+						long amountDue = settled ? 0 : Math.min(payments[i], balances[i]);
+						long interest = settled ? 0
+								: Math.min(amountDue, FinanceRecord.calcInterestCents(principals[i], payments[i], aprs[i], paymentsMade[i]));
+						posting.setDate(1, monthEndDate);
+						posting.setInt(2, financeIds[i]);
+						posting.setInt(3, lotIds[i]);
+						posting.setInt(4, customerIds[i]);
+						posting.setInt(5, settled ? paymentsMade[i] : paymentsMade[i] + 1);
+						posting.setLong(6, interest);
+						posting.setLong(7, amountDue - interest);
+						posting.setLong(8, amountDue);
+						posting.setLong(9, Math.max(0, balances[i]));
+						posting.setBoolean(10, settled);
+						posting.addBatch();
+						if (settled) {
+							paidOff.setInt(1, financeIds[i]);
+							paidOff.addBatch();
+							paidOffIds.add(financeIds[i]);
+						}
+					}
+					posting.executeBatch();
+					if (!paidOffIds.isEmpty()) {
+						paidOff.executeBatch();
+					}
+				}
+			}
+
+			// a short chunk means the range has no open loans left
+			boolean completed = count < chunkSize;
+			int checkpoint = count == 0 ? partition.getCheckpointFinanceId() : financeIds[count - 1];
+			try (PreparedStatement update = connection.prepareStatement(CHECKPOINT_SQL)) {
+				update.setInt(1, checkpoint);
+				update.setLong(2, count);
+				if (completed) {
+					update.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+				} else {
+					update.setNull(3, Types.TIMESTAMP);
+				}
+				update.setDate(4, monthEndDate);
+				update.setInt(5, partitionNo);
+				update.executeUpdate();
+			}
+			result[0] = new MonthEndPartition(partitionNo, partition.getFirstFinanceId(), partition.getLastFinanceId(), checkpoint,
+					partition.getProcessed() + count, completed);
+		});
+
+		for (Integer finId : paidOffIds) {
+			changeLog.record("FinanceRecord", ChangeEvent.Operation.UPSERT, finId);
+		}
+		return result[0];
+	}
+
+	private static MonthEndPartition partition(ResultSet rows) throws SQLException {
+		return new MonthEndPartition(rows.getInt(1), rows.getInt(2), rows.getInt(3), rows.getInt(4), rows.getLong(5),
+				rows.getTimestamp(6) != null);
+	}
+
+}
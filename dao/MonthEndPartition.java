@@ -0,0 +1,50 @@
+package com.vehicleinventory.dao;
+
+// one financeId range of a month-end run and how far it has got, as stored in MonthEndCheckpoints
+public class MonthEndPartition {
+	
+	private final int partitionNo;
+	private final int firstFinanceId;
+	private final int lastFinanceId;
+	private final int checkpointFinanceId;
+	private final long processed;
+	private final boolean completed;
+	
+	public MonthEndPartition(int partitionNo, int firstFinanceId, int lastFinanceId, int checkpointFinanceId, long processed,
+			boolean completed) {
+		this.partitionNo = partitionNo;
+		this.firstFinanceId = firstFinanceId;
+		this.lastFinanceId = lastFinanceId;
+		this.checkpointFinanceId = checkpointFinanceId;
+		this.processed = processed;
+		this.completed = completed;
+	}
+
+	public int getPartitionNo() {
+		return partitionNo;
+	}
+
+	// the range, both ends included
+	public int getFirstFinanceId() {
+		return firstFinanceId;
+	}
+
+	public int getLastFinanceId() {
+		return lastFinanceId;
+	}
+
+	// last financeId closed, the next chunk starts after it
+	public int getCheckpointFinanceId() {
+		return checkpointFinanceId;
+	}
+
+	// loans closed in this range so far, across restarts
+	public long getProcessed() {
+		return processed;
+	}
+
+	public boolean isCompleted() {
+		return completed;
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.vehicleinventory.dao;
+
+import java.io.Closeable;
+import java.util.function.LongSupplier;
+
+// one page of a list query plus the total row count for the pager
+// items may be a RowStream read while the view renders, close the page once the response is written
+// the total is counted on first use, the list pages print the pager after the rows so the count never holds up the first byte
+public class Page<T> implements Closeable {
+	
+	private final Iterable<T> items;
+	private final int page;
+	private final int pageSize;
+	private LongSupplier counter;
+	private long total;
+	
+	public Page(Iterable<T> items, int page, int pageSize, long total) {
+		this.items = items;
+		this.page = page;
+		this.pageSize = pageSize;
+		this.total = total;
+	}
+	
+	public Page(Iterable<T> items, int page, int pageSize, LongSupplier counter) {
+		this.items = items;
+		this.page = page;
+		this.pageSize = pageSize;
+		this.counter = counter;
+	}
+
+	public Iterable<T> getItems() {
+		return items;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public long getTotal() {
+		if (counter != null) {
+			total = counter.getAsLong();
+			counter = null;
+		}
+		return total;
+	}
+	
+	public int getPageCount() {
+		return (int) Math.max(1, (getTotal() + pageSize - 1) / pageSize);
+	}
+	
+	public boolean isHasNext() {
+		return page < getPageCount();
+	}
+	
+	public boolean isHasPrevious() {
+		return page > 1;
+	}
+	
+	@Override
+	public void close() {
+		if (items instanceof RowStream) {
+			((RowStream<?>) items).close();
+		}
+	}
+
+}
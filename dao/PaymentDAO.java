@@ -0,0 +1,15 @@
+package com.vehicleinventory.dao;
+
+import java.util.List;
+
+import com.vehicleinventory.entity.Payment;
+
+public interface PaymentDAO {
+	
+	public boolean postPayment(Payment payment);
+	
+	public boolean[] postPayments(List<Payment> payments);
+	
+	public List<Payment> getPayments(int finId);
+
+}
@@ -0,0 +1,136 @@
+package com.vehicleinventory.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.vehicleinventory.entity.Payment;
+import com.vehicleinventory.tenant.TenantContext;
+
+@Repository
+public class PaymentDAOImp implements PaymentDAO {
+	
+	// a payment is applied in a single conditional statement instead of load -> makePayment() -> saveOrUpdate
+	// MySQL evaluates SET assignments left to right, so paidOff has to come first to see the old balance
+	// a loan is paid off by its balance alone, as in FinanceRecord.makePayment: a short last installment leaves it open
+	// the NOT EXISTS guard skips payments whose reference was already posted (re-imported ACH files)
+	// Payments has no lot, FinanceRecords does: inside a lot LOT_PREDICATE keeps a payment off other lots' loans
+	static final String APPLY_PAYMENT_SQL = 
+			"update FinanceRecords set paidOff = (balanceCents - ? <= 0), "
+			+ "balanceCents = balanceCents - ?, paymentsMade = paymentsMade + 1 "
+			+ "where financeId = ? and paidOff = false "
+			+ "and not exists (select 1 from Payments where reference = ?)";
+	
+	static final String LOT_PREDICATE = " and lotId = ?";
+	
+	private static final String INSERT_PAYMENT_SQL = 
+			"insert into Payments (financeId, amountCents, reference, postedAt) values (?, ?, ?, ?)";
+	
+	static final String PAYMENTS_HQL = "from Payment where financeId=:finId order by paymentId";
+
+	@Autowired
+	private SessionFactory sessionFactory;
+	
+	@Autowired
+	private ChangeLog changeLog;
+	
+	@Override
+	public boolean postPayment(Payment payment) {
+		return postPayments(Collections.singletonList(payment))[0];
+	}
+	
+	// applies every payment with one JDBC batch of updates, then appends a Payments row for each one that applied
+	// returns which payments were posted; rejected ones (unknown id, another lot's loan, already paid off,
+	// duplicate reference) are false
+	// the NOT EXISTS guard cannot see the Payments rows of this batch, they are inserted after it, so a reference that
+	// repeats within the list is rejected here and only its first payment is applied
+	@Override
+	public boolean[] postPayments(List<Payment> payments) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		boolean[] posted = new boolean[payments.size()];
+		int[] batched = new int[payments.size()];
+		int batchSize = 0;
+		Set<String> references = new HashSet<>();
+		for (int i = 0; i < payments.size(); i++) {
+			String reference = payments.get(i).getReference();
+			if (reference == null || references.add(reference)) {
+				batched[batchSize++] = i;
+			}
+		}
+		int applied = batchSize;
+		Integer lotId = TenantContext.getLotId();
+		
+		currentSession.doWork(connection -> {
+			try (PreparedStatement update = connection.prepareStatement(APPLY_PAYMENT_SQL + (lotId == null ? "" : LOT_PREDICATE))) {
+				for (int b = 0; b < applied; b++) {
+					Payment payment = payments.get(batched[b]);
+					update.setLong(1, payment.getAmountCents());
+					update.setLong(2, payment.getAmountCents());
+					update.setInt(3, payment.getFinanceId());
+					update.setString(4, payment.getReference());
+					if (lotId != null) {
+						update.setInt(5, lotId);
+					}
+					update.addBatch();
+				}
+				int[] counts = update.executeBatch();
+				for (int b = 0; b < counts.length; b++) {
+					// SUCCESS_NO_INFO is only returned by drivers that cannot report counts, treat it as applied
+					posted[batched[b]] = counts[b] > 0 || counts[b] == Statement.SUCCESS_NO_INFO;
+				}
+			}
+			
+			Timestamp postedAt = Timestamp.valueOf(LocalDateTime.now());
+			try (PreparedStatement insert = connection.prepareStatement(INSERT_PAYMENT_SQL)) {
+				boolean any = false;
+				for (int i = 0; i < posted.length; i++) {
+					if (!posted[i]) {
+						continue;
+					}
+					Payment payment = payments.get(i);
+					insert.setInt(1, payment.getFinanceId());
+					insert.setLong(2, payment.getAmountCents());
+					if (payment.getReference() == null) {
+						insert.setNull(3, Types.VARCHAR);
+					} else {
+						insert.setString(3, payment.getReference());
+					}
+					insert.setTimestamp(4, postedAt);
+					insert.addBatch();
+					any = true;
+				}
+				if (any) {
+					insert.executeBatch();
+				}
+			}
+		});
+		
+		for (int i = 0; i < posted.length; i++) {
+			if (posted[i]) {
+				changeLog.record("FinanceRecord", ChangeEvent.Operation.UPSERT, payments.get(i).getFinanceId());
+			}
+		}
+		return posted;
+	}
+	
+	@Override
+	public List<Payment> getPayments(int finId) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		Query<Payment> theQuery = currentSession.createQuery(PAYMENTS_HQL, Payment.class);
+		theQuery.setParameter("finId", finId);
+		
+		return theQuery.getResultList();
+	}
+}
@@ -0,0 +1,70 @@
+package com.vehicleinventory.dao;
+
+import com.vehicleinventory.entity.Cents;
+
+// one vehicle touched by a RepricingRule, as previewed or as applied
+public class PriceChange {
+	
+	private final String vehicleIdNumber;
+	private final int lotId;
+	private final String make;
+	private final String model;
+	private final int year;
+	private final int mileage;
+	// whole cents, see Cents
+	private final long oldPrice;
+	private final long newPrice;
+	
+	public PriceChange(String vehicleIdNumber, int lotId, String make, String model, int year, int mileage, long oldPrice, long newPrice) {
+		this.vehicleIdNumber = vehicleIdNumber;
+		this.lotId = lotId;
+		this.make = make;
+		this.model = model;
+		this.year = year;
+		this.mileage = mileage;
+		this.oldPrice = oldPrice;
+		this.newPrice = newPrice;
+	}
+
+	public String getVehicleIdNumber() {
+		return vehicleIdNumber;
+	}
+
+	// a rule run without a selected lot reprices every lot, the history row goes to the vehicle's own
+	public int getLotId() {
+		return lotId;
+	}
+
+	public String getMake() {
+		return make;
+	}
+
+	public String getModel() {
+		return model;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	public int getMileage() {
+		return mileage;
+	}
+
+	public double getOldPrice() {
+		return Cents.toAmount(oldPrice);
+	}
+
+	public double getNewPrice() {
+		return Cents.toAmount(newPrice);
+	}
+
+	public long getOldPriceCents() {
+		return oldPrice;
+	}
+
+	public long getNewPriceCents() {
+		return newPrice;
+	}
+
+}
@@ -0,0 +1,281 @@
+package com.vehicleinventory.dao;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+
+import org.hibernate.Filter;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.FilterImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.db.Migration;
+import com.vehicleinventory.db.SchemaMigrator;
+import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.entity.Payment;
+import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.tenant.TenantContext;
+
+// guard against queries that lose their index, run at every startup (db.planCheck: warn, fail or off) and by hand with
+//   java -cp <app classpath> com.vehicleinventory.dao.QueryPlanCheck
+// the migrations are applied to an empty in-memory H2 database (MySQL mode) and every query below is EXPLAINed, a plan
+// that reads a whole table is logged as a warning, stops startup with db.planCheck=fail and makes main exit with 1.
+// the entries are the DAOs' own query constants and builders, HQL is translated by Hibernate the way the DAO's session
+// would, so an edited query is checked as it now reads; a new query or predicate still needs its entry here
+// the check never touches MySQL, with warn it runs on its own thread so startup does not wait for H2 and Hibernate
+@Component
+public class QueryPlanCheck {
+
+	private static final Logger LOGGER = Logger.getLogger(QueryPlanCheck.class.getName());
+
+	private static final String H2_URL = "jdbc:h2:mem:query-plan-check;MODE=MySQL";
+
+	// H2 marks a full scan as "/* PUBLIC.<TABLE>.tableScan */" in the plan
+	private static final String FULL_SCAN = ".tableScan";
+
+	// the lot the queries are built for, as a request of that lot would build them
+	private static final int LOT_ID = 1;
+
+	// a named parameter of HQL or native SQL, EXPLAINed as a JDBC placeholder
+	private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<![:\\w]):\\w+");
+
+	@Value("${db.planCheck:warn}")
+	private String mode;
+
+	@PostConstruct
+	public void checkOnStartup() {
+		switch (mode) {
+			case "off":
+				return;
+			case "fail":
+				List<String> scans = checkAndLog();
+				if (!scans.isEmpty()) {
+					throw new IllegalStateException(scans.size() + " queries read a whole table, see the warnings above");
+				}
+				return;
+			default:
+				Thread thread = new Thread(() -> {
+					try {
+						checkAndLog();
+					} catch (RuntimeException | LinkageError e) {
+						// H2 missing from the classpath included, warn only reports
+						LOGGER.log(Level.WARNING, "Query plan check could not run", e);
+					}
+				}, "query-plan-check");
+				thread.setDaemon(true);
+				thread.start();
+		}
+	}
+
+	private static List<String> checkAndLog() {
+		List<String> scans;
+		try {
+			scans = check();
+		} catch (IOException | SQLException e) {
+			throw new IllegalStateException("Query plan check could not run", e);
+		}
+		for (String scan : scans) {
+			LOGGER.warning("Full table scan in " + scan);
+		}
+		if (scans.isEmpty()) {
+			LOGGER.info("Query plan check passed");
+		}
+		return scans;
+	}
+
+	public static void main(String[] args) throws IOException, SQLException {
+		List<String> scans = check();
+		for (String scan : scans) {
+			System.err.println(scan);
+		}
+		if (!scans.isEmpty()) {
+			System.exit(1);
+		}
+		System.out.println("Query plan check passed");
+	}
+
+	// names and plans of the queries that scan a whole table, empty when every query uses an index
+	public static List<String> check() throws IOException, SQLException {
+		List<Migration> migrations = Migration.load();
+		List<String> scans = new ArrayList<>();
+		// the connection keeps the in-memory database alive while Hibernate boots against it
+		try (Connection connection = DriverManager.getConnection(H2_URL)) {
+			SchemaMigrator.migrate(connection, migrations);
+			for (Map.Entry<String, String> query : queries().entrySet()) {
+				String plan = explain(connection, query.getValue());
+				if (plan.contains(FULL_SCAN)) {
+					scans.add(query.getKey() + ": " + plan.replaceAll("\\s+", " "));
+				}
+			}
+		}
+		return scans;
+	}
+
+	// the SQL each DAO method sends for one of its filters or sorts, named after that method
+	// VehicleStatusDAO.rollupOnLot reads all of Cars once a day on purpose and is not listed
+	static Map<String, String> queries() {
+		Configuration configuration = new Configuration()
+				.setProperty(AvailableSettings.URL, H2_URL)
+				.setProperty(AvailableSettings.DIALECT, H2Dialect.class.getName())
+				.addAnnotatedClass(Vehicle.class)
+				.addAnnotatedClass(CustomerAccount.class)
+				.addAnnotatedClass(FinanceRecord.class)
+				.addAnnotatedClass(Payment.class);
+		Map<String, String> queries = new LinkedHashMap<>();
+		try (SessionFactory sessionFactory = configuration.buildSessionFactory()) {
+			SessionFactoryImplementor factory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+			TenantContext.runAs(LOT_ID, () -> {
+				vehicleQueries(factory, queries);
+				customerQueries(factory, queries);
+				financeQueries(factory, queries);
+			});
+		}
+		queries.put("PaymentDAO.postPayments", PaymentDAOImp.APPLY_PAYMENT_SQL + PaymentDAOImp.LOT_PREDICATE);
+		queries.put("VehicleStatusDAO.getHistory", VehicleStatusDAOImp.historySql(true));
+		queries.put("VehicleStatusDAO.getAging", VehicleStatusDAOImp.agingSql(true, false, false));
+		queries.put("VehicleStatusDAO.getAging(all lots)", VehicleStatusDAOImp.agingSql(false, false, false));
+		queries.put("VehicleStatusDAO.getAging(make, model)", VehicleStatusDAOImp.agingSql(true, true, true));
+		queries.put("MonthEndDAO.getPartitions", MonthEndDAOImp.PARTITIONS_SQL);
+		queries.put("MonthEndDAO.closeChunk(lock)", MonthEndDAOImp.LOCK_PARTITION_SQL);
+		queries.put("MonthEndDAO.closeChunk(select)", MonthEndDAOImp.SELECT_CHUNK_SQL);
+		queries.put("MonthEndDAO.closeChunk(paidOff)", MonthEndDAOImp.PAID_OFF_SQL);
+		queries.put("MonthEndDAO.closeChunk(checkpoint)", MonthEndDAOImp.CHECKPOINT_SQL);
+		queries.put("StatementDAO.getStatements(range)", StatementDAOImp.CUSTOMER_RANGE_SQL);
+		queries.put("StatementDAO.getStatements(customers)", StatementDAOImp.CUSTOMERS_SQL);
+		queries.put("StatementDAO.getStatements(loans)", StatementDAOImp.LOANS_SQL);
+		queries.put("StatementDAO.getStatements(payments)", StatementDAOImp.PAYMENTS_SQL);
+		queries.put("WatermarkDAO.getWatermark", jdbc(WatermarkDAOImp.WATERMARK_SQL));
+		return queries;
+	}
+
+	private static void vehicleQueries(SessionFactoryImplementor factory, Map<String, String> queries) {
+		VehicleListQuery byYear = new VehicleListQuery();
+		byYear.setMinYear(2018);
+		byYear.setSort("year");
+		queries.put("VehicleDAO.getVehicles(minYear, sort=year)", streamed(factory, VehicleDAOImp.listHql(byYear, new HashMap<>())));
+		queries.put("VehicleDAO.getVehicles(minYear, count)", streamed(factory, VehicleDAOImp.listCountHql(byYear, new HashMap<>())));
+
+		VehicleListQuery byPrice = new VehicleListQuery();
+		byPrice.setMinPrice(10000.0);
+		byPrice.setMaxPrice(20000.0);
+		byPrice.setSort("price");
+		queries.put("VehicleDAO.getVehicles(minPrice, maxPrice, sort=price)", streamed(factory, VehicleDAOImp.listHql(byPrice, new HashMap<>())));
+
+		VehicleListQuery byMileage = new VehicleListQuery();
+		byMileage.setMaxMileage(30000);
+		byMileage.setSort("mileage");
+		queries.put("VehicleDAO.getVehicles(maxMileage, sort=mileage)", streamed(factory, VehicleDAOImp.listHql(byMileage, new HashMap<>())));
+
+		VehicleListQuery byMake = new VehicleListQuery();
+		byMake.setMake("HONDA");
+		byMake.setSort("year");
+		queries.put("VehicleDAO.getVehicles(make, sort=year)", streamed(factory, VehicleDAOImp.listHql(byMake, new HashMap<>())));
+		byMake.setSort("price");
+		queries.put("VehicleDAO.getVehicles(make, sort=price)", streamed(factory, VehicleDAOImp.listHql(byMake, new HashMap<>())));
+		byMake.setModel("CIVIC");
+		byMake.setSort("make");
+		queries.put("VehicleDAO.getVehicles(make, model, sort=make)", streamed(factory, VehicleDAOImp.listHql(byMake, new HashMap<>())));
+
+		queries.put("VehicleDAO.getVehicles(vins)", hql(factory, VehicleDAOImp.BY_VINS_HQL));
+		queries.put("VehicleDAO.exists", hql(factory, VehicleDAOImp.EXISTS_HQL));
+
+		RepricingRule rule = new RepricingRule(-5, 90, null, 5000.0);
+		queries.put("VehicleDAO.countRepricing", jdbc(VehicleDAOImp.repricingCountSql(rule)));
+		queries.put("VehicleDAO.applyRepricing(select)", jdbc(VehicleDAOImp.repricingSelectSql(rule, " for update")));
+		queries.put("VehicleDAO.applyRepricing(update)", jdbc(VehicleDAOImp.REPRICE_SQL));
+	}
+
+	private static void customerQueries(SessionFactoryImplementor factory, Map<String, String> queries) {
+		CustomerListQuery byLastName = new CustomerListQuery();
+		byLastName.setLastName("SMI");
+		byLastName.setSort("lastName");
+		queries.put("CustomerAccountDAO.getCustomerAccounts(lastName, sort=lastName)",
+				streamed(factory, CustomerAccountDAOImp.listHql(byLastName, new HashMap<>())));
+
+		CustomerListQuery byEmail = new CustomerListQuery();
+		byEmail.setEmailAddress("someone@example.com");
+		byEmail.setSort("email");
+		queries.put("CustomerAccountDAO.getCustomerAccounts(emailAddress, sort=email)",
+				streamed(factory, CustomerAccountDAOImp.listHql(byEmail, new HashMap<>())));
+
+		CustomerListQuery byPhone = new CustomerListQuery();
+		byPhone.setPhoneNumber("5555550100");
+		byPhone.setSort("id");
+		queries.put("CustomerAccountDAO.getCustomerAccounts(phoneNumber, sort=id)",
+				streamed(factory, CustomerAccountDAOImp.listHql(byPhone, new HashMap<>())));
+
+		queries.put("CustomerAccountDAO.getCustomerAccountByUsername", hql(factory, CustomerAccountDAOImp.BY_USERNAME_HQL));
+		queries.put("CustomerAccountDAO.isUsernameTaken", hql(factory, CustomerAccountDAOImp.USERNAME_TAKEN_HQL));
+		queries.put("CustomerAccountDAO.getFinancedVehicles", hql(factory, CustomerAccountDAOImp.FINANCED_VEHICLES_HQL));
+		queries.put("CustomerAccountDAO.lockUnmerged", jdbc(CustomerAccountDAOImp.lockUnmergedSql(new HashMap<>())));
+	}
+
+	private static void financeQueries(SessionFactoryImplementor factory, Map<String, String> queries) {
+		FinanceListQuery all = new FinanceListQuery();
+		queries.put("FinanceRecordDAO.getFinanceRecords", streamed(factory, FinanceRecordDAOImp.listHql(all, new HashMap<>())));
+
+		FinanceListQuery byCustomer = new FinanceListQuery();
+		byCustomer.setCustomerId(1);
+		queries.put("FinanceRecordDAO.getFinanceRecords(customerId)",
+				streamed(factory, FinanceRecordDAOImp.listHql(byCustomer, new HashMap<>())));
+
+		queries.put("FinanceRecordDAO.getVehicleFinanceRecords", hql(factory, FinanceRecordDAOImp.VEHICLE_FINANCE_RECORDS_HQL));
+		queries.put("FinanceRecordDAO.getFinancePortfolio", hql(factory, FinanceRecordDAOImp.PORTFOLIO_HQL));
+		queries.put("PaymentDAO.getPayments", hql(factory, PaymentDAOImp.PAYMENTS_HQL));
+	}
+
+	// HQL run through the current session, which has the lot filter of TenantSessions enabled
+	private static String hql(SessionFactoryImplementor factory, String hql) {
+		Filter lot = new FilterImpl(factory.getFilterDefinition(TenantSessions.FILTER));
+		lot.setParameter(TenantSessions.PARAMETER, LOT_ID);
+		return translate(factory, hql, Collections.singletonMap(TenantSessions.FILTER, lot));
+	}
+
+	// HQL run through the StatelessSession of RowStream, which has no filters and spells the lot out
+	private static String streamed(SessionFactoryImplementor factory, String hql) {
+		return translate(factory, hql, Collections.emptyMap());
+	}
+
+	private static String translate(SessionFactoryImplementor factory, String hql, Map<String, Filter> filters) {
+		return factory.getQueryPlanCache().getHQLQueryPlan(hql, false, filters).getSqlStrings()[0];
+	}
+
+	// native SQL sent through Hibernate, whose named parameters JDBC knows as placeholders
+	private static String jdbc(String sql) {
+		return NAMED_PARAMETER.matcher(sql).replaceAll("?");
+	}
+
+	// the plan depends on which columns are compared, not on the values, so every parameter is bound to null
+	private static String explain(Connection connection, String sql) throws SQLException {
+		try (PreparedStatement explain = connection.prepareStatement("explain " + sql)) {
+			int parameters = explain.getParameterMetaData().getParameterCount();
+			for (int parameter = 1; parameter <= parameters; parameter++) {
+				explain.setObject(parameter, null);
+			}
+			try (ResultSet plan = explain.executeQuery()) {
+				return plan.next() ? plan.getString(1) : "";
+			}
+		}
+	}
+
+}
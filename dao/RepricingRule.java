@@ -0,0 +1,92 @@
+package com.vehicleinventory.dao;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+// a price change applied across the whole lot, e.g. "-2% on units older than 60 days with more than 80k miles, floor at $5,000"
+// every criteria left null matches all vehicles
+public class RepricingRule {
+	
+	@DecimalMin(value="-90", message="must be at least -90%")
+	@DecimalMax(value="100", message="must be at most 100%")
+	private double percentChange;
+	
+	@Min(value=0, message="must be at least 0")
+	private Integer minDaysOnLot;
+	
+	@Min(value=0, message="must be at least 0")
+	private Integer minMileage;
+	
+	private String make;
+	
+	private String model;
+	
+	@Min(value=0, message="must be at least $0.00")
+	@Max(value=10000000, message="must be at most $10,000,000")
+	private Double floorPrice;
+	
+	public RepricingRule() {}
+	
+	public RepricingRule(double percentChange, Integer minDaysOnLot, Integer minMileage, Double floorPrice) {
+		this.percentChange = percentChange;
+		this.minDaysOnLot = minDaysOnLot;
+		this.minMileage = minMileage;
+		this.floorPrice = floorPrice;
+	}
+	
+	// multiplier applied to the current price, -2% is 0.98
+	public double getFactor() {
+		return 1 + percentChange / 100;
+	}
+
+	public double getPercentChange() {
+		return percentChange;
+	}
+
+	public void setPercentChange(double percentChange) {
+		this.percentChange = percentChange;
+	}
+
+	public Integer getMinDaysOnLot() {
+		return minDaysOnLot;
+	}
+
+	public void setMinDaysOnLot(Integer minDaysOnLot) {
+		this.minDaysOnLot = minDaysOnLot;
+	}
+
+	public Integer getMinMileage() {
+		return minMileage;
+	}
+
+	public void setMinMileage(Integer minMileage) {
+		this.minMileage = minMileage;
+	}
+
+	public String getMake() {
+		return make;
+	}
+
+	public void setMake(String make) {
+		this.make = (make == null || make.trim().isEmpty()) ? null : make.trim().toUpperCase();
+	}
+
+	public String getModel() {
+		return model;
+	}
+
+	public void setModel(String model) {
+		this.model = (model == null || model.trim().isEmpty()) ? null : model.trim().toUpperCase();
+	}
+
+	public Double getFloorPrice() {
+		return floorPrice;
+	}
+
+	public void setFloorPrice(Double floorPrice) {
+		this.floorPrice = floorPrice;
+	}
+
+}
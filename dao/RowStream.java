@@ -0,0 +1,132 @@
+package com.vehicleinventory.dao;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.Query;
+
+// forward-only iterator over a query result, for views that render rows as they are read
+//
+// rows come from a StatelessSession so nothing is kept in a persistence context, the JDBC driver holds
+// at most FETCH_SIZE rows at a time (MySQL needs useCursorFetch=true on the connection URL for that,
+// otherwise Connector/J reads the whole result up front)
+// the stream owns its own session and connection, outside of any Spring transaction, and must be closed;
+// it closes itself once the last row has been read
+// nothing is executed until the first hasNext, so a view that flushes its header first sends it before the query runs
+public class RowStream<T> implements Iterator<T>, Iterable<T>, Closeable {
+
+	public static final int FETCH_SIZE = 100;
+
+	private final SessionFactory sessionFactory;
+	private final String hql;
+	private final Map<String, Object> parameters;
+	private final int firstResult;
+	private final int maxResults;
+	private final Class<T> type;
+	private StatelessSession session;
+	private ScrollableResults results;
+	private boolean advanced;
+	private boolean hasRow;
+	private boolean closed;
+
+	private RowStream(SessionFactory sessionFactory, String hql, Map<String, Object> parameters, int firstResult, int maxResults,
+			Class<T> type) {
+		this.sessionFactory = sessionFactory;
+		this.hql = hql;
+		this.parameters = parameters;
+		this.firstResult = firstResult;
+		this.maxResults = maxResults;
+		this.type = type;
+	}
+
+	public static <T> RowStream<T> open(SessionFactory sessionFactory, String hql, Map<String, Object> parameters,
+			int firstResult, int maxResults, Class<T> type) {
+		return new RowStream<>(sessionFactory, hql, parameters, firstResult, maxResults, type);
+	}
+
+	// a count(*) in a StatelessSession of its own, for a Page total that is only worked out when the view asks for it
+	public static long count(SessionFactory sessionFactory, String hql, Map<String, Object> parameters) {
+		try (StatelessSession session = sessionFactory.openStatelessSession()) {
+			Query<Long> query = session.createQuery(hql, Long.class);
+			for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+				query.setParameter(parameter.getKey(), parameter.getValue());
+			}
+			return query.uniqueResult();
+		}
+	}
+
+	private void execute() {
+		session = sessionFactory.openStatelessSession();
+		Query<T> query = session.createQuery(hql, type);
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			query.setParameter(parameter.getKey(), parameter.getValue());
+		}
+		query.setFirstResult(firstResult);
+		query.setMaxResults(maxResults);
+		query.setFetchSize(FETCH_SIZE);
+		query.setReadOnly(true);
+		results = query.scroll(ScrollMode.FORWARD_ONLY);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (results == null) {
+			try {
+				execute();
+			} catch (RuntimeException e) {
+				close();
+				throw e;
+			}
+		}
+		if (!advanced) {
+			hasRow = results.next();
+			advanced = true;
+			if (!hasRow) {
+				close();
+			}
+		}
+		return hasRow;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		advanced = false;
+		return type.cast(results.get(0));
+	}
+
+	// single pass, iterating twice returns the same exhausted stream
+	@Override
+	public Iterator<T> iterator() {
+		return this;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (results != null) {
+				results.close();
+			}
+		} finally {
+			if (session != null) {
+				session.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.vehicleinventory.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+// statements of one customerId range; lastCustomerId is where the next batch starts, even when the range ended on
+// postings of a deleted account that got no statement
+public class StatementBatch {
+	
+	public static final StatementBatch EMPTY = new StatementBatch(Collections.emptyList(), 0);
+	
+	private final List<CustomerStatement> statements;
+	private final int lastCustomerId;
+	
+	public StatementBatch(List<CustomerStatement> statements, int lastCustomerId) {
+		this.statements = statements;
+		this.lastCustomerId = lastCustomerId;
+	}
+
+	public List<CustomerStatement> getStatements() {
+		return statements;
+	}
+
+	public int getLastCustomerId() {
+		return lastCustomerId;
+	}
+	
+	// true once the month has no customers left after the previous batch
+	public boolean isEmpty() {
+		return lastCustomerId == 0;
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.vehicleinventory.dao;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// statements per page for StatementCounter, from the handler to the end of the view
+@Component
+public class StatementCountInterceptor implements HandlerInterceptor {
+
+	private static final Logger LOGGER = Logger.getLogger(StatementCountInterceptor.class.getName());
+
+	@Autowired
+	StatementCounter statementCounter;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod) {
+			statementCounter.begin();
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		if (handler instanceof HandlerMethod) {
+			long statements = statementCounter.end(((HandlerMethod) handler).getMethod());
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.fine(request.getRequestURI() + ": " + statements + " statements");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.vehicleinventory.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// puts every request under StatementCountInterceptor
+@Configuration
+public class StatementCountWebConfig implements WebMvcConfigurer {
+
+	@Autowired
+	StatementCountInterceptor statementCountInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(statementCountInterceptor);
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.vehicleinventory.dao;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+// counts the SQL statements Hibernate runs for each page, and keeps totals per controller method
+//
+// TenantSessions attaches it to every session it hands out; each executed statement or batch is added to the counter
+// of the thread running it, which StatementCountInterceptor starts before the handler and reads after the view has
+// rendered, so rows lazily loaded by a JSP count for the page too. JDBC run through doWork is not seen
+// a current session is only used by the thread that opened it, so the sessions already attached are remembered per
+// thread (weakly, a closed session goes with the next GC) and attach takes no lock
+@Component
+public class StatementCounter extends BaseSessionEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+	private static final ThreadLocal<Set<Session>> ATTACHED = ThreadLocal.withInitial(() -> Collections.newSetFromMap(new WeakHashMap<>()));
+	private final Map<Method, PageStatements> pages = new ConcurrentHashMap<>();
+
+	// totals for one controller method since startup
+	public static final class PageStatements {
+		private final String page;
+		private final LongAdder views = new LongAdder();
+		private final LongAdder statements = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		PageStatements(String page) {
+			this.page = page;
+		}
+
+		public String getPage() {
+			return page;
+		}
+
+		public long getViews() {
+			return views.sum();
+		}
+
+		public long getStatements() {
+			return statements.sum();
+		}
+
+		public long getMaxStatements() {
+			return max.get();
+		}
+
+		public double getStatementsPerView() {
+			long count = views.sum();
+			return count == 0 ? 0 : (double) statements.sum() / count;
+		}
+	}
+
+	void attach(Session session) {
+		if (ATTACHED.get().add(session)) {
+			session.addEventListeners(this);
+		}
+	}
+
+	public void begin() {
+		CURRENT.set(new long[1]);
+	}
+
+	// the statements since begin, recorded against the page
+	public long end(Method page) {
+		long[] count = CURRENT.get();
+		CURRENT.remove();
+		if (count == null) {
+			return 0;
+		}
+		PageStatements totals = pages.computeIfAbsent(page,
+				method -> new PageStatements(method.getDeclaringClass().getSimpleName() + "." + method.getName()));
+		totals.views.increment();
+		totals.statements.add(count[0]);
+		totals.max.accumulate(count[0]);
+		return count[0];
+	}
+
+	public Iterable<PageStatements> getPages() {
+		return pages.values();
+	}
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		increment();
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		increment();
+	}
+
+	private static void increment() {
+		long[] count = CURRENT.get();
+		if (count != null) {
+			count[0]++;
+		}
+	}
+
+}
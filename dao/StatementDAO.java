@@ -0,0 +1,11 @@
+package com.vehicleinventory.dao;
+
+import java.time.LocalDate;
+
+public interface StatementDAO {
+	
+	// statements of the next maxCustomers customers after afterCustomerId with a posting at monthEnd, in customerId order;
+	// the whole batch is read with one query per table, however many customers and loans it holds
+	public StatementBatch getStatements(LocalDate monthEnd, int afterCustomerId, int maxCustomers);
+
+}
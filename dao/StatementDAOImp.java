@@ -0,0 +1,128 @@
+package com.vehicleinventory.dao;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+// statements are read from MonthEndPostings, a customerId range at a time: the range is found first, then the customers,
+// postings and payments in it are read with one query each and stitched together here, so a batch costs four statements
+// plain JDBC, the statement run covers every lot
+@Repository
+public class StatementDAOImp implements StatementDAO {
+	
+	static final String CUSTOMER_RANGE_SQL =
+			"select max(customerId), count(*) from (select distinct customerId from MonthEndPostings "
+			+ "where monthEnd = ? and customerId > ? order by customerId limit ?) batch";
+	
+	static final String CUSTOMERS_SQL =
+			"select customerId, firstName, lastName, emailAddress, mailingAddress from CustomerAccounts "
+			+ "where customerId > ? and customerId <= ? order by customerId";
+	
+	static final String LOANS_SQL =
+			"select p.customerId, p.financeId, f.vehicleIdNumber, p.installmentNumber, f.termLength, p.interestCents, "
+			+ "p.principalCents, p.amountDueCents, p.balanceCents, p.paidOff "
+			+ "from MonthEndPostings p join FinanceRecords f on f.financeId = p.financeId "
+			+ "where p.monthEnd = ? and p.customerId > ? and p.customerId <= ? order by p.customerId, p.financeId";
+	
+	static final String PAYMENTS_SQL =
+			"select pay.financeId, pay.postedAt, pay.amountCents, pay.reference "
+			+ "from MonthEndPostings p join Payments pay on pay.financeId = p.financeId "
+			+ "where p.monthEnd = ? and p.customerId > ? and p.customerId <= ? "
+			+ "and pay.postedAt >= ? and pay.postedAt < ? order by pay.financeId, pay.paymentId";
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@Override
+	public StatementBatch getStatements(LocalDate monthEnd, int afterCustomerId, int maxCustomers) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		List<CustomerStatement> statements = new ArrayList<>();
+		int[] range = new int[1];
+		currentSession.doWork(connection -> {
+			Date monthEndDate = Date.valueOf(monthEnd);
+			int lastCustomerId;
+			int customerCount;
+			try (PreparedStatement select = connection.prepareStatement(CUSTOMER_RANGE_SQL)) {
+				select.setDate(1, monthEndDate);
+				select.setInt(2, afterCustomerId);
+				select.setInt(3, maxCustomers);
+				try (ResultSet rows = select.executeQuery()) {
+					rows.next();
+					lastCustomerId = rows.getInt(1);
+					customerCount = rows.getInt(2);
+				}
+			}
+			if (customerCount == 0) {
+				return;
+			}
+			range[0] = lastCustomerId;
+			
+			Map<Integer, CustomerStatement> byCustomer = new HashMap<>(customerCount * 2);
+			try (PreparedStatement customers = connection.prepareStatement(CUSTOMERS_SQL)) {
+				customers.setInt(1, afterCustomerId);
+				customers.setInt(2, lastCustomerId);
+				try (ResultSet rows = customers.executeQuery()) {
+					while (rows.next()) {
+						byCustomer.put(rows.getInt(1),
+								new CustomerStatement(rows.getInt(1), rows.getString(2), rows.getString(3), rows.getString(4), rows.getString(5)));
+					}
+				}
+			}
+			
+			Map<Integer, CustomerStatement.Loan> byFinanceId = new HashMap<>(customerCount * 2);
+			try (PreparedStatement loans = connection.prepareStatement(LOANS_SQL)) {
+				loans.setDate(1, monthEndDate);
+				loans.setInt(2, afterCustomerId);
+				loans.setInt(3, lastCustomerId);
+				try (ResultSet rows = loans.executeQuery()) {
+					CustomerStatement statement = null;
+					while (rows.next()) {
+						int customerId = rows.getInt(1);
+						if (statement == null || statement.getCustomerId() != customerId) {
+							statement = byCustomer.get(customerId);
+							if (statement == null) {
+								// the account was deleted after the month end, its postings stay behind without a statement
+								continue;
+							}
+							statements.add(statement);
+						}
+						CustomerStatement.Loan loan = new CustomerStatement.Loan(rows.getInt(2), rows.getString(3), rows.getInt(4),
+								rows.getInt(5), rows.getLong(6), rows.getLong(7), rows.getLong(8), rows.getLong(9), rows.getBoolean(10));
+						statement.getLoans().add(loan);
+						byFinanceId.put(loan.getFinanceId(), loan);
+					}
+				}
+			}
+			
+			try (PreparedStatement payments = connection.prepareStatement(PAYMENTS_SQL)) {
+				payments.setDate(1, monthEndDate);
+				payments.setInt(2, afterCustomerId);
+				payments.setInt(3, lastCustomerId);
+				payments.setTimestamp(4, Timestamp.valueOf(monthEnd.withDayOfMonth(1).atStartOfDay()));
+				payments.setTimestamp(5, Timestamp.valueOf(monthEnd.plusDays(1).atStartOfDay()));
+				try (ResultSet rows = payments.executeQuery()) {
+					while (rows.next()) {
+						CustomerStatement.Loan loan = byFinanceId.get(rows.getInt(1));
+						if (loan != null) {
+							loan.getPayments().add(new CustomerStatement.PostedPayment(rows.getTimestamp(2).toLocalDateTime(),
+									rows.getLong(3), rows.getString(4)));
+						}
+					}
+				}
+			}
+		});
+		return range[0] == 0 ? StatementBatch.EMPTY : new StatementBatch(statements, range[0]);
+	}
+
+}
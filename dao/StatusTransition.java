@@ -0,0 +1,45 @@
+package com.vehicleinventory.dao;
+
+import java.time.LocalDateTime;
+
+import com.vehicleinventory.entity.VehicleStatus;
+
+// one row of VehicleStatusHistory
+public class StatusTransition {
+	
+	private final String vehicleIdNumber;
+	private final int lotId;
+	private final VehicleStatus status;
+	private final LocalDateTime occurredAt;
+	private final double price;
+	
+	public StatusTransition(String vehicleIdNumber, int lotId, VehicleStatus status, LocalDateTime occurredAt, double price) {
+		this.vehicleIdNumber = vehicleIdNumber;
+		this.lotId = lotId;
+		this.status = status;
+		this.occurredAt = occurredAt;
+		this.price = price;
+	}
+
+	public String getVehicleIdNumber() {
+		return vehicleIdNumber;
+	}
+
+	public int getLotId() {
+		return lotId;
+	}
+
+	public VehicleStatus getStatus() {
+		return status;
+	}
+
+	public LocalDateTime getOccurredAt() {
+		return occurredAt;
+	}
+
+	// asking price at the time of the transition
+	public double getPrice() {
+		return price;
+	}
+
+}
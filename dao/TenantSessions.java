@@ -0,0 +1,89 @@
+package com.vehicleinventory.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.tenant.TenantContext;
+
+// the current session with the "lot" filter of Vehicle, CustomerAccount and FinanceRecord set to the current lot
+//
+// the filter covers every HQL and criteria query on those entities. it cannot cover session.get, HQL update/delete,
+// native SQL or a StatelessSession (RowStream), so DAOs add lotPredicate to those themselves
+// each session is also handed to StatementCounter, once, so its statements count for the page being served
+@Component
+public class TenantSessions {
+
+	public static final String FILTER = "lot";
+	public static final String PARAMETER = "lotId";
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@Autowired
+	private StatementCounter statementCounter;
+
+	public Session current() {
+		Session session = sessionFactory.getCurrentSession();
+		statementCounter.attach(session);
+		Integer lotId = TenantContext.getLotId();
+		if (lotId == null) {
+			session.disableFilter(FILTER);
+		} else {
+			session.enableFilter(FILTER).setParameter(PARAMETER, lotId);
+		}
+		return session;
+	}
+
+	// refuses to save over a row of another lot: lotId is not updatable, but the rest of the row would be
+	public void checkOwner(String table, String keyColumn, Object key) {
+		Integer lotId = TenantContext.getLotId();
+		if (lotId == null) {
+			return;
+		}
+		Object owner = sessionFactory.getCurrentSession()
+				.createNativeQuery("select lotId from " + table + " where " + keyColumn + " = :key")
+				.setParameter("key", key)
+				.uniqueResult();
+		if (owner != null && ((Number) owner).intValue() != lotId) {
+			throw new IllegalArgumentException(table + " " + key + " belongs to another lot");
+		}
+	}
+
+	// lots of the given rows: the current lot, or when none is set the lots the rows were read from
+	public List<Integer> lotsOf(String table, String keyColumn, Collection<?> keys) {
+		Integer lotId = TenantContext.getLotId();
+		if (lotId != null) {
+			return Collections.singletonList(lotId);
+		}
+		List<Integer> lots = new ArrayList<>();
+		if (keys.isEmpty()) {
+			return lots;
+		}
+		for (Object lot : sessionFactory.getCurrentSession()
+				.createNativeQuery("select distinct lotId from " + table + " where " + keyColumn + " in (:keys)")
+				.setParameterList("keys", keys)
+				.getResultList()) {
+			lots.add(((Number) lot).intValue());
+		}
+		return lots;
+	}
+
+	// " and <alias>lotId = :lotId" with the parameter added, or nothing outside a lot
+	public static String lotPredicate(String alias, Map<String, Object> parameters) {
+		Integer lotId = TenantContext.getLotId();
+		if (lotId == null) {
+			return "";
+		}
+		parameters.put(PARAMETER, lotId);
+		return " and " + alias + "lotId = :" + PARAMETER;
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.vehicleinventory.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.vehicleinventory.entity.Vehicle;
@@ -9,9 +10,21 @@ public interface VehicleDAO {
 	public void saveVehicle(Vehicle car);
 
 	public List<Vehicle> getVehicles();
+	
+	public Page<Vehicle> getVehicles(VehicleListQuery listQuery);
 
 	public Vehicle getVehicle(String vin);
+	
+	public List<Vehicle> getVehicles(Collection<String> vins);
+	
+	public boolean exists(String vin);
 
 	public void deleteVehicle(String vin);
+	
+	public long countRepricing(RepricingRule rule);
+	
+	public List<PriceChange> previewRepricing(RepricingRule rule, String afterVin, int limit);
+	
+	public List<PriceChange> applyRepricing(RepricingRule rule, String afterVin, int limit);
 
 }
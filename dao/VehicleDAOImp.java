@@ -1,62 +1,320 @@
 package com.vehicleinventory.dao;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import com.vehicleinventory.entity.Cents;
 import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.tenant.TenantContext;
 
 
 @Repository
 public class VehicleDAOImp implements VehicleDAO {
+	
+	// new price of a repriced vehicle in whole cents, never below the rule's floor and never above the $10,000,000 that
+	// Vehicle allows, however often a raise is applied
+	private static final String REPRICED_PRICE = "least(greatest(round(priceCents * :factor), :floor), 1000000000)";
+	
+	// the query strings and builders are package-private for QueryPlanCheck, which EXPLAINs them at startup
+	static final String BY_VINS_HQL = "from Vehicle v where v.vehicleIdNumber in (:vins)";
+	static final String EXISTS_HQL = "select count(v) from Vehicle v where v.vehicleIdNumber = :vin";
+	static final String REPRICE_SQL = "update Cars set priceCents = " + REPRICED_PRICE + " where vin in (:vins)";
+	
+	// whitelist of sorts offered on the list page, each one matches an index declared on Vehicle
+	// vin is always the last key so pages are stable between requests
+	private static final Map<String, String[]> SORTS = new HashMap<>();
+	private static final String DEFAULT_SORT = "year";
+	
+	static {
+		SORTS.put("year", new String[] { "year" });
+		SORTS.put("price", new String[] { "price" });
+		SORTS.put("mileage", new String[] { "mileage" });
+		SORTS.put("make", new String[] { "make", "model", "year" });
+	}
 
 	@Autowired
 	private SessionFactory sessionFactory;
 	
+	@Autowired
+	private TenantSessions tenantSessions;
+	
+	@Autowired
+	private WatermarkDAO watermarkDAO;
+	
+	@Autowired
+	private ChangeLog changeLog;
+	
 	// READ list
 	@Override
 	public List<Vehicle> getVehicles() {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
 		Query<Vehicle> theQuery = currentSession.createQuery("from Vehicle order by year", Vehicle.class);
 		List<Vehicle> Vehicles = theQuery.getResultList();
 				
 		return Vehicles;
 	}
 	
+	// READ page, filters and sort are pushed down to SQL
+	@Override
+	public Page<Vehicle> getVehicles(VehicleListQuery listQuery) {
+		Map<String, Object> parameters = new HashMap<>();
+		String countHql = listCountHql(listQuery, parameters);
+		
+		// rows are streamed to the view instead of being loaded into a list here, rows and count run as the view reads them
+		RowStream<Vehicle> rows = RowStream.open(sessionFactory, listHql(listQuery, parameters), parameters,
+				listQuery.getFirstResult(), listQuery.getPageSize(), Vehicle.class);
+		return new Page<>(rows, listQuery.getPage(), listQuery.getPageSize(),
+				() -> RowStream.count(sessionFactory, countHql, parameters));
+	}
+	
+	static String listHql(VehicleListQuery listQuery, Map<String, Object> parameters) {
+		return "from Vehicle v" + listWhere(listQuery, parameters) + listOrder(listQuery);
+	}
+	
+	static String listCountHql(VehicleListQuery listQuery, Map<String, Object> parameters) {
+		return "select count(v) from Vehicle v" + listWhere(listQuery, parameters);
+	}
+	
+	// the lot predicate is spelled out because the rows are read through a StatelessSession, see TenantSessions
+	private static String listWhere(VehicleListQuery listQuery, Map<String, Object> parameters) {
+		StringBuilder where = new StringBuilder(TenantSessions.lotPredicate("v.", parameters));
+		if (listQuery.getMake() != null) {
+			where.append(" and v.make = :make");
+			parameters.put("make", listQuery.getMake());
+		}
+		if (listQuery.getModel() != null) {
+			where.append(" and v.model = :model");
+			parameters.put("model", listQuery.getModel());
+		}
+		if (listQuery.getMinYear() != null) {
+			where.append(" and v.year >= :minYear");
+			parameters.put("minYear", listQuery.getMinYear());
+		}
+		if (listQuery.getMaxYear() != null) {
+			where.append(" and v.year <= :maxYear");
+			parameters.put("maxYear", listQuery.getMaxYear());
+		}
+		if (listQuery.getMaxMileage() != null) {
+			where.append(" and v.mileage <= :maxMileage");
+			parameters.put("maxMileage", listQuery.getMaxMileage());
+		}
+		if (listQuery.getMinPrice() != null) {
+			where.append(" and v.price >= :minPrice");
+			parameters.put("minPrice", Cents.round(listQuery.getMinPrice()));
+		}
+		if (listQuery.getMaxPrice() != null) {
+			where.append(" and v.price <= :maxPrice");
+			parameters.put("maxPrice", Cents.round(listQuery.getMaxPrice()));
+		}
+		return where.length() == 0 ? "" : " where" + where.substring(4);
+	}
+	
+	private static String listOrder(ListQuery listQuery) {
+		String[] columns = SORTS.get(listQuery.getSort());
+		if (columns == null) {
+			columns = SORTS.get(DEFAULT_SORT);
+		}
+		String direction = listQuery.isDescending() ? " desc" : " asc";
+		StringBuilder order = new StringBuilder(" order by ");
+		for (String column : columns) {
+			order.append("v.").append(column).append(direction).append(", ");
+		}
+		return order.append("v.vehicleIdNumber").append(direction).toString();
+	}
+	
 	// CREATE/UPDATE
 	@Override
 	public void saveVehicle(Vehicle car) {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
+		tenantSessions.checkOwner("Cars", "vin", car.getVehicleIdNumber());
+		if (car.getLotId() == 0) {
+			car.setLotId(TenantContext.getLotIdOrDefault());
+		}
 		currentSession.saveOrUpdate(car);
+		watermarkDAO.advanceWatermark(WatermarkDAO.inventory(car.getLotId()));
+		changeLog.record("Vehicle", ChangeEvent.Operation.UPSERT, car.getVehicleIdNumber());
 	}
 
 	
 	// READ single
 	@Override
 	public Vehicle getVehicle(String vin) {
-		Session currentSession = sessionFactory.getCurrentSession();
+		Session currentSession = tenantSessions.current();
 		Vehicle car = currentSession.get(Vehicle.class, vin);
 		
-		return car;
+		return car != null && TenantContext.canSee(car.getLotId()) ? car : null;
+	}
+	
+	// READ by vin, vins that do not exist (or belong to another lot) are simply missing from the result
+	@Override
+	public List<Vehicle> getVehicles(Collection<String> vins) {
+		if (vins.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Session currentSession = tenantSessions.current();
+		Query<Vehicle> theQuery = currentSession.createQuery(BY_VINS_HQL, Vehicle.class);
+		theQuery.setParameterList("vins", vins);
+		
+		return theQuery.getResultList();
+	}
+	
+	// READ existence, without loading the entity: a later saveOrUpdate of another instance with this vin would clash with it
+	@Override
+	public boolean exists(String vin) {
+		Session currentSession = tenantSessions.current();
+		Query<Long> theQuery = currentSession.createQuery(EXISTS_HQL, Long.class);
+		theQuery.setParameter("vin", vin);
+		
+		return theQuery.uniqueResult() > 0;
 	}
 	
 	// DELETE
 	@SuppressWarnings("rawtypes")
 	@Override
 	public void deleteVehicle(String vin) {
-		Session currentSession = sessionFactory.getCurrentSession();
-		Query carQuery = currentSession.createQuery("delete from Vehicle where id=:vin");
-		carQuery.setParameter("vin", vin);
-		carQuery.executeUpdate();		
+		Session currentSession = tenantSessions.current();
+		List<Integer> lots = tenantSessions.lotsOf("Cars", "vin", Collections.singletonList(vin));
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("vin", vin);
+		Query carQuery = currentSession.createQuery("delete from Vehicle where id=:vin" + TenantSessions.lotPredicate("", parameters));
+		for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			carQuery.setParameter(parameter.getKey(), parameter.getValue());
+		}
+		// nothing to log when the vin was not there (or belongs to another lot)
+		if (carQuery.executeUpdate() == 0) {
+			return;
+		}
+		for (int lotId : lots) {
+			watermarkDAO.advanceWatermark(WatermarkDAO.inventory(lotId));
+		}
+		changeLog.record("Vehicle", ChangeEvent.Operation.DELETE, vin);
+	}
+	
+	// ------------------------------------------------------------------------------------ >
+	// bulk repricing, set-based native SQL over keyset chunks ordered by vin
+	
+	@Override
+	public long countRepricing(RepricingRule rule) {
+		Session currentSession = tenantSessions.current();
+		NativeQuery<?> countQuery = currentSession.createNativeQuery(repricingCountSql(rule));
+		bindRepricing(countQuery, rule, "");
+		
+		return ((Number) countQuery.uniqueResult()).longValue();
+	}
+	
+	@Override
+	public List<PriceChange> previewRepricing(RepricingRule rule, String afterVin, int limit) {
+		return selectRepricing(rule, afterVin, limit, "");
+	}
+	
+	// locks the next chunk of matching rows, reprices them with one UPDATE and returns what changed
+	@Override
+	public List<PriceChange> applyRepricing(RepricingRule rule, String afterVin, int limit) {
+		List<PriceChange> changes = selectRepricing(rule, afterVin, limit, " for update");
+		if (changes.isEmpty()) {
+			return changes;
+		}
+		
+		List<String> vins = new ArrayList<>(changes.size());
+		for (PriceChange change : changes) {
+			vins.add(change.getVehicleIdNumber());
+		}
+		Session currentSession = tenantSessions.current();
+		NativeQuery<?> updateQuery = currentSession.createNativeQuery(REPRICE_SQL);
+		updateQuery.setParameter("factor", rule.getFactor());
+		updateQuery.setParameter("floor", floorOf(rule));
+		updateQuery.setParameterList("vins", vins);
+		updateQuery.executeUpdate();
+		
+		for (int lotId : tenantSessions.lotsOf("Cars", "vin", vins)) {
+			watermarkDAO.advanceWatermark(WatermarkDAO.inventory(lotId));
+		}
+		for (String vin : vins) {
+			changeLog.record("Vehicle", ChangeEvent.Operation.UPSERT, vin);
+		}
+		return changes;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<PriceChange> selectRepricing(RepricingRule rule, String afterVin, int limit, String lockClause) {
+		Session currentSession = tenantSessions.current();
+		NativeQuery<Object[]> selectQuery = currentSession.createNativeQuery(repricingSelectSql(rule, lockClause));
+		bindRepricing(selectQuery, rule, afterVin);
+		selectQuery.setParameter("factor", rule.getFactor());
+		selectQuery.setParameter("limit", limit);
+		
+		List<PriceChange> changes = new ArrayList<>(limit);
+		for (Object[] row : selectQuery.getResultList()) {
+			changes.add(new PriceChange((String) row[0], ((Number) row[1]).intValue(), (String) row[2], (String) row[3],
+					((Number) row[4]).intValue(), ((Number) row[5]).intValue(), ((Number) row[6]).longValue(), ((Number) row[7]).longValue()));
+		}
+		return changes;
+	}
+	
+	static String repricingCountSql(RepricingRule rule) {
+		return "select count(*) from Cars" + repricingWhere(rule);
+	}
+	
+	static String repricingSelectSql(RepricingRule rule, String lockClause) {
+		return "select vin, lotId, make, model, modelYear, mileage, priceCents, " + REPRICED_PRICE + " from Cars"
+				+ repricingWhere(rule) + " order by vin limit :limit" + lockClause;
+	}
+	
+	// vehicles already at or below the floor are left alone, a rule only reprices the current lot
+	// a vehicle without a dateAcquired has been on the lot since before V3 started recording it, so it counts as old
+	private static String repricingWhere(RepricingRule rule) {
+		StringBuilder where = new StringBuilder(" where vin > :afterVin and priceCents > :floor");
+		if (TenantContext.getLotId() != null) {
+			where.append(" and lotId = :lotId");
+		}
+		if (rule.getMinDaysOnLot() != null) {
+			where.append(" and (dateAcquired is null or dateAcquired <= :acquiredBefore)");
+		}
+		if (rule.getMinMileage() != null) {
+			where.append(" and mileage > :minMileage");
+		}
+		if (rule.getMake() != null) {
+			where.append(" and make = :make");
+		}
+		if (rule.getModel() != null) {
+			where.append(" and model = :model");
+		}
+		return where.toString();
+	}
+	
+	private static void bindRepricing(NativeQuery<?> query, RepricingRule rule, String afterVin) {
+		query.setParameter("afterVin", afterVin == null ? "" : afterVin);
+		query.setParameter("floor", floorOf(rule));
+		if (TenantContext.getLotId() != null) {
+			query.setParameter(TenantSessions.PARAMETER, TenantContext.getLotId());
+		}
+		if (rule.getMinDaysOnLot() != null) {
+			query.setParameter("acquiredBefore", LocalDate.now().minusDays(rule.getMinDaysOnLot()));
+		}
+		if (rule.getMinMileage() != null) {
+			query.setParameter("minMileage", rule.getMinMileage());
+		}
+		if (rule.getMake() != null) {
+			query.setParameter("make", rule.getMake());
+		}
+		if (rule.getModel() != null) {
+			query.setParameter("model", rule.getModel());
+		}
+	}
+	
+	private static long floorOf(RepricingRule rule) {
+		return rule.getFloorPrice() == null ? 0 : Cents.round(rule.getFloorPrice());
 	}
 }
-
-
-
-
-
-
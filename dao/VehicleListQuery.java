@@ -0,0 +1,73 @@
+package com.vehicleinventory.dao;
+
+// list options for /inventory/listAll, every filter left null is not applied
+public class VehicleListQuery extends ListQuery {
+	
+	private String make;
+	private String model;
+	private Integer minYear;
+	private Integer maxYear;
+	private Integer maxMileage;
+	private Double minPrice;
+	private Double maxPrice;
+	
+	public VehicleListQuery() {}
+
+	public String getMake() {
+		return make;
+	}
+
+	// vehicle strings are stored upper case, see Vehicle setters
+	public void setMake(String make) {
+		this.make = blankToNull(make) == null ? null : make.trim().toUpperCase();
+	}
+
+	public String getModel() {
+		return model;
+	}
+
+	public void setModel(String model) {
+		this.model = blankToNull(model) == null ? null : model.trim().toUpperCase();
+	}
+
+	public Integer getMinYear() {
+		return minYear;
+	}
+
+	public void setMinYear(Integer minYear) {
+		this.minYear = minYear;
+	}
+
+	public Integer getMaxYear() {
+		return maxYear;
+	}
+
+	public void setMaxYear(Integer maxYear) {
+		this.maxYear = maxYear;
+	}
+
+	public Integer getMaxMileage() {
+		return maxMileage;
+	}
+
+	public void setMaxMileage(Integer maxMileage) {
+		this.maxMileage = maxMileage;
+	}
+
+	public Double getMinPrice() {
+		return minPrice;
+	}
+
+	public void setMinPrice(Double minPrice) {
+		this.minPrice = minPrice;
+	}
+
+	public Double getMaxPrice() {
+		return maxPrice;
+	}
+
+	public void setMaxPrice(Double maxPrice) {
+		this.maxPrice = maxPrice;
+	}
+
+}
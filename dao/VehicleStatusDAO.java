@@ -0,0 +1,22 @@
+package com.vehicleinventory.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VehicleStatusDAO {
+	
+	public void append(List<StatusTransition> transitions);
+	
+	// oldest first, empty for a vin of another lot than the selected one
+	public List<StatusTransition> getHistory(String vin);
+	
+	public void recordSale(LocalDate day, int lotId, String make, String model, long daysOnLot);
+	
+	// rewrites the onLot counts of one day from the current inventory of every lot
+	public void rollupOnLot(LocalDate day);
+	
+	// one entry per bucket: onLot as of the to day, sales summed over [from, to]; null make/model match all
+	// only the selected lot is counted, every lot when none is selected
+	public List<AgingBucketCount> getAging(LocalDate from, LocalDate to, String make, String model);
+
+}
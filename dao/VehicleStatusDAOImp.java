@@ -0,0 +1,212 @@
+package com.vehicleinventory.dao;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.vehicleinventory.entity.VehicleStatus;
+import com.vehicleinventory.tenant.TenantContext;
+
+// VehicleStatusHistory and its InventoryAgingDaily rollup, plain JDBC through the current session's connection
+//
+// the history is only ever appended to and read per vin; aging questions are answered from the rollup alone,
+// which has at most AgingBuckets.COUNT rows per lot, make and model per day, so no query here reads the history in bulk
+// both tables carry the lot (V15), reads are limited to the selected lot like the lot filter of TenantSessions
+@Repository
+public class VehicleStatusDAOImp implements VehicleStatusDAO {
+	
+	private static final String APPEND_SQL =
+			"insert into VehicleStatusHistory (vin, lotId, status, occurredAt, price) values (?, ?, ?, ?, ?)";
+	
+	private static final String SALE_SQL =
+			"insert into InventoryAgingDaily (day, lotId, make, model, bucket, sold, soldDays) values (?, ?, ?, ?, ?, 1, ?) "
+			+ "on duplicate key update sold = sold + 1, soldDays = soldDays + values(soldDays)";
+	
+	private static final String ON_LOT_SQL =
+			"insert into InventoryAgingDaily (day, lotId, make, model, bucket, onLot) values (?, ?, ?, ?, ?, ?) "
+			+ "on duplicate key update onLot = values(onLot)";
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	// one JDBC batch for the whole list
+	@Override
+	public void append(List<StatusTransition> transitions) {
+		if (transitions.isEmpty()) {
+			return;
+		}
+		Session currentSession = sessionFactory.getCurrentSession();
+		currentSession.doWork(connection -> {
+			try (PreparedStatement insert = connection.prepareStatement(APPEND_SQL)) {
+				for (StatusTransition transition : transitions) {
+					insert.setString(1, transition.getVehicleIdNumber());
+					insert.setInt(2, transition.getLotId());
+					insert.setInt(3, transition.getStatus().getCode());
+					insert.setTimestamp(4, Timestamp.valueOf(transition.getOccurredAt()));
+					insert.setDouble(5, transition.getPrice());
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+		});
+	}
+
+	// the parameters are the vin and then the lot when one is selected
+	static String historySql(boolean byLot) {
+		return "select status, occurredAt, price, lotId from VehicleStatusHistory where vin = ?"
+				+ (byLot ? " and lotId = ?" : "") + " order by eventId";
+	}
+
+	@Override
+	public List<StatusTransition> getHistory(String vin) {
+		Integer lotId = TenantContext.getLotId();
+		Session currentSession = sessionFactory.getCurrentSession();
+		List<StatusTransition> history = new ArrayList<>();
+		currentSession.doWork(connection -> {
+			try (PreparedStatement select = connection.prepareStatement(historySql(lotId != null))) {
+				select.setString(1, vin);
+				if (lotId != null) {
+					select.setInt(2, lotId);
+				}
+				try (ResultSet rows = select.executeQuery()) {
+					while (rows.next()) {
+						history.add(new StatusTransition(vin, rows.getInt(4), VehicleStatus.fromCode(rows.getInt(1)),
+								rows.getTimestamp(2).toLocalDateTime(), rows.getDouble(3)));
+					}
+				}
+			}
+		});
+		return history;
+	}
+
+	@Override
+	public void recordSale(LocalDate day, int lotId, String make, String model, long daysOnLot) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		currentSession.doWork(connection -> {
+			try (PreparedStatement upsert = connection.prepareStatement(SALE_SQL)) {
+				upsert.setDate(1, Date.valueOf(day));
+				upsert.setInt(2, lotId);
+				upsert.setString(3, make == null ? "" : make);
+				upsert.setString(4, model == null ? "" : model);
+				upsert.setInt(5, AgingBuckets.bucket(daysOnLot));
+				upsert.setLong(6, daysOnLot);
+				upsert.executeUpdate();
+			}
+		});
+	}
+
+	// the inventory is read grouped by acquisition date, which is a few thousand rows at most, and bucketed here
+	// so the SQL stays free of MySQL date functions; vehicles without a dateAcquired go to the oldest bucket
+	// the counts are keyed by lot, make and model joined with tabs, which none of them contains
+	@Override
+	public void rollupOnLot(LocalDate day) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		currentSession.doWork(connection -> {
+			Map<String, long[]> counts = new HashMap<>();
+			try (PreparedStatement select = connection.prepareStatement(
+					"select lotId, make, model, dateAcquired, count(*) from Cars group by lotId, make, model, dateAcquired")) {
+				try (ResultSet rows = select.executeQuery()) {
+					while (rows.next()) {
+						String make = rows.getString(2) == null ? "" : rows.getString(2);
+						String model = rows.getString(3) == null ? "" : rows.getString(3);
+						Date acquired = rows.getDate(4);
+						long days = acquired == null ? AgingBuckets.UNKNOWN_DAYS : Math.max(0, ChronoUnit.DAYS.between(acquired.toLocalDate(), day));
+						counts.computeIfAbsent(rows.getInt(1) + "\t" + make + '\t' + model, key -> new long[AgingBuckets.COUNT])[AgingBuckets.bucket(days)] += rows.getLong(5);
+					}
+				}
+			}
+
+			try (PreparedStatement reset = connection.prepareStatement("update InventoryAgingDaily set onLot = 0 where day = ?")) {
+				reset.setDate(1, Date.valueOf(day));
+				reset.executeUpdate();
+			}
+			try (PreparedStatement upsert = connection.prepareStatement(ON_LOT_SQL)) {
+				for (Map.Entry<String, long[]> group : counts.entrySet()) {
+					String[] key = group.getKey().split("\t", -1);
+					long[] buckets = group.getValue();
+					for (int bucket = 0; bucket < buckets.length; bucket++) {
+						if (buckets[bucket] == 0) {
+							continue;
+						}
+						upsert.setDate(1, Date.valueOf(day));
+						upsert.setInt(2, Integer.parseInt(key[0]));
+						upsert.setString(3, key[1]);
+						upsert.setString(4, key[2]);
+						upsert.setInt(5, bucket);
+						upsert.setLong(6, buckets[bucket]);
+						upsert.addBatch();
+					}
+				}
+				upsert.executeBatch();
+			}
+		});
+	}
+
+	@Override
+	public List<AgingBucketCount> getAging(LocalDate from, LocalDate to, String make, String model) {
+		Integer lotId = TenantContext.getLotId();
+		String sql = agingSql(lotId != null, make != null, model != null);
+		long[][] totals = new long[AgingBuckets.COUNT][3];
+		Session currentSession = sessionFactory.getCurrentSession();
+		currentSession.doWork(connection -> {
+			try (PreparedStatement select = connection.prepareStatement(sql)) {
+				int parameter = 1;
+				select.setDate(parameter++, Date.valueOf(to));
+				select.setDate(parameter++, Date.valueOf(from));
+				select.setDate(parameter++, Date.valueOf(to));
+				if (lotId != null) {
+					select.setInt(parameter++, lotId);
+				}
+				if (make != null) {
+					select.setString(parameter++, make);
+				}
+				if (model != null) {
+					select.setString(parameter++, model);
+				}
+				try (ResultSet rows = select.executeQuery()) {
+					while (rows.next()) {
+						long[] bucket = totals[rows.getInt(1)];
+						bucket[0] = rows.getLong(2);
+						bucket[1] = rows.getLong(3);
+						bucket[2] = rows.getLong(4);
+					}
+				}
+			}
+		});
+
+		List<AgingBucketCount> buckets = new ArrayList<>(AgingBuckets.COUNT);
+		for (int bucket = 0; bucket < AgingBuckets.COUNT; bucket++) {
+			buckets.add(new AgingBucketCount(bucket, totals[bucket][0], totals[bucket][1], totals[bucket][2]));
+		}
+		return buckets;
+	}
+
+	// the parameters are the last day, the range and then lot, make and model when they are given
+	static String agingSql(boolean byLot, boolean byMake, boolean byModel) {
+		StringBuilder sql = new StringBuilder("select bucket, sum(case when day = ? then onLot else 0 end), sum(sold), sum(soldDays) "
+				+ "from InventoryAgingDaily where day between ? and ?");
+		if (byLot) {
+			sql.append(" and lotId = ?");
+		}
+		if (byMake) {
+			sql.append(" and make = ?");
+		}
+		if (byModel) {
+			sql.append(" and model = ?");
+		}
+		return sql.append(" group by bucket").toString();
+	}
+
+}
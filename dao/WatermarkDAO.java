@@ -0,0 +1,20 @@
+package com.vehicleinventory.dao;
+
+public interface WatermarkDAO {
+	
+	public static final String INVENTORY = "inventory";
+	
+	// the vehicles and customer accounts of one lot, each lot has its own counter so a write only dates its own lot
+	public static String inventory(int lotId) {
+		return INVENTORY + "." + lotId;
+	}
+	
+	public long getWatermark(String name);
+	
+	// counts a write to the data set, the counter moves once the writing transaction has committed
+	public void advanceWatermark(String name);
+	
+	// adds the writes counted so far to their counters now instead of on the background thread
+	public void flush();
+
+}
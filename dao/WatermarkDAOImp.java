@@ -0,0 +1,153 @@
+package com.vehicleinventory.dao;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// a counter per data set in the ChangeWatermarks table, advanced once for every committed transaction that wrote to it
+// a copy of the data taken at watermark N is current as long as the counter still reads N
+//
+// the writing transaction never touches the counter row, a shared row locked until commit would queue every writer
+// behind it. names are collected per transaction and, once it has committed, counted into a pending delta that one
+// background thread adds to the row in a short transaction of its own, however many writes it covers. each bump is
+// published as a WatermarkEvent so in-process copies patched for those writes can move their watermark along
+// deltas still pending when the process dies are lost, the counter then lags the data; SnapshotWarmStart only
+// trusts a snapshot file written by a clean shutdown, which calls flush first
+@Repository
+public class WatermarkDAOImp implements WatermarkDAO {
+	
+	private static final Logger LOGGER = Logger.getLogger(WatermarkDAOImp.class.getName());
+	
+	static final String WATERMARK_SQL = "select version from ChangeWatermarks where name = :name";
+	
+	@Autowired
+	private SessionFactory sessionFactory;
+	
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	
+	private final Map<String, Long> pending = new HashMap<>();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private final ExecutorService bumper = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "change-watermarks");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@Override
+	public long getWatermark(String name) {
+		Session currentSession = sessionFactory.getCurrentSession();
+		Object version = currentSession.createNativeQuery(WATERMARK_SQL)
+				.setParameter("name", name)
+				.uniqueResult();
+		
+		return version == null ? 0 : ((Number) version).longValue();
+	}
+
+	// counted once per transaction however often it is called, and only if the transaction commits
+	@Override
+	@SuppressWarnings("unchecked")
+	public void advanceWatermark(String name) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			count(name);
+			return;
+		}
+		Set<String> names = (Set<String>) TransactionSynchronizationManager.getResource(this);
+		if (names == null) {
+			Set<String> transactionNames = new LinkedHashSet<>();
+			TransactionSynchronizationManager.bindResource(this, transactionNames);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(WatermarkDAOImp.this);
+					if (status == TransactionSynchronization.STATUS_COMMITTED) {
+						for (String transactionName : transactionNames) {
+							count(transactionName);
+						}
+					}
+				}
+			});
+			names = transactionNames;
+		}
+		names.add(name);
+	}
+
+	private void count(String name) {
+		synchronized (pending) {
+			pending.merge(name, 1L, Long::sum);
+		}
+		if (scheduled.compareAndSet(false, true)) {
+			bumper.execute(this::flush);
+		}
+	}
+
+	// adds every pending delta to its row, on the bumper thread or at shutdown
+	@Override
+	public synchronized void flush() {
+		scheduled.set(false);
+		Map<String, Long> deltas;
+		synchronized (pending) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			deltas = new HashMap<>(pending);
+			pending.clear();
+		}
+		for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+			try {
+				long version = bump(delta.getKey(), delta.getValue());
+				eventPublisher.publishEvent(new WatermarkEvent(this, delta.getKey(), version, delta.getValue()));
+			} catch (RuntimeException e) {
+				// the counter lags the data until the next write to the same set moves it past a copy taken now
+				LOGGER.log(Level.SEVERE, "Could not advance watermark " + delta.getKey() + " by " + delta.getValue(), e);
+			}
+		}
+	}
+
+	private long bump(String name, long delta) {
+		StatelessSession session = sessionFactory.openStatelessSession();
+		try {
+			Transaction transaction = session.beginTransaction();
+			session.createNativeQuery("insert into ChangeWatermarks (name, version) values (:name, :delta) "
+					+ "on duplicate key update version = version + :delta")
+					.setParameter("name", name)
+					.setParameter("delta", delta)
+					.executeUpdate();
+			Object version = session.createNativeQuery(WATERMARK_SQL)
+					.setParameter("name", name)
+					.uniqueResult();
+			transaction.commit();
+			return ((Number) version).longValue();
+		} finally {
+			session.close();
+		}
+	}
+
+	@PreDestroy
+	public void close() throws InterruptedException {
+		bumper.shutdown();
+		bumper.awaitTermination(10, TimeUnit.SECONDS);
+		flush();
+	}
+
+}
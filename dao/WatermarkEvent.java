@@ -0,0 +1,36 @@
+package com.vehicleinventory.dao;
+
+import org.springframework.context.ApplicationEvent;
+
+// published by WatermarkDAOImp each time it has moved a watermark forward for writes committed on this node
+public class WatermarkEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String name;
+	private final long version;
+	private final long advancedBy;
+
+	public WatermarkEvent(Object source, String name, long version, long advancedBy) {
+		super(source);
+		this.name = name;
+		this.version = version;
+		this.advancedBy = advancedBy;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	// the counter as it stands after this bump
+	public long getVersion() {
+		return version;
+	}
+
+	// how many committed transactions this bump counted; version - advancedBy is what it read before,
+	// unless another node moved the counter as well
+	public long getAdvancedBy() {
+		return advancedBy;
+	}
+
+}
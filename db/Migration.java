@@ -0,0 +1,95 @@
+package com.vehicleinventory.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+// one versioned script from /db/migration, named V<version>__<description>.sql
+// scripts are plain SQL statements separated by ';' at the end of a line, "--" lines are comments
+public final class Migration {
+
+	static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+
+	private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+	private final int version;
+	private final String description;
+	private final String script;
+	private final long checksum;
+
+	Migration(int version, String description, String script) {
+		this.version = version;
+		this.description = description;
+		this.script = script;
+		CRC32 crc = new CRC32();
+		crc.update(script.getBytes(StandardCharsets.UTF_8));
+		this.checksum = crc.getValue();
+	}
+
+	// every migration on the classpath, oldest first
+	public static List<Migration> load() throws IOException {
+		Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+		List<Migration> migrations = new ArrayList<>(resources.length);
+		for (Resource resource : resources) {
+			Matcher name = FILE_NAME.matcher(resource.getFilename());
+			if (!name.matches()) {
+				throw new IllegalStateException("Badly named migration " + resource.getFilename());
+			}
+			try (InputStream in = resource.getInputStream()) {
+				migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+						StreamUtils.copyToString(in, StandardCharsets.UTF_8)));
+			}
+		}
+		Collections.sort(migrations, Comparator.comparingInt(Migration::getVersion));
+		for (int i = 1; i < migrations.size(); i++) {
+			if (migrations.get(i).getVersion() == migrations.get(i - 1).getVersion()) {
+				throw new IllegalStateException("Two migrations share version " + migrations.get(i).getVersion());
+			}
+		}
+		return migrations;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public long getChecksum() {
+		return checksum;
+	}
+
+	public List<String> getStatements() {
+		List<String> statements = new ArrayList<>();
+		StringBuilder statement = new StringBuilder();
+		for (String line : script.split("\r?\n")) {
+			String trimmed = line.trim();
+			if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+				continue;
+			}
+			statement.append(line).append('\n');
+			if (trimmed.endsWith(";")) {
+				statements.add(statement.substring(0, statement.lastIndexOf(";")).trim());
+				statement.setLength(0);
+			}
+		}
+		if (statement.toString().trim().length() > 0) {
+			statements.add(statement.toString().trim());
+		}
+		return statements;
+	}
+
+}
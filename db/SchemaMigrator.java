@@ -0,0 +1,111 @@
+package com.vehicleinventory.db;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// brings the database up to the newest script in /db/migration on startup
+//
+// applied versions are kept in SchemaVersions together with the checksum of the script that ran,
+// editing a script after it was applied stops startup instead of leaving databases that disagree
+@Component
+public class SchemaMigrator {
+
+	private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+	private static final String CREATE_HISTORY_SQL =
+			"create table if not exists SchemaVersions (version int not null, description varchar(200) not null, "
+			+ "checksum bigint not null, appliedAt timestamp not null, primary key (version))";
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@PostConstruct
+	public void migrate() throws IOException {
+		List<Migration> migrations = Migration.load();
+		try (Session session = sessionFactory.openSession()) {
+			session.doWork(connection -> {
+				int applied = migrate(connection, migrations);
+				LOGGER.info("Schema is at version " + currentVersion(connection) + ", applied " + applied + " migration(s)");
+			});
+		}
+	}
+
+	// applies every migration newer than the database, one transaction per script where the database allows it
+	// (MySQL commits DDL implicitly, which is why each script should stay small and single purpose)
+	public static int migrate(Connection connection, List<Migration> migrations) throws SQLException {
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(CREATE_HISTORY_SQL);
+			connection.commit();
+
+			Map<Integer, Long> history = appliedChecksums(connection);
+			int applied = 0;
+			for (Migration migration : migrations) {
+				Long checksum = history.get(migration.getVersion());
+				if (checksum != null) {
+					if (checksum != migration.getChecksum()) {
+						throw new IllegalStateException("Migration V" + migration.getVersion() + " (" + migration.getDescription()
+								+ ") was changed after it was applied");
+					}
+					continue;
+				}
+				for (String sql : migration.getStatements()) {
+					statement.execute(sql);
+				}
+				try (PreparedStatement insert = connection.prepareStatement(
+						"insert into SchemaVersions (version, description, checksum, appliedAt) values (?, ?, ?, ?)")) {
+					insert.setInt(1, migration.getVersion());
+					insert.setString(2, migration.getDescription());
+					insert.setLong(3, migration.getChecksum());
+					insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+					insert.executeUpdate();
+				}
+				connection.commit();
+				applied++;
+			}
+			return applied;
+		} catch (SQLException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	private static Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+		Map<Integer, Long> history = new HashMap<>();
+		try (Statement statement = connection.createStatement();
+				ResultSet rows = statement.executeQuery("select version, checksum from SchemaVersions")) {
+			while (rows.next()) {
+				history.put(rows.getInt(1), rows.getLong(2));
+			}
+		}
+		return history;
+	}
+
+	private static int currentVersion(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet rows = statement.executeQuery("select max(version) from SchemaVersions")) {
+			return rows.next() ? rows.getInt(1) : 0;
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+-- month-end close of the finance records, written by MonthEndDAOImp
+-- one posting per open loan per month: the installment that comes due, split into interest and principal, and the
+-- balance it leaves; statements are built from these rows
+
+create table if not exists MonthEndPostings (
+	monthEnd date not null,
+	financeId int not null,
+	lotId int not null,
+	customerId int not null,
+	installmentNumber int not null,
+	interestCents bigint not null,
+	principalCents bigint not null,
+	amountDueCents bigint not null,
+	balanceCents bigint not null,
+	paidOff boolean not null,
+	primary key (monthEnd, financeId)
+);
+
+-- how far each financeId range of a month-end run has got, moved in the same transaction as the postings it covers,
+-- so a run that stopped part way resumes after the last committed chunk
+create table if not exists MonthEndCheckpoints (
+	monthEnd date not null,
+	partitionNo int not null,
+	firstFinanceId int not null,
+	lastFinanceId int not null,
+	checkpointFinanceId int not null,
+	processed bigint not null default 0,
+	completedAt timestamp null,
+	primary key (monthEnd, partitionNo)
+);
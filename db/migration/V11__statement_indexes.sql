@@ -0,0 +1,2 @@
+-- customer statements read a month's postings a range of customers at a time, see StatementDAOImp
+create index idx_month_end_customer on MonthEndPostings (monthEnd, customerId, financeId);
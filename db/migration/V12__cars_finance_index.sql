@@ -0,0 +1,2 @@
+-- the finance views fetch each record's vehicle by Cars.financeId (the inverse side of Vehicle.financeRecord)
+create index idx_cars_finance on Cars (financeId);
@@ -0,0 +1,3 @@
+-- a duplicate account merged by CustomerMergeEngine keeps its row but points at the survivor,
+-- so it drops out of the CustomerSnapshot and later duplicate scans stop suggesting it
+alter table CustomerAccounts add column mergedInto int;
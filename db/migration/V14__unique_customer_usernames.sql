@@ -0,0 +1,22 @@
+-- the username is the portal login (CustomerAccountDAOImp.getCustomerAccountByUsername), so within a lot it may name
+-- only one account that is still in use; activeUsername is null for merged duplicates and a unique index takes any
+-- number of nulls, so a duplicate keeps the username it shared with its survivor (the column is virtual, InnoDB
+-- indexes it without storing it in the row, and the H2 database of QueryPlanCheck takes the same syntax)
+--
+-- usernames the forms let through twice before this would stop the index, so the script stops first as V8 does,
+-- with "Duplicate entry '<lot and username, ...>' for key 'PRIMARY'"; rename or merge those accounts and restart
+
+create table if not exists V14DuplicateUsernames (duplicated varchar(250) not null, primary key (duplicated));
+delete from V14DuplicateUsernames;
+insert into V14DuplicateUsernames
+	select left(group_concat(d.duplicated order by d.duplicated separator ', '), 250) from (
+		select concat('lot ', lotId, ' ', username) as duplicated from CustomerAccounts
+			where username is not null and mergedInto is null
+			group by lotId, username having count(*) > 1
+	) d having count(*) > 0;
+insert into V14DuplicateUsernames select duplicated from V14DuplicateUsernames;
+drop table V14DuplicateUsernames;
+
+alter table CustomerAccounts add column activeUsername varchar(15)
+	generated always as (case when mergedInto is null then username end);
+create unique index uq_customers_lot_active_username on CustomerAccounts (lotId, activeUsername);
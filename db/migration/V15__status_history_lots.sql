@@ -0,0 +1,16 @@
+-- the status history and the aging rollup carry the lot like every other table since V7, see VehicleStatusDAOImp
+--
+-- history rows take the lot of their vehicle, a sold vehicle is no longer in Cars and takes the lot of its
+-- finance record; rows of vehicles found in neither, and every rollup row written so far, stay in lot 1
+-- (TenantContext.DEFAULT_LOT_ID) because the rollup never recorded which lot its counts came from.
+-- the next daily rollup rewrites today's onLot counts per lot
+
+alter table VehicleStatusHistory add column lotId int not null default 1;
+update VehicleStatusHistory set lotId = (select max(f.lotId) from FinanceRecords f where f.vehicleIdNumber = VehicleStatusHistory.vin)
+	where vin in (select vehicleIdNumber from FinanceRecords);
+update VehicleStatusHistory set lotId = (select c.lotId from Cars c where c.vin = VehicleStatusHistory.vin)
+	where vin in (select vin from Cars);
+
+alter table InventoryAgingDaily add column lotId int not null default 1;
+alter table InventoryAgingDaily drop primary key;
+alter table InventoryAgingDaily add primary key (day, lotId, make, model, bucket);
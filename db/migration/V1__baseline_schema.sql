@@ -0,0 +1,49 @@
+-- the three tables that used to be created by hand (see README, "Current schema setup")
+-- "if not exists" lets an existing hand-made database adopt the migrations without being rebuilt
+
+create table if not exists CustomerAccounts (
+	customerId int not null auto_increment,
+	username varchar(15),
+	password varchar(15),
+	firstName varchar(20),
+	lastName varchar(20),
+	emailAddress varchar(50),
+	phoneNumber varchar(20),
+	mailingAddress varchar(100),
+	primary key (customerId)
+);
+
+create table if not exists FinanceRecords (
+	financeId int not null auto_increment,
+	creditScore int,
+	vehicleIdNumber varchar(17),
+	vehiclePrice double,
+	termLength int,
+	paymentsMade int,
+	apr double,
+	downPayment double,
+	balance double,
+	monthlyPayment double,
+	currCondition varchar(20),
+	paidOff boolean not null default false,
+	customerId int not null,
+	primary key (financeId)
+);
+
+create table if not exists Cars (
+	vin varchar(17) not null,
+	make varchar(20),
+	model varchar(20),
+	modelYear int,
+	extColor varchar(20),
+	intColor varchar(20),
+	mileage int,
+	currCondition varchar(20),
+	title varchar(20),
+	driveTrain varchar(20),
+	transmission varchar(20),
+	fuel varchar(20),
+	price double,
+	financeId int,
+	primary key (vin)
+);
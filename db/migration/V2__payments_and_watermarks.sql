@@ -0,0 +1,18 @@
+-- Payments is the append-only ledger written by PaymentDAOImp
+-- ChangeWatermarks holds the counters advanced by WatermarkDAOImp
+
+create table Payments (
+	paymentId bigint not null auto_increment,
+	financeId int not null,
+	amount double not null,
+	reference varchar(40),
+	postedAt timestamp,
+	primary key (paymentId),
+	constraint uq_payments_reference unique (reference)
+);
+
+create table ChangeWatermarks (
+	name varchar(40) not null,
+	version bigint not null,
+	primary key (name)
+);
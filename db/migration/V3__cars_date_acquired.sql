@@ -0,0 +1,3 @@
+-- set once when a vehicle is first saved, read by the repricing rules (days on lot)
+
+alter table Cars add column dateAcquired date;
@@ -0,0 +1,22 @@
+-- secondary indexes for the predicates and sorts the DAOs actually run, checked by QueryPlanCheck
+-- InnoDB appends the primary key to every secondary index, so "order by <column>, vin" is served by (<column>)
+
+-- list page sorts and filters, VehicleDAOImp.getVehicles(VehicleListQuery)
+create index idx_cars_year on Cars (modelYear);
+create index idx_cars_price on Cars (price);
+create index idx_cars_mileage on Cars (mileage);
+create index idx_cars_make_model_year on Cars (make, model, modelYear);
+create index idx_cars_make_year on Cars (make, modelYear);
+create index idx_cars_make_price on Cars (make, price);
+
+-- CustomerAccountDAOImp.getCustomerAccounts(CustomerListQuery), lastName is matched as a prefix
+create index idx_customers_name on CustomerAccounts (lastName, firstName);
+create index idx_customers_email on CustomerAccounts (emailAddress);
+create index idx_customers_phone on CustomerAccounts (phoneNumber);
+
+-- financed vehicles per customer and the finance record of a vehicle
+create index idx_finance_customer on FinanceRecords (customerId);
+create index idx_finance_vehicle on FinanceRecords (vehicleIdNumber);
+
+-- PaymentDAOImp.getPayments, payment history of one finance record in posting order
+create index idx_payments_finance on Payments (financeId, paymentId);
@@ -0,0 +1,5 @@
+-- password now holds a PBKDF2 hash ("pbkdf2-sha256$iterations$salt$hash"), see PasswordHasher
+-- username is the portal login lookup, CustomerAccountDAOImp.getCustomerAccountByUsername
+
+alter table CustomerAccounts modify password varchar(160);
+create index idx_customers_username on CustomerAccounts (username);
@@ -0,0 +1,26 @@
+-- append-only status history, one narrow row per vehicle state transition, see VehicleStatusDAOImp
+-- status is VehicleStatus.code; rows are never updated or deleted, so sold vehicles keep their history
+
+create table if not exists VehicleStatusHistory (
+	eventId bigint not null auto_increment,
+	vin varchar(17) not null,
+	status tinyint not null,
+	occurredAt timestamp not null,
+	price double,
+	primary key (eventId)
+);
+create index idx_status_history_vin on VehicleStatusHistory (vin, eventId);
+
+-- days-on-lot distribution per day, make and model; bucket is an AgingBuckets number
+-- onLot is rewritten by the daily rollup, sold/soldDays are incremented as vehicles leave the lot
+
+create table if not exists InventoryAgingDaily (
+	day date not null,
+	make varchar(20) not null,
+	model varchar(20) not null,
+	bucket tinyint not null,
+	onLot int not null default 0,
+	sold int not null default 0,
+	soldDays bigint not null default 0,
+	primary key (day, make, model, bucket)
+);
@@ -0,0 +1,35 @@
+-- one deployment serves several dealership lots; every existing row belongs to lot 1 (TenantContext.DEFAULT_LOT_ID)
+-- the secondary indexes of V4/V5 are rebuilt with lotId leading, see TenantSessions for how queries are scoped
+
+alter table Cars add column lotId int not null default 1;
+alter table CustomerAccounts add column lotId int not null default 1;
+alter table FinanceRecords add column lotId int not null default 1;
+
+alter table Cars drop index idx_cars_year;
+alter table Cars drop index idx_cars_price;
+alter table Cars drop index idx_cars_mileage;
+alter table Cars drop index idx_cars_make_model_year;
+alter table Cars drop index idx_cars_make_year;
+alter table Cars drop index idx_cars_make_price;
+
+-- (lotId, vin) is the keyset of repricing chunks within a lot
+create index idx_cars_lot_vin on Cars (lotId, vin);
+create index idx_cars_lot_year on Cars (lotId, modelYear);
+create index idx_cars_lot_price on Cars (lotId, price);
+create index idx_cars_lot_mileage on Cars (lotId, mileage);
+create index idx_cars_lot_make_model_year on Cars (lotId, make, model, modelYear);
+create index idx_cars_lot_make_year on Cars (lotId, make, modelYear);
+create index idx_cars_lot_make_price on Cars (lotId, make, price);
+
+alter table CustomerAccounts drop index idx_customers_name;
+alter table CustomerAccounts drop index idx_customers_email;
+alter table CustomerAccounts drop index idx_customers_phone;
+alter table CustomerAccounts drop index idx_customers_username;
+
+create index idx_customers_lot_name on CustomerAccounts (lotId, lastName, firstName);
+create index idx_customers_lot_email on CustomerAccounts (lotId, emailAddress);
+create index idx_customers_lot_phone on CustomerAccounts (lotId, phoneNumber);
+create index idx_customers_lot_username on CustomerAccounts (lotId, username);
+
+-- finance list pages of one lot in financeId order; lookups by customer and vehicle keep their V4 indexes
+create index idx_finance_lot on FinanceRecords (lotId, financeId);
@@ -0,0 +1,47 @@
+-- the closed-set attributes of Cars become tinyint codes, see CodedValue and the enums in entity
+-- the CASE lists match each enum's labels and older spellings; blank text becomes null
+-- FinanceRecords.currCondition is a copy taken at financing time and stays text
+--
+-- text none of the labels names would be lost with the dropped columns, so the script stops first: the distinct
+-- unmapped values are collected into one row and copied onto itself, which fails with
+-- "Duplicate entry '<the values>' for key 'PRIMARY'" before any column is touched
+-- correct those rows (or add the spelling to the enum and below) and restart
+
+create table if not exists V8UnmappedAttributes (unmapped varchar(250) not null, primary key (unmapped));
+delete from V8UnmappedAttributes;
+insert into V8UnmappedAttributes
+	select left(group_concat(distinct u.unmapped order by u.unmapped separator ', '), 250) from (
+		select concat('currCondition ', currCondition) as unmapped from Cars
+			where trim(currCondition) <> '' and upper(currCondition) not in ('NEW', 'USED', 'CERTIFIED')
+		union all select concat('title ', title) from Cars
+			where trim(title) <> '' and upper(title) not in ('CLEAN', 'CLEAR', 'SALVAGE', 'REBUILT')
+		union all select concat('driveTrain ', driveTrain) from Cars
+			where trim(driveTrain) <> '' and upper(driveTrain) not in ('AWD', 'FWD', 'RWD', '4WD', 'FOURWD')
+		union all select concat('transmission ', transmission) from Cars
+			where trim(transmission) <> ''
+			and upper(transmission) not in ('AUTOMATIC', 'AT', 'MANUAL', 'MT', 'CVT', 'DUAL-CLUTCH', 'AUTOMATED-MANUAL', 'AM')
+		union all select concat('fuel ', fuel) from Cars
+			where trim(fuel) <> '' and upper(fuel) not in ('GAS', 'GASOLINE', 'ELECTRIC', 'HYBRID', 'DIESEL')
+	) u having count(*) > 0;
+insert into V8UnmappedAttributes select unmapped from V8UnmappedAttributes;
+drop table V8UnmappedAttributes;
+
+alter table Cars add column conditionCode tinyint;
+alter table Cars add column titleCode tinyint;
+alter table Cars add column driveTrainCode tinyint;
+alter table Cars add column transmissionCode tinyint;
+alter table Cars add column fuelCode tinyint;
+
+update Cars set
+	conditionCode = case upper(currCondition) when 'NEW' then 1 when 'USED' then 2 when 'CERTIFIED' then 3 end,
+	titleCode = case upper(title) when 'CLEAN' then 1 when 'CLEAR' then 2 when 'SALVAGE' then 3 when 'REBUILT' then 4 end,
+	driveTrainCode = case upper(driveTrain) when 'AWD' then 1 when 'FWD' then 2 when 'RWD' then 3 when '4WD' then 4 when 'FOURWD' then 4 end,
+	transmissionCode = case upper(transmission) when 'AUTOMATIC' then 1 when 'AT' then 1 when 'MANUAL' then 2 when 'MT' then 2
+		when 'CVT' then 3 when 'DUAL-CLUTCH' then 4 when 'AUTOMATED-MANUAL' then 5 when 'AM' then 5 end,
+	fuelCode = case upper(fuel) when 'GAS' then 1 when 'GASOLINE' then 1 when 'ELECTRIC' then 2 when 'HYBRID' then 3 when 'DIESEL' then 4 end;
+
+alter table Cars drop column currCondition;
+alter table Cars drop column title;
+alter table Cars drop column driveTrain;
+alter table Cars drop column transmission;
+alter table Cars drop column fuel;
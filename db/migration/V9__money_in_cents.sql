@@ -0,0 +1,30 @@
+-- money columns become whole cents in bigints, see entity/Cents
+-- every amount was written through priceFormat, so it sits within a rounding error of whole cents and round(x * 100) is exact
+-- VehicleStatusHistory.price is a historical record of list prices and stays as it is
+
+alter table Cars add column priceCents bigint;
+update Cars set priceCents = round(price * 100);
+alter table Cars drop index idx_cars_lot_price;
+alter table Cars drop index idx_cars_lot_make_price;
+alter table Cars drop column price;
+create index idx_cars_lot_price on Cars (lotId, priceCents);
+create index idx_cars_lot_make_price on Cars (lotId, make, priceCents);
+
+alter table FinanceRecords add column vehiclePriceCents bigint;
+alter table FinanceRecords add column downPaymentCents bigint;
+alter table FinanceRecords add column balanceCents bigint;
+alter table FinanceRecords add column monthlyPaymentCents bigint;
+update FinanceRecords set
+	vehiclePriceCents = round(vehiclePrice * 100),
+	downPaymentCents = round(downPayment * 100),
+	balanceCents = round(balance * 100),
+	monthlyPaymentCents = round(monthlyPayment * 100);
+alter table FinanceRecords drop column vehiclePrice;
+alter table FinanceRecords drop column downPayment;
+alter table FinanceRecords drop column balance;
+alter table FinanceRecords drop column monthlyPayment;
+
+alter table Payments add column amountCents bigint;
+update Payments set amountCents = round(amount * 100);
+alter table Payments modify amountCents bigint not null;
+alter table Payments drop column amount;
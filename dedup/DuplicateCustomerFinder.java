@@ -0,0 +1,276 @@
+package com.vehicleinventory.dedup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.vehicleinventory.cache.CustomerSnapshot;
+
+// finds accounts that belong to the same person in a CustomerSnapshot
+//
+// comparing every pair is out of the question at a million customers, so accounts are first grouped into blocks
+// that share a normalized phone number, a normalized email or a name key (last name prefix + first initial), see
+// MatchKeys. only pairs inside a block are scored, a pair sharing several keys is scored once in the first of them.
+// blocks are scored in parallel on the common fork/join pool, and matched pairs are joined into groups whose
+// oldest account survives. nothing here touches the database, CustomerMergeEngine applies the suggestions
+public final class DuplicateCustomerFinder {
+
+	public static final double DEFAULT_THRESHOLD = 0.88;
+
+	// larger blocks are placeholder values ("0000000000", a dealership address) rather than one person
+	public static final int MAX_BLOCK_SIZE = 200;
+
+	// block key kinds, in the order a pair is attributed to
+	private static final int PHONE = 0;
+	private static final int EMAIL = 1;
+	private static final int NAME = 2;
+	private static final int KINDS = 3;
+
+	// pair score weights, summing to 1
+	private static final double LAST_NAME_WEIGHT = 0.35;
+	private static final double FIRST_NAME_WEIGHT = 0.25;
+	private static final double ADDRESS_WEIGHT = 0.15;
+	private static final double PHONE_WEIGHT = 0.15;
+	private static final double EMAIL_WEIGHT = 0.10;
+
+	private final int size;
+	private final double threshold;
+	private final String[] firstNames;
+	private final String[] lastNames;
+	private final String[] addresses;
+	private final String[][] keys = new String[KINDS][];
+	// per kind, the block each row is in (-1 for none) and whether that block was scored
+	private final int[][] blockOf = new int[KINDS][];
+	private final boolean[][] scored = new boolean[KINDS][];
+	private final LongAdder comparisons = new LongAdder();
+
+	private DuplicateCustomerFinder(int size, double threshold) {
+		this.size = size;
+		this.threshold = threshold;
+		this.firstNames = new String[size];
+		this.lastNames = new String[size];
+		this.addresses = new String[size];
+		for (int kind = 0; kind < KINDS; kind++) {
+			keys[kind] = new String[size];
+		}
+	}
+
+	public static DuplicateScan find(CustomerSnapshot customers, double threshold) {
+		long start = System.currentTimeMillis();
+		DuplicateCustomerFinder finder = new DuplicateCustomerFinder(customers.size(), threshold);
+		finder.normalize(customers);
+
+		// members of every scored block back to back, block b is members[blockStart[b], blockStart[b + 1])
+		IntList members = new IntList(customers.size());
+		IntList blockStart = new IntList(1024);
+		IntList blockKind = new IntList(1024);
+		int oversized = 0;
+		for (int kind = 0; kind < KINDS; kind++) {
+			oversized += finder.block(kind, members, blockStart, blockKind);
+		}
+		blockStart.add(members.size);
+		int blocks = blockKind.size;
+
+		List<long[]> matches = IntStream.range(0, blocks).parallel()
+				.mapToObj(block -> finder.scoreBlock(blockKind.values[block], members.values, blockStart.values[block], blockStart.values[block + 1]))
+				.filter(found -> found != null)
+				.flatMap(List::stream)
+				.collect(Collectors.toList());
+
+		List<MergeSuggestion> suggestions = finder.group(customers, matches);
+		return new DuplicateScan(suggestions, customers.size(), blocks, oversized, finder.comparisons.sum(), System.currentTimeMillis() - start);
+	}
+
+	private void normalize(CustomerSnapshot customers) {
+		IntStream.range(0, size).parallel().forEach(row -> {
+			firstNames[row] = MatchKeys.name(customers.firstName(row));
+			lastNames[row] = MatchKeys.name(customers.lastName(row));
+			addresses[row] = MatchKeys.address(customers.address(row));
+			keys[PHONE][row] = MatchKeys.phone(customers.phone(row));
+			keys[EMAIL][row] = MatchKeys.email(customers.email(row));
+			keys[NAME][row] = MatchKeys.nameBlock(lastNames[row], firstNames[row]);
+		});
+	}
+
+	// groups rows by their key of one kind and appends the blocks worth scoring, returns how many were too large
+	private int block(int kind, IntList members, IntList blockStart, IntList blockKind) {
+		String[] kindKeys = keys[kind];
+		Map<String, Integer> ids = new HashMap<>(size * 2);
+		int[] rowBlock = new int[size];
+		IntList counts = new IntList(1024);
+		for (int row = 0; row < size; row++) {
+			String key = kindKeys[row];
+			if (key == null) {
+				rowBlock[row] = -1;
+				continue;
+			}
+			Integer id = ids.putIfAbsent(key, counts.size);
+			if (id == null) {
+				id = counts.size;
+				counts.add(0);
+			}
+			rowBlock[row] = id;
+			counts.values[id]++;
+		}
+
+		// counting sort of the rows by block, only for blocks that will be scored
+		boolean[] kindScored = new boolean[counts.size];
+		int[] offsets = new int[counts.size];
+		int oversized = 0;
+		int next = members.size;
+		for (int id = 0; id < counts.size; id++) {
+			int count = counts.values[id];
+			if (count > MAX_BLOCK_SIZE) {
+				oversized++;
+			} else if (count > 1) {
+				kindScored[id] = true;
+				offsets[id] = next;
+				blockStart.add(next);
+				blockKind.add(kind);
+				next += count;
+			}
+		}
+		members.ensure(next);
+		for (int row = 0; row < size; row++) {
+			int id = rowBlock[row];
+			if (id >= 0 && kindScored[id]) {
+				members.values[offsets[id]++] = row;
+			}
+		}
+		members.size = next;
+
+		blockOf[kind] = rowBlock;
+		scored[kind] = kindScored;
+		return oversized;
+	}
+
+	// pairs of one block scoring at least the threshold, as {row, row, score bits}; null when there are none
+	private List<long[]> scoreBlock(int kind, int[] members, int from, int to) {
+		List<long[]> found = null;
+		long compared = 0;
+		for (int i = from; i < to; i++) {
+			int a = members[i];
+			for (int j = i + 1; j < to; j++) {
+				int b = members[j];
+				if (scoredEarlier(kind, a, b)) {
+					continue;
+				}
+				compared++;
+				double score = score(a, b);
+				if (score >= threshold) {
+					if (found == null) {
+						found = new ArrayList<>();
+					}
+					found.add(new long[] { a, b, Double.doubleToLongBits(score) });
+				}
+			}
+		}
+		comparisons.add(compared);
+		return found;
+	}
+
+	private boolean scoredEarlier(int kind, int a, int b) {
+		for (int earlier = 0; earlier < kind; earlier++) {
+			int block = blockOf[earlier][a];
+			if (block >= 0 && block == blockOf[earlier][b] && scored[earlier][block]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// weighted field similarity, the exact fields first so hopeless pairs skip the string comparisons
+	private double score(int a, int b) {
+		double exact = 0;
+		if (keys[PHONE][a] != null && keys[PHONE][a].equals(keys[PHONE][b])) {
+			exact += PHONE_WEIGHT;
+		}
+		if (keys[EMAIL][a] != null && keys[EMAIL][a].equals(keys[EMAIL][b])) {
+			exact += EMAIL_WEIGHT;
+		}
+		double lastName = LAST_NAME_WEIGHT * JaroWinkler.similarity(lastNames[a], lastNames[b]);
+		if (exact + lastName + FIRST_NAME_WEIGHT + ADDRESS_WEIGHT < threshold) {
+			return 0;
+		}
+		double firstName = FIRST_NAME_WEIGHT * JaroWinkler.similarity(firstNames[a], firstNames[b]);
+		if (exact + lastName + firstName + ADDRESS_WEIGHT < threshold) {
+			return 0;
+		}
+		return exact + lastName + firstName + ADDRESS_WEIGHT * JaroWinkler.similarity(addresses[a], addresses[b]);
+	}
+
+	// union-find over the matched pairs, every group keeps its lowest customerId
+	private List<MergeSuggestion> group(CustomerSnapshot customers, List<long[]> matches) {
+		int[] parent = new int[size];
+		for (int row = 0; row < size; row++) {
+			parent[row] = row;
+		}
+		double[] best = new double[size];
+		for (long[] match : matches) {
+			int a = (int) match[0];
+			int b = (int) match[1];
+			double score = Double.longBitsToDouble(match[2]);
+			best[a] = Math.max(best[a], score);
+			best[b] = Math.max(best[b], score);
+			int rootA = root(parent, a);
+			int rootB = root(parent, b);
+			if (rootA != rootB) {
+				// the root is always the lowest customerId of its group
+				if (customers.id(rootA) < customers.id(rootB)) {
+					parent[rootB] = rootA;
+				} else {
+					parent[rootA] = rootB;
+				}
+			}
+		}
+
+		List<MergeSuggestion> suggestions = new ArrayList<>();
+		for (int row = 0; row < size; row++) {
+			if (best[row] == 0) {
+				continue;
+			}
+			int survivor = root(parent, row);
+			if (survivor != row) {
+				suggestions.add(new MergeSuggestion(customers.id(row), customers.id(survivor), best[row]));
+			}
+		}
+		suggestions.sort((x, y) -> x.getScore() != y.getScore()
+				? Double.compare(y.getScore(), x.getScore()) : Integer.compare(x.getDuplicateId(), y.getDuplicateId()));
+		return suggestions;
+	}
+
+	private static int root(int[] parent, int row) {
+		while (parent[row] != row) {
+			parent[row] = parent[parent[row]];
+			row = parent[row];
+		}
+		return row;
+	}
+
+	// growable int array, the block tables hold millions of entries
+	private static final class IntList {
+		int[] values;
+		int size;
+
+		IntList(int capacity) {
+			values = new int[Math.max(16, capacity)];
+		}
+
+		void add(int value) {
+			ensure(size + 1);
+			values[size++] = value;
+		}
+
+		void ensure(int capacity) {
+			if (capacity > values.length) {
+				values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.vehicleinventory.dedup;
+
+import java.util.List;
+
+// result of one DuplicateCustomerFinder run
+public class DuplicateScan {
+	
+	private final List<MergeSuggestion> suggestions;
+	private final int customers;
+	private final int blocks;
+	private final int oversizedBlocks;
+	private final long comparisons;
+	private final long elapsedMillis;
+	
+	public DuplicateScan(List<MergeSuggestion> suggestions, int customers, int blocks, int oversizedBlocks, long comparisons, long elapsedMillis) {
+		this.suggestions = suggestions;
+		this.customers = customers;
+		this.blocks = blocks;
+		this.oversizedBlocks = oversizedBlocks;
+		this.comparisons = comparisons;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	// highest score first
+	public List<MergeSuggestion> getSuggestions() {
+		return suggestions;
+	}
+
+	public int getCustomers() {
+		return customers;
+	}
+
+	// blocks of two or more accounts that were compared pairwise
+	public int getBlocks() {
+		return blocks;
+	}
+
+	// blocks over DuplicateCustomerFinder.MAX_BLOCK_SIZE, skipped (placeholder phones, shared office emails...)
+	public int getOversizedBlocks() {
+		return oversizedBlocks;
+	}
+
+	public long getComparisons() {
+		return comparisons;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+}
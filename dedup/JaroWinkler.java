@@ -0,0 +1,87 @@
+package com.vehicleinventory.dedup;
+
+// Jaro-Winkler similarity, 1.0 for equal strings down to 0.0 for strings with nothing in common
+//
+// this is the inner loop of the duplicate scan (millions of calls), so it allocates nothing: the match flags live
+// in a per-thread scratch array that only grows, and the transposition count walks both flag sets in place
+public final class JaroWinkler {
+
+	private static final double PREFIX_SCALE = 0.1;
+	private static final int MAX_PREFIX = 4;
+
+	private static final ThreadLocal<boolean[]> SCRATCH = ThreadLocal.withInitial(() -> new boolean[128]);
+
+	private JaroWinkler() {}
+
+	public static double similarity(String a, String b) {
+		if (a == null || b == null || a.isEmpty() || b.isEmpty()) {
+			return 0;
+		}
+		if (a.equals(b)) {
+			return 1;
+		}
+		// a is the shorter one
+		if (a.length() > b.length()) {
+			String swap = a;
+			a = b;
+			b = swap;
+		}
+		int aLength = a.length();
+		int bLength = b.length();
+		int window = Math.max(0, bLength / 2 - 1);
+
+		boolean[] flags = SCRATCH.get();
+		if (flags.length < aLength + bLength) {
+			flags = new boolean[Integer.highestOneBit(aLength + bLength) << 1];
+			SCRATCH.set(flags);
+		}
+		// flags[0, aLength) marks matched chars of a, flags[aLength, aLength + bLength) those of b
+		for (int i = 0; i < aLength + bLength; i++) {
+			flags[i] = false;
+		}
+
+		int matches = 0;
+		for (int i = 0; i < aLength; i++) {
+			char c = a.charAt(i);
+			int from = Math.max(0, i - window);
+			int to = Math.min(bLength - 1, i + window);
+			for (int j = from; j <= to; j++) {
+				if (!flags[aLength + j] && b.charAt(j) == c) {
+					flags[i] = true;
+					flags[aLength + j] = true;
+					matches++;
+					break;
+				}
+			}
+		}
+		if (matches == 0) {
+			return 0;
+		}
+
+		int transpositions = 0;
+		int j = 0;
+		for (int i = 0; i < aLength; i++) {
+			if (!flags[i]) {
+				continue;
+			}
+			while (!flags[aLength + j]) {
+				j++;
+			}
+			if (a.charAt(i) != b.charAt(j)) {
+				transpositions++;
+			}
+			j++;
+		}
+
+		double m = matches;
+		double jaro = (m / aLength + m / bLength + (m - transpositions / 2) / m) / 3;
+
+		int prefix = 0;
+		int maxPrefix = Math.min(MAX_PREFIX, aLength);
+		while (prefix < maxPrefix && a.charAt(prefix) == b.charAt(prefix)) {
+			prefix++;
+		}
+		return jaro + prefix * PREFIX_SCALE * (1 - jaro);
+	}
+
+}
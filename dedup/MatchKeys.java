@@ -0,0 +1,102 @@
+package com.vehicleinventory.dedup;
+
+import java.util.Locale;
+
+// normalization shared by the blocking keys and the pair comparison, so "O'Brien " and "OBRIEN" are the same name
+// every method returns null for values that carry nothing to match on
+public final class MatchKeys {
+
+	// characters of the last name used by the name block, with the first initial appended
+	static final int NAME_KEY_LENGTH = 4;
+
+	private MatchKeys() {}
+
+	// upper case letters only
+	public static String name(String value) {
+		if (value == null) {
+			return null;
+		}
+		StringBuilder normalized = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (Character.isLetter(c)) {
+				normalized.append(Character.toUpperCase(c));
+			}
+		}
+		return normalized.length() == 0 ? null : normalized.toString();
+	}
+
+	// upper case letters and digits, single spaces between words
+	public static String address(String value) {
+		if (value == null) {
+			return null;
+		}
+		StringBuilder normalized = new StringBuilder(value.length());
+		boolean space = false;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				if (space && normalized.length() > 0) {
+					normalized.append(' ');
+				}
+				normalized.append(Character.toUpperCase(c));
+				space = false;
+			} else {
+				space = true;
+			}
+		}
+		return normalized.length() == 0 ? null : normalized.toString();
+	}
+
+	// the last ten digits, so "+1 (555) 555-0100" and "5555550100" agree
+	public static String phone(String value) {
+		if (value == null) {
+			return null;
+		}
+		char[] digits = new char[value.length()];
+		int count = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits[count++] = c;
+			}
+		}
+		if (count < 10) {
+			return null;
+		}
+		return new String(digits, count - 10, 10);
+	}
+
+	// lower case with any +tag dropped from the local part, and dots too for gmail.com which ignores them
+	public static String email(String value) {
+		if (value == null) {
+			return null;
+		}
+		String email = value.trim().toLowerCase(Locale.ROOT);
+		int at = email.lastIndexOf('@');
+		if (at <= 0 || at == email.length() - 1) {
+			return null;
+		}
+		String local = email.substring(0, at);
+		String domain = email.substring(at + 1);
+		int plus = local.indexOf('+');
+		if (plus > 0) {
+			local = local.substring(0, plus);
+		}
+		if (domain.equals("gmail.com") || domain.equals("googlemail.com")) {
+			local = local.replace(".", "");
+			domain = "gmail.com";
+		}
+		return local + "@" + domain;
+	}
+
+	// block key for names: the start of the normalized last name plus the first initial
+	public static String nameBlock(String normalizedLastName, String normalizedFirstName) {
+		if (normalizedLastName == null || normalizedFirstName == null) {
+			return null;
+		}
+		String prefix = normalizedLastName.length() > NAME_KEY_LENGTH ? normalizedLastName.substring(0, NAME_KEY_LENGTH) : normalizedLastName;
+		return prefix + normalizedFirstName.charAt(0);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.vehicleinventory.dedup;
+
+// one account that looks like a duplicate of another, found by DuplicateCustomerFinder
+// merging moves the duplicate's finance records to the surviving account
+public class MergeSuggestion {
+	
+	private final int duplicateId;
+	private final int survivorId;
+	private final double score;
+	
+	public MergeSuggestion(int duplicateId, int survivorId, double score) {
+		this.duplicateId = duplicateId;
+		this.survivorId = survivorId;
+		this.score = score;
+	}
+
+	public int getDuplicateId() {
+		return duplicateId;
+	}
+
+	// oldest account of the group, the lowest customerId
+	public int getSurvivorId() {
+		return survivorId;
+	}
+
+	// best pair score linking the duplicate into the group, between the match threshold and 1
+	public double getScore() {
+		return score;
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.vehicleinventory.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// money as whole cents in a long, and the rounding of dollar amounts into it
+//
+// the entities keep every amount in cents so sums, payments and balances are exact; dollars as a double only remain at
+// the edges (forms, JSON, the sync formats). round() gives the same result as BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP), which rounds the decimal
+// form of the double: 1.005 is stored as 1.00499999999999989..., but prints as 1.005 and so rounds up to 1.01
+public final class Cents {
+
+	// above this the cents no longer fit the 52 bit mantissa exactly, such amounts take the BigDecimal path
+	private static final double EXACT_LIMIT = 1e13;
+
+	private Cents() {}
+
+	public static long round(double amount) {
+		if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+			throw new NumberFormatException("Not an amount: " + amount);
+		}
+		double magnitude = Math.abs(amount);
+		if (magnitude >= EXACT_LIMIT) {
+			return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+		}
+		long cents = (long) Math.floor(magnitude * 100);
+		// the double nearest the half cent above, an amount at or past it prints as that half cent or more
+		double halfCent = (cents + 0.5) / 100;
+		if (magnitude >= halfCent) {
+			cents++;
+		}
+		return amount < 0 ? -cents : cents;
+	}
+
+	// amount rounded to whole cents, as a double
+	public static double roundAmount(double amount) {
+		return round(amount) / 100.0;
+	}
+
+	// cents as dollars, for the forms and feeds that still speak in dollars
+	public static double toAmount(long cents) {
+		return cents / 100.0;
+	}
+
+	// a decimal amount as written, "1234.5", "-0.07" or "$1,234.56", straight to cents without going through a double;
+	// digits past the cents round half up
+	public static long parse(CharSequence text) {
+		int length = text.length();
+		int i = 0;
+		while (i < length && Character.isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		while (length > i && Character.isWhitespace(text.charAt(length - 1))) {
+			length--;
+		}
+		boolean negative = i < length && text.charAt(i) == '-';
+		if (negative || (i < length && text.charAt(i) == '+')) {
+			i++;
+		}
+		if (i < length && text.charAt(i) == '$') {
+			i++;
+		}
+		long cents = 0;
+		int fractionDigits = -1;
+		boolean roundUp = false;
+		boolean anyDigit = false;
+		for (; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == ',' && fractionDigits < 0) {
+				continue;
+			}
+			if (c == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+				continue;
+			}
+			if (c < '0' || c > '9') {
+				throw new NumberFormatException("Not an amount: " + text);
+			}
+			anyDigit = true;
+			if (fractionDigits < 2) {
+				cents = Math.addExact(Math.multiplyExact(cents, 10), c - '0');
+				if (fractionDigits >= 0) {
+					fractionDigits++;
+				}
+			} else if (fractionDigits == 2) {
+				roundUp = c >= '5';
+				fractionDigits++;
+			}
+		}
+		if (!anyDigit) {
+			throw new NumberFormatException("Not an amount: " + text);
+		}
+		for (int scale = Math.max(fractionDigits, 0); scale < 2; scale++) {
+			cents = Math.multiplyExact(cents, 10);
+		}
+		if (roundUp) {
+			cents++;
+		}
+		return negative ? -cents : cents;
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.vehicleinventory.entity;
+
+import java.lang.reflect.Array;
+
+// the values of one CodedValue enum indexed by code, each enum keeps one in CODES
+// each set is a handful of values, so a scan beats any map and parsing text allocates nothing
+public final class CodeTable<E extends CodedValue> {
+
+	private final E[] byCode;
+	private final String name;
+
+	// slot 0 (no value) is left empty
+	@SuppressWarnings("unchecked")
+	public CodeTable(E[] values) {
+		this.name = values.getClass().getComponentType().getSimpleName();
+		this.byCode = (E[]) Array.newInstance(values.getClass().getComponentType(), values.length + 1);
+		for (E value : values) {
+			if (value.getCode() < 1 || value.getCode() > values.length || byCode[value.getCode()] != null) {
+				throw new IllegalStateException("Codes of " + name + " must run from 1 without gaps");
+			}
+			byCode[value.getCode()] = value;
+		}
+	}
+
+	// the highest code, codes run from 1 to size()
+	public int size() {
+		return byCode.length - 1;
+	}
+
+	// null for 0, the code of a missing value
+	public E fromCode(int code) {
+		if (code == 0) {
+			return null;
+		}
+		if (code < 0 || code >= byCode.length) {
+			throw new IllegalArgumentException("Unknown " + name + " code " + code);
+		}
+		return byCode[code];
+	}
+
+	// null for null or blank text
+	// small, with the case folding left to Vocabulary, so CarBuilder still inlines and the builder never escapes
+	public E parse(String text) {
+		return text == null || text.isEmpty() ? null : parseNonEmpty(text);
+	}
+
+	// the value the text names, null when it names none
+	public E find(String text) {
+		for (int code = 1; code < byCode.length; code++) {
+			if (byCode[code].accepts(text)) {
+				return byCode[code];
+			}
+		}
+		return null;
+	}
+
+	private E parseNonEmpty(String text) {
+		E value = find(text);
+		if (value != null || text.trim().isEmpty()) {
+			return value;
+		}
+		throw new IllegalArgumentException("Unknown " + name + " '" + text + "'");
+	}
+
+}
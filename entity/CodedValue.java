@@ -0,0 +1,22 @@
+package com.vehicleinventory.entity;
+
+// a value of a closed set stored as a small integer code, see CodeTable and CodedValueConverter
+// codes start at 1 and have no gaps; the code is what is stored, so never renumber an existing value
+public interface CodedValue {
+
+	int getCode();
+
+	// the canonical Vocabulary instances from CodedValues.terms, the label first and then older spellings
+	String[] terms();
+
+	// what forms, JSON and the sync formats show
+	default String getLabel() {
+		return terms()[0];
+	}
+
+	// whether the text names this value, the label or an older spelling of it in any case
+	default boolean accepts(String text) {
+		return CodedValues.accepts(terms(), text);
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.vehicleinventory.entity;
+
+import javax.persistence.AttributeConverter;
+
+// stores a CodedValue as its code (a tinyint column), null as null
+// @Convert needs a concrete class per enum, those are the one-liners below
+public abstract class CodedValueConverter<E extends CodedValue> implements AttributeConverter<E, Integer> {
+
+	private final CodeTable<E> codes;
+
+	protected CodedValueConverter(CodeTable<E> codes) {
+		this.codes = codes;
+	}
+
+	@Override
+	public Integer convertToDatabaseColumn(E value) {
+		return value == null ? null : value.getCode();
+	}
+
+	@Override
+	public E convertToEntityAttribute(Integer code) {
+		return code == null ? null : codes.fromCode(code);
+	}
+
+	public static class OfCondition extends CodedValueConverter<VehicleCondition> {
+		public OfCondition() {
+			super(VehicleCondition.CODES);
+		}
+	}
+
+	public static class OfTitleStatus extends CodedValueConverter<TitleStatus> {
+		public OfTitleStatus() {
+			super(TitleStatus.CODES);
+		}
+	}
+
+	public static class OfDrivetrain extends CodedValueConverter<Drivetrain> {
+		public OfDrivetrain() {
+			super(Drivetrain.CODES);
+		}
+	}
+
+	public static class OfTransmission extends CodedValueConverter<Transmission> {
+		public OfTransmission() {
+			super(Transmission.CODES);
+		}
+	}
+
+	public static class OfFuelType extends CodedValueConverter<FuelType> {
+		public OfFuelType() {
+			super(FuelType.CODES);
+		}
+	}
+
+}
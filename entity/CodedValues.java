@@ -0,0 +1,33 @@
+package com.vehicleinventory.entity;
+
+// helpers shared by the CodedValue enums, the lookups by code and text are in CodeTable
+public final class CodedValues {
+
+	private CodedValues() {}
+
+	// the canonical Vocabulary instances of an enum's labels, labels[0] is the label and the rest are older spellings
+	public static String[] terms(String... labels) {
+		String[] terms = new String[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			terms[i] = Vocabulary.seed(labels[i]);
+		}
+		return terms;
+	}
+
+	// for CodedValue.accepts; Vocabulary folds the case, so labels from terms() compare by identity
+	// and text outside the vocabulary comes back as a new string that matches none of them
+	public static boolean accepts(String[] terms, String text) {
+		String term = Vocabulary.term(text);
+		for (String label : terms) {
+			if (label == term) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static String label(CodedValue value) {
+		return value == null ? null : value.getLabel();
+	}
+
+}
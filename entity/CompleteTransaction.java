@@ -1,8 +1,5 @@
 package com.vehicleinventory.entity;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 public class CompleteTransaction {
 	protected int transId;
 	protected int buyerId;
@@ -14,10 +11,11 @@ public class CompleteTransaction {
 	protected String intColor;
 	protected int mileage;
 	protected String soldCondition;
-	protected double askingPrice;
+	// both prices in whole cents, see Cents
+	protected long askingPrice;
 //	protected User buyer;
 //	protected Vehicle car;
-	protected double sellingPrice;
+	protected long sellingPrice;
 	
 	
 	public CompleteTransaction(){}
@@ -29,21 +27,21 @@ public class CompleteTransaction {
 	public CompleteTransaction(int transId, int buyerId, String vin) {
 		this.transId = transId;
 		this.buyerId = buyerId;
-		this.vin = vin.toUpperCase();;
+		this.vin = Vocabulary.upper(vin);
 	}
 	
 	public CompleteTransaction(int transId, int buyerId, String vin, String make, String model, int modelYear, String extColor, String intColor, int mileage, String soldCondition,
 			double askingPrice, double sellingPrice) {
 			this(transId, buyerId, vin);
-			this.make = make.toUpperCase();
-			this.model = model.toUpperCase();;
+			this.make = Vocabulary.term(make);
+			this.model = Vocabulary.term(model);
 			this.modelYear = modelYear;
-			this.extColor = extColor.toUpperCase();;
-			this.intColor = intColor.toUpperCase();;
+			this.extColor = Vocabulary.term(extColor);
+			this.intColor = Vocabulary.term(intColor);
 			this.mileage = mileage;
-			this.soldCondition = soldCondition.toUpperCase();;
-			this.askingPrice = priceFormat(askingPrice);
-			this.sellingPrice = priceFormat(sellingPrice);
+			this.soldCondition = Vocabulary.term(soldCondition);
+			this.askingPrice = Cents.round(askingPrice);
+			this.sellingPrice = Cents.round(sellingPrice);
 	}
 	
 //	public CompleteTransaction(int transId, int buyerId, String vin, double sellingPrice) throws SQLException {
@@ -104,10 +102,18 @@ public class CompleteTransaction {
 	}
 	
 	public double getAskingPrice(){
-		return this.askingPrice;
+		return Cents.toAmount(this.askingPrice);
 	}
 	
 	public double getSellingPrice(){
+		return Cents.toAmount(this.sellingPrice);
+	}
+
+	public long getAskingPriceCents(){
+		return this.askingPrice;
+	}
+	
+	public long getSellingPriceCents(){
 		return this.sellingPrice;
 	}
 
@@ -155,15 +161,14 @@ public class CompleteTransaction {
 	}
 	
 	public void setAskingPrice(double price){
-		this.askingPrice = price;
+		this.askingPrice = Cents.round(price);
 	}
 	
 	public void setSellingPrice(double price){
-		this.sellingPrice = price;
+		this.sellingPrice = Cents.round(price);
 	}
 
-	public static double priceFormat(Double price) {
-	    BigDecimal bdPrice = BigDecimal.valueOf(price);
-	    return bdPrice.setScale(2, RoundingMode.HALF_UP).doubleValue();
+	public static double priceFormat(double price) {
+		return Cents.roundAmount(price);
 	}
 }
@@ -8,15 +8,26 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Filter;
+
 // entity name maps to CustomerAccountDAOImp methods
 @Entity
-@Table(name="CustomerAccounts")
+// backs the sorts and filters offered by CustomerAccountDAOImp.getCustomerAccounts, lot first like Vehicle's
+@Table(name="CustomerAccounts", indexes= {
+		@Index(name="idx_customers_lot_name", columnList="lotId, lastName, firstName"),
+		@Index(name="idx_customers_lot_email", columnList="lotId, emailAddress"),
+		@Index(name="idx_customers_lot_phone", columnList="lotId, phoneNumber"),
+		@Index(name="idx_customers_lot_username", columnList="lotId, username")})
+// filter declared on Vehicle
+@Filter(name="lot", condition="lotId = :lotId")
 public class CustomerAccount {
 	
 	@Id
@@ -29,11 +40,17 @@ public class CustomerAccount {
 	@Column(name="username")
 	private String username;
 	
-	@NotNull(message="cannot be blank")
-	@Size(min=1, max=15, message="must be between 1-15 Characters")
+	// PBKDF2 hash written by PasswordHasher, never the password itself
+	// (rows created before hashing hold plain text until the customer's next login upgrades them)
 	@Column(name="password")
 	private String password;
 	
+	// plain text from the add/update forms, hashed into password by VehicleServiceImp.saveCustomerAccount
+	// left blank on the update form to keep the current password
+	@Transient
+	@Size(max=64, message="must be at most 64 Characters")
+	private String newPassword;
+	
 	@NotNull(message="cannot be blank")
 	@Size(min=1, max=20, message="must be between 1-20 Characters")
 	@Column(name="firstName")
@@ -58,6 +75,15 @@ public class CustomerAccount {
 	@Column(name="mailingAddress")
 	private String mailingAddress;
 	
+	// dealership lot, set from TenantContext when first saved and never moved; see TenantSessions
+	@Column(name="lotId", updatable=false)
+	private int lotId;
+	
+	// the surviving account once CustomerMergeEngine has merged this one into it, null for a live account
+	// written only by CustomerAccountDAO.markMerged
+	@Column(name="mergedInto", insertable=false, updatable=false)
+	private Integer mergedInto;
+	
 	// ----------------------------------------------------------------------------------- >
 	@OneToMany(mappedBy="customerAccount", cascade= {CascadeType.DETACH, CascadeType.REFRESH, CascadeType.MERGE, CascadeType.PERSIST})
 	private List<FinanceRecord> financedVehicles;
@@ -128,6 +154,14 @@ public class CustomerAccount {
 		this.password = password;
 	}
 
+	public String getNewPassword() {
+		return newPassword;
+	}
+
+	public void setNewPassword(String newPassword) {
+		this.newPassword = newPassword;
+	}
+
 	public String getFirstName() {
 		return firstName;
 	}
@@ -168,5 +202,21 @@ public class CustomerAccount {
 		this.mailingAddress = mailingAddress;
 	}
 
+	public int getLotId() {
+		return lotId;
+	}
+
+	public void setLotId(int lotId) {
+		this.lotId = lotId;
+	}
+
+	public Integer getMergedInto() {
+		return mergedInto;
+	}
+
+	public void setMergedInto(Integer mergedInto) {
+		this.mergedInto = mergedInto;
+	}
+
 
 }
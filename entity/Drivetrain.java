@@ -0,0 +1,31 @@
+package com.vehicleinventory.entity;
+
+// stored in Cars.driveTrainCode; FOURWD is how VehicleDraft spells 4WD
+public enum Drivetrain implements CodedValue {
+
+	AWD(1, "AWD"),
+	FWD(2, "FWD"),
+	RWD(3, "RWD"),
+	FOUR_WD(4, "4WD", "FOURWD");
+
+	public static final CodeTable<Drivetrain> CODES = new CodeTable<>(values());
+
+	private final int code;
+	private final String[] terms;
+
+	Drivetrain(int code, String... labels) {
+		this.code = code;
+		this.terms = CodedValues.terms(labels);
+	}
+
+	@Override
+	public int getCode() {
+		return code;
+	}
+
+	@Override
+	public String[] terms() {
+		return terms;
+	}
+
+}
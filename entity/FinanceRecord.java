@@ -1,5 +1,4 @@
 package com.vehicleinventory.entity;
-import java.math.*;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -7,6 +6,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
@@ -16,8 +16,15 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Filter;
+
 @Entity
-@Table(name="FinanceRecords")
+@Table(name="FinanceRecords", indexes= {
+		@Index(name="idx_finance_lot", columnList="lotId, financeId"),
+		@Index(name="idx_finance_customer", columnList="customerId"),
+		@Index(name="idx_finance_vehicle", columnList="vehicleIdNumber")})
+// filter declared on Vehicle
+@Filter(name="lot", condition="lotId = :lotId")
 public class FinanceRecord{
 	
 	@Id
@@ -36,11 +43,12 @@ public class FinanceRecord{
 	@Column(name="vehicleIdNumber")
 	private String vehicleIdNumber;
 	
+	// the amounts are whole cents, see Cents
 	@NotNull(message="cannot be blank")
-	@Column(name="vehiclePrice")
+	@Column(name="vehiclePriceCents")
 	@Min(value=0, message="must be at least $0.00")
-	@Max(value=10000000, message="must be less than $10,000,000")
-	private double vehiclePrice;
+	@Max(value=1000000000L, message="must be less than $10,000,000")
+	private long vehiclePrice;
 	
 	@NotNull(message="cannot be blank")
 	@Column(name="termLength")
@@ -56,18 +64,18 @@ public class FinanceRecord{
 	private double apr;
 	
 	@NotNull(message="cannot be blank")
-	@Column(name="downPayment")
-	private double downPayment;
+	@Column(name="downPaymentCents")
+	private long downPayment;
 	
 	@NotNull(message="cannot be blank")
-	@Column(name="balance")
+	@Column(name="balanceCents")
 	@Min(value=0, message="must be at least $0.00")
-	private double balance;
+	private long balance;
 	
 	@NotNull(message="cannot be blank")
-	@Column(name="monthlyPayment")
+	@Column(name="monthlyPaymentCents")
 	@Min(value=0, message="must be at least $0.00")
-	private double monthlyPaymentAmount;
+	private long monthlyPaymentAmount;
 	
 	@NotNull(message="cannot be blank")
 	@Column(name="currCondition")
@@ -76,6 +84,10 @@ public class FinanceRecord{
 	@Column(name="paidOff")
 	private boolean paidOff;
 	
+	// dealership lot, set from TenantContext when first saved and never moved; see TenantSessions
+	@Column(name="lotId", updatable=false)
+	private int lotId;
+	
 	// Hibernate mappings --------------------------------------------- >
 	// mappedBy enables a bi-directional relationship, the property name is the name of the field in the Vehicle Class
 	@OneToOne(mappedBy="financeRecord", fetch = FetchType.LAZY)
@@ -117,17 +129,15 @@ public class FinanceRecord{
 		}
 		
 		this.installmentsPaid = installmentsPaid;
-		this.vehiclePrice = priceFormat(vehicle.getPrice());
-		this.downPayment = priceFormat(downPayment);
+		this.vehiclePrice = Cents.round(vehiclePrice);
+		this.downPayment = Cents.round(downPayment);
 		
 		// loan amount is the amount the customer has to borrow
-		double loanAmount = vehiclePrice - downPayment;
-		double monthlyPayment = calcMonthlyPayments(loanAmount, this.apr, termLength);
-		this.monthlyPaymentAmount = monthlyPayment;
+		long loanAmount = this.vehiclePrice - this.downPayment;
+		this.monthlyPaymentAmount = calcMonthlyPaymentCents(loanAmount, this.apr, termLength);
 		
 		// this is calculating and setting the total amount the customer will pay with interest
-		double outstandingBalance = termLength * monthlyPayment;
-		this.balance = outstandingBalance - (installmentsPaid * monthlyPaymentAmount);
+		this.balance = (long) (termLength - installmentsPaid) * monthlyPaymentAmount;
 		
 		this.paidOff = allInstallmentsPaid();
 	}
@@ -167,6 +177,30 @@ public class FinanceRecord{
 		}
 	}
 
+	// amortized payment in whole cents; the balance is term times this, so it runs down to exactly 0
+	public static long calcMonthlyPaymentCents(long principalCents, double apr, int term){
+		if (term <= 0) {
+			return principalCents;
+		}
+		if (apr == 0) {
+			// no interest, the last cents are spread so the payments never fall short of the principal
+			return (principalCents + term - 1) / term;
+		}
+		return Cents.round(calcMonthlyPayments(Cents.toAmount(principalCents), apr, term));
+	}
+
+	// interest part of the next installment: what is still owed of the principal after paymentsMade installments,
+	// at the monthly rate; closed form, so month-end does not walk the schedule of every loan
+	public static long calcInterestCents(long principalCents, long paymentCents, double apr, int paymentsMade){
+		if (apr <= 0 || principalCents <= 0) {
+			return 0;
+		}
+		double rate = apr / 1200;
+		double growth = Math.pow(1 + rate, paymentsMade);
+		double owed = principalCents * growth - paymentCents * (growth - 1) / rate;
+		return owed <= 0 ? 0 : Math.round(owed * rate);
+	}
+
 	// calculating amortized loan
 	public static double calcMonthlyPayments(double principal, double apr, int term){
 		// dividing by 100 to convert to decimal percentage, then by 12 to get the monthly decimal percentage
@@ -176,11 +210,12 @@ public class FinanceRecord{
 		return monthPayments;
 	}
 	
-	// making a payment
+	// making a payment on a loaded entity, persisted payments go through PaymentService
+	// which applies them as a single conditional update and records them in the Payments table
 	public void makePayment(){
 		balance -= monthlyPaymentAmount; 
 		installmentsPaid++;
-		paidOff = (balance <= 0.00);
+		paidOff = (balance <= 0);
 	}
 	
 	public boolean allInstallmentsPaid() {
@@ -190,9 +225,8 @@ public class FinanceRecord{
 	// ----------------------------------------------------------------------------------- >
 	// Getters/Setters:
 	
-	public static double priceFormat(Double price) {
-	    BigDecimal bdPrice = BigDecimal.valueOf(price);
-	    return bdPrice.setScale(2, RoundingMode.HALF_UP).doubleValue();
+	public static double priceFormat(double price) {
+		return Cents.roundAmount(price);
 	}
 
 	public int getFinanceId() {
@@ -220,10 +254,18 @@ public class FinanceRecord{
 	}
 
 	public double getVehiclePrice() {
-		return vehiclePrice;
+		return Cents.toAmount(vehiclePrice);
 	}
 
 	public void setVehiclePrice(double vehiclePrice) {
+		this.vehiclePrice = Cents.round(vehiclePrice);
+	}
+
+	public long getVehiclePriceCents() {
+		return vehiclePrice;
+	}
+
+	public void setVehiclePriceCents(long vehiclePrice) {
 		this.vehiclePrice = vehiclePrice;
 	}
 
@@ -260,26 +302,50 @@ public class FinanceRecord{
 	}
 
 	public double getDownPayment() {
-		return downPayment;
+		return Cents.toAmount(downPayment);
 	}
 
 	public void setDownPayment(double downPayment) {
+		this.downPayment = Cents.round(downPayment);
+	}
+
+	public long getDownPaymentCents() {
+		return downPayment;
+	}
+
+	public void setDownPaymentCents(long downPayment) {
 		this.downPayment = downPayment;
 	}
 
 	public double getBalance() {
-		return balance;
+		return Cents.toAmount(balance);
 	}
 
 	public void setBalance(double balance) {
+		this.balance = Cents.round(balance);
+	}
+
+	public long getBalanceCents() {
+		return balance;
+	}
+
+	public void setBalanceCents(long balance) {
 		this.balance = balance;
 	}
 
 	public double getMonthlyPaymentAmount() {
-		return monthlyPaymentAmount;
+		return Cents.toAmount(monthlyPaymentAmount);
 	}
 
 	public void setMonthlyPaymentAmount(double monthlyPaymentAmount) {
+		this.monthlyPaymentAmount = Cents.round(monthlyPaymentAmount);
+	}
+
+	public long getMonthlyPaymentCents() {
+		return monthlyPaymentAmount;
+	}
+
+	public void setMonthlyPaymentCents(long monthlyPaymentAmount) {
 		this.monthlyPaymentAmount = monthlyPaymentAmount;
 	}
 
@@ -307,6 +373,14 @@ public class FinanceRecord{
 		this.vehicle = vehicle;
 	}
 
+	public int getLotId() {
+		return lotId;
+	}
+
+	public void setLotId(int lotId) {
+		this.lotId = lotId;
+	}
+
 
 }
 	
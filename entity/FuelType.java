@@ -0,0 +1,31 @@
+package com.vehicleinventory.entity;
+
+// stored in Cars.fuelCode; GASOLINE is what partner feeds send for GAS
+public enum FuelType implements CodedValue {
+
+	GAS(1, "GAS", "GASOLINE"),
+	ELECTRIC(2, "ELECTRIC"),
+	HYBRID(3, "HYBRID"),
+	DIESEL(4, "DIESEL");
+
+	public static final CodeTable<FuelType> CODES = new CodeTable<>(values());
+
+	private final int code;
+	private final String[] terms;
+
+	FuelType(int code, String... labels) {
+		this.code = code;
+		this.terms = CodedValues.terms(labels);
+	}
+
+	@Override
+	public int getCode() {
+		return code;
+	}
+
+	@Override
+	public String[] terms() {
+		return terms;
+	}
+
+}
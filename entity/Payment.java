@@ -0,0 +1,116 @@
+package com.vehicleinventory.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+// append-only record of every payment applied to a FinanceRecord
+// rows are only ever inserted by PaymentDAOImp, never updated or deleted
+@Entity
+@Table(name="Payments", indexes=@Index(name="idx_payments_finance", columnList="financeId, paymentId"))
+public class Payment {
+	
+	@Id
+	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@Column(name="paymentId")
+	private long paymentId;
+	
+	@NotNull(message="cannot be blank")
+	@Column(name="financeId")
+	private int financeId;
+	
+	@NotNull(message="cannot be blank")
+	// every posted payment counts as an installment (paymentsMade), so a zero amount is not a payment
+	@Min(value=1, message="must be at least $0.01")
+	@Column(name="amountCents")
+	private long amount;
+	
+	// ACH trace number or other external reference, unique so a payment file can be re-posted safely
+	@Size(max=40, message="must be at most 40 Characters")
+	@Column(name="reference", unique=true)
+	private String reference;
+	
+	@Column(name="postedAt")
+	private LocalDateTime postedAt;
+	
+	// ----------------------------------------------------------------------------------- >
+	// Constructors
+	
+	public Payment() {}
+	
+	public Payment(int financeId, double amount, String reference) {
+		this.financeId = financeId;
+		this.amount = Cents.round(amount);
+		this.reference = reference;
+	}
+
+	// named rather than a constructor overload, new Payment(id, 100, ref) would otherwise post $1.00
+	public static Payment ofCents(int financeId, long amountCents, String reference) {
+		Payment payment = new Payment();
+		payment.financeId = financeId;
+		payment.amount = amountCents;
+		payment.reference = reference;
+		return payment;
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// Getters/Setters
+
+	public long getPaymentId() {
+		return paymentId;
+	}
+
+	public void setPaymentId(long paymentId) {
+		this.paymentId = paymentId;
+	}
+
+	public int getFinanceId() {
+		return financeId;
+	}
+
+	public void setFinanceId(int financeId) {
+		this.financeId = financeId;
+	}
+
+	public double getAmount() {
+		return Cents.toAmount(amount);
+	}
+
+	public void setAmount(double amount) {
+		this.amount = Cents.round(amount);
+	}
+
+	public long getAmountCents() {
+		return amount;
+	}
+
+	public void setAmountCents(long amount) {
+		this.amount = amount;
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public void setReference(String reference) {
+		this.reference = reference;
+	}
+
+	public LocalDateTime getPostedAt() {
+		return postedAt;
+	}
+
+	public void setPostedAt(LocalDateTime postedAt) {
+		this.postedAt = postedAt;
+	}
+
+}
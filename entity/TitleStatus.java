@@ -0,0 +1,31 @@
+package com.vehicleinventory.entity;
+
+// title brand of a vehicle, stored in Cars.titleCode
+public enum TitleStatus implements CodedValue {
+
+	CLEAN(1, "CLEAN"),
+	CLEAR(2, "CLEAR"),
+	SALVAGE(3, "SALVAGE"),
+	REBUILT(4, "REBUILT");
+
+	public static final CodeTable<TitleStatus> CODES = new CodeTable<>(values());
+
+	private final int code;
+	private final String[] terms;
+
+	TitleStatus(int code, String... labels) {
+		this.code = code;
+		this.terms = CodedValues.terms(labels);
+	}
+
+	@Override
+	public int getCode() {
+		return code;
+	}
+
+	@Override
+	public String[] terms() {
+		return terms;
+	}
+
+}
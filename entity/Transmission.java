@@ -0,0 +1,32 @@
+package com.vehicleinventory.entity;
+
+// stored in Cars.transmissionCode; AT, MT and AM are VehicleDraft's abbreviations
+public enum Transmission implements CodedValue {
+
+	AUTOMATIC(1, "AUTOMATIC", "AT"),
+	MANUAL(2, "MANUAL", "MT"),
+	CVT(3, "CVT"),
+	DUAL_CLUTCH(4, "DUAL-CLUTCH"),
+	AUTOMATED_MANUAL(5, "AUTOMATED-MANUAL", "AM");
+
+	public static final CodeTable<Transmission> CODES = new CodeTable<>(values());
+
+	private final int code;
+	private final String[] terms;
+
+	Transmission(int code, String... labels) {
+		this.code = code;
+		this.terms = CodedValues.terms(labels);
+	}
+
+	@Override
+	public int getCode() {
+		return code;
+	}
+
+	@Override
+	public String[] terms() {
+		return terms;
+	}
+
+}
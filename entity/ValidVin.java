@@ -0,0 +1,27 @@
+package com.vehicleinventory.entity;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+// checks the VIN character set and, for North American VINs, the check digit
+// length is left to @Size so a short VIN only reports one error
+@Documented
+@Constraint(validatedBy = VinValidator.class)
+@Target(FIELD)
+@Retention(RUNTIME)
+public @interface ValidVin {
+	
+	String message() default "is not a valid VIN";
+	
+	Class<?>[] groups() default {};
+	
+	Class<? extends Payload>[] payload() default {};
+
+}
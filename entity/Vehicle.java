@@ -1,13 +1,14 @@
 package com.vehicleinventory.entity;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
@@ -16,14 +17,34 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+
 @Entity
-@Table(name="Cars")
+// one index per sort offered by VehicleDAOImp.getVehicles, InnoDB appends the vin primary key to each
+// so "order by <column>, vin" is read straight off the index; the make indexes serve the make filter with each sort
+// every index leads with lotId, each lot's queries read only that lot's part of the index
+@Table(name="Cars", indexes= {
+		@Index(name="idx_cars_lot_vin", columnList="lotId, vin"),
+		@Index(name="idx_cars_lot_year", columnList="lotId, modelYear"),
+		@Index(name="idx_cars_lot_price", columnList="lotId, priceCents"),
+		@Index(name="idx_cars_lot_mileage", columnList="lotId, mileage"),
+		@Index(name="idx_cars_lot_make_model_year", columnList="lotId, make, model, modelYear"),
+		@Index(name="idx_cars_lot_make_year", columnList="lotId, make, modelYear"),
+		@Index(name="idx_cars_lot_make_price", columnList="lotId, make, priceCents"),
+		// not per lot: the finance views join each record to its vehicle by financeId
+		@Index(name="idx_cars_finance", columnList="financeId")})
+// the lot filter shared by Vehicle, CustomerAccount and FinanceRecord, enabled by TenantSessions
+@FilterDef(name="lot", parameters=@ParamDef(name="lotId", type="int"))
+@Filter(name="lot", condition="lotId = :lotId")
 public class Vehicle{
 	
 	@Id
 	@Column(name="vin")
 	@NotNull(message="cannot be blank")
 	@Size(min=17, max=17, message="must be 17 Characters")
+	@ValidVin
 	private String vehicleIdNumber;
 	
 	@NotNull(message="cannot be blank")
@@ -58,31 +79,47 @@ public class Vehicle{
 	@Column(name="mileage")
 	private int mileage;
 	
+	// the closed sets below are stored as tinyint codes (V8), forms and feeds still read and write their labels
 	@NotNull(message="cannot be blank")
-	@Column(name="currCondition")
-	private String condition;
+	@Column(name="conditionCode")
+	@Convert(converter=CodedValueConverter.OfCondition.class)
+	private VehicleCondition condition;
 	
 	@NotNull(message="cannot be null")
-	@Column(name="title")
-	private String titleStatus;
+	@Column(name="titleCode")
+	@Convert(converter=CodedValueConverter.OfTitleStatus.class)
+	private TitleStatus titleStatus;
 	
 	@NotNull(message="cannot be null")
-	@Column(name="driveTrain")
-	private String drivetrainType;
+	@Column(name="driveTrainCode")
+	@Convert(converter=CodedValueConverter.OfDrivetrain.class)
+	private Drivetrain drivetrainType;
 	
 	@NotNull(message="cannot be null")
-	@Column(name="transmission")
-	private String transmissionType;
+	@Column(name="transmissionCode")
+	@Convert(converter=CodedValueConverter.OfTransmission.class)
+	private Transmission transmissionType;
 	
 	@NotNull(message="cannot be null")
-	@Column(name="fuel")
-	private String fuelType;
+	@Column(name="fuelCode")
+	@Convert(converter=CodedValueConverter.OfFuelType.class)
+	private FuelType fuelType;
 
 	@NotNull(message="cannot be blank")
 	@Min(value=0, message="must be at least $0.00")
-	@Max(value=10000000, message="must be less than $10,000,000")
-	@Column(name="price")
-	private double price;
+	@Max(value=1000000000L, message="must be less than $10,000,000")
+	@Column(name="priceCents")
+	// whole cents, see Cents
+	private long price;
+	
+	// set once when the vehicle is first saved, updatable=false keeps form updates from clearing it
+	// null for vehicles saved before V3 added the column, which repricing and aging treat as the oldest stock
+	@Column(name="dateAcquired", updatable=false)
+	private LocalDate dateAcquired;
+	
+	// dealership lot, set from TenantContext when first saved and never moved; see TenantSessions
+	@Column(name="lotId", updatable=false)
+	private int lotId;
 	
 	// ----------------------------------------------------------------------------------- >
 	
@@ -103,19 +140,19 @@ public class Vehicle{
 	
 	public Vehicle(String vehicleIdNumber, String make, String model, int year, String exteriorColor, String interiorColor, int mileage, String condition, String titleStatus, 
 			String drivetrainType, String transmissionType, String fuelType, double price) {
-		this.vehicleIdNumber = vehicleIdNumber.toUpperCase();
-		this.make = make.toUpperCase();
-		this.model = model.toUpperCase();
+		this.vehicleIdNumber = Vocabulary.upper(vehicleIdNumber);
+		this.make = Vocabulary.term(make);
+		this.model = Vocabulary.term(model);
 		this.year = year;
-		this.exteriorColor = exteriorColor.toUpperCase();
-		this.interiorColor = interiorColor.toUpperCase();
+		this.exteriorColor = Vocabulary.term(exteriorColor);
+		this.interiorColor = Vocabulary.term(interiorColor);
 		this.mileage = mileage;
-		this.condition = condition.toUpperCase();
-		this.titleStatus = titleStatus.toUpperCase();
-		this.drivetrainType = drivetrainType.toUpperCase();
-		this.transmissionType = transmissionType.toUpperCase();
-		this.fuelType = fuelType.toUpperCase();
-		this.price = priceFormat(this.price);
+		this.condition = VehicleCondition.CODES.parse(condition);
+		this.titleStatus = TitleStatus.CODES.parse(titleStatus);
+		this.drivetrainType = Drivetrain.CODES.parse(drivetrainType);
+		this.transmissionType = Transmission.CODES.parse(transmissionType);
+		this.fuelType = FuelType.CODES.parse(fuelType);
+		this.price = Cents.round(price);
 	}
 	
 	// ---------------------------------------------------------------------------------------------------------
@@ -131,44 +168,57 @@ public class Vehicle{
 		private String interiorColor;
 
 		private int mileage;
-		private String condition;
-		private String titleStatus;
+		private VehicleCondition condition;
+		private TitleStatus titleStatus;
 	
-		private String drivetrainType;
-		private String transmissionType;
-		private String fuelType;
+		private Drivetrain drivetrainType;
+		private Transmission transmissionType;
+		private FuelType fuelType;
 
-		private double price;
+		private long price;
 
 		public CarBuilder(String vehicleIdNumber, String make, String model, int year) {
-			this.vehicleIdNumber = vehicleIdNumber.toUpperCase();
-			this.make = make.toUpperCase();
-			this.model = model.toUpperCase();
+			this.vehicleIdNumber = Vocabulary.upper(vehicleIdNumber);
+			this.make = Vocabulary.term(make);
+			this.model = Vocabulary.term(model);
 			this.year = year;
 		}
 
 		public CarBuilder color(String exteriorColor, String interiorColor){
-			this.exteriorColor = exteriorColor.toUpperCase();
-			this.interiorColor = interiorColor.toUpperCase();
+			this.exteriorColor = Vocabulary.term(exteriorColor);
+			this.interiorColor = Vocabulary.term(interiorColor);
 			return this;
 		}
 
 		public CarBuilder usageHist(int mileage, String titleStatus, String condition){
+			return usageHist(mileage, TitleStatus.CODES.parse(titleStatus), VehicleCondition.CODES.parse(condition));
+		}
+
+		public CarBuilder usageHist(int mileage, TitleStatus titleStatus, VehicleCondition condition){
 			this.mileage = mileage;
-			this.titleStatus = titleStatus.toUpperCase();
-			this.condition = condition.toUpperCase();
+			this.titleStatus = titleStatus;
+			this.condition = condition;
 			return this;
 		}
 
 		public CarBuilder engine(String drivetrainType, String transmissionType, String fuelIndex){
+			return engine(Drivetrain.CODES.parse(drivetrainType), Transmission.CODES.parse(transmissionType), FuelType.CODES.parse(fuelIndex));
+		}
+
+		public CarBuilder engine(Drivetrain drivetrainType, Transmission transmissionType, FuelType fuelType){
 			this.drivetrainType = drivetrainType;
 			this.transmissionType = transmissionType;
-			this.fuelType = fuelIndex;
+			this.fuelType = fuelType;
 			return this;
 		}
 
 		public CarBuilder cost(double price){
-			this.price = priceFormat(price);
+			this.price = Cents.round(price);
+			return this;
+		}
+
+		public CarBuilder costCents(long price){
+			this.price = price;
 			return this;
 		}
 
@@ -185,7 +235,7 @@ public class Vehicle{
 			car.drivetrainType = this.drivetrainType;
 			car.transmissionType = this.transmissionType;
 			car.fuelType = this.fuelType;
-			car.price = priceFormat(this.price);
+			car.price = this.price;
 			car.titleStatus = this.titleStatus;
 			
 			return car;
@@ -193,9 +243,8 @@ public class Vehicle{
 	}
 	
 	// ---------------------------------------------------------------------------------------------------------
-	public static double priceFormat(Double price) {
-	    BigDecimal bdPrice = BigDecimal.valueOf(price);
-	    return bdPrice.setScale(2, RoundingMode.HALF_UP).doubleValue();
+	public static double priceFormat(double price) {
+		return Cents.roundAmount(price);
 	}
 
 	public String getVehicleIdNumber() {
@@ -203,14 +252,14 @@ public class Vehicle{
 	}
 
 	public void setVehicleIdNumber(String vehicleIdNumber) {
-		this.vehicleIdNumber = vehicleIdNumber.toUpperCase();	}
+		this.vehicleIdNumber = Vocabulary.upper(vehicleIdNumber);	}
 
 	public String getMake() {
 		return make;
 	}
 
 	public void setMake(String make) {
-		this.make = make.toUpperCase();;
+		this.make = Vocabulary.term(make);
 	}
 
 	public String getModel() {
@@ -218,7 +267,7 @@ public class Vehicle{
 	}
 
 	public void setModel(String model) {
-		this.model = model.toUpperCase();;
+		this.model = Vocabulary.term(model);
 	}
 
 	public int getYear() {
@@ -234,7 +283,7 @@ public class Vehicle{
 	}
 
 	public void setExteriorColor(String exteriorColor) {
-		this.exteriorColor = exteriorColor.toUpperCase();;
+		this.exteriorColor = Vocabulary.term(exteriorColor);
 	}
 
 	public String getInteriorColor() {
@@ -242,7 +291,7 @@ public class Vehicle{
 	}
 
 	public void setInteriorColor(String interiorColor) {
-		this.interiorColor = interiorColor.toUpperCase();;
+		this.interiorColor = Vocabulary.term(interiorColor);
 	}
 
 	public int getMileage() {
@@ -253,26 +302,51 @@ public class Vehicle{
 		this.mileage = mileage;
 	}
 
+	// the String accessors of the coded attributes work on labels, for the forms, JSON and the sync formats
 	public String getCondition() {
-		return condition;
+		return CodedValues.label(condition);
 	}
 
 	public void setCondition(String condition) {
+		this.condition = VehicleCondition.CODES.parse(condition);
+	}
+
+	public VehicleCondition getVehicleCondition() {
+		return condition;
+	}
+
+	public void setVehicleCondition(VehicleCondition condition) {
 		this.condition = condition;
 	}
 
 	public String getTitleStatus() {
-		return titleStatus;
+		return CodedValues.label(titleStatus);
 	}
 
 	public void setTitleStatus(String titleStatus) {
+		this.titleStatus = TitleStatus.CODES.parse(titleStatus);
+	}
+
+	public TitleStatus getTitle() {
+		return titleStatus;
+	}
+
+	public void setTitle(TitleStatus titleStatus) {
 		this.titleStatus = titleStatus;
 	}
 
 	public String getDrivetrainType() {
+		return CodedValues.label(drivetrainType);
+	}
+
+	public Drivetrain getDrivetrain() {
 		return drivetrainType;
 	}
 
+	public void setDrivetrain(Drivetrain drivetrainType) {
+		this.drivetrainType = drivetrainType;
+	}
+
 	public FinanceRecord getFinanceRecord() {
 		return financeRecord;
 	}
@@ -282,31 +356,71 @@ public class Vehicle{
 	}
 
 	public void setDrivetrainType(String drivetrainType) {
-		this.drivetrainType = drivetrainType;
+		this.drivetrainType = Drivetrain.CODES.parse(drivetrainType);
 	}
 
 	public String getTransmissionType() {
-		return transmissionType;
+		return CodedValues.label(transmissionType);
 	}
 
 	public void setTransmissionType(String transmissionType) {
+		this.transmissionType = Transmission.CODES.parse(transmissionType);
+	}
+
+	public Transmission getTransmission() {
+		return transmissionType;
+	}
+
+	public void setTransmission(Transmission transmissionType) {
 		this.transmissionType = transmissionType;
 	}
 
 	public String getFuelType() {
-		return fuelType;
+		return CodedValues.label(fuelType);
 	}
 
 	public void setFuelType(String fuelType) {
+		this.fuelType = FuelType.CODES.parse(fuelType);
+	}
+
+	public FuelType getFuel() {
+		return fuelType;
+	}
+
+	public void setFuel(FuelType fuelType) {
 		this.fuelType = fuelType;
 	}
 
 	public double getPrice() {
-		return price;
+		return Cents.toAmount(price);
 	}
 
 	public void setPrice(double price) {
-		this.price = priceFormat(price);
+		this.price = Cents.round(price);
+	}
+
+	public long getPriceCents() {
+		return price;
+	}
+
+	public void setPriceCents(long price) {
+		this.price = price;
+	}
+
+	public LocalDate getDateAcquired() {
+		return dateAcquired;
+	}
+
+	public void setDateAcquired(LocalDate dateAcquired) {
+		this.dateAcquired = dateAcquired;
+	}
+
+	public int getLotId() {
+		return lotId;
+	}
+
+	public void setLotId(int lotId) {
+		this.lotId = lotId;
 	}
 	
 }
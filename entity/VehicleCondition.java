@@ -0,0 +1,30 @@
+package com.vehicleinventory.entity;
+
+// condition of a vehicle when it is listed, stored in Cars.conditionCode
+public enum VehicleCondition implements CodedValue {
+
+	NEW(1, "NEW"),
+	USED(2, "USED"),
+	CERTIFIED(3, "CERTIFIED");
+
+	public static final CodeTable<VehicleCondition> CODES = new CodeTable<>(values());
+
+	private final int code;
+	private final String[] terms;
+
+	VehicleCondition(int code, String... labels) {
+		this.code = code;
+		this.terms = CodedValues.terms(labels);
+	}
+
+	@Override
+	public int getCode() {
+		return code;
+	}
+
+	@Override
+	public String[] terms() {
+		return terms;
+	}
+
+}
@@ -1,8 +1,5 @@
 package com.vehicleinventory.entity;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 //import java.util.*;
 
 public class VehicleDraft{
@@ -43,36 +40,36 @@ public class VehicleDraft{
 	//converting each category into enums was also considered and used before chaning to arrays
 	public VehicleDraft(String vehicleIdNumber, String make, String model, int year, String exteriorColor, String interiorColor, int mileage, String condition, int titleIndex, 
 			int dtIndex, int transmissionIndex, int fuelIndex, double price) {
-		this.vehicleIdNumber = vehicleIdNumber.toUpperCase();
-		this.make = make.toUpperCase();
-		this.model = model.toUpperCase();
+		this.vehicleIdNumber = Vocabulary.upper(vehicleIdNumber);
+		this.make = Vocabulary.term(make);
+		this.model = Vocabulary.term(model);
 		this.year = year;
-		this.exteriorColor = exteriorColor.toUpperCase();
-		this.interiorColor = interiorColor.toUpperCase();
+		this.exteriorColor = Vocabulary.term(exteriorColor);
+		this.interiorColor = Vocabulary.term(interiorColor);
 		this.mileage = mileage;
-		this.condition = condition.toUpperCase();
+		this.condition = Vocabulary.term(condition);
 		this.titleStatus = TITLESTATUS[titleIndex];
 		this.driveTrainType = DRIVETRAIN[dtIndex];
 		this.transmissionType = TRANSMISSION[transmissionIndex];
 		this.fuelType = FUELTYPE[fuelIndex];
-		this.price = priceFormat(this.price);
+		this.price = priceFormat(price);
 	}
 	
 	public VehicleDraft(String vehicleIdNumber, String make, String model, int year, String exteriorColor, String interiorColor, int mileage, String condition, String titleStatus, 
 			String driveTrainType, String transmissionType, String fuelType, double price) {
-		this.vehicleIdNumber = vehicleIdNumber.toUpperCase();
-		this.make = make.toUpperCase();
-		this.model = model.toUpperCase();
+		this.vehicleIdNumber = Vocabulary.upper(vehicleIdNumber);
+		this.make = Vocabulary.term(make);
+		this.model = Vocabulary.term(model);
 		this.year = year;
-		this.exteriorColor = exteriorColor.toUpperCase();
-		this.interiorColor = interiorColor.toUpperCase();
+		this.exteriorColor = Vocabulary.term(exteriorColor);
+		this.interiorColor = Vocabulary.term(interiorColor);
 		this.mileage = mileage;
-		this.condition = condition.toUpperCase();
-		this.titleStatus = titleStatus.toUpperCase();
-		this.driveTrainType = driveTrainType.toUpperCase();
-		this.transmissionType = transmissionType.toUpperCase();
-		this.fuelType = fuelType.toUpperCase();
-		this.price = priceFormat(this.price);
+		this.condition = Vocabulary.term(condition);
+		this.titleStatus = Vocabulary.term(titleStatus);
+		this.driveTrainType = Vocabulary.term(driveTrainType);
+		this.transmissionType = Vocabulary.term(transmissionType);
+		this.fuelType = Vocabulary.term(fuelType);
+		this.price = priceFormat(price);
 	}
 	
 	// ---------------------------------------------------------------------------------------------------------
@@ -98,22 +95,22 @@ public class VehicleDraft{
 			private double price;
 
 			public CarBuilder(String vehicleIdNumber, String make, String model, int year) {
-				this.vehicleIdNumber = vehicleIdNumber.toUpperCase();
-				this.make = make.toUpperCase();
-				this.model = model.toUpperCase();
+				this.vehicleIdNumber = Vocabulary.upper(vehicleIdNumber);
+				this.make = Vocabulary.term(make);
+				this.model = Vocabulary.term(model);
 				this.year = year;
 			}
 
 			public CarBuilder color(String exteriorColor, String interiorColor){
-				this.exteriorColor = exteriorColor.toUpperCase();
-				this.interiorColor = interiorColor.toUpperCase();
+				this.exteriorColor = Vocabulary.term(exteriorColor);
+				this.interiorColor = Vocabulary.term(interiorColor);
 				return this;
 			}
 
 			public CarBuilder usageHist(int mileage, int titleIndex, String condition){
 				this.mileage = mileage;
 				this.titleStatus = TITLESTATUS[titleIndex];
-				this.condition = condition.toUpperCase();
+				this.condition = Vocabulary.term(condition);
 				return this;
 			}
 
@@ -209,23 +206,23 @@ public class VehicleDraft{
 		}
 		
 		public void setMake(String make) {
-			this.make = make.toUpperCase();
+			this.make = Vocabulary.term(make);
 		}
 		
 		public void setModel(String model) {
-			this.model = model.toUpperCase();
+			this.model = Vocabulary.term(model);
 		}
 		
 		public void setvehicleIdNumber(String vehicleIdNumber) {
-			this.vehicleIdNumber = vehicleIdNumber.toUpperCase();
+			this.vehicleIdNumber = Vocabulary.upper(vehicleIdNumber);
 		}
 		
 		public void setExteriorColor(String color) {
-			this.exteriorColor = color.toUpperCase();
+			this.exteriorColor = Vocabulary.term(color);
 		}
 		
 		public void setInteriorColor(String color) {
-			this.interiorColor = color.toUpperCase();
+			this.interiorColor = Vocabulary.term(color);
 		}
 		
 		public void setMileage(int miles) {
@@ -233,7 +230,7 @@ public class VehicleDraft{
 		}
 		
 		public void setCondition(String cond) {
-			this.condition = cond.toUpperCase();
+			this.condition = Vocabulary.term(cond);
 		}
 		
 		public void setDriveTrain(int index) {
@@ -245,7 +242,7 @@ public class VehicleDraft{
 		}
 		
 		public void setDriveTrain(String dtType) {
-			this.driveTrainType = dtType.toUpperCase();
+			this.driveTrainType = Vocabulary.term(dtType);
 		}
 		
 		public void setTranmission(int index) {
@@ -257,7 +254,7 @@ public class VehicleDraft{
 		}
 		
 		public void setTranmission(String trans) {
-			this.transmissionType = trans.toUpperCase();
+			this.transmissionType = Vocabulary.term(trans);
 		}
 		
 		public void setFuelType(int index) {
@@ -269,7 +266,7 @@ public class VehicleDraft{
 		}
 		
 		public void setFuelType(String fuel) {
-			this.fuelType = fuel.toUpperCase();
+			this.fuelType = Vocabulary.term(fuel);
 		}
 		
 		public void setTitleStatus(int index) {
@@ -281,7 +278,7 @@ public class VehicleDraft{
 		}
 		
 		public void setTitleStatus(String title) {
-			this.titleStatus = title.toUpperCase();
+			this.titleStatus = Vocabulary.term(title);
 		}
 		
 		public void setPrice(double price) {
@@ -290,9 +287,8 @@ public class VehicleDraft{
 		
 		//--------------------------------------------------------------------------- Helper methods:
 		
-		public static double priceFormat(Double price) {
-		    BigDecimal bdPrice = BigDecimal.valueOf(price);
-		    return bdPrice.setScale(2, RoundingMode.HALF_UP).doubleValue();
+		public static double priceFormat(double price) {
+			return Cents.roundAmount(price);
 		}
 	
 }
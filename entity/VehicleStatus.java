@@ -0,0 +1,38 @@
+package com.vehicleinventory.entity;
+
+// lifecycle states recorded in VehicleStatusHistory, see VehicleStatusDAOImp
+// the code is what is stored, so never renumber an existing state
+public enum VehicleStatus {
+	
+	ACQUIRED(1),
+	LISTED(2),
+	REPRICED(3),
+	FINANCED(4),
+	SOLD(5);
+	
+	private static final VehicleStatus[] BY_CODE = new VehicleStatus[6];
+	
+	static {
+		for (VehicleStatus status : values()) {
+			BY_CODE[status.code] = status;
+		}
+	}
+	
+	private final int code;
+	
+	VehicleStatus(int code) {
+		this.code = code;
+	}
+
+	public int getCode() {
+		return code;
+	}
+	
+	public static VehicleStatus fromCode(int code) {
+		if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+			throw new IllegalArgumentException("Unknown vehicle status code " + code);
+		}
+		return BY_CODE[code];
+	}
+
+}
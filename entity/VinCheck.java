@@ -0,0 +1,98 @@
+package com.vehicleinventory.entity;
+
+import java.time.Year;
+
+// static VIN rules that need no lookup table: character set, ISO 3779 check digit and model year
+// shared by the @ValidVin constraint and VinServiceImp
+public final class VinCheck {
+	
+	public static final int VIN_LENGTH = 17;
+	
+	// transliteration value of each allowed character, 0 marks a character that may not appear (I, O, Q and non-alphanumerics)
+	private static final int[] VALUES = new int[128];
+	private static final int[] WEIGHTS = {8, 7, 6, 5, 4, 3, 2, 10, 0, 9, 8, 7, 6, 5, 4, 3, 2};
+	// position 10 year codes, a 30 year cycle starting at 1980 (and again at 2010)
+	private static final String YEAR_CODES = "ABCDEFGHJKLMNPRSTVWXY123456789";
+	
+	static {
+		String letters = "ABCDEFGHJKLMNPRSTUVWXYZ";
+		int[] letterValues = {1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 7, 9, 2, 3, 4, 5, 6, 7, 8, 9};
+		for (int i = 0; i < letters.length(); i++) {
+			VALUES[letters.charAt(i)] = letterValues[i];
+		}
+		for (char digit = '0'; digit <= '9'; digit++) {
+			// digits keep their own value, offset by 100 so '0' is distinguishable from "not allowed"
+			VALUES[digit] = 100 + (digit - '0');
+		}
+	}
+	
+	private VinCheck() {}
+	
+	public static boolean isWellFormed(String vin) {
+		if (vin == null || vin.length() != VIN_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < VIN_LENGTH; i++) {
+			char c = vin.charAt(i);
+			if (c >= 128 || VALUES[c] == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static int value(char c) {
+		int value = VALUES[c];
+		return value >= 100 ? value - 100 : value;
+	}
+	
+	public static char computeCheckDigit(String vin) {
+		int sum = 0;
+		for (int i = 0; i < VIN_LENGTH; i++) {
+			sum += value(vin.charAt(i)) * WEIGHTS[i];
+		}
+		int remainder = sum % 11;
+		return remainder == 10 ? 'X' : (char) ('0' + remainder);
+	}
+	
+	// the check digit is mandatory for North American VINs (world manufacturer code starting 1-5),
+	// other regions may use position 9 freely
+	public static boolean requiresCheckDigit(String vin) {
+		char region = vin.charAt(0);
+		return region >= '1' && region <= '5';
+	}
+	
+	public static boolean isValid(String vin) {
+		if (!isWellFormed(vin)) {
+			return false;
+		}
+		return !requiresCheckDigit(vin) || computeCheckDigit(vin) == vin.charAt(8);
+	}
+	
+	// model year from position 10, or 0 if the code is not a year code
+	// North American VINs use position 7 to pick the cycle (letter for 2010-2039, digit for 1980-2009),
+	// the newest year that is not in the future is used for everything else
+	public static int modelYear(String vin) {
+		int code = YEAR_CODES.indexOf(vin.charAt(9));
+		if (code < 0) {
+			return 0;
+		}
+		int year = 1980 + code;
+		int latest = Year.now().getValue() + 1;
+		if (requiresCheckDigit(vin)) {
+			if (Character.isLetter(vin.charAt(6))) {
+				year += 30;
+			}
+		} else {
+			while (year + 30 <= latest) {
+				year += 30;
+			}
+		}
+		return year;
+	}
+	
+	public static char plantCode(String vin) {
+		return vin.charAt(10);
+	}
+
+}
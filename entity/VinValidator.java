@@ -0,0 +1,16 @@
+package com.vehicleinventory.entity;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class VinValidator implements ConstraintValidator<ValidVin, String> {
+
+	@Override
+	public boolean isValid(String vin, ConstraintValidatorContext context) {
+		if (vin == null || vin.length() != VinCheck.VIN_LENGTH) {
+			return true;
+		}
+		return VinCheck.isValid(vin.toUpperCase());
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.vehicleinventory.entity;
+
+import java.util.Locale;
+
+// canonical upper case instances of the short, repeating strings a vehicle is described with
+//
+// term() folds case while it probes, so "Honda", "honda" and "HONDA" all come back as the one shared "HONDA" without a
+// String being made on the way. only the closed vocabularies below and the CodedValue labels are kept: they are seeded
+// once, when the classes load, and a value outside them is upper cased and returned without being kept. so request
+// input can never fill the table, and term() takes no lock, hit or miss; seeding swaps in a larger copy as it grows
+public final class Vocabulary {
+
+	private static final String[] COLORS = { "BLACK", "WHITE", "SILVER", "GRAY", "GREY", "RED", "BLUE", "GREEN", "BROWN", "BEIGE",
+			"TAN", "GOLD", "ORANGE", "YELLOW", "PURPLE", "MAROON", "CHARCOAL" };
+	private static final String[] MAKES = { "ACURA", "ALFA ROMEO", "AUDI", "BMW", "BUICK", "CADILLAC", "CHEVROLET", "CHRYSLER", "DODGE",
+			"FIAT", "FORD", "GENESIS", "GMC", "HONDA", "HYUNDAI", "INFINITI", "JAGUAR", "JEEP", "KIA", "LAND ROVER", "LEXUS", "LINCOLN",
+			"MAZDA", "MERCEDES-BENZ", "MINI", "MITSUBISHI", "NISSAN", "PORSCHE", "RAM", "SUBARU", "TESLA", "TOYOTA", "VOLKSWAGEN", "VOLVO" };
+	// the values the forms and partner feeds send for the Vehicle columns that VehicleDraft has no arrays for
+	private static final String[] ATTRIBUTES = { "NEW", "USED", "CERTIFIED", "4WD", "AUTOMATIC", "MANUAL", "GASOLINE", "DIESEL" };
+
+	private static volatile String[] table = new String[256];
+	private static int count;
+
+	static {
+		seed(VehicleDraft.DRIVETRAIN);
+		seed(VehicleDraft.TRANSMISSION);
+		seed(VehicleDraft.FUELTYPE);
+		seed(VehicleDraft.TITLESTATUS);
+		seed(COLORS);
+		seed(MAKES);
+		seed(ATTRIBUTES);
+	}
+
+	private Vocabulary() {}
+
+	// the canonical instance of value in upper case, null for null
+	public static String term(String value) {
+		if (value == null) {
+			return null;
+		}
+		String[] slots = table;
+		int mask = slots.length - 1;
+		int length = value.length();
+		for (int slot = foldedHash(value) & mask; ; slot = (slot + 1) & mask) {
+			String candidate = slots[slot];
+			if (candidate == null) {
+				break;
+			}
+			if (candidate.length() == length && candidate.regionMatches(true, 0, value, 0, length)) {
+				return candidate;
+			}
+		}
+		return upper(value);
+	}
+
+	// value in upper case, the same instance when it already is; for values too varied to keep, like vins
+	public static String upper(String value) {
+		if (value == null) {
+			return null;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (Character.toUpperCase(c) != c) {
+				return value.toUpperCase(Locale.ROOT);
+			}
+		}
+		return value;
+	}
+
+	// the canonical instance of a value of a closed set, kept from now on; never call it with request input
+	static synchronized String seed(String value) {
+		String canonical = upper(value);
+		String[] slots = table;
+		int slot = find(slots, canonical);
+		if (slots[slot] != null) {
+			return slots[slot];
+		}
+		// kept at most half full so probes stay short
+		if ((count + 1) * 2 > slots.length) {
+			String[] grown = new String[slots.length * 2];
+			for (String term : slots) {
+				if (term != null) {
+					grown[find(grown, term)] = term;
+				}
+			}
+			slots = grown;
+			slot = find(slots, canonical);
+		}
+		slots[slot] = canonical;
+		count++;
+		table = slots;
+		return canonical;
+	}
+
+	private static void seed(String[] terms) {
+		for (String term : terms) {
+			seed(term);
+		}
+	}
+
+	// slot holding term, or the empty slot where it belongs
+	private static int find(String[] slots, String term) {
+		int mask = slots.length - 1;
+		int slot = foldedHash(term) & mask;
+		while (slots[slot] != null && !slots[slot].equals(term)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int foldedHash(String value) {
+		int h = 0;
+		for (int i = 0; i < value.length(); i++) {
+			h = 31 * h + Character.toUpperCase(value.charAt(i));
+		}
+		return h ^ (h >>> 16);
+	}
+
+}
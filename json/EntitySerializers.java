@@ -0,0 +1,57 @@
+package com.vehicleinventory.json;
+
+import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.entity.Vehicle;
+
+// the JSON shape of each entity served by ApiController, field names are the public API and must not be renamed
+// customer passwords are never serialized
+public final class EntitySerializers {
+
+	private EntitySerializers() {}
+
+	public static final JsonSerializer<Vehicle> VEHICLE = JsonSerializer.<Vehicle>builder()
+			.field("vin", (car, out) -> out.string(car.getVehicleIdNumber()))
+			.field("make", (car, out) -> out.string(car.getMake()))
+			.field("model", (car, out) -> out.string(car.getModel()))
+			.field("year", (car, out) -> out.number(car.getYear()))
+			.field("exteriorColor", (car, out) -> out.string(car.getExteriorColor()))
+			.field("interiorColor", (car, out) -> out.string(car.getInteriorColor()))
+			.field("mileage", (car, out) -> out.number(car.getMileage()))
+			.field("condition", (car, out) -> out.string(car.getCondition()))
+			.field("titleStatus", (car, out) -> out.string(car.getTitleStatus()))
+			.field("drivetrain", (car, out) -> out.string(car.getDrivetrainType()))
+			.field("transmission", (car, out) -> out.string(car.getTransmissionType()))
+			.field("fuel", (car, out) -> out.string(car.getFuelType()))
+			.field("price", (car, out) -> out.amount(car.getPriceCents()))
+			.field("dateAcquired", (car, out) -> out.string(car.getDateAcquired() == null ? null : car.getDateAcquired().toString()))
+			.build();
+
+	public static final JsonSerializer<CustomerAccount> CUSTOMER_ACCOUNT = JsonSerializer.<CustomerAccount>builder()
+			.field("id", (account, out) -> out.number(account.getCustomerId()))
+			.field("username", (account, out) -> out.string(account.getUsername()))
+			.field("firstName", (account, out) -> out.string(account.getFirstName()))
+			.field("lastName", (account, out) -> out.string(account.getLastName()))
+			.field("email", (account, out) -> out.string(account.getEmailAddress()))
+			.field("phone", (account, out) -> out.string(account.getPhoneNumber()))
+			.field("address", (account, out) -> out.string(account.getMailingAddress()))
+			.build();
+
+	// customerId needs the customerAccount association loaded, the finance DAO queries fetch it with the record
+	public static final JsonSerializer<FinanceRecord> FINANCE_RECORD = JsonSerializer.<FinanceRecord>builder()
+			.field("id", (record, out) -> out.number(record.getFinanceId()))
+			.field("customerId", (record, out) -> out.number(record.getCustomerAccount().getCustomerId()))
+			.field("vin", (record, out) -> out.string(record.getVehicleIdNumber()))
+			.field("creditScore", (record, out) -> out.number(record.getCreditScore()))
+			.field("vehiclePrice", (record, out) -> out.amount(record.getVehiclePriceCents()))
+			.field("downPayment", (record, out) -> out.amount(record.getDownPaymentCents()))
+			.field("apr", (record, out) -> out.number(record.getApr()))
+			.field("termLength", (record, out) -> out.number(record.getTermLength()))
+			.field("paymentsMade", (record, out) -> out.number(record.getInstallmentsPaid()))
+			.field("monthlyPayment", (record, out) -> out.amount(record.getMonthlyPaymentCents()))
+			.field("balance", (record, out) -> out.amount(record.getBalanceCents()))
+			.field("condition", (record, out) -> out.string(record.getCondition()))
+			.field("paidOff", (record, out) -> out.bool(record.isPaidOff()))
+			.build();
+
+}
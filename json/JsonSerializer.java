@@ -0,0 +1,126 @@
+package com.vehicleinventory.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// precomputed JSON serializer for one entity type
+//
+// every field is a name plus a writer lambda registered once at class load, the quoted "name": prefix of each
+// field is rendered up front, and ?fields= selections are parsed once into an index array and cached,
+// so writing a row is a straight loop over the selected field writers
+public final class JsonSerializer<T> {
+
+	public interface FieldWriter<T> {
+		void write(T value, JsonWriter out) throws IOException;
+	}
+
+	// cached selections are dropped wholesale past this size, clients normally send a handful of distinct field lists
+	private static final int MAX_CACHED_SELECTIONS = 256;
+
+	private final String[] names;
+	private final char[][] keys;
+	private final FieldWriter<T>[] writers;
+	private final Map<String, Integer> indexByName;
+	private final int[] allFields;
+	private final Map<String, int[]> selections = new ConcurrentHashMap<>();
+
+	@SuppressWarnings("unchecked")
+	private JsonSerializer(List<String> names, List<FieldWriter<T>> writers) {
+		this.names = names.toArray(new String[0]);
+		this.writers = writers.toArray(new FieldWriter[0]);
+		this.keys = new char[this.names.length][];
+		this.indexByName = new LinkedHashMap<>();
+		this.allFields = new int[this.names.length];
+		for (int i = 0; i < this.names.length; i++) {
+			keys[i] = ('"' + this.names[i] + "\":").toCharArray();
+			indexByName.put(this.names[i], i);
+			allFields[i] = i;
+		}
+	}
+
+	public static <T> Builder<T> builder() {
+		return new Builder<>();
+	}
+
+	public static final class Builder<T> {
+		private final List<String> names = new ArrayList<>();
+		private final List<FieldWriter<T>> writers = new ArrayList<>();
+
+		public Builder<T> field(String name, FieldWriter<T> writer) {
+			if (names.contains(name)) {
+				throw new IllegalArgumentException("Duplicate field name " + name);
+			}
+			names.add(name);
+			writers.add(writer);
+			return this;
+		}
+
+		public JsonSerializer<T> build() {
+			return new JsonSerializer<>(names, writers);
+		}
+	}
+
+	public List<String> getFieldNames() {
+		return Arrays.asList(names);
+	}
+
+	// indexes of the requested fields in declaration order, every field when fields is null or blank
+	// throws IllegalArgumentException naming the first unknown field
+	public int[] select(String fields) {
+		if (fields == null || fields.trim().isEmpty()) {
+			return allFields;
+		}
+		int[] selection = selections.get(fields);
+		if (selection != null) {
+			return selection;
+		}
+
+		boolean[] wanted = new boolean[names.length];
+		int count = 0;
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			Integer index = indexByName.get(name);
+			if (index == null) {
+				throw new IllegalArgumentException("Unknown field '" + name + "', expected one of " + indexByName.keySet());
+			}
+			if (!wanted[index]) {
+				wanted[index] = true;
+				count++;
+			}
+		}
+		selection = new int[count];
+		for (int i = 0, s = 0; i < names.length; i++) {
+			if (wanted[i]) {
+				selection[s++] = i;
+			}
+		}
+
+		if (selections.size() >= MAX_CACHED_SELECTIONS) {
+			selections.clear();
+		}
+		selections.put(fields, selection);
+		return selection;
+	}
+
+	public void write(T value, int[] selection, JsonWriter out) throws IOException {
+		out.raw('{');
+		for (int s = 0; s < selection.length; s++) {
+			if (s > 0) {
+				out.raw(',');
+			}
+			int field = selection[s];
+			out.raw(keys[field]);
+			writers[field].write(value, out);
+		}
+		out.raw('}');
+	}
+
+}
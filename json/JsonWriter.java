@@ -0,0 +1,106 @@
+package com.vehicleinventory.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// thin layer over a Writer for the hand written serializers, no reflection and no intermediate tree
+// callers are responsible for commas and nesting, see JsonSerializer
+public final class JsonWriter {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Writer out;
+
+	public JsonWriter(Writer out) {
+		this.out = out;
+	}
+
+	public JsonWriter raw(char c) throws IOException {
+		out.write(c);
+		return this;
+	}
+
+	public JsonWriter raw(String text) throws IOException {
+		out.write(text);
+		return this;
+	}
+
+	public JsonWriter raw(char[] text) throws IOException {
+		out.write(text);
+		return this;
+	}
+
+	public JsonWriter string(String value) throws IOException {
+		if (value == null) {
+			out.write("null");
+			return this;
+		}
+		out.write('"');
+		int start = 0;
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\' && c != 0x2028 && c != 0x2029) {
+				continue;
+			}
+			out.write(value, start, i - start);
+			start = i + 1;
+			switch (c) {
+				case '"': out.write("\\\""); break;
+				case '\\': out.write("\\\\"); break;
+				case '\n': out.write("\\n"); break;
+				case '\r': out.write("\\r"); break;
+				case '\t': out.write("\\t"); break;
+				default:
+					out.write("\\u");
+					out.write(HEX[(c >> 12) & 0xF]);
+					out.write(HEX[(c >> 8) & 0xF]);
+					out.write(HEX[(c >> 4) & 0xF]);
+					out.write(HEX[c & 0xF]);
+			}
+		}
+		out.write(value, start, length - start);
+		out.write('"');
+		return this;
+	}
+
+	public JsonWriter number(long value) throws IOException {
+		out.write(Long.toString(value));
+		return this;
+	}
+
+	// whole cents as a dollar number with two decimals, exact where number(double) could print 1.2345678E7
+	public JsonWriter amount(long cents) throws IOException {
+		if (cents < 0) {
+			out.write('-');
+		}
+		long magnitude = Math.abs(cents);
+		out.write(Long.toString(magnitude / 100));
+		int fraction = (int) (magnitude % 100);
+		out.write('.');
+		out.write('0' + fraction / 10);
+		out.write('0' + fraction % 10);
+		return this;
+	}
+
+	public JsonWriter number(double value) throws IOException {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			out.write("null");
+		} else if (value == (long) value && Math.abs(value) < 1e15) {
+			out.write(Long.toString((long) value));
+		} else {
+			out.write(Double.toString(value));
+		}
+		return this;
+	}
+
+	public JsonWriter bool(boolean value) throws IOException {
+		out.write(value ? "true" : "false");
+		return this;
+	}
+
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+}
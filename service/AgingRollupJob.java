@@ -0,0 +1,63 @@
+package com.vehicleinventory.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// closes each day's aging rollup just before midnight, so every day keeps the lot as it stood at the end of it
+// today is also rolled up once at startup, in the background, so /api/aging has onLot counts before the first close
+// days the application was down for have no onLot rows; their sales are still counted as they happened
+@Component
+public class AgingRollupJob {
+
+	private static final Logger LOGGER = Logger.getLogger(AgingRollupJob.class.getName());
+
+	// how long before midnight the day is closed
+	private static final long LEAD_SECONDS = 60;
+
+	@Autowired
+	InventoryAgingService inventoryAgingService;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "inventory-aging-rollup");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@PostConstruct
+	public void start() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime next = LocalDate.now().plusDays(1).atStartOfDay().minusSeconds(LEAD_SECONDS);
+		if (!next.isAfter(now)) {
+			next = next.plusDays(1);
+		}
+		scheduler.execute(this::rollupToday);
+		scheduler.scheduleAtFixedRate(this::rollupToday, Duration.between(now, next).getSeconds(), TimeUnit.DAYS.toSeconds(1), TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		scheduler.shutdownNow();
+	}
+
+	void rollupToday() {
+		try {
+			inventoryAgingService.rollup(LocalDate.now());
+		} catch (RuntimeException e) {
+			// a failed run must not cancel the schedule
+			LOGGER.log(Level.WARNING, "Inventory aging rollup failed", e);
+		}
+	}
+
+}
@@ -0,0 +1,12 @@
+package com.vehicleinventory.service;
+
+public interface CustomerAuthService {
+	
+	LoginResult login(String username, String password);
+	
+	// the logged in customer for a portal token, null when the token is unknown or expired
+	CustomerPrincipal authenticate(String token);
+	
+	void logout(String token);
+
+}
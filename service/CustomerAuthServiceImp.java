@@ -0,0 +1,63 @@
+package com.vehicleinventory.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.cache.AuthTokenCache;
+import com.vehicleinventory.entity.CustomerAccount;
+
+// customer portal login
+//
+// not @Transactional on purpose: the PBKDF2 check is the slow part of a login and runs between the account read
+// and the optional rehash write, each of which is its own short VehicleService transaction, so no connection is
+// held while hashing. every attempt is reserved with the LoginRateLimiter before any query or hashing is done, and
+// locked usernames are refused there
+@Service
+public class CustomerAuthServiceImp implements CustomerAuthService {
+	
+	@Autowired
+	VehicleService vehicleService;
+	@Autowired
+	PasswordHasher passwordHasher;
+	@Autowired
+	LoginRateLimiter loginRateLimiter;
+	@Autowired
+	AuthTokenCache authTokenCache;
+
+	@Override
+	public LoginResult login(String username, String password) {
+		long now = System.currentTimeMillis();
+		long retryAfter = loginRateLimiter.reserveAttempt(username, now);
+		if (retryAfter > 0) {
+			return LoginResult.locked(retryAfter);
+		}
+		
+		CustomerAccount account = username == null || username.isEmpty() ? null : vehicleService.getCustomerAccountByUsername(username);
+		if (account == null) {
+			passwordHasher.matchDecoy(password);
+			return LoginResult.invalid();
+		}
+		
+		String stored = account.getPassword();
+		if (!passwordHasher.matches(password, stored)) {
+			return LoginResult.invalid();
+		}
+		
+		loginRateLimiter.recordSuccess(username);
+		if (passwordHasher.needsRehash(stored)) {
+			vehicleService.updatePasswordHash(account.getCustomerId(), passwordHasher.hash(password));
+		}
+		return LoginResult.ok(authTokenCache.issue(account, now));
+	}
+
+	@Override
+	public CustomerPrincipal authenticate(String token) {
+		return authTokenCache.lookup(token, System.currentTimeMillis());
+	}
+
+	@Override
+	public void logout(String token) {
+		authTokenCache.revoke(token);
+	}
+
+}
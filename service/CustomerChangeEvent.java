@@ -0,0 +1,52 @@
+package com.vehicleinventory.service;
+
+import org.springframework.context.ApplicationEvent;
+
+import com.vehicleinventory.entity.CustomerAccount;
+
+// published by VehicleServiceImp after every customer account write, the CustomerAccount counterpart of VehicleChangeEvent
+public class CustomerChangeEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	// MERGED keeps the row but takes the account out of use, vehicles have no such state
+	public enum ChangeType { SAVED, DELETED, MERGED }
+	
+	private final ChangeType changeType;
+	private final int customerId;
+	private final CustomerAccount account;
+	
+	private CustomerChangeEvent(Object source, ChangeType changeType, int customerId, CustomerAccount account) {
+		super(source);
+		this.changeType = changeType;
+		this.customerId = customerId;
+		this.account = account;
+	}
+	
+	public static CustomerChangeEvent saved(Object source, CustomerAccount account) {
+		return new CustomerChangeEvent(source, ChangeType.SAVED, account.getCustomerId(), account);
+	}
+	
+	public static CustomerChangeEvent deleted(Object source, int customerId) {
+		return new CustomerChangeEvent(source, ChangeType.DELETED, customerId, null);
+	}
+	
+	// the account is kept but merged into another, it leaves the CustomerSnapshot like a deleted one
+	public static CustomerChangeEvent merged(Object source, int customerId) {
+		return new CustomerChangeEvent(source, ChangeType.MERGED, customerId, null);
+	}
+
+	public ChangeType getChangeType() {
+		return changeType;
+	}
+
+	public int getCustomerId() {
+		return customerId;
+	}
+
+	// the saved account, null for deletes and merges
+	public CustomerAccount getAccount() {
+		return account;
+	}
+
+}
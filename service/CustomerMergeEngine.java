@@ -0,0 +1,41 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.cache.InventorySnapshotHolder;
+import com.vehicleinventory.dedup.DuplicateCustomerFinder;
+import com.vehicleinventory.dedup.DuplicateScan;
+import com.vehicleinventory.dedup.MergeSuggestion;
+
+// duplicate customer job: scans the in-memory CustomerSnapshot (no table scan) and applies the chosen suggestions
+// one CustomerMergeService call (and so one transaction) per chunk, like RepricingEngine. the duplicate accounts
+// themselves are kept, with no finance records left and mergedInto set, so a wrong merge can be undone by hand;
+// a merged account leaves the CustomerSnapshot and is not suggested again
+@Component
+public class CustomerMergeEngine {
+	
+	public static final int CHUNK_SIZE = 500;
+	
+	@Autowired
+	InventorySnapshotHolder inventorySnapshotHolder;
+	
+	@Autowired
+	CustomerMergeService customerMergeService;
+	
+	public DuplicateScan findDuplicates(double threshold) {
+		return DuplicateCustomerFinder.find(inventorySnapshotHolder.customers(), threshold);
+	}
+	
+	// returns the number of finance records moved
+	public int merge(List<MergeSuggestion> suggestions) {
+		int moved = 0;
+		for (int from = 0; from < suggestions.size(); from += CHUNK_SIZE) {
+			moved += customerMergeService.mergeChunk(suggestions.subList(from, Math.min(suggestions.size(), from + CHUNK_SIZE)));
+		}
+		return moved;
+	}
+
+}
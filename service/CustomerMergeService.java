@@ -0,0 +1,13 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+import com.vehicleinventory.dedup.MergeSuggestion;
+
+public interface CustomerMergeService {
+	
+	// moves the finance records of one chunk of duplicates to their survivors and marks the duplicates merged,
+	// in its own transaction; returns the number of finance records moved
+	int mergeChunk(List<MergeSuggestion> chunk);
+
+}
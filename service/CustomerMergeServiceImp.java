@@ -0,0 +1,82 @@
+package com.vehicleinventory.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.dao.CustomerAccountDAO;
+import com.vehicleinventory.dao.FinanceRecordDAO;
+import com.vehicleinventory.dedup.MergeSuggestion;
+
+@Service
+public class CustomerMergeServiceImp implements CustomerMergeService {
+	
+	@Autowired
+	FinanceRecordDAO financeRecordDAO;
+	
+	@Autowired
+	CustomerAccountDAO customerAccountDAO;
+	
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Override
+	@Transactional
+	public int mergeChunk(List<MergeSuggestion> chunk) {
+		Set<Integer> duplicates = new HashSet<>();
+		Set<Integer> accounts = new HashSet<>();
+		for (MergeSuggestion suggestion : chunk) {
+			duplicates.add(suggestion.getDuplicateId());
+			accounts.add(suggestion.getDuplicateId());
+			accounts.add(suggestion.getSurvivorId());
+		}
+		// both sides must be unmerged accounts of the same lot, visible to the current one,
+		// and a survivor must not be merged away itself
+		Map<Integer, Integer> lots = customerAccountDAO.lockUnmerged(accounts);
+		List<MergeSuggestion> valid = new ArrayList<>(chunk.size());
+		for (MergeSuggestion suggestion : chunk) {
+			Integer duplicateLot = lots.get(suggestion.getDuplicateId());
+			if (duplicateLot != null && duplicateLot.equals(lots.get(suggestion.getSurvivorId()))
+					&& !duplicates.contains(suggestion.getSurvivorId())) {
+				valid.add(suggestion);
+			}
+		}
+		int[] duplicateIds = new int[valid.size()];
+		int[] survivorIds = new int[valid.size()];
+		for (int i = 0; i < valid.size(); i++) {
+			duplicateIds[i] = valid.get(i).getDuplicateId();
+			survivorIds[i] = valid.get(i).getSurvivorId();
+		}
+		boolean[] merged = customerAccountDAO.markMerged(duplicateIds, survivorIds);
+		
+		// records follow only the duplicates whose mergedInto was set
+		int count = 0;
+		for (boolean m : merged) {
+			if (m) {
+				count++;
+			}
+		}
+		int[] mergedIds = new int[count];
+		int[] mergedSurvivorIds = new int[count];
+		for (int i = 0, j = 0; i < merged.length; i++) {
+			if (merged[i]) {
+				mergedIds[j] = duplicateIds[i];
+				mergedSurvivorIds[j++] = survivorIds[i];
+			}
+		}
+		int moved = count == 0 ? 0 : financeRecordDAO.reassignCustomers(mergedIds, mergedSurvivorIds);
+		for (int duplicateId : mergedIds) {
+			eventPublisher.publishEvent(CustomerChangeEvent.merged(this, duplicateId));
+		}
+		return moved;
+	}
+
+}
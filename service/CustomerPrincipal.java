@@ -0,0 +1,45 @@
+package com.vehicleinventory.service;
+
+// the logged in customer as held by AuthTokenCache, enough to render portal pages without loading the account
+public class CustomerPrincipal {
+	
+	private final int customerId;
+	private final String username;
+	private final String firstName;
+	private final String lastName;
+	// sliding expiry, pushed forward on every lookup
+	private volatile long expiresAt;
+	
+	public CustomerPrincipal(int customerId, String username, String firstName, String lastName, long expiresAt) {
+		this.customerId = customerId;
+		this.username = username;
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.expiresAt = expiresAt;
+	}
+
+	public int getCustomerId() {
+		return customerId;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(long expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.vehicleinventory.dao.AgingBucketCount;
+import com.vehicleinventory.dao.StatusTransition;
+
+public interface InventoryAgingService {
+	
+	List<StatusTransition> getStatusHistory(String vin);
+	
+	// recomputes the onLot counts of the day from the current inventory
+	void rollup(LocalDate day);
+	
+	// days-on-lot distribution, see VehicleStatusDAO.getAging; today's onLot counts are as of startup until the day is closed
+	List<AgingBucketCount> getAging(LocalDate from, LocalDate to, String make, String model);
+
+}
@@ -0,0 +1,40 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.dao.AgingBucketCount;
+import com.vehicleinventory.dao.StatusTransition;
+import com.vehicleinventory.dao.VehicleStatusDAO;
+
+@Service
+public class InventoryAgingServiceImp implements InventoryAgingService {
+	
+	@Autowired
+	VehicleStatusDAO vehicleStatusDAO;
+
+	@Override
+	@Transactional
+	public List<StatusTransition> getStatusHistory(String vin) {
+		return vehicleStatusDAO.getHistory(vin);
+	}
+
+	@Override
+	@Transactional
+	public void rollup(LocalDate day) {
+		vehicleStatusDAO.rollupOnLot(day);
+	}
+
+	// reads the rollup only, the Cars scan that fills it is AgingRollupJob's
+	@Override
+	@Transactional
+	public List<AgingBucketCount> getAging(LocalDate from, LocalDate to, String make, String model) {
+		return vehicleStatusDAO.getAging(from, to, make, model);
+	}
+
+}
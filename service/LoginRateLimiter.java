@@ -0,0 +1,124 @@
+package com.vehicleinventory.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// failed login counter per username, checked before any password hashing is done
+//
+// after auth.login.maxFailures failures within auth.login.windowSeconds the username is refused until that window ends
+// an attempt is counted as a failure when it is reserved, before the password is hashed, and a successful login clears
+// the counter: check and count happen under one lock, so parallel requests cannot all pass a check made before any of
+// them failed
+// counters live in STRIPES independent maps, each guarded by its own lock and picked by the username hash,
+// so concurrent logins for different users rarely contend on the same lock. a stripe holds at most
+// auth.login.maxUsernames / STRIPES of them; past that expired ones are swept and then the oldest counter that has not
+// locked its username is dropped (a stripe full of locked usernames drops the oldest of those)
+@Component
+public class LoginRateLimiter {
+
+	private static final int STRIPES = 64;
+
+	@Value("${auth.login.maxFailures:5}")
+	private int maxFailures;
+
+	@Value("${auth.login.windowSeconds:900}")
+	private long windowSeconds;
+
+	@Value("${auth.login.maxUsernames:65536}")
+	private int maxUsernames;
+
+	private final Object[] locks = new Object[STRIPES];
+	private final LinkedHashMap<String, Attempts>[] stripes;
+
+	private static final class Attempts {
+		int failures;
+		long windowStart;
+	}
+
+	@SuppressWarnings("unchecked")
+	public LoginRateLimiter() {
+		stripes = new LinkedHashMap[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new Object();
+			stripes[i] = new LinkedHashMap<>();
+		}
+	}
+
+	// reserves one attempt for the username: 0 when it may try now (the attempt already counts as failed until
+	// recordSuccess), otherwise the milliseconds until it may try again
+	public long reserveAttempt(String username, long now) {
+		String key = key(username);
+		int stripe = stripe(key);
+		synchronized (locks[stripe]) {
+			Map<String, Attempts> counters = stripes[stripe];
+			Attempts attempts = counters.get(key);
+			if (attempts == null || now - attempts.windowStart >= windowSeconds * 1000) {
+				if (attempts == null) {
+					evict(counters, now);
+				} else {
+					// a new window goes to the tail, so the maps stay in window order
+					counters.remove(key);
+				}
+				attempts = new Attempts();
+				attempts.windowStart = now;
+				counters.put(key, attempts);
+			}
+			if (attempts.failures >= maxFailures) {
+				return Math.max(1, attempts.windowStart + windowSeconds * 1000 - now);
+			}
+			attempts.failures++;
+			return 0;
+		}
+	}
+
+	public void recordSuccess(String username) {
+		String key = key(username);
+		int stripe = stripe(key);
+		synchronized (locks[stripe]) {
+			stripes[stripe].remove(key);
+		}
+	}
+
+	// makes room for one more counter
+	private void evict(Map<String, Attempts> counters, long now) {
+		int capacity = Math.max(1, maxUsernames / STRIPES);
+		if (counters.size() < capacity) {
+			return;
+		}
+		for (Iterator<Attempts> it = counters.values().iterator(); it.hasNext();) {
+			if (now - it.next().windowStart >= windowSeconds * 1000) {
+				it.remove();
+			} else {
+				// window order: everything after this one is younger
+				break;
+			}
+		}
+		if (counters.size() < capacity) {
+			return;
+		}
+		for (Iterator<Attempts> it = counters.values().iterator(); it.hasNext();) {
+			if (it.next().failures < maxFailures) {
+				it.remove();
+				return;
+			}
+		}
+		Iterator<Attempts> oldest = counters.values().iterator();
+		oldest.next();
+		oldest.remove();
+	}
+
+	private static String key(String username) {
+		return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static int stripe(String key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (STRIPES - 1);
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.vehicleinventory.service;
+
+// outcome of CustomerAuthService.login
+public class LoginResult {
+	
+	public enum Status { OK, INVALID, LOCKED }
+	
+	private final Status status;
+	private final String token;
+	private final long retryAfterSeconds;
+	
+	private LoginResult(Status status, String token, long retryAfterSeconds) {
+		this.status = status;
+		this.token = token;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+	
+	public static LoginResult ok(String token) {
+		return new LoginResult(Status.OK, token, 0);
+	}
+	
+	public static LoginResult invalid() {
+		return new LoginResult(Status.INVALID, null, 0);
+	}
+	
+	public static LoginResult locked(long retryAfterMillis) {
+		return new LoginResult(Status.LOCKED, null, (retryAfterMillis + 999) / 1000);
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	// session token for the portal cookie, null unless OK
+	public String getToken() {
+		return token;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.dao.MonthEndPartition;
+
+// closes a month for every open loan: the financeId range is split into partitions that run in parallel,
+// each walked in chunks of one MonthEndService call (and so one transaction) apiece
+//
+// every chunk moves its partition's checkpoint in the same transaction as its postings, so a run that dies part way
+// is resumed by running the month again; the checkpoint row is locked per chunk, so two nodes running the same month
+// share the partitions instead of posting twice. worker threads have no TenantContext, the close covers every lot
+@Component
+public class MonthEndEngine {
+	
+	private static final Logger LOGGER = Logger.getLogger(MonthEndEngine.class.getName());
+	
+	@Autowired
+	MonthEndService monthEndService;
+	
+	@Value("${finance.monthEnd.partitions:8}")
+	private int partitionCount;
+	
+	// 0 runs one thread per processor
+	@Value("${finance.monthEnd.threads:0}")
+	private int threadCount;
+	
+	@Value("${finance.monthEnd.chunkSize:1000}")
+	private int chunkSize;
+	
+	public MonthEndRun run(YearMonth month) {
+		LocalDate monthEnd = month.atEndOfMonth();
+		long started = System.nanoTime();
+		List<MonthEndPartition> partitions = monthEndService.startMonthEnd(monthEnd, partitionCount);
+		
+		int threads = Math.min(partitions.size(), threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors());
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+			Thread thread = new Thread(runnable, "month-end-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		long closed = 0;
+		int failed = 0;
+		try {
+			List<Future<Long>> results = new ArrayList<>();
+			for (MonthEndPartition partition : partitions) {
+				if (!partition.isCompleted()) {
+					results.add(workers.submit(() -> closePartition(monthEnd, partition)));
+				}
+			}
+			for (Future<Long> result : results) {
+				try {
+					closed += result.get();
+				} catch (ExecutionException e) {
+					// the partition keeps its checkpoint and picks up from it on the next run
+					failed++;
+					LOGGER.log(Level.WARNING, "Month-end partition failed for " + monthEnd, e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failed = partitions.size();
+		} finally {
+			workers.shutdownNow();
+		}
+		
+		MonthEndRun run = new MonthEndRun(monthEnd, partitions.size(), failed, closed, (System.nanoTime() - started) / 1_000_000);
+		LOGGER.info(String.format("Month-end %s: %d loans closed in %d ms (%.0f loans/s), %d of %d partitions failed",
+				monthEnd, run.getLoansClosed(), run.getElapsedMillis(), run.getLoansPerSecond(), failed, partitions.size()));
+		return run;
+	}
+	
+	// returns the number of loans this call closed in the partition
+	private long closePartition(LocalDate monthEnd, MonthEndPartition partition) {
+		long before = partition.getProcessed();
+		MonthEndPartition current = partition;
+		while (!current.isCompleted()) {
+			current = monthEndService.closeChunk(monthEnd, partition.getPartitionNo(), chunkSize);
+		}
+		// another node may have closed chunks of the same partition in between, those are counted on that node
+		return Math.max(0, current.getProcessed() - before);
+	}
+
+}
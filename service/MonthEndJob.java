@@ -0,0 +1,71 @@
+package com.vehicleinventory.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// runs the close of the previous month shortly after every midnight; once the month is complete the run only reads
+// its checkpoints, and a month interrupted by a crash or a failed partition is finished by the next day's run
+// the month's statements are written once its close is complete, and again on later days until a run writes them all
+@Component
+public class MonthEndJob {
+
+	private static final Logger LOGGER = Logger.getLogger(MonthEndJob.class.getName());
+
+	// how long after midnight the run starts, clear of the aging rollup
+	private static final long DELAY_SECONDS = 300;
+
+	@Autowired
+	MonthEndEngine monthEndEngine;
+
+	@Autowired
+	StatementEngine statementEngine;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "finance-month-end");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@PostConstruct
+	public void start() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime next = LocalDate.now().atStartOfDay().plusSeconds(DELAY_SECONDS);
+		if (!next.isAfter(now)) {
+			next = next.plusDays(1);
+		}
+		scheduler.scheduleAtFixedRate(this::closeLastMonth, Duration.between(now, next).getSeconds(), TimeUnit.DAYS.toSeconds(1), TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		scheduler.shutdownNow();
+	}
+
+	void closeLastMonth() {
+		YearMonth month = YearMonth.now().minusMonths(1);
+		try {
+			MonthEndRun run = monthEndEngine.run(month);
+			if (run.isComplete() && !statementEngine.isGenerated(month)) {
+				statementEngine.run(month);
+			}
+		} catch (IOException | RuntimeException e) {
+			// a failed run must not cancel the schedule
+			LOGGER.log(Level.WARNING, "Finance month-end failed", e);
+		}
+	}
+
+}
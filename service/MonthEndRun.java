@@ -0,0 +1,50 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+
+// totals for one month-end run; a run that resumes a month counts only the loans it closed itself
+public class MonthEndRun {
+	
+	private final LocalDate monthEnd;
+	private final int partitions;
+	private final int failedPartitions;
+	private final long loansClosed;
+	private final long elapsedMillis;
+	
+	public MonthEndRun(LocalDate monthEnd, int partitions, int failedPartitions, long loansClosed, long elapsedMillis) {
+		this.monthEnd = monthEnd;
+		this.partitions = partitions;
+		this.failedPartitions = failedPartitions;
+		this.loansClosed = loansClosed;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public LocalDate getMonthEnd() {
+		return monthEnd;
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	public int getFailedPartitions() {
+		return failedPartitions;
+	}
+	
+	public boolean isComplete() {
+		return failedPartitions == 0;
+	}
+
+	public long getLoansClosed() {
+		return loansClosed;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+	
+	public double getLoansPerSecond() {
+		return elapsedMillis == 0 ? 0 : loansClosed * 1000.0 / elapsedMillis;
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.vehicleinventory.dao.MonthEndPartition;
+
+public interface MonthEndService {
+	
+	// the partitions of the month, split from the current financeId range the first time the month is run
+	List<MonthEndPartition> startMonthEnd(LocalDate monthEnd, int partitions);
+	
+	// closes one chunk of the partition in its own transaction, see MonthEndDAO.closeChunk
+	MonthEndPartition closeChunk(LocalDate monthEnd, int partitionNo, int chunkSize);
+
+}
@@ -0,0 +1,37 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.dao.MonthEndDAO;
+import com.vehicleinventory.dao.MonthEndPartition;
+
+@Service
+public class MonthEndServiceImp implements MonthEndService {
+	
+	@Autowired
+	MonthEndDAO monthEndDAO;
+
+	@Override
+	@Transactional
+	public List<MonthEndPartition> startMonthEnd(LocalDate monthEnd, int partitions) {
+		List<MonthEndPartition> existing = monthEndDAO.getPartitions(monthEnd);
+		if (!existing.isEmpty()) {
+			return existing;
+		}
+		monthEndDAO.createPartitions(monthEnd, partitions);
+		return monthEndDAO.getPartitions(monthEnd);
+	}
+
+	@Override
+	@Transactional
+	public MonthEndPartition closeChunk(LocalDate monthEnd, int partitionNo, int chunkSize) {
+		return monthEndDAO.closeChunk(monthEnd, partitionNo, chunkSize);
+	}
+
+}
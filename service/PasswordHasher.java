@@ -0,0 +1,91 @@
+package com.vehicleinventory.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// PBKDF2-HMAC-SHA256 password hashes stored as "pbkdf2-sha256$<iterations>$<salt>$<hash>" (base64)
+//
+// the work factor is auth.pbkdf2.iterations; hashes made with a different count still verify and are reported by
+// needsRehash, so raising the setting upgrades each account on its next successful login
+@Component
+public class PasswordHasher {
+
+	private static final String PREFIX = "pbkdf2-sha256$";
+	private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+	private static final int SALT_BYTES = 16;
+	private static final int HASH_BITS = 256;
+
+	@Value("${auth.pbkdf2.iterations:120000}")
+	private int iterations;
+
+	private final SecureRandom random = new SecureRandom();
+
+	// verified against when the username does not exist, so unknown and known usernames take the same time
+	private String decoy;
+
+	@PostConstruct
+	public void init() {
+		decoy = hash("decoy-" + random.nextLong());
+	}
+
+	public String hash(String password) {
+		byte[] salt = new byte[SALT_BYTES];
+		random.nextBytes(salt);
+		byte[] hash = pbkdf2(password, salt, iterations);
+		Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+		return PREFIX + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+	}
+
+	// stored may be a hash or, for accounts created before hashing, the plain text password
+	public boolean matches(String password, String stored) {
+		if (password == null || stored == null) {
+			return false;
+		}
+		if (!isHash(stored)) {
+			return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+		}
+		String[] parts = stored.substring(PREFIX.length()).split("\\$");
+		if (parts.length != 3) {
+			return false;
+		}
+		Base64.Decoder base64 = Base64.getDecoder();
+		byte[] expected = base64.decode(parts[2]);
+		byte[] actual = pbkdf2(password, base64.decode(parts[1]), Integer.parseInt(parts[0]));
+		return MessageDigest.isEqual(expected, actual);
+	}
+
+	// burns the same time as a real check, for logins with an unknown username
+	public void matchDecoy(String password) {
+		matches(password == null ? "" : password, decoy);
+	}
+
+	public boolean needsRehash(String stored) {
+		return !isHash(stored) || !stored.startsWith(PREFIX + iterations + "$");
+	}
+
+	public static boolean isHash(String stored) {
+		return stored != null && stored.startsWith(PREFIX);
+	}
+
+	private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(ALGORITHM + " is not available", e);
+		} finally {
+			spec.clearPassword();
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.vehicleinventory.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.entity.Cents;
+import com.vehicleinventory.entity.Payment;
+import com.vehicleinventory.validation.CompiledValidator;
+import com.vehicleinventory.validation.EntityValidators;
+
+// reads a day's payment file (one "financeId,amount,reference" per line) and posts it chunk by chunk
+// every chunk goes through PaymentService so it commits in its own transaction,
+// a failure only rolls back the chunk it happened in and re-importing the file skips references already posted
+// a malformed line or one that breaks the Payment constraints (negative amount, overlong reference) is rejected
+// and reported in the result, the lines around it are still posted
+@Component
+public class PaymentFileImporter {
+	
+	public static final int CHUNK_SIZE = 1000;
+	
+	@Autowired
+	PaymentService paymentService;
+	
+	@Autowired
+	EntityValidators entityValidators;
+	
+	public PaymentPostingResult importPaymentFile(BufferedReader reader) throws IOException {
+		long start = System.currentTimeMillis();
+		CompiledValidator<Payment> validator = entityValidators.forType(Payment.class);
+		List<Payment> chunk = new ArrayList<>(CHUNK_SIZE);
+		int read = 0;
+		int posted = 0;
+		int invalid = 0;
+		List<String> invalidLines = new ArrayList<>();
+		
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			read++;
+			Payment payment = parseLine(line);
+			if (payment == null || !validator.isValid(payment)) {
+				if (invalid++ < PaymentPostingResult.MAX_INVALID_LINES) {
+					invalidLines.add(payment == null ? line : line + " " + validator.validate(payment));
+				}
+				continue;
+			}
+			chunk.add(payment);
+			
+			if (chunk.size() == CHUNK_SIZE) {
+				posted += paymentService.postPayments(chunk);
+				chunk = new ArrayList<>(CHUNK_SIZE);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			posted += paymentService.postPayments(chunk);
+		}
+		
+		return new PaymentPostingResult(read, posted, invalid, invalidLines, System.currentTimeMillis() - start);
+	}
+	
+	// null when the line is not "financeId,amount[,reference]"
+	private static Payment parseLine(String line) {
+		String[] columns = line.split(",");
+		if (columns.length < 2) {
+			return null;
+		}
+		String reference = columns.length > 2 ? columns[2].trim() : null;
+		try {
+			return Payment.ofCents(Integer.parseInt(columns[0].trim()), Cents.parse(columns[1]), reference);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+}
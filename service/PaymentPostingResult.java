@@ -0,0 +1,51 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+// totals for one payment file run
+public class PaymentPostingResult {
+	
+	// only the first invalid lines are kept, a file of garbage should not fill the flash attributes
+	public static final int MAX_INVALID_LINES = 100;
+	
+	private final int read;
+	private final int posted;
+	private final int invalid;
+	private final List<String> invalidLines;
+	private final long elapsedMillis;
+	
+	public PaymentPostingResult(int read, int posted, int invalid, List<String> invalidLines, long elapsedMillis) {
+		this.read = read;
+		this.posted = posted;
+		this.invalid = invalid;
+		this.invalidLines = invalidLines;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public int getRead() {
+		return read;
+	}
+
+	public int getPosted() {
+		return posted;
+	}
+	
+	// malformed or invalid lines plus payments the database turned down
+	public int getRejected() {
+		return read - posted;
+	}
+
+	// lines that could not be parsed or broke the Payment constraints
+	public int getInvalid() {
+		return invalid;
+	}
+
+	public List<String> getInvalidLines() {
+		return invalidLines;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+}
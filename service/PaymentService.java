@@ -0,0 +1,16 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+import com.vehicleinventory.entity.Payment;
+
+public interface PaymentService {
+	
+	boolean postPayment(Payment payment);
+	
+	// posts every payment in a single transaction, used per chunk by PaymentFileImporter
+	int postPayments(List<Payment> payments);
+	
+	List<Payment> getPayments(int finId);
+
+}
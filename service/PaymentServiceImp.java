@@ -0,0 +1,43 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.dao.PaymentDAO;
+import com.vehicleinventory.entity.Payment;
+
+@Service
+public class PaymentServiceImp implements PaymentService {
+	
+	@Autowired
+	PaymentDAO paymentDAO;
+
+	@Override
+	@Transactional
+	public boolean postPayment(Payment payment) {
+		return paymentDAO.postPayment(payment);
+	}
+
+	@Override
+	@Transactional
+	public int postPayments(List<Payment> payments) {
+		int posted = 0;
+		for (boolean applied : paymentDAO.postPayments(payments)) {
+			if (applied) {
+				posted++;
+			}
+		}
+		return posted;
+	}
+
+	@Override
+	@Transactional
+	public List<Payment> getPayments(int finId) {
+		return paymentDAO.getPayments(finId);
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.dao.PriceChange;
+import com.vehicleinventory.dao.RepricingRule;
+
+// applies a RepricingRule to the whole lot, one RepricingService call (and so one transaction) per chunk of vins
+// a percentage cut is not idempotent, so a rule must not be re-run from the start after a failure part way through:
+// the chunks committed before it would be cut a second time. the exception names the last vin committed instead,
+// and applyRule(rule, thatVin) reprices only the vehicles after it
+@Component
+public class RepricingEngine {
+	
+	public static final int CHUNK_SIZE = 1000;
+	
+	@Autowired
+	RepricingService repricingService;
+	
+	// returns the number of vehicles repriced
+	public int applyRule(RepricingRule rule) {
+		return applyRule(rule, "");
+	}
+	
+	// reprices the vehicles after afterVin, for resuming a run that failed
+	public int applyRule(RepricingRule rule, String afterVin) {
+		int repriced = 0;
+		while (true) {
+			List<PriceChange> chunk;
+			try {
+				chunk = repricingService.applyRepricingChunk(rule, afterVin, CHUNK_SIZE);
+			} catch (RuntimeException e) {
+				throw new IllegalStateException("Repricing stopped after " + repriced + " vehicles, resume after vin '" + afterVin + "'", e);
+			}
+			if (chunk.isEmpty()) {
+				return repriced;
+			}
+			repriced += chunk.size();
+			afterVin = chunk.get(chunk.size() - 1).getVehicleIdNumber();
+		}
+	}
+
+}
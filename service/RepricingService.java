@@ -0,0 +1,18 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+import com.vehicleinventory.dao.PriceChange;
+import com.vehicleinventory.dao.RepricingRule;
+
+public interface RepricingService {
+	
+	long countRepricing(RepricingRule rule);
+	
+	// dry run, the first limit vehicles the rule would touch and their new prices
+	List<PriceChange> previewRepricing(RepricingRule rule, int limit);
+	
+	// reprices the next chunk of vehicles after afterVin in its own transaction, empty when the rule is done
+	List<PriceChange> applyRepricingChunk(RepricingRule rule, String afterVin, int chunkSize);
+
+}
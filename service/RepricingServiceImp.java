@@ -0,0 +1,58 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.dao.PriceChange;
+import com.vehicleinventory.dao.RepricingRule;
+import com.vehicleinventory.dao.StatusTransition;
+import com.vehicleinventory.dao.VehicleDAO;
+import com.vehicleinventory.dao.VehicleStatusDAO;
+import com.vehicleinventory.entity.VehicleStatus;
+
+@Service
+public class RepricingServiceImp implements RepricingService {
+	
+	@Autowired
+	VehicleDAO vehicleDAO;
+	@Autowired
+	VehicleStatusDAO vehicleStatusDAO;
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Override
+	@Transactional
+	public long countRepricing(RepricingRule rule) {
+		return vehicleDAO.countRepricing(rule);
+	}
+
+	@Override
+	@Transactional
+	public List<PriceChange> previewRepricing(RepricingRule rule, int limit) {
+		return vehicleDAO.previewRepricing(rule, "", limit);
+	}
+
+	@Override
+	@Transactional
+	public List<PriceChange> applyRepricingChunk(RepricingRule rule, String afterVin, int chunkSize) {
+		List<PriceChange> changes = vehicleDAO.applyRepricing(rule, afterVin, chunkSize);
+		if (!changes.isEmpty()) {
+			LocalDateTime now = LocalDateTime.now();
+			List<StatusTransition> repriced = new ArrayList<>(changes.size());
+			for (PriceChange change : changes) {
+				repriced.add(new StatusTransition(change.getVehicleIdNumber(), change.getLotId(), VehicleStatus.REPRICED, now, change.getNewPrice()));
+			}
+			vehicleStatusDAO.append(repriced);
+			eventPublisher.publishEvent(VehicleChangeEvent.repriced(this, changes));
+		}
+		return changes;
+	}
+
+}
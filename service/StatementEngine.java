@@ -0,0 +1,160 @@
+package com.vehicleinventory.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.dao.CustomerStatement;
+import com.vehicleinventory.dao.StatementBatch;
+
+// writes the month's customer statements as HTML files under statements.dir/yyyy-MM, one per customer with a posting
+//
+// the calling thread reads the statements a batch of customers at a time (four queries per batch, see StatementDAOImp)
+// and hands each batch to a pool of renderers; at most two batches per renderer are held at once, so memory stays flat
+// however large the book is. each file is written through a buffered writer to a temp file and moved into place, and
+// a _complete marker is left once every statement of the month was written
+@Component
+public class StatementEngine {
+
+	private static final Logger LOGGER = Logger.getLogger(StatementEngine.class.getName());
+
+	private static final String TEMPLATE = "/data/statement-template.html";
+	private static final String COMPLETE_MARKER = "_complete";
+	// statements are spread over sub directories of this many customers each
+	private static final int CUSTOMERS_PER_DIRECTORY = 1000;
+
+	@Autowired
+	StatementService statementService;
+
+	@Value("${statements.dir:statements}")
+	private String statementsDir;
+
+	// 0 runs one renderer per processor
+	@Value("${statements.threads:0}")
+	private int threadCount;
+
+	@Value("${statements.batchSize:500}")
+	private int batchSize;
+
+	private StatementTemplate template;
+
+	@PostConstruct
+	public void loadTemplate() throws IOException {
+		try (InputStream in = StatementEngine.class.getResourceAsStream(TEMPLATE)) {
+			if (in == null) {
+				throw new IllegalStateException("Missing bundled statement template " + TEMPLATE);
+			}
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			template = StatementTemplate.compile(reader.lines().collect(Collectors.joining("\n", "", "\n")));
+		}
+	}
+
+	public boolean isGenerated(YearMonth month) {
+		return Files.exists(directory(month).resolve(COMPLETE_MARKER));
+	}
+
+	public StatementRun run(YearMonth month) throws IOException {
+		LocalDate monthEnd = month.atEndOfMonth();
+		Path directory = directory(month);
+		Files.createDirectories(directory);
+		long started = System.nanoTime();
+
+		int threads = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService renderers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "statement-renderer-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		Semaphore inFlight = new Semaphore(threads * 2);
+		LongAdder written = new LongAdder();
+		LongAdder failed = new LongAdder();
+		AtomicReference<Exception> firstFailure = new AtomicReference<>();
+
+		try {
+			int afterCustomerId = 0;
+			while (true) {
+				StatementBatch batch = statementService.getStatements(monthEnd, afterCustomerId, batchSize);
+				if (batch.isEmpty()) {
+					break;
+				}
+				afterCustomerId = batch.getLastCustomerId();
+				inFlight.acquire();
+				renderers.execute(() -> {
+					try {
+						renderBatch(batch.getStatements(), monthEnd, directory, written, failed, firstFailure);
+					} finally {
+						inFlight.release();
+					}
+				});
+			}
+			// every permit back means every batch has been written
+			inFlight.acquire(threads * 2);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Statement run for " + monthEnd + " was interrupted", e);
+		} finally {
+			renderers.shutdownNow();
+		}
+
+		if (firstFailure.get() != null) {
+			LOGGER.log(Level.WARNING, failed.sum() + " statements for " + monthEnd + " could not be written", firstFailure.get());
+		} else {
+			Files.write(directory.resolve(COMPLETE_MARKER), new byte[0]);
+		}
+		StatementRun run = new StatementRun(monthEnd, directory, written.sum(), failed.sum(), (System.nanoTime() - started) / 1_000_000);
+		LOGGER.info(String.format("Statements %s: %d written in %d ms (%.0f statements/s), %d failed",
+				monthEnd, run.getWritten(), run.getElapsedMillis(), run.getStatementsPerSecond(), run.getFailed()));
+		return run;
+	}
+
+	private void renderBatch(List<CustomerStatement> statements, LocalDate monthEnd, Path directory, LongAdder written,
+			LongAdder failed, AtomicReference<Exception> firstFailure) {
+		for (CustomerStatement statement : statements) {
+			try {
+				Path file = directory.resolve(Integer.toString(statement.getCustomerId() / CUSTOMERS_PER_DIRECTORY))
+						.resolve("statement-" + statement.getCustomerId() + ".html");
+				Files.createDirectories(file.getParent());
+				Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+				try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+					template.render(statement, monthEnd, out);
+				}
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				written.increment();
+			} catch (IOException | RuntimeException e) {
+				failed.increment();
+				firstFailure.compareAndSet(null, e);
+			}
+		}
+	}
+
+	private Path directory(YearMonth month) {
+		return Paths.get(statementsDir).resolve(month.toString());
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.vehicleinventory.service;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// totals for one statement run
+public class StatementRun {
+	
+	private final LocalDate monthEnd;
+	private final Path directory;
+	private final long written;
+	private final long failed;
+	private final long elapsedMillis;
+	
+	public StatementRun(LocalDate monthEnd, Path directory, long written, long failed, long elapsedMillis) {
+		this.monthEnd = monthEnd;
+		this.directory = directory;
+		this.written = written;
+		this.failed = failed;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public LocalDate getMonthEnd() {
+		return monthEnd;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public long getWritten() {
+		return written;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+	
+	public boolean isComplete() {
+		return failed == 0;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+	
+	public double getStatementsPerSecond() {
+		return elapsedMillis == 0 ? 0 : written * 1000.0 / elapsedMillis;
+	}
+
+}
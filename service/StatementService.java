@@ -0,0 +1,12 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+
+import com.vehicleinventory.dao.StatementBatch;
+
+public interface StatementService {
+	
+	// the next batch of customer statements of the month, see StatementDAO
+	StatementBatch getStatements(LocalDate monthEnd, int afterCustomerId, int maxCustomers);
+
+}
@@ -0,0 +1,25 @@
+package com.vehicleinventory.service;
+
+import java.time.LocalDate;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.dao.StatementBatch;
+import com.vehicleinventory.dao.StatementDAO;
+
+@Service
+public class StatementServiceImp implements StatementService {
+	
+	@Autowired
+	StatementDAO statementDAO;
+
+	@Override
+	@Transactional
+	public StatementBatch getStatements(LocalDate monthEnd, int afterCustomerId, int maxCustomers) {
+		return statementDAO.getStatements(monthEnd, afterCustomerId, maxCustomers);
+	}
+
+}
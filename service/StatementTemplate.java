@@ -0,0 +1,297 @@
+package com.vehicleinventory.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.vehicleinventory.dao.CustomerStatement;
+
+// statement layout compiled once into a tree of text runs, fields and sections, then rendered straight onto a Writer
+//
+// the syntax is a small subset of mustache:
+//   {{name}}                  a field of the statement, the loan or the payment being rendered, HTML escaped
+//   {{#loans}}..{{/loans}}    once per loan, {{#payments}}..{{/payments}} once per payment inside a loan
+//   {{^payments}}..{{/payments}} only when the loan had no payments
+// names resolve against the innermost section first, so {{amountDue}} is the loan's inside {{#loans}} and the total outside;
+// unknown names and unbalanced sections fail when the template is compiled, not while rendering
+// a template is immutable once compiled and shared by every rendering thread
+public final class StatementTemplate {
+
+	private static final DateTimeFormatter STATEMENT_DATE = DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.US);
+	private static final DateTimeFormatter PAYMENT_DATE = DateTimeFormatter.ofPattern("MM/dd/yyyy", Locale.US);
+
+	private enum Scope { STATEMENT, LOAN, PAYMENT }
+
+	private enum Section {
+		LOANS("loans", Scope.STATEMENT, Scope.LOAN),
+		PAYMENTS("payments", Scope.LOAN, Scope.PAYMENT);
+
+		private final String name;
+		private final Scope parent;
+		private final Scope scope;
+
+		Section(String name, Scope parent, Scope scope) {
+			this.name = name;
+			this.parent = parent;
+			this.scope = scope;
+		}
+	}
+
+	private enum Field {
+		MONTH_END("monthEnd", Scope.STATEMENT),
+		CUSTOMER_ID("customerId", Scope.STATEMENT),
+		FIRST_NAME("firstName", Scope.STATEMENT),
+		LAST_NAME("lastName", Scope.STATEMENT),
+		EMAIL_ADDRESS("emailAddress", Scope.STATEMENT),
+		MAILING_ADDRESS("mailingAddress", Scope.STATEMENT),
+		TOTAL_DUE("amountDue", Scope.STATEMENT),
+		TOTAL_BALANCE("balance", Scope.STATEMENT),
+		FINANCE_ID("financeId", Scope.LOAN),
+		VIN("vin", Scope.LOAN),
+		INSTALLMENT_NUMBER("installmentNumber", Scope.LOAN),
+		TERM_LENGTH("termLength", Scope.LOAN),
+		INTEREST("interest", Scope.LOAN),
+		PRINCIPAL("principal", Scope.LOAN),
+		AMOUNT_DUE("amountDue", Scope.LOAN),
+		BALANCE("balance", Scope.LOAN),
+		STATUS("status", Scope.LOAN),
+		POSTED_AT("postedAt", Scope.PAYMENT),
+		REFERENCE("reference", Scope.PAYMENT),
+		AMOUNT("amount", Scope.PAYMENT);
+
+		private final String name;
+		private final Scope scope;
+
+		Field(String name, Scope scope) {
+			this.name = name;
+			this.scope = scope;
+		}
+	}
+
+	// a text run, a field, or a (possibly inverted) section with its body
+	private static final class Node {
+		private final char[] text;
+		private final Field field;
+		private final Section section;
+		private final boolean inverted;
+		private final Node[] body;
+
+		private Node(char[] text, Field field, Section section, boolean inverted, Node[] body) {
+			this.text = text;
+			this.field = field;
+			this.section = section;
+			this.inverted = inverted;
+			this.body = body;
+		}
+	}
+
+	private final Node[] nodes;
+
+	private StatementTemplate(Node[] nodes) {
+		this.nodes = nodes;
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// compiling
+
+	public static StatementTemplate compile(String template) {
+		int[] position = new int[1];
+		Node[] nodes = compile(template, position, Scope.STATEMENT, null);
+		return new StatementTemplate(nodes);
+	}
+
+	// compiles up to the close tag of the enclosing section (or the end of the template when there is none)
+	private static Node[] compile(String template, int[] position, Scope scope, Section enclosing) {
+		List<Node> nodes = new ArrayList<>();
+		int at = position[0];
+		while (true) {
+			int open = template.indexOf("{{", at);
+			if (open < 0) {
+				if (enclosing != null) {
+					throw new IllegalArgumentException("Unclosed section {{#" + enclosing.name + "}}");
+				}
+				addText(nodes, template, at, template.length());
+				position[0] = template.length();
+				return nodes.toArray(new Node[0]);
+			}
+			int close = template.indexOf("}}", open + 2);
+			if (close < 0) {
+				throw new IllegalArgumentException("Unterminated tag at " + open);
+			}
+			addText(nodes, template, at, open);
+			String tag = template.substring(open + 2, close).trim();
+			at = close + 2;
+
+			if (tag.startsWith("/")) {
+				String name = tag.substring(1).trim();
+				if (enclosing == null || !enclosing.name.equals(name)) {
+					throw new IllegalArgumentException("Unexpected {{/" + name + "}} at " + open);
+				}
+				position[0] = skipNewline(template, at);
+				return nodes.toArray(new Node[0]);
+			}
+			if (tag.startsWith("#") || tag.startsWith("^")) {
+				Section section = section(tag.substring(1).trim(), scope, open);
+				position[0] = skipNewline(template, at);
+				Node[] body = compile(template, position, tag.startsWith("#") ? section.scope : scope, section);
+				nodes.add(new Node(null, null, section, tag.startsWith("^"), body));
+				at = position[0];
+				continue;
+			}
+			nodes.add(new Node(null, field(tag, scope, open), null, false, null));
+		}
+	}
+
+	private static void addText(List<Node> nodes, String template, int from, int to) {
+		if (to > from) {
+			nodes.add(new Node(template.substring(from, to).toCharArray(), null, null, false, null));
+		}
+	}
+
+	// section tags usually stand on a line of their own, which should not leave a blank line behind
+	private static int skipNewline(String template, int at) {
+		if (at < template.length() && template.charAt(at) == '\r') {
+			at++;
+		}
+		return at < template.length() && template.charAt(at) == '\n' ? at + 1 : at;
+	}
+
+	private static Section section(String name, Scope scope, int at) {
+		for (Section section : Section.values()) {
+			if (section.name.equals(name)) {
+				if (section.parent != scope) {
+					throw new IllegalArgumentException("Section {{#" + name + "}} is not allowed here, at " + at);
+				}
+				return section;
+			}
+		}
+		throw new IllegalArgumentException("Unknown section {{#" + name + "}} at " + at);
+	}
+
+	// innermost scope first
+	private static Field field(String name, Scope scope, int at) {
+		for (int s = scope.ordinal(); s >= 0; s--) {
+			for (Field field : Field.values()) {
+				if (field.scope.ordinal() == s && field.name.equals(name)) {
+					return field;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Unknown field {{" + name + "}} at " + at);
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// rendering
+
+	public void render(CustomerStatement statement, LocalDate monthEnd, Writer out) throws IOException {
+		render(nodes, statement, monthEnd, null, null, out);
+	}
+
+	private static void render(Node[] nodes, CustomerStatement statement, LocalDate monthEnd, CustomerStatement.Loan loan,
+			CustomerStatement.PostedPayment payment, Writer out) throws IOException {
+		for (Node node : nodes) {
+			if (node.text != null) {
+				out.write(node.text);
+			} else if (node.field != null) {
+				writeField(node.field, statement, monthEnd, loan, payment, out);
+			} else if (node.section == Section.LOANS) {
+				List<CustomerStatement.Loan> loans = statement.getLoans();
+				if (node.inverted) {
+					if (loans.isEmpty()) {
+						render(node.body, statement, monthEnd, loan, payment, out);
+					}
+				} else {
+					for (CustomerStatement.Loan each : loans) {
+						render(node.body, statement, monthEnd, each, null, out);
+					}
+				}
+			} else {
+				List<CustomerStatement.PostedPayment> payments = loan.getPayments();
+				if (node.inverted) {
+					if (payments.isEmpty()) {
+						render(node.body, statement, monthEnd, loan, payment, out);
+					}
+				} else {
+					for (CustomerStatement.PostedPayment each : payments) {
+						render(node.body, statement, monthEnd, loan, each, out);
+					}
+				}
+			}
+		}
+	}
+
+	private static void writeField(Field field, CustomerStatement statement, LocalDate monthEnd, CustomerStatement.Loan loan,
+			CustomerStatement.PostedPayment payment, Writer out) throws IOException {
+		switch (field) {
+			case MONTH_END: out.write(STATEMENT_DATE.format(monthEnd)); break;
+			case CUSTOMER_ID: out.write(Integer.toString(statement.getCustomerId())); break;
+			case FIRST_NAME: escape(statement.getFirstName(), out); break;
+			case LAST_NAME: escape(statement.getLastName(), out); break;
+			case EMAIL_ADDRESS: escape(statement.getEmailAddress(), out); break;
+			case MAILING_ADDRESS: escape(statement.getMailingAddress(), out); break;
+			case TOTAL_DUE: amount(statement.getAmountDueCents(), out); break;
+			case TOTAL_BALANCE: amount(statement.getBalanceCents(), out); break;
+			case FINANCE_ID: out.write(Integer.toString(loan.getFinanceId())); break;
+			case VIN: escape(loan.getVehicleIdNumber(), out); break;
+			case INSTALLMENT_NUMBER: out.write(Integer.toString(loan.getInstallmentNumber())); break;
+			case TERM_LENGTH: out.write(Integer.toString(loan.getTermLength())); break;
+			case INTEREST: amount(loan.getInterestCents(), out); break;
+			case PRINCIPAL: amount(loan.getPrincipalCents(), out); break;
+			case AMOUNT_DUE: amount(loan.getAmountDueCents(), out); break;
+			case BALANCE: amount(loan.getBalanceCents(), out); break;
+			case STATUS: out.write(loan.isPaidOff() ? "Paid off" : "Open"); break;
+			case POSTED_AT: out.write(PAYMENT_DATE.format(payment.getPostedAt())); break;
+			case REFERENCE: escape(payment.getReference(), out); break;
+			case AMOUNT: amount(payment.getAmountCents(), out); break;
+		}
+	}
+
+	// whole cents as $1,234.56
+	static void amount(long cents, Writer out) throws IOException {
+		if (cents < 0) {
+			out.write('-');
+		}
+		out.write('$');
+		long magnitude = Math.abs(cents);
+		String dollars = Long.toString(magnitude / 100);
+		int lead = dollars.length() % 3 == 0 ? 3 : dollars.length() % 3;
+		out.write(dollars, 0, lead);
+		for (int i = lead; i < dollars.length(); i += 3) {
+			out.write(',');
+			out.write(dollars, i, 3);
+		}
+		int fraction = (int) (magnitude % 100);
+		out.write('.');
+		out.write('0' + fraction / 10);
+		out.write('0' + fraction % 10);
+	}
+
+	// null renders as nothing
+	static void escape(String value, Writer out) throws IOException {
+		if (value == null) {
+			return;
+		}
+		int start = 0;
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			String replacement;
+			switch (value.charAt(i)) {
+				case '&': replacement = "&amp;"; break;
+				case '<': replacement = "&lt;"; break;
+				case '>': replacement = "&gt;"; break;
+				case '"': replacement = "&quot;"; break;
+				case '\'': replacement = "&#39;"; break;
+				default: continue;
+			}
+			out.write(value, start, i - start);
+			out.write(replacement);
+			start = i + 1;
+		}
+		out.write(value, start, length - start);
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.vehicleinventory.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.context.ApplicationEvent;
+
+import com.vehicleinventory.dao.PriceChange;
+import com.vehicleinventory.entity.Vehicle;
+
+// published by VehicleServiceImp after every vehicle write so in-process views of the Cars table can patch themselves
+public class VehicleChangeEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	public enum ChangeType { SAVED, DELETED, REPRICED }
+	
+	private final ChangeType changeType;
+	private final List<Vehicle> vehicles;
+	private final List<String> vins;
+	private final long[] prices;
+	
+	private VehicleChangeEvent(Object source, ChangeType changeType, List<Vehicle> vehicles, List<String> vins, long[] prices) {
+		super(source);
+		this.changeType = changeType;
+		this.vehicles = vehicles;
+		this.vins = vins;
+		this.prices = prices;
+	}
+	
+	public static VehicleChangeEvent saved(Object source, Vehicle car) {
+		return new VehicleChangeEvent(source, ChangeType.SAVED, Collections.singletonList(car), 
+				Collections.singletonList(car.getVehicleIdNumber()), null);
+	}
+	
+	public static VehicleChangeEvent deleted(Object source, String vin) {
+		return new VehicleChangeEvent(source, ChangeType.DELETED, Collections.emptyList(), Collections.singletonList(vin), null);
+	}
+	
+	// only the price column changed, listeners patch just the touched vins
+	public static VehicleChangeEvent repriced(Object source, List<PriceChange> changes) {
+		List<String> vins = new ArrayList<>(changes.size());
+		long[] prices = new long[changes.size()];
+		for (int i = 0; i < prices.length; i++) {
+			vins.add(changes.get(i).getVehicleIdNumber());
+			prices[i] = changes.get(i).getNewPriceCents();
+		}
+		return new VehicleChangeEvent(source, ChangeType.REPRICED, Collections.emptyList(), vins, prices);
+	}
+
+	public ChangeType getChangeType() {
+		return changeType;
+	}
+
+	// the saved state of each vehicle, empty for deletes
+	public List<Vehicle> getVehicles() {
+		return vehicles;
+	}
+
+	public List<String> getVins() {
+		return vins;
+	}
+
+	// new price of each vin in whole cents for REPRICED events, null otherwise
+	public long[] getPriceCents() {
+		return prices;
+	}
+
+}
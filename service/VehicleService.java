@@ -1,15 +1,26 @@
 package com.vehicleinventory.service;
 
+import java.util.Collection;
 import java.util.List;
 
+import com.vehicleinventory.dao.CustomerListQuery;
+import com.vehicleinventory.dao.FinanceListQuery;
+import com.vehicleinventory.dao.FinancePortfolio;
+import com.vehicleinventory.dao.Page;
+import com.vehicleinventory.dao.VehicleListQuery;
 import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.FinanceRecord;
 import com.vehicleinventory.entity.Vehicle;
 
 public interface VehicleService {
 
 	List<Vehicle> getVehicles();
 	
+	Page<Vehicle> getVehicles(VehicleListQuery listQuery);
+	
 	Vehicle getVehicle(String vin);
+	
+	List<Vehicle> getVehicles(Collection<String> vins);
 
 	void saveVehicle(Vehicle car);
 	
@@ -17,10 +28,40 @@ public interface VehicleService {
 	
 	List<CustomerAccount> getCustomerAccounts();
 	
+	Page<CustomerAccount> getCustomerAccounts(CustomerListQuery listQuery);
+	
 	CustomerAccount getCustomerAccount(int id);
+	
+	List<CustomerAccount> getCustomerAccounts(Collection<Integer> ids);
+	
+	CustomerAccount getCustomerAccountByUsername(String username);
+	
+	boolean isUsernameTaken(CustomerAccount account);
+	
+	// stores a new hash without touching the rest of the account, used to upgrade hashes on login
+	void updatePasswordHash(int id, String passwordHash);
 
 	void saveCustomerAccount(CustomerAccount account);
 	
 	void deleteCustomerAccount(int id);
+	
+	Page<FinanceRecord> getFinanceRecords(FinanceListQuery listQuery);
+	
+	// the finance views below return records with customer and vehicle loaded, for use outside the transaction
+	List<FinanceRecord> getFinanceRecords();
+	
+	List<FinanceRecord> getVehicleFinanceRecord(String vin);
+	
+	List<FinanceRecord> getSingleCustomerFinancedVehicles(int customerId);
+	
+	void saveFinanceRecord(FinanceRecord record);
+	
+	// with its customer account loaded, for use outside the transaction
+	FinanceRecord getFinanceRecord(int id);
+	
+	FinancePortfolio getFinancePortfolio();
+	
+	// counter advanced by every vehicle and customer write of the current lot (the default lot when none is set), see WatermarkDAOImp
+	long getInventoryWatermark();
 
 }
@@ -1,16 +1,38 @@
 package com.vehicleinventory.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import javax.transaction.Transactional;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.vehicleinventory.dao.AgingBuckets;
 import com.vehicleinventory.dao.CustomerAccountDAO;
+import com.vehicleinventory.dao.CustomerListQuery;
+import com.vehicleinventory.dao.FinanceListQuery;
+import com.vehicleinventory.dao.FinancePortfolio;
 import com.vehicleinventory.dao.FinanceRecordDAO;
+import com.vehicleinventory.dao.Page;
+import com.vehicleinventory.dao.StatusTransition;
 import com.vehicleinventory.dao.VehicleDAO;
+import com.vehicleinventory.dao.VehicleListQuery;
+import com.vehicleinventory.dao.VehicleStatusDAO;
+import com.vehicleinventory.dao.WatermarkDAO;
 import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.FinanceRecord;
 import com.vehicleinventory.entity.Vehicle;
+import com.vehicleinventory.entity.VehicleStatus;
+import com.vehicleinventory.tenant.TenantContext;
 
 @Service
 public class VehicleServiceImp implements VehicleService{
@@ -21,6 +43,16 @@ public class VehicleServiceImp implements VehicleService{
 	CustomerAccountDAO customerAccountDAO;
 	@Autowired
 	FinanceRecordDAO financeRecordDAO;
+	@Autowired
+	WatermarkDAO watermarkDAO;
+	@Autowired
+	VehicleStatusDAO vehicleStatusDAO;
+	@Autowired
+	PasswordHasher passwordHasher;
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+	@Autowired
+	PlatformTransactionManager transactionManager;
 	
 	// ----------------------------------------------------------------------------------- >
 	@Override
@@ -28,6 +60,12 @@ public class VehicleServiceImp implements VehicleService{
 	public List<Vehicle> getVehicles(){
 		return vehicleDAO.getVehicles();
 	}
+	
+	@Override
+	@Transactional
+	public Page<Vehicle> getVehicles(VehicleListQuery listQuery) {
+		return vehicleDAO.getVehicles(listQuery);
+	}
 
 	@Override
 	@Transactional
@@ -35,17 +73,44 @@ public class VehicleServiceImp implements VehicleService{
 		return vehicleDAO.getVehicle(vin);
 	}
 	
+	@Override
+	@Transactional
+	public List<Vehicle> getVehicles(Collection<String> vins) {
+		return vehicleDAO.getVehicles(vins);
+	}
+	
 	@Override
 	@Transactional
 	public void saveVehicle(Vehicle car) {
+		boolean acquired = !vehicleDAO.exists(car.getVehicleIdNumber());
+		// only a new vehicle gets a date, dateAcquired is not updatable and a vehicle from before V3 stays without one
+		if (acquired && car.getDateAcquired() == null) {
+			car.setDateAcquired(LocalDate.now());
+		}
 		vehicleDAO.saveVehicle(car);
+		if (acquired) {
+			String vin = car.getVehicleIdNumber();
+			vehicleStatusDAO.append(Arrays.asList(
+					new StatusTransition(vin, car.getLotId(), VehicleStatus.ACQUIRED, car.getDateAcquired().atStartOfDay(), car.getPrice()),
+					new StatusTransition(vin, car.getLotId(), VehicleStatus.LISTED, LocalDateTime.now(), car.getPrice())));
+		}
+		eventPublisher.publishEvent(VehicleChangeEvent.saved(this, car));
 	}
 	
 
 	@Override
 	@Transactional
 	public void deleteVehicle(String vin) {
+		// a vehicle leaves the lot by being sold, its history and the sale rollup outlive the Cars row
+		Vehicle car = vehicleDAO.getVehicle(vin);
 		vehicleDAO.deleteVehicle(vin);
+		if (car != null) {
+			LocalDate today = LocalDate.now();
+			long daysOnLot = car.getDateAcquired() == null ? AgingBuckets.UNKNOWN_DAYS : Math.max(0, ChronoUnit.DAYS.between(car.getDateAcquired(), today));
+			vehicleStatusDAO.append(Collections.singletonList(new StatusTransition(vin, car.getLotId(), VehicleStatus.SOLD, LocalDateTime.now(), car.getPrice())));
+			vehicleStatusDAO.recordSale(today, car.getLotId(), car.getMake(), car.getModel(), daysOnLot);
+			eventPublisher.publishEvent(VehicleChangeEvent.deleted(this, vin));
+		}
 	}
 	
 	// ----------------------------------------------------------------------------------- >
@@ -54,27 +119,126 @@ public class VehicleServiceImp implements VehicleService{
 	public List<CustomerAccount> getCustomerAccounts() {
 		return customerAccountDAO.getCustomerAccounts();
 	}
+	
+	@Override
+	@Transactional
+	public Page<CustomerAccount> getCustomerAccounts(CustomerListQuery listQuery) {
+		return customerAccountDAO.getCustomerAccounts(listQuery);
+	}
 
 	@Override
 	@Transactional
 	public CustomerAccount getCustomerAccount(int id) {
 		return customerAccountDAO.getCustomerAccount(id);
 	}
-
+	
 	@Override
 	@Transactional
+	public List<CustomerAccount> getCustomerAccounts(Collection<Integer> ids) {
+		return customerAccountDAO.getCustomerAccounts(ids);
+	}
+
+	// not @Transactional: the PBKDF2 hash of a new password is the slow part and is worked out before the transaction
+	// starts, so no connection is held while hashing (as in CustomerAuthServiceImp.login)
+	@Override
 	public void saveCustomerAccount(CustomerAccount account) {
-		customerAccountDAO.saveCustomerAccount(account);
-		
+		// the forms never carry the stored hash, a blank newPassword keeps the current one
+		String newPassword = account.getNewPassword();
+		String newHash = newPassword != null && !newPassword.isEmpty() ? passwordHasher.hash(newPassword) : null;
+		new TransactionTemplate(transactionManager).execute(status -> {
+			if (newHash != null) {
+				account.setPassword(newHash);
+			} else if (account.getCustomerId() != 0) {
+				account.setPassword(customerAccountDAO.getPasswordHash(account.getCustomerId()));
+			}
+			customerAccountDAO.saveCustomerAccount(account);
+			eventPublisher.publishEvent(CustomerChangeEvent.saved(this, account));
+			return null;
+		});
+	}
+
+	@Override
+	@Transactional
+	public CustomerAccount getCustomerAccountByUsername(String username) {
+		return customerAccountDAO.getCustomerAccountByUsername(username);
+	}
+	
+	@Override
+	@Transactional
+	public boolean isUsernameTaken(CustomerAccount account) {
+		return customerAccountDAO.isUsernameTaken(account);
+	}
+	
+	@Override
+	@Transactional
+	public void updatePasswordHash(int id, String passwordHash) {
+		customerAccountDAO.updatePasswordHash(id, passwordHash);
 	}
 
 	@Override
 	@Transactional
 	public void deleteCustomerAccount(int id) {
 		customerAccountDAO.deleteCustomerAccount(id);
-		
+		eventPublisher.publishEvent(CustomerChangeEvent.deleted(this, id));
 	}
 	
 	// ----------------------------------------------------------------------------------- >
 	
+	@Override
+	@Transactional
+	public Page<FinanceRecord> getFinanceRecords(FinanceListQuery listQuery) {
+		return financeRecordDAO.getFinanceRecords(listQuery);
+	}
+	
+	@Override
+	@Transactional
+	public void saveFinanceRecord(FinanceRecord record) {
+		boolean financed = record.getFinanceId() == 0 && record.getVehicleIdNumber() != null;
+		financeRecordDAO.saveFinanceRecord(record);
+		if (financed) {
+			vehicleStatusDAO.append(Collections.singletonList(new StatusTransition(record.getVehicleIdNumber(), record.getLotId(), VehicleStatus.FINANCED,
+					LocalDateTime.now(), record.getVehiclePrice())));
+		}
+	}
+	
+	@Override
+	@Transactional
+	public List<FinanceRecord> getFinanceRecords() {
+		return financeRecordDAO.getFinanceRecords();
+	}
+	
+	@Override
+	@Transactional
+	public List<FinanceRecord> getVehicleFinanceRecord(String vin) {
+		return financeRecordDAO.getVehicleFinanceRecords(vin);
+	}
+	
+	@Override
+	@Transactional
+	public List<FinanceRecord> getSingleCustomerFinancedVehicles(int customerId) {
+		return customerAccountDAO.getFinancedVehicles(customerId);
+	}
+	
+	@Override
+	@Transactional
+	public FinanceRecord getFinanceRecord(int id) {
+		FinanceRecord record = financeRecordDAO.getFinanceRecord(id);
+		if (record != null) {
+			Hibernate.initialize(record.getCustomerAccount());
+		}
+		return record;
+	}
+	
+	@Override
+	@Transactional
+	public FinancePortfolio getFinancePortfolio() {
+		return financeRecordDAO.getFinancePortfolio();
+	}
+	
+	@Override
+	@Transactional
+	public long getInventoryWatermark() {
+		return watermarkDAO.getWatermark(WatermarkDAO.inventory(TenantContext.getLotIdOrDefault()));
+	}
+	
 }
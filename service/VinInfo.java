@@ -0,0 +1,66 @@
+package com.vehicleinventory.service;
+
+// result of validating and decoding one VIN
+public class VinInfo {
+	
+	private final String vin;
+	private final boolean valid;
+	private final String error;
+	private final String manufacturer;
+	private final String make;
+	private final String model;
+	private final int modelYear;
+	private final char plantCode;
+	
+	VinInfo(String vin, boolean valid, String error, String manufacturer, String make, String model, int modelYear, char plantCode) {
+		this.vin = vin;
+		this.valid = valid;
+		this.error = error;
+		this.manufacturer = manufacturer;
+		this.make = make;
+		this.model = model;
+		this.modelYear = modelYear;
+		this.plantCode = plantCode;
+	}
+	
+	static VinInfo invalid(String vin, String error) {
+		return new VinInfo(vin, false, error, null, null, null, 0, ' ');
+	}
+
+	public String getVin() {
+		return vin;
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	// why the VIN is invalid, null when it is valid
+	public String getError() {
+		return error;
+	}
+
+	// null when the world manufacturer code is not in the bundled table
+	public String getManufacturer() {
+		return manufacturer;
+	}
+
+	public String getMake() {
+		return make;
+	}
+
+	// only known for the VIN prefixes the bundled table lists a model for
+	public String getModel() {
+		return model;
+	}
+
+	// 0 when position 10 is not a year code
+	public int getModelYear() {
+		return modelYear;
+	}
+
+	public char getPlantCode() {
+		return plantCode;
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.vehicleinventory.service;
+
+import java.util.List;
+
+public interface VinService {
+	
+	VinInfo decode(String vin);
+	
+	// decodes every VIN in one pass with no database access, used by bulk imports
+	List<VinInfo> decodeAll(List<String> vins);
+	
+	// the invalid VINs of the batch, empty when all of them pass
+	List<VinInfo> validateAll(List<String> vins);
+
+}
@@ -0,0 +1,96 @@
+package com.vehicleinventory.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Service;
+
+import com.vehicleinventory.entity.VinCheck;
+
+// validates and decodes VINs against the bundled WMI/VDS table (data/vin-wmi.csv), loaded once into a WmiTrie
+@Service
+public class VinServiceImp implements VinService {
+	
+	private static final String WMI_TABLE = "/data/vin-wmi.csv";
+	// WMI is positions 1-3, VDS 4-8, position 9 is the check digit
+	private static final int MAX_PREFIX = 8;
+	
+	private final WmiTrie trie = new WmiTrie();
+	private final List<String[]> entries = new ArrayList<>();
+	
+	@PostConstruct
+	public void loadWmiTable() throws IOException {
+		try (InputStream in = VinServiceImp.class.getResourceAsStream(WMI_TABLE)) {
+			if (in == null) {
+				throw new IllegalStateException("Missing bundled WMI table " + WMI_TABLE);
+			}
+			loadWmiTable(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+		}
+	}
+	
+	// each line is "prefix,manufacturer,make,model" with model left empty for plain WMIs
+	void loadWmiTable(BufferedReader reader) throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] columns = line.split(",", -1);
+			String model = columns.length > 3 && !columns[3].isEmpty() ? columns[3] : null;
+			// models inherit manufacturer/make from their own line, entries are { manufacturer, make, model }
+			trie.put(columns[0], entries.size());
+			entries.add(new String[] { columns[1], columns[2], model });
+		}
+	}
+
+	@Override
+	public VinInfo decode(String vin) {
+		if (vin == null) {
+			return VinInfo.invalid(null, "cannot be blank");
+		}
+		vin = vin.trim().toUpperCase();
+		if (vin.length() != VinCheck.VIN_LENGTH) {
+			return VinInfo.invalid(vin, "must be 17 Characters");
+		}
+		if (!VinCheck.isWellFormed(vin)) {
+			return VinInfo.invalid(vin, "contains characters not allowed in a VIN");
+		}
+		if (VinCheck.requiresCheckDigit(vin) && VinCheck.computeCheckDigit(vin) != vin.charAt(8)) {
+			return VinInfo.invalid(vin, "check digit does not match");
+		}
+		
+		int entry = trie.longestPrefix(vin, MAX_PREFIX);
+		String[] decoded = entry < 0 ? new String[3] : entries.get(entry);
+		return new VinInfo(vin, true, null, decoded[0], decoded[1], decoded[2], VinCheck.modelYear(vin), VinCheck.plantCode(vin));
+	}
+
+	@Override
+	public List<VinInfo> decodeAll(List<String> vins) {
+		List<VinInfo> decoded = new ArrayList<>(vins.size());
+		for (String vin : vins) {
+			decoded.add(decode(vin));
+		}
+		return decoded;
+	}
+
+	@Override
+	public List<VinInfo> validateAll(List<String> vins) {
+		List<VinInfo> invalid = new ArrayList<>();
+		for (String vin : vins) {
+			VinInfo info = decode(vin);
+			if (!info.isValid()) {
+				invalid.add(info);
+			}
+		}
+		return invalid;
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.vehicleinventory.service;
+
+import java.util.Arrays;
+
+// longest-prefix lookup over VIN prefixes (3 character WMIs, longer WMI+VDS prefixes for models)
+// nodes live in one flat int array, ALPHABET slots per node, so a lookup is a few array reads with no allocation
+final class WmiTrie {
+	
+	// VIN characters, I, O and Q are never used
+	private static final String CHARACTERS = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ";
+	private static final int ALPHABET = CHARACTERS.length();
+	private static final byte[] SLOTS = new byte[128];
+	
+	static {
+		Arrays.fill(SLOTS, (byte) -1);
+		for (int i = 0; i < ALPHABET; i++) {
+			SLOTS[CHARACTERS.charAt(i)] = (byte) i;
+		}
+	}
+	
+	// children[node * ALPHABET + slot] is the child node, 0 for none (the root is never a child)
+	private int[] children = new int[ALPHABET * 64];
+	// values[node] is the entry stored at the node, -1 for none
+	private int[] values = new int[64];
+	private int nodes = 1;
+	
+	WmiTrie() {
+		Arrays.fill(values, -1);
+	}
+	
+	void put(String prefix, int entry) {
+		int node = 0;
+		for (int i = 0; i < prefix.length(); i++) {
+			int slot = slot(prefix.charAt(i));
+			if (slot < 0) {
+				throw new IllegalArgumentException("Invalid VIN prefix " + prefix);
+			}
+			int child = children[node * ALPHABET + slot];
+			if (child == 0) {
+				child = newNode();
+				children[node * ALPHABET + slot] = child;
+			}
+			node = child;
+		}
+		values[node] = entry;
+	}
+	
+	private int newNode() {
+		if (nodes == values.length) {
+			int grown = nodes * 2;
+			values = Arrays.copyOf(values, grown);
+			Arrays.fill(values, nodes, grown, -1);
+			children = Arrays.copyOf(children, grown * ALPHABET);
+		}
+		return nodes++;
+	}
+	
+	// entry of the longest stored prefix of the vin, or -1
+	int longestPrefix(String vin, int maxLength) {
+		int node = 0;
+		int found = -1;
+		int length = Math.min(maxLength, vin.length());
+		for (int i = 0; i < length; i++) {
+			int slot = slot(vin.charAt(i));
+			if (slot < 0) {
+				break;
+			}
+			node = children[node * ALPHABET + slot];
+			if (node == 0) {
+				break;
+			}
+			if (values[node] >= 0) {
+				found = values[node];
+			}
+		}
+		return found;
+	}
+	
+	private static int slot(char c) {
+		return c < 128 ? SLOTS[c] : -1;
+	}
+
+}
@@ -0,0 +1,313 @@
+package com.vehicleinventory.sync;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.vehicleinventory.cache.InventorySnapshot;
+import com.vehicleinventory.cache.StringDictionary;
+import com.vehicleinventory.entity.Vehicle;
+
+// compact binary encoding of a vehicle batch for partner inventory sync, served as application/x-vehicle-batch
+//
+// layout:
+//   magic "VBAT", format version byte, varint vehicle count
+//   one dictionary per InventorySnapshot.Attribute: varint size, then each value as varint byte length + UTF-8
+//   one record per vehicle, sorted by VIN:
+//     VIN        varint length shared with the previous VIN, varint suffix length, suffix bytes (ASCII)
+//     year       zigzag varint of year - YEAR_BASE (one byte for 1937-2063)
+//     mileage    zigzag varint
+//     price      zigzag varint of whole cents
+//     attributes varint (dictionary code + 1) per attribute, 0 is a missing value
+// varints are unsigned LEB128, 7 bits per byte, low bits first
+public final class VehicleBatchCodec {
+
+	public static final String MEDIA_TYPE = "application/x-vehicle-batch";
+
+	private static final int MAGIC = 0x56424154; // "VBAT"
+	private static final int FORMAT_VERSION = 1;
+	private static final int YEAR_BASE = 2000;
+	private static final int MAX_STRING_BYTES = 1 << 16;
+
+	private static final InventorySnapshot.Attribute[] ATTRIBUTES = InventorySnapshot.Attribute.values();
+
+	private VehicleBatchCodec() {}
+
+	// ----------------------------------------------------------------------------------- >
+	// encoding, straight from the snapshot columns so no Vehicle objects are built
+
+	public static void encode(InventorySnapshot snapshot, OutputStream stream) throws IOException {
+		int size = snapshot.size();
+		Output out = new Output(stream);
+		out.writeInt(MAGIC);
+		out.writeByte(FORMAT_VERSION);
+		out.writeVarint(size);
+
+		for (InventorySnapshot.Attribute attribute : ATTRIBUTES) {
+			String[] values = snapshot.dictionary(attribute).values();
+			out.writeVarint(values.length);
+			for (String value : values) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				out.writeVarint(bytes.length);
+				out.writeBytes(bytes, 0, bytes.length);
+			}
+		}
+
+		byte[] previous = new byte[0];
+		for (int row : rowsByVin(snapshot)) {
+			byte[] vin = snapshot.vin(row).getBytes(StandardCharsets.US_ASCII);
+			int shared = 0;
+			int limit = Math.min(vin.length, previous.length);
+			while (shared < limit && vin[shared] == previous[shared]) {
+				shared++;
+			}
+			out.writeVarint(shared);
+			out.writeVarint(vin.length - shared);
+			out.writeBytes(vin, shared, vin.length - shared);
+			previous = vin;
+
+			out.writeVarint(zigzag(snapshot.year(row) - YEAR_BASE));
+			out.writeVarint(zigzag(snapshot.mileage(row)));
+			out.writeVarint(zigzag(snapshot.priceCents(row)));
+			for (InventorySnapshot.Attribute attribute : ATTRIBUTES) {
+				out.writeVarint(snapshot.code(attribute, row) + 1);
+			}
+		}
+		out.flush();
+	}
+
+	private static int[] rowsByVin(InventorySnapshot snapshot) {
+		Integer[] rows = new Integer[snapshot.size()];
+		for (int row = 0; row < rows.length; row++) {
+			rows[row] = row;
+		}
+		Arrays.sort(rows, (a, b) -> snapshot.vin(a).compareTo(snapshot.vin(b)));
+
+		int[] sorted = new int[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			sorted[i] = rows[i];
+		}
+		return sorted;
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// decoding, for partners and the benchmark; vehicles come back in VIN order
+
+	public static List<Vehicle> decode(InputStream stream) throws IOException {
+		Input in = new Input(stream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a vehicle batch");
+		}
+		int version = in.readByte();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported vehicle batch version " + version);
+		}
+		int size = in.readLength(Integer.MAX_VALUE);
+
+		StringDictionary[] dictionaries = new StringDictionary[ATTRIBUTES.length];
+		for (int a = 0; a < dictionaries.length; a++) {
+			String[] values = new String[in.readLength(Integer.MAX_VALUE)];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = in.readString(in.readLength(MAX_STRING_BYTES), StandardCharsets.UTF_8);
+			}
+			dictionaries[a] = StringDictionary.of(values);
+		}
+
+		List<Vehicle> vehicles = new ArrayList<>(Math.min(size, 1 << 20));
+		byte[] vin = new byte[32];
+		String[] attributes = new String[ATTRIBUTES.length];
+		for (int i = 0; i < size; i++) {
+			int shared = in.readLength(vin.length);
+			int suffix = in.readLength(MAX_STRING_BYTES);
+			if (shared + suffix > vin.length) {
+				vin = Arrays.copyOf(vin, shared + suffix);
+			}
+			in.readBytes(vin, shared, suffix);
+			String vinValue = new String(vin, 0, shared + suffix, StandardCharsets.US_ASCII);
+
+			int year = (int) unzigzag(in.readVarint()) + YEAR_BASE;
+			int mileage = (int) unzigzag(in.readVarint());
+			long price = unzigzag(in.readVarint());
+			for (int a = 0; a < ATTRIBUTES.length; a++) {
+				int code = in.readLength(dictionaries[a].size() + 1) - 1;
+				attributes[a] = dictionaries[a].value(code);
+			}
+
+			vehicles.add(toVehicle(vinValue, year, mileage, price, attributes));
+		}
+		return vehicles;
+	}
+
+	// the snapshot values are already upper case, the upper-casing setters are only called for values that are present
+	private static Vehicle toVehicle(String vin, int year, int mileage, long price, String[] attributes) {
+		Vehicle car = new Vehicle(vin);
+		car.setYear(year);
+		car.setMileage(mileage);
+		car.setPriceCents(price);
+		String make = attributes[InventorySnapshot.Attribute.MAKE.ordinal()];
+		String model = attributes[InventorySnapshot.Attribute.MODEL.ordinal()];
+		String exteriorColor = attributes[InventorySnapshot.Attribute.EXTERIOR_COLOR.ordinal()];
+		String interiorColor = attributes[InventorySnapshot.Attribute.INTERIOR_COLOR.ordinal()];
+		if (make != null) {
+			car.setMake(make);
+		}
+		if (model != null) {
+			car.setModel(model);
+		}
+		if (exteriorColor != null) {
+			car.setExteriorColor(exteriorColor);
+		}
+		if (interiorColor != null) {
+			car.setInteriorColor(interiorColor);
+		}
+		car.setCondition(attributes[InventorySnapshot.Attribute.CONDITION.ordinal()]);
+		car.setTitleStatus(attributes[InventorySnapshot.Attribute.TITLE_STATUS.ordinal()]);
+		car.setDrivetrainType(attributes[InventorySnapshot.Attribute.DRIVETRAIN.ordinal()]);
+		car.setTransmissionType(attributes[InventorySnapshot.Attribute.TRANSMISSION.ordinal()]);
+		car.setFuelType(attributes[InventorySnapshot.Attribute.FUEL.ordinal()]);
+		return car;
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// buffered byte I/O, one array copy per 8kb instead of a stream call per varint byte
+
+	private static final class Output {
+		private final OutputStream stream;
+		private final byte[] buffer = new byte[8192];
+		private int position;
+
+		Output(OutputStream stream) {
+			this.stream = stream;
+		}
+
+		void writeByte(int value) throws IOException {
+			if (position == buffer.length) {
+				drain();
+			}
+			buffer[position++] = (byte) value;
+		}
+
+		void writeInt(int value) throws IOException {
+			writeByte(value >>> 24);
+			writeByte(value >>> 16);
+			writeByte(value >>> 8);
+			writeByte(value);
+		}
+
+		void writeVarint(long value) throws IOException {
+			if (buffer.length - position < 10) {
+				drain();
+			}
+			while ((value & ~0x7FL) != 0) {
+				buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[position++] = (byte) value;
+		}
+
+		void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+			if (length > buffer.length - position) {
+				drain();
+				if (length > buffer.length) {
+					stream.write(bytes, offset, length);
+					return;
+				}
+			}
+			System.arraycopy(bytes, offset, buffer, position, length);
+			position += length;
+		}
+
+		private void drain() throws IOException {
+			stream.write(buffer, 0, position);
+			position = 0;
+		}
+
+		void flush() throws IOException {
+			drain();
+			stream.flush();
+		}
+	}
+
+	private static final class Input {
+		private final InputStream stream;
+		private final byte[] buffer = new byte[8192];
+		private int position;
+		private int limit;
+
+		Input(InputStream stream) {
+			this.stream = stream;
+		}
+
+		int readByte() throws IOException {
+			if (position == limit) {
+				limit = stream.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					throw new EOFException("Truncated vehicle batch");
+				}
+			}
+			return buffer[position++] & 0xFF;
+		}
+
+		int readInt() throws IOException {
+			return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+		}
+
+		long readVarint() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed varint in vehicle batch");
+		}
+
+		// a non-negative varint no greater than max, guards array sizes against corrupt input
+		int readLength(int max) throws IOException {
+			long value = readVarint();
+			if (value < 0 || value > max) {
+				throw new IOException("Length " + value + " out of range in vehicle batch");
+			}
+			return (int) value;
+		}
+
+		void readBytes(byte[] target, int offset, int length) throws IOException {
+			while (length > 0) {
+				if (position == limit) {
+					readByte();
+					position--;
+				}
+				int chunk = Math.min(length, limit - position);
+				System.arraycopy(buffer, position, target, offset, chunk);
+				position += chunk;
+				offset += chunk;
+				length -= chunk;
+			}
+		}
+
+		String readString(int length, Charset charset) throws IOException {
+			byte[] bytes = new byte[length];
+			readBytes(bytes, 0, length);
+			return new String(bytes, charset);
+		}
+	}
+
+}
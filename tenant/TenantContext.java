@@ -0,0 +1,75 @@
+package com.vehicleinventory.tenant;
+
+import java.util.function.Supplier;
+
+// the dealership lot the current thread is working for, set per request by TenantInterceptor
+//
+// no lot (null) means every lot: startup work and background jobs run that way unless they pick a lot with callAs.
+// DAOs read it through TenantSessions, caches through InventorySnapshotHolder
+public final class TenantContext {
+
+	// the lot every row that predates lots was migrated into (V7), and the lot of requests that name none
+	public static final int DEFAULT_LOT_ID = 1;
+
+	private static final ThreadLocal<Integer> LOT = new ThreadLocal<>();
+
+	private TenantContext() {}
+
+	public static Integer getLotId() {
+		return LOT.get();
+	}
+
+	// lot new rows are written to
+	public static int getLotIdOrDefault() {
+		Integer lotId = LOT.get();
+		return lotId == null ? DEFAULT_LOT_ID : lotId;
+	}
+
+	// whether a row of the given lot is visible to the current thread
+	public static boolean canSee(int lotId) {
+		Integer current = LOT.get();
+		return current == null || current == lotId;
+	}
+
+	public static void setLotId(Integer lotId) {
+		if (lotId == null) {
+			LOT.remove();
+		} else {
+			LOT.set(lotId);
+		}
+	}
+
+	public static void clear() {
+		LOT.remove();
+	}
+
+	// runs work as the given lot and restores whatever lot the thread had before
+	public static <T> T callAs(int lotId, Supplier<T> work) {
+		Integer previous = LOT.get();
+		LOT.set(lotId);
+		try {
+			return work.get();
+		} finally {
+			setLotId(previous);
+		}
+	}
+
+	public static void runAs(int lotId, Runnable work) {
+		callAs(lotId, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	// runs work across every lot, for requests that act for the whole deployment
+	public static void runAsAllLots(Runnable work) {
+		Integer previous = LOT.get();
+		LOT.remove();
+		try {
+			work.run();
+		} finally {
+			setLotId(previous);
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.vehicleinventory.tenant;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// picks the lot of each request: the X-Lot-Id header (API and sync clients), then a ?lot= parameter, which is also
+// remembered in the LOT cookie so the JSP pages stay on the chosen lot, then that cookie, then the default lot
+//
+// the lot is what the client asks for and is NOT a security boundary: the staff pages, /api and /sync have no
+// authenticated user to check it against, so anyone who can reach them can read and write every lot by sending
+// another header, parameter or cookie. the lot filter keeps one lot's screens and jobs from mixing in another's
+// rows, it does not keep a caller out. a deployment whose lots must not see each other has to authenticate staff
+// in front of the application (reverse proxy or SSO gateway) and have it set X-Lot-Id itself, dropping any value
+// the client sent, as well as the lot parameter and cookie. the customer portal is the exception: a
+// customer only ever sees the account behind their login token, whatever lot is selected
+@Component
+public class TenantInterceptor implements HandlerInterceptor {
+
+	static final String HEADER = "X-Lot-Id";
+	static final String PARAMETER = "lot";
+	static final String COOKIE = "LOT";
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+		String lot = request.getHeader(HEADER);
+		if (lot == null) {
+			lot = request.getParameter(PARAMETER);
+			if (lot != null && parse(lot) != null) {
+				Cookie cookie = new Cookie(COOKIE, lot);
+				cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+				cookie.setHttpOnly(true);
+				response.addCookie(cookie);
+			}
+		}
+		if (lot == null) {
+			lot = cookie(request);
+		}
+
+		Integer lotId = lot == null ? Integer.valueOf(TenantContext.DEFAULT_LOT_ID) : parse(lot);
+		if (lotId == null) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid lot " + lot);
+			return false;
+		}
+		TenantContext.setLotId(lotId);
+		return true;
+	}
+
+	// runs after the view has rendered, so streamed rows and after-commit listeners still see the lot
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		TenantContext.clear();
+	}
+
+	private static String cookie(HttpServletRequest request) {
+		Cookie[] cookies = request.getCookies();
+		if (cookies != null) {
+			for (Cookie cookie : cookies) {
+				if (COOKIE.equals(cookie.getName())) {
+					return cookie.getValue();
+				}
+			}
+		}
+		return null;
+	}
+
+	private static Integer parse(String lot) {
+		try {
+			int lotId = Integer.parseInt(lot.trim());
+			return lotId > 0 ? lotId : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.vehicleinventory.tenant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// puts every request under TenantInterceptor
+@Configuration
+public class TenantWebConfig implements WebMvcConfigurer {
+
+	@Autowired
+	TenantInterceptor tenantInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(tenantInterceptor);
+	}
+
+}
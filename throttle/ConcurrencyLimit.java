@@ -0,0 +1,43 @@
+package com.vehicleinventory.throttle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// at most max requests inside at once, a compare-and-set on the count, 0 or less means no limit
+final class ConcurrencyLimit {
+
+	private final int max;
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	ConcurrencyLimit(int max) {
+		this.max = max;
+	}
+
+	boolean tryEnter() {
+		if (max <= 0) {
+			inFlight.incrementAndGet();
+			return true;
+		}
+		while (true) {
+			int current = inFlight.get();
+			if (current >= max) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	void exit() {
+		inFlight.decrementAndGet();
+	}
+
+	int getMax() {
+		return max;
+	}
+
+	int getInFlight() {
+		return inFlight.get();
+	}
+
+}
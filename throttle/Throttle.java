@@ -0,0 +1,198 @@
+package com.vehicleinventory.throttle;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vehicleinventory.throttle.Throttled.Kind;
+
+// request admission: a token bucket per client over every endpoint, one per client and @Throttled endpoint, and a
+// concurrency cap per kind of @Throttled endpoint shared by all clients
+//
+// a client over its rate is refused (429) before it reaches the cap, so one client hammering /inventory/listAll spends
+// its own budget and the cap only sheds (503) when many clients together would crowd out the database
+// buckets, caps and counters are atomics and LongAdders, nothing on the request path takes a lock; a rate of 0 turns
+// that bucket off and a cap of 0 turns that cap off. buckets of clients that went quiet are dropped once more than
+// throttle.maxClients are tracked, a full bucket being no different from a new one; when none of them is full the
+// clients not yet tracked share one overflow bucket, so a flood of new addresses cannot grow the map past the bound
+@Component
+public class Throttle {
+
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	@Value("${throttle.client.perSecond:20}")
+	private double clientPerSecond;
+
+	@Value("${throttle.client.burst:40}")
+	private int clientBurst;
+
+	@Value("${throttle.list.perSecond:2}")
+	private double listPerSecond;
+
+	@Value("${throttle.list.burst:10}")
+	private int listBurst;
+
+	@Value("${throttle.list.maxConcurrent:16}")
+	private int listMaxConcurrent;
+
+	@Value("${throttle.export.perSecond:1}")
+	private double exportPerSecond;
+
+	@Value("${throttle.export.burst:10}")
+	private int exportBurst;
+
+	@Value("${throttle.export.maxConcurrent:4}")
+	private int exportMaxConcurrent;
+
+	@Value("${throttle.maxClients:100000}")
+	private int maxClients;
+
+	private Buckets clientBuckets;
+	private final Map<Method, Buckets> endpointBuckets = new ConcurrentHashMap<>();
+	private final Map<Kind, ConcurrencyLimit> limits = new EnumMap<>(Kind.class);
+
+	private final LongAdder admitted = new LongAdder();
+	private final LongAdder clientRateLimited = new LongAdder();
+	private final Map<Kind, LongAdder> admittedByKind = new EnumMap<>(Kind.class);
+	private final Map<Kind, LongAdder> rateLimited = new EnumMap<>(Kind.class);
+	private final Map<Kind, LongAdder> shed = new EnumMap<>(Kind.class);
+
+	@PostConstruct
+	public void init() {
+		clientBuckets = new Buckets(clientPerSecond, clientBurst);
+		limits.put(Kind.LIST, new ConcurrencyLimit(listMaxConcurrent));
+		limits.put(Kind.EXPORT, new ConcurrencyLimit(exportMaxConcurrent));
+		for (Kind kind : Kind.values()) {
+			admittedByKind.put(kind, new LongAdder());
+			rateLimited.put(kind, new LongAdder());
+			shed.put(kind, new LongAdder());
+		}
+	}
+
+	// 0 when the client may go on, otherwise the nanoseconds until it may
+	public long admitClient(String client, long now) {
+		long wait = clientBuckets.tryTake(client, now);
+		if (wait > 0) {
+			clientRateLimited.increment();
+		} else {
+			admitted.increment();
+		}
+		return wait;
+	}
+
+	public long admitEndpoint(Method endpoint, Kind kind, String client, long now) {
+		Buckets buckets = endpointBuckets.computeIfAbsent(endpoint, m -> kind == Kind.LIST
+				? new Buckets(listPerSecond, listBurst) : new Buckets(exportPerSecond, exportBurst));
+		long wait = buckets.tryTake(client, now);
+		if (wait > 0) {
+			rateLimited.get(kind).increment();
+		}
+		return wait;
+	}
+
+	// false when the kind is at its cap, a true must be paired with exit
+	public boolean enter(Kind kind) {
+		if (!limits.get(kind).tryEnter()) {
+			shed.get(kind).increment();
+			return false;
+		}
+		admittedByKind.get(kind).increment();
+		return true;
+	}
+
+	public void exit(Kind kind) {
+		limits.get(kind).exit();
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// live counters, totals since startup
+
+	public long getAdmitted() {
+		return admitted.sum();
+	}
+
+	public long getClientRateLimited() {
+		return clientRateLimited.sum();
+	}
+
+	public int getTrackedClients() {
+		return clientBuckets.size();
+	}
+
+	public long getAdmitted(Kind kind) {
+		return admittedByKind.get(kind).sum();
+	}
+
+	public long getRateLimited(Kind kind) {
+		return rateLimited.get(kind).sum();
+	}
+
+	public long getShed(Kind kind) {
+		return shed.get(kind).sum();
+	}
+
+	public int getInFlight(Kind kind) {
+		return limits.get(kind).getInFlight();
+	}
+
+	public int getMaxConcurrent(Kind kind) {
+		return limits.get(kind).getMax();
+	}
+
+	// ----------------------------------------------------------------------------------- >
+
+	// token buckets by client at one rate
+	private final class Buckets {
+		private final long nanosPerToken;
+		private final int burst;
+		private final Map<String, TokenBucket> byClient = new ConcurrentHashMap<>();
+		private final TokenBucket overflow;
+		private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+		Buckets(double perSecond, int burst) {
+			this.nanosPerToken = perSecond > 0 ? Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond)) : 0;
+			this.burst = Math.max(1, burst);
+			this.overflow = new TokenBucket(Math.max(1, nanosPerToken), this.burst, System.nanoTime());
+		}
+
+		long tryTake(String client, long now) {
+			if (nanosPerToken == 0) {
+				return 0;
+			}
+			TokenBucket bucket = byClient.get(client);
+			if (bucket == null) {
+				if (byClient.size() >= maxClients) {
+					sweep(now);
+					if (byClient.size() >= maxClients) {
+						return overflow.tryTake(now);
+					}
+				}
+				bucket = byClient.computeIfAbsent(client, c -> new TokenBucket(nanosPerToken, burst, now));
+			}
+			return bucket.tryTake(now);
+		}
+
+		// one thread sweeps, at most once a second; a bucket dropped just as it is taken from only forgets that token
+		private void sweep(long now) {
+			long due = nextSweep.get();
+			if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+				return;
+			}
+			byClient.values().removeIf(bucket -> bucket.isFull(now));
+		}
+
+		int size() {
+			return byClient.size();
+		}
+	}
+
+}
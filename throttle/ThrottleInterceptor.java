@@ -0,0 +1,116 @@
+package com.vehicleinventory.throttle;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.vehicleinventory.throttle.Throttled.Kind;
+
+// applies Throttle to every controller request: 429 when the client is over its rate, 503 when a @Throttled endpoint's
+// kind is at its cap, both with a Retry-After in seconds
+// the cap is held until afterCompletion, so a list page that streams its rows while the JSP renders keeps its slot
+// until the last row is out
+@Component
+public class ThrottleInterceptor implements HandlerInterceptor {
+
+	static final int SC_TOO_MANY_REQUESTS = 429;
+	private static final String ENTERED = ThrottleInterceptor.class.getName() + ".entered";
+
+	@Autowired
+	Throttle throttle;
+
+	// header naming the client when the nodes sit behind a proxy (X-Forwarded-For), empty uses the remote address
+	@Value("${throttle.clientHeader:}")
+	private String clientHeader;
+
+	// how many proxies we run append to clientHeader; the entry that many from the right is the address our outermost
+	// proxy saw, everything left of it is whatever the client chose to send
+	@Value("${throttle.trustedProxies:1}")
+	private int trustedProxies;
+
+	@Value("${throttle.shedRetryAfterSeconds:1}")
+	private int shedRetryAfterSeconds;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+		if (!(handler instanceof HandlerMethod)) {
+			return true;
+		}
+		String client = client(request);
+		long now = System.nanoTime();
+		long wait = throttle.admitClient(client, now);
+		if (wait > 0) {
+			reject(response, SC_TOO_MANY_REQUESTS, seconds(wait), "Too many requests");
+			return false;
+		}
+
+		HandlerMethod method = (HandlerMethod) handler;
+		Throttled throttled = method.getMethodAnnotation(Throttled.class);
+		if (throttled == null) {
+			return true;
+		}
+		Kind kind = throttled.value();
+		wait = throttle.admitEndpoint(method.getMethod(), kind, client, now);
+		if (wait > 0) {
+			reject(response, SC_TOO_MANY_REQUESTS, seconds(wait), "Too many requests for this page");
+			return false;
+		}
+		if (!throttle.enter(kind)) {
+			reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, shedRetryAfterSeconds, "Server busy, try again shortly");
+			return false;
+		}
+		request.setAttribute(ENTERED, kind);
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		Kind kind = (Kind) request.getAttribute(ENTERED);
+		if (kind != null) {
+			request.removeAttribute(ENTERED);
+			throttle.exit(kind);
+		}
+	}
+
+	private String client(HttpServletRequest request) {
+		if (!clientHeader.isEmpty()) {
+			String forwarded = request.getHeader(clientHeader);
+			if (forwarded != null && !forwarded.isEmpty()) {
+				return forwardedClient(forwarded, trustedProxies);
+			}
+		}
+		return request.getRemoteAddr();
+	}
+
+	// the entry hops from the right, or the leftmost when the list is shorter than that
+	static String forwardedClient(String forwarded, int hops) {
+		int end = forwarded.length();
+		for (int hop = 1; hop < hops; hop++) {
+			int comma = forwarded.lastIndexOf(',', end - 1);
+			if (comma < 0) {
+				break;
+			}
+			end = comma;
+		}
+		int start = forwarded.lastIndexOf(',', end - 1) + 1;
+		return forwarded.substring(start, end).trim();
+	}
+
+	private static long seconds(long nanos) {
+		return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+	}
+
+	private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String message) throws IOException {
+		response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+		response.sendError(status, message);
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.vehicleinventory.throttle;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.vehicleinventory.cache.HttpInvalidationBus;
+
+// puts every request but the invalidations other nodes send under ThrottleInterceptor
+@Configuration
+public class ThrottleWebConfig implements WebMvcConfigurer {
+
+	@Autowired
+	ThrottleInterceptor throttleInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(throttleInterceptor).excludePathPatterns(HttpInvalidationBus.PATH);
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.vehicleinventory.throttle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// marks an endpoint that loads or streams whole tables; each client gets its own token bucket for it and all endpoints
+// of a kind share one concurrency cap, see Throttle
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Throttled {
+
+	Kind value();
+
+	enum Kind {
+		// list pages and API collections, a page or a full table read per request
+		LIST,
+		// snapshot syncs and the change feed, the whole inventory or a large batch streamed out
+		EXPORT
+	}
+
+}
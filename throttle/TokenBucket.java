@@ -0,0 +1,42 @@
+package com.vehicleinventory.throttle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// a token bucket held in one AtomicLong, taken from with a compare-and-set and never locked
+//
+// instead of a token count the bucket stores the nanoTime at which it will be full again: taking a token pushes that
+// time one refill interval further out, and a take that would push it more than burst intervals past now is refused.
+// this is the same admission as counting tokens, without a separate last-refill time to keep consistent
+final class TokenBucket {
+
+	private final long nanosPerToken;
+	private final long burstNanos;
+	private final AtomicLong fullAt;
+
+	TokenBucket(long nanosPerToken, int burst, long now) {
+		this.nanosPerToken = nanosPerToken;
+		this.burstNanos = nanosPerToken * burst;
+		this.fullAt = new AtomicLong(now);
+	}
+
+	// 0 when a token was taken, otherwise the nanoseconds until one will be there
+	long tryTake(long now) {
+		while (true) {
+			long current = fullAt.get();
+			long next = (current - now > 0 ? current : now) + nanosPerToken;
+			long wait = next - now - burstNanos;
+			if (wait > 0) {
+				return wait;
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+	// a full bucket is the same as a new one and can be dropped
+	boolean isFull(long now) {
+		return fullAt.get() - now <= 0;
+	}
+
+}
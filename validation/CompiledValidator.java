@@ -0,0 +1,444 @@
+package com.vehicleinventory.validation;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+// the Bean Validation field constraints of one class, compiled once into an array of checks
+//
+// compiling reads the annotations and turns each constrained field into a method handle typed to its primitive
+// (int and long fields are read as long, float and double as double, anything else as Object), so validating a bean
+// is a loop over the checks with no reflection, no metadata lookups and nothing allocated unless a check fails.
+// @NotNull, @Size, @Min, @Max, @DecimalMin, @DecimalMax and custom constraints (like @ValidVin) are compiled; null
+// passes every constraint but @NotNull, as in Bean Validation. messages are the annotation's own, so they match
+// what Bean Validation reports as long as they contain no {placeholders}
+// a field with any other constraint (@Email), with a templated message or in a non-default group is handed to the
+// regular Validator instead, one validateProperty call per bean for just that field
+public final class CompiledValidator<T> {
+
+	// receives each failed constraint, code is the annotation's simple name as Spring expects for error codes
+	public interface ViolationSink {
+		void violation(String field, String code, String message);
+	}
+
+	private final Class<T> type;
+	private final Check[] checks;
+
+	private CompiledValidator(Class<T> type, Check[] checks) {
+		this.type = type;
+		this.checks = checks;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	// returns the number of failed constraints, each one is passed to sink
+	public int validate(T bean, ViolationSink sink) {
+		int failed = 0;
+		for (Check check : checks) {
+			failed += check.check(bean, sink);
+		}
+		return failed;
+	}
+
+	public List<FieldViolation> validate(T bean) {
+		List<FieldViolation> violations = new ArrayList<>(0);
+		validate(bean, (field, code, message) -> violations.add(new FieldViolation(field, code, message)));
+		return violations;
+	}
+
+	public boolean isValid(T bean) {
+		for (Check check : checks) {
+			if (check.check(bean, null) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// compiling
+
+	private static final MethodType LONG_GETTER = MethodType.methodType(long.class, Object.class);
+	private static final MethodType DOUBLE_GETTER = MethodType.methodType(double.class, Object.class);
+	private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+	// fallback is only asked for a Validator if some field cannot be compiled
+	public static <T> CompiledValidator<T> compile(Class<T> type, Supplier<Validator> fallback) {
+		List<Check> checks = new ArrayList<>();
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			hierarchy.add(0, c);
+		}
+		for (Class<?> declaring : hierarchy) {
+			for (Field field : declaring.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				List<Annotation> constraints = constraints(field);
+				if (constraints.isEmpty()) {
+					continue;
+				}
+				if (!compilable(constraints)) {
+					checks.add(new DelegatedCheck(field.getName(), fallback));
+					continue;
+				}
+				for (Annotation constraint : constraints) {
+					Check check = compile(field, constraint);
+					if (check != null) {
+						checks.add(check);
+					}
+				}
+			}
+		}
+		return new CompiledValidator<>(type, checks.toArray(new Check[0]));
+	}
+
+	private static List<Annotation> constraints(Field field) {
+		List<Annotation> constraints = new ArrayList<>();
+		for (Annotation annotation : field.getDeclaredAnnotations()) {
+			if (annotation.annotationType().isAnnotationPresent(Constraint.class)) {
+				constraints.add(annotation);
+			}
+		}
+		return constraints;
+	}
+
+	private static boolean compilable(List<Annotation> constraints) {
+		for (Annotation constraint : constraints) {
+			Class<? extends Annotation> kind = constraint.annotationType();
+			boolean builtIn = kind == NotNull.class || kind == Size.class || kind == Min.class || kind == Max.class
+					|| kind == DecimalMin.class || kind == DecimalMax.class;
+			boolean custom = !kind.getName().startsWith("javax.validation.")
+					&& kind.getAnnotation(Constraint.class).validatedBy().length == 1;
+			if (!(builtIn || custom)) {
+				return false;
+			}
+			String message = attribute(constraint, "message", String.class);
+			if (message.indexOf('{') >= 0 || attribute(constraint, "groups", Class[].class).length > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// null when the constraint can never fail, like @NotNull on a primitive
+	private static Check compile(Field field, Annotation constraint) {
+		String name = field.getName();
+		String code = constraint.annotationType().getSimpleName();
+		String message = attribute(constraint, "message", String.class);
+		Class<?> fieldType = field.getType();
+
+		if (constraint instanceof NotNull) {
+			return fieldType.isPrimitive() ? null : new NotNullCheck(name, code, message, getter(field, OBJECT_GETTER));
+		}
+		if (constraint instanceof Size) {
+			Size size = (Size) constraint;
+			return new SizeCheck(name, code, message, getter(field, OBJECT_GETTER), size.min(), size.max());
+		}
+		if (constraint instanceof Min) {
+			return range(field, name, code, message, BigDecimal.valueOf(((Min) constraint).value()), true, true);
+		}
+		if (constraint instanceof Max) {
+			return range(field, name, code, message, BigDecimal.valueOf(((Max) constraint).value()), false, true);
+		}
+		if (constraint instanceof DecimalMin) {
+			DecimalMin min = (DecimalMin) constraint;
+			return range(field, name, code, message, new BigDecimal(min.value()), true, min.inclusive());
+		}
+		if (constraint instanceof DecimalMax) {
+			DecimalMax max = (DecimalMax) constraint;
+			return range(field, name, code, message, new BigDecimal(max.value()), false, max.inclusive());
+		}
+		return new CustomCheck(name, code, message, getter(field, OBJECT_GETTER), validator(constraint));
+	}
+
+	private static Check range(Field field, String name, String code, String message, BigDecimal bound, boolean lower, boolean inclusive) {
+		Class<?> fieldType = field.getType();
+		if (fieldType == int.class || fieldType == long.class || fieldType == short.class || fieldType == byte.class) {
+			// an integral field fails a non-inclusive bound exactly when it fails the next whole number inclusively
+			long limit = integralLimit(bound, lower, inclusive);
+			return new LongRangeCheck(name, code, message, getter(field, LONG_GETTER), limit, lower);
+		}
+		if (fieldType == double.class || fieldType == float.class) {
+			return new DoubleRangeCheck(name, code, message, getter(field, DOUBLE_GETTER), bound.doubleValue(), lower, inclusive);
+		}
+		return new NumberRangeCheck(name, code, message, getter(field, OBJECT_GETTER), bound, lower, inclusive);
+	}
+
+	private static long integralLimit(BigDecimal bound, boolean lower, boolean inclusive) {
+		BigDecimal limit = lower ? bound.setScale(0, RoundingMode.CEILING) : bound.setScale(0, RoundingMode.FLOOR);
+		if (!inclusive && limit.compareTo(bound) == 0) {
+			limit = lower ? limit.add(BigDecimal.ONE) : limit.subtract(BigDecimal.ONE);
+		}
+		return limit.longValueExact();
+	}
+
+	private static MethodHandle getter(Field field, MethodType type) {
+		try {
+			field.setAccessible(true);
+			return MethodHandles.lookup().unreflectGetter(field).asType(type);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Cannot read " + field, e);
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static ConstraintValidator validator(Annotation constraint) {
+		Class<? extends ConstraintValidator<?, ?>> validatorType = constraint.annotationType().getAnnotation(Constraint.class).validatedBy()[0];
+		try {
+			ConstraintValidator validator = validatorType.getDeclaredConstructor().newInstance();
+			validator.initialize(constraint);
+			return validator;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create " + validatorType.getName(), e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A> A attribute(Annotation annotation, String name, Class<A> type) {
+		try {
+			Method attribute = annotation.annotationType().getMethod(name);
+			attribute.setAccessible(true);
+			return (A) attribute.invoke(annotation);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(annotation + " has no " + name, e);
+		}
+	}
+
+	// ----------------------------------------------------------------------------------- >
+	// checks, each returns the number of violations it reported (sink may be null when only validity matters)
+
+	private abstract static class Check {
+		final String field;
+		final String code;
+		final String message;
+
+		Check(String field, String code, String message) {
+			this.field = field;
+			this.code = code;
+			this.message = message;
+		}
+
+		abstract int check(Object bean, ViolationSink sink);
+
+		final int fail(ViolationSink sink) {
+			if (sink != null) {
+				sink.violation(field, code, message);
+			}
+			return 1;
+		}
+
+		static Object read(MethodHandle getter, Object bean) {
+			try {
+				return (Object) getter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static final class NotNullCheck extends Check {
+		private final MethodHandle getter;
+
+		NotNullCheck(String field, String code, String message, MethodHandle getter) {
+			super(field, code, message);
+			this.getter = getter;
+		}
+
+		@Override
+		int check(Object bean, ViolationSink sink) {
+			return read(getter, bean) == null ? fail(sink) : 0;
+		}
+	}
+
+	private static final class SizeCheck extends Check {
+		private final MethodHandle getter;
+		private final int min;
+		private final int max;
+
+		SizeCheck(String field, String code, String message, MethodHandle getter, int min, int max) {
+			super(field, code, message);
+			this.getter = getter;
+			this.min = min;
+			this.max = max;
+		}
+
+		@Override
+		int check(Object bean, ViolationSink sink) {
+			Object value = read(getter, bean);
+			if (value == null) {
+				return 0;
+			}
+			int size;
+			if (value instanceof CharSequence) {
+				size = ((CharSequence) value).length();
+			} else if (value instanceof Collection) {
+				size = ((Collection<?>) value).size();
+			} else if (value instanceof Map) {
+				size = ((Map<?, ?>) value).size();
+			} else {
+				size = java.lang.reflect.Array.getLength(value);
+			}
+			return size < min || size > max ? fail(sink) : 0;
+		}
+	}
+
+	// limit is already inclusive
+	private static final class LongRangeCheck extends Check {
+		private final MethodHandle getter;
+		private final long limit;
+		private final boolean lower;
+
+		LongRangeCheck(String field, String code, String message, MethodHandle getter, long limit, boolean lower) {
+			super(field, code, message);
+			this.getter = getter;
+			this.limit = limit;
+			this.lower = lower;
+		}
+
+		@Override
+		int check(Object bean, ViolationSink sink) {
+			long value;
+			try {
+				value = (long) getter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+			return (lower ? value < limit : value > limit) ? fail(sink) : 0;
+		}
+	}
+
+	// NaN fails either bound, as in Bean Validation
+	private static final class DoubleRangeCheck extends Check {
+		private final MethodHandle getter;
+		private final double bound;
+		private final boolean lower;
+		private final boolean inclusive;
+
+		DoubleRangeCheck(String field, String code, String message, MethodHandle getter, double bound, boolean lower, boolean inclusive) {
+			super(field, code, message);
+			this.getter = getter;
+			this.bound = bound;
+			this.lower = lower;
+			this.inclusive = inclusive;
+		}
+
+		@Override
+		int check(Object bean, ViolationSink sink) {
+			double value;
+			try {
+				value = (double) getter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+			boolean passes = lower ? (inclusive ? value >= bound : value > bound) : (inclusive ? value <= bound : value < bound);
+			return passes ? 0 : fail(sink);
+		}
+	}
+
+	// boxed and BigDecimal/BigInteger fields, null passes
+	private static final class NumberRangeCheck extends Check {
+		private final MethodHandle getter;
+		private final BigDecimal bound;
+		private final boolean lower;
+		private final boolean inclusive;
+
+		NumberRangeCheck(String field, String code, String message, MethodHandle getter, BigDecimal bound, boolean lower, boolean inclusive) {
+			super(field, code, message);
+			this.getter = getter;
+			this.bound = bound;
+			this.lower = lower;
+			this.inclusive = inclusive;
+		}
+
+		@Override
+		int check(Object bean, ViolationSink sink) {
+			Object value = read(getter, bean);
+			if (value == null) {
+				return 0;
+			}
+			int compared;
+			if (value instanceof Double || value instanceof Float) {
+				double number = ((Number) value).doubleValue();
+				if (Double.isNaN(number)) {
+					return fail(sink);
+				}
+				compared = Double.isInfinite(number) ? (number > 0 ? 1 : -1) : BigDecimal.valueOf(number).compareTo(bound);
+			} else if (value instanceof BigDecimal) {
+				compared = ((BigDecimal) value).compareTo(bound);
+			} else {
+				compared = new BigDecimal(value.toString()).compareTo(bound);
+			}
+			boolean passes = lower ? (inclusive ? compared >= 0 : compared > 0) : (inclusive ? compared <= 0 : compared < 0);
+			return passes ? 0 : fail(sink);
+		}
+	}
+
+	// custom constraints run their own ConstraintValidator, created once; they are called without a context,
+	// which the validators in entity never use
+	private static final class CustomCheck extends Check {
+		private final MethodHandle getter;
+		@SuppressWarnings("rawtypes")
+		private final ConstraintValidator validator;
+
+		@SuppressWarnings("rawtypes")
+		CustomCheck(String field, String code, String message, MethodHandle getter, ConstraintValidator validator) {
+			super(field, code, message);
+			this.getter = getter;
+			this.validator = validator;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		int check(Object bean, ViolationSink sink) {
+			return validator.isValid(read(getter, bean), null) ? 0 : fail(sink);
+		}
+	}
+
+	private static final class DelegatedCheck extends Check {
+		private final Supplier<Validator> fallback;
+
+		DelegatedCheck(String field, Supplier<Validator> fallback) {
+			super(field, null, null);
+			this.fallback = fallback;
+		}
+
+		@Override
+		int check(Object bean, ViolationSink sink) {
+			Set<ConstraintViolation<Object>> violations = fallback.get().validateProperty(bean, field);
+			if (sink != null) {
+				for (ConstraintViolation<Object> violation : violations) {
+					sink.violation(field, violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName(),
+							violation.getMessage());
+				}
+			}
+			return violations.size();
+		}
+	}
+
+}
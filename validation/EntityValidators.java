@@ -0,0 +1,94 @@
+package com.vehicleinventory.validation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+
+import com.vehicleinventory.dao.RepricingRule;
+import com.vehicleinventory.entity.CustomerAccount;
+import com.vehicleinventory.entity.FinanceRecord;
+import com.vehicleinventory.entity.Payment;
+import com.vehicleinventory.entity.Vehicle;
+
+// the compiled validators of every form and import type, built once at startup
+//
+// as a Spring Validator it stands in for Bean Validation behind @Valid (see ValidationBinder) and reports the same
+// field errors with the same codes and messages; batch jobs take a CompiledValidator from forType and call it directly
+// the Bean Validation factory is only built if some field has to be handed to it (@Email on CustomerAccount)
+@Component
+public class EntityValidators implements Validator {
+
+	private final Map<Class<?>, CompiledValidator<?>> validators = new HashMap<>();
+	private volatile ValidatorFactory fallbackFactory;
+
+	@PostConstruct
+	public void compile() {
+		register(Vehicle.class);
+		register(CustomerAccount.class);
+		register(FinanceRecord.class);
+		register(Payment.class);
+		register(RepricingRule.class);
+	}
+
+	@PreDestroy
+	public void close() {
+		if (fallbackFactory != null) {
+			fallbackFactory.close();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> CompiledValidator<T> forType(Class<T> type) {
+		CompiledValidator<T> validator = (CompiledValidator<T>) validators.get(type);
+		if (validator == null) {
+			throw new IllegalArgumentException("No compiled validator for " + type.getName());
+		}
+		return validator;
+	}
+
+	@Override
+	public boolean supports(Class<?> type) {
+		return validators.containsKey(type);
+	}
+
+	// a field that already failed to bind keeps only its type mismatch error, as with SpringValidatorAdapter
+	@Override
+	@SuppressWarnings("unchecked")
+	public void validate(Object target, Errors errors) {
+		CompiledValidator<Object> validator = (CompiledValidator<Object>) forType(target.getClass());
+		validator.validate(target, (field, code, message) -> {
+			FieldError existing = errors.getFieldError(field);
+			if (existing == null || !existing.isBindingFailure()) {
+				errors.rejectValue(field, code, message);
+			}
+		});
+	}
+
+	private <T> void register(Class<T> type) {
+		validators.put(type, CompiledValidator.compile(type, this::fallback));
+	}
+
+	private javax.validation.Validator fallback() {
+		ValidatorFactory factory = fallbackFactory;
+		if (factory == null) {
+			synchronized (this) {
+				factory = fallbackFactory;
+				if (factory == null) {
+					factory = Validation.buildDefaultValidatorFactory();
+					fallbackFactory = factory;
+				}
+			}
+		}
+		return factory.getValidator();
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.vehicleinventory.validation;
+
+// one failed constraint on one field, message as Bean Validation would report it
+public class FieldViolation {
+
+	private final String field;
+	private final String code;
+	private final String message;
+
+	public FieldViolation(String field, String code, String message) {
+		this.field = field;
+		this.code = code;
+		this.message = message;
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return field + " " + message;
+	}
+
+}
@@ -1,4 +1,8 @@
 <%@ taglib prefix = "c" uri = "http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix = "fn" uri = "http://java.sun.com/jsp/jstl/functions" %>
+<%-- rows are streamed from the database while this page renders, see RowStream
+	a small buffer with autoFlush sends each 8kb of rows as soon as it is written instead of buffering the whole table --%>
+<%@ page buffer="8kb" autoFlush="true" %>
 
 <!DOCTYPE html>
 
@@ -25,17 +29,49 @@
 				<tr>
 				<td><input type="button" value="Add User" onclick="window.location.href='addCustomerAccount'; return false;" />   
 				<input type="button" value="List Vehicles" onclick="window.location.href='listAll'; return false;" />
-				<input type="button" value="Financing Records" onclick="window.location.href='showFinanceRecords'; return false;" /></td>
+				<input type="button" value="Financing Records" onclick="window.location.href='showFinanceRecords'; return false;" />
+				<input type="button" value="Find Duplicates" onclick="window.location.href='duplicateCustomers'; return false;" /></td>
 				</tr>
 			</table>
+			<c:if test="${not empty mergedCount}">
+				<p>Merged duplicate accounts, ${mergedCount} finance records moved</p>
+			</c:if>
 		<br>
+			<!-- filters, applied in SQL by CustomerAccountDAOImp, blank fields are ignored -->
+			<form action="listAccounts" method="GET">
+				<table id="filterTable">
+					<tr>
+					<td>Last name starts with <input type="text" name="lastName" value="<c:out value="${ListQuery.lastName}" />" size="12" /></td>
+					<td>Email <input type="text" name="emailAddress" value="<c:out value="${ListQuery.emailAddress}" />" size="20" /></td>
+					<td>Phone <input type="text" name="phoneNumber" value="<c:out value="${ListQuery.phoneNumber}" />" size="12" /></td>
+					<td><input type="hidden" name="sort" value="<c:out value="${ListQuery.sort}" />" />
+						<input type="hidden" name="direction" value="<c:out value="${ListQuery.direction}" />" />
+						<input type="submit" value="Filter" />
+						<input type="button" value="Clear" onclick="window.location.href='listAccounts'; return false;" /></td>
+					</tr>
+				</table>
+			</form>
+			
+			<!-- current filters as a query string, shared by the sort and pager links -->
+			<c:url var="filterParams" value="">
+				<c:param name="lastName" value="${ListQuery.lastName}" />
+				<c:param name="emailAddress" value="${ListQuery.emailAddress}" />
+				<c:param name="phoneNumber" value="${ListQuery.phoneNumber}" />
+				<c:param name="pageSize" value="${ListQuery.pageSize}" />
+			</c:url>
+			<c:set var="sortParams" value="&sort=${fn:escapeXml(ListQuery.sort)}&direction=${ListQuery.direction}" />
+			<!-- clicking the current sort column flips its direction -->
+			<c:set var="flipped" value="${ListQuery.direction == 'asc' ? 'desc' : 'asc'}" />
+			
+			<%-- send the header and filters before the first row is read --%>
+			<% out.flush(); %>
 			<table id="allCustomers">
 				<tr>
-					<th>ID</th>
+					<th><a href="listAccounts${filterParams}&sort=id&direction=${ListQuery.sort == 'id' ? flipped : 'asc'}">ID</a></th>
 					<th>USERNAME</th>
 					<th>FIRST NAME</th>
-					<th>LAST NAME</th>
-					<th>EMAIL</th>
+					<th><a href="listAccounts${filterParams}&sort=lastName&direction=${ListQuery.sort == 'lastName' ? flipped : 'asc'}">LAST NAME</a></th>
+					<th><a href="listAccounts${filterParams}&sort=email&direction=${ListQuery.sort == 'email' ? flipped : 'asc'}">EMAIL</a></th>
 					<th>PHONE</th>
 					<th>ADDRESS</th>
 					<th>update</th>
@@ -44,7 +80,7 @@
 				</tr>
 
 				<!-- loop over and print users, in the items attribute, refer to the VehController class
-				(listUsers method) -->
+				(listUsers method), the items are a RowStream that can only be looped over once -->
 				<c:forEach var="customer" items="${CustomerAccounts}">
 				
 					<!-- update link for customers -->
@@ -83,6 +119,15 @@
 				</c:forEach>
 				
 			</table>
+			
+			<!-- pager -->
+			<table id="pagerTable">
+				<tr>
+				<td><c:if test="${Page.hasPrevious}"><a href="listAccounts${filterParams}${sortParams}&page=${Page.page - 1}">previous</a></c:if></td>
+				<td>page ${Page.page} of ${Page.pageCount} (${Page.total} accounts)</td>
+				<td><c:if test="${Page.hasNext}"><a href="listAccounts${filterParams}${sortParams}&page=${Page.page + 1}">next</a></c:if></td>
+				</tr>
+			</table>
 		</div>
 		<br>
 		<div style="text-align:center"><font size ="1">an Andy Szeto creation | 2020 - 2022</font></div>
@@ -1,4 +1,8 @@
 <%@ taglib prefix = "c" uri = "http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix = "fn" uri = "http://java.sun.com/jsp/jstl/functions" %>
+<%-- rows are streamed from the database while this page renders, see RowStream
+	a small buffer with autoFlush sends each 8kb of rows as soon as it is written instead of buffering the whole table --%>
+<%@ page buffer="8kb" autoFlush="true" %>
 
 <!DOCTYPE html>
 
@@ -26,20 +30,57 @@
 				<tr>
 				<td><input type="button" value="Add Vehicle" onclick="window.location.href='addVehicle'; return false;" />   
 				<input type="button" value="Customer Accounts" onclick="window.location.href='listAccounts'; return false;" />
-				<input type="button" value="Financing Records" onclick="window.location.href='showFinanceRecords'; return false;" /></td>
+				<input type="button" value="Financing Records" onclick="window.location.href='showFinanceRecords'; return false;" />
+				<input type="button" value="Reprice" onclick="window.location.href='repricing'; return false;" /></td>
 				</tr>
 			</table>
 		<br>
+			<!-- filters, applied in SQL by VehicleDAOImp, blank fields are ignored -->
+			<form action="listAll" method="GET">
+				<table id="filterTable">
+					<tr>
+					<td>Make <input type="text" name="make" value="<c:out value="${ListQuery.make}" />" size="10" /></td>
+					<td>Model <input type="text" name="model" value="<c:out value="${ListQuery.model}" />" size="10" /></td>
+					<td>Year <input type="text" name="minYear" value="<c:out value="${ListQuery.minYear}" />" size="4" /> -
+						<input type="text" name="maxYear" value="<c:out value="${ListQuery.maxYear}" />" size="4" /></td>
+					<td>Max miles <input type="text" name="maxMileage" value="<c:out value="${ListQuery.maxMileage}" />" size="7" /></td>
+					<td>Price <input type="text" name="minPrice" value="<c:out value="${ListQuery.minPrice}" />" size="7" /> -
+						<input type="text" name="maxPrice" value="<c:out value="${ListQuery.maxPrice}" />" size="7" /></td>
+					<td><input type="hidden" name="sort" value="<c:out value="${ListQuery.sort}" />" />
+						<input type="hidden" name="direction" value="<c:out value="${ListQuery.direction}" />" />
+						<input type="submit" value="Filter" />
+						<input type="button" value="Clear" onclick="window.location.href='listAll'; return false;" /></td>
+					</tr>
+				</table>
+			</form>
+			
+			<!-- current filters as a query string, shared by the sort and pager links -->
+			<c:url var="filterParams" value="">
+				<c:param name="make" value="${ListQuery.make}" />
+				<c:param name="model" value="${ListQuery.model}" />
+				<c:param name="minYear" value="${ListQuery.minYear}" />
+				<c:param name="maxYear" value="${ListQuery.maxYear}" />
+				<c:param name="maxMileage" value="${ListQuery.maxMileage}" />
+				<c:param name="minPrice" value="${ListQuery.minPrice}" />
+				<c:param name="maxPrice" value="${ListQuery.maxPrice}" />
+				<c:param name="pageSize" value="${ListQuery.pageSize}" />
+			</c:url>
+			<c:set var="sortParams" value="&sort=${fn:escapeXml(ListQuery.sort)}&direction=${ListQuery.direction}" />
+			<!-- clicking the current sort column flips its direction -->
+			<c:set var="flipped" value="${ListQuery.direction == 'asc' ? 'desc' : 'asc'}" />
+			
+			<%-- send the header and filters before the first row is read --%>
+			<% out.flush(); %>
 			<table id="allCars">
 				<tr>
 					<th>VIN</th>
-					<th>MAKE</th>
+					<th><a href="listAll${filterParams}&sort=make&direction=${ListQuery.sort == 'make' ? flipped : 'asc'}">MAKE</a></th>
 					<th>MODEL</th>
-					<th>YEAR</th>
+					<th><a href="listAll${filterParams}&sort=year&direction=${ListQuery.sort == 'year' ? flipped : 'asc'}">YEAR</a></th>
 					<th>COLOR</th>
-					<th>MILEAGE</th>
+					<th><a href="listAll${filterParams}&sort=mileage&direction=${ListQuery.sort == 'mileage' ? flipped : 'asc'}">MILEAGE</a></th>
 					<th>COND.</th>
-					<th>PRICE</th>
+					<th><a href="listAll${filterParams}&sort=price&direction=${ListQuery.sort == 'price' ? flipped : 'asc'}">PRICE</a></th>
 					<th>details</th>
 					<th>update</th>
 					<th>delete</th>
@@ -47,7 +88,7 @@
 				</tr>
 
 				<!-- loop over and print users, in the items attribute, refer to the VehController class
-				(listUsers method) -->
+				(listUsers method), the items are a RowStream that can only be looped over once -->
 				<c:forEach var="car" items="${Vehicles}">
 				
 					<!-- update link for customers -->
@@ -97,6 +138,15 @@
 				</c:forEach>
 				
 			</table>
+			
+			<!-- pager -->
+			<table id="pagerTable">
+				<tr>
+				<td><c:if test="${Page.hasPrevious}"><a href="listAll${filterParams}${sortParams}&page=${Page.page - 1}">previous</a></c:if></td>
+				<td>page ${Page.page} of ${Page.pageCount} (${Page.total} vehicles)</td>
+				<td><c:if test="${Page.hasNext}"><a href="listAll${filterParams}${sortParams}&page=${Page.page + 1}">next</a></c:if></td>
+				</tr>
+			</table>
 		</div>
 		<br>
 		<div style="text-align:center"><font size ="2">an Andy Szeto creation | 2020 - 2022</font></div>
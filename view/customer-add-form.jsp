@@ -38,6 +38,7 @@
 			<!-- Form -->
 			<!-- This is mapped to the showAddVehicleForm method in the controller class -->
 			<form:form action="addCustomerAccountSave" modelAttribute="CustomerAccount" method="POST">
+				<input type="hidden" name="submitToken" value="<c:out value="${empty submitToken ? param.submitToken : submitToken}" />" />
 			
 				<table>
 					<tbody>
@@ -62,8 +63,8 @@
 					
 					<tr>
 						<td><label>Password:</label>
-						<form:input path="password" />
-						<form:errors path="password" cssClass="errors" /></td>
+						<form:password path="newPassword" />
+						<form:errors path="newPassword" cssClass="errors" /></td>
 					</tr>
 					
 					<tr>
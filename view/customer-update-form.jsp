@@ -32,6 +32,7 @@
 		
 		<div class="container">
 			<form:form action="updateCustomerAccountSave" modelAttribute="CustomerAccount" method="POST">
+				<input type="hidden" name="submitToken" value="<c:out value="${empty submitToken ? param.submitToken : submitToken}" />" />
 			
 				<table>
 					<tbody>
@@ -55,9 +56,9 @@
 					</tr>
 					
 					<tr>
-						<td><label>Password:</label>
-						<form:input path="password" />
-						<form:errors path="password" cssClass="errors" /></td>
+						<td><label>New Password (blank keeps current):</label>
+						<form:password path="newPassword" />
+						<form:errors path="newPassword" cssClass="errors" /></td>
 					</tr>
 					
 					<tr>
@@ -89,6 +90,13 @@
 			
 			</form:form>
 	
+			<c:url var="financeLink" value="/inventory/showCustomerFinanceDetails">
+				<c:param name="customerId" value="${CustomerAccount.customerId}" />
+			</c:url>
+			<p>
+				<a href="${financeLink}" class="inventory">Financed Vehicles</a>
+			</p>
+			
 			<p>
 				<a href="${pageContext.request.contextPath}/inventory/listAll" class="inventory">Back to Inventory</a>
 			</p>
@@ -0,0 +1,84 @@
+<%@ taglib prefix = "c" uri = "http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix = "fmt" uri = "http://java.sun.com/jsp/jstl/fmt" %>
+
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<!DOCTYPE html>
+
+<html>
+
+<head>
+	<title>Duplicate Customers</title>
+	
+	<link type="text/css"
+	rel="stylesheet"
+	href="${pageContext.request.contextPath}/resources/css/AllCustomerAccountsCSS.css">
+	
+</head>
+
+<body>
+		<div id="container">
+			<!-- the scan only suggests, nothing changes until a merge is submitted -->
+			<form action="duplicateCustomers" method="GET">
+				<table id="filterTable">
+					<tr>
+					<td>Match threshold <input type="text" name="threshold" value="${threshold}" size="5" /></td>
+					<td><input type="submit" value="Scan" /></td>
+					</tr>
+				</table>
+			</form>
+			
+			<p>${DuplicateScan.customers} accounts, ${DuplicateScan.blocks} blocks (${DuplicateScan.oversizedBlocks} too large to compare),
+				${DuplicateScan.comparisons} pairs compared in ${DuplicateScan.elapsedMillis} ms.
+				${DuplicateScan.suggestions.size()} duplicates found, showing the first ${MergeSuggestions.size()}</p>
+			
+			<!-- each merge moves the duplicate's finance records to the oldest account of its group -->
+			<form action="mergeDuplicateCustomers" method="POST">
+				<input type="hidden" name="submitToken" value="${submitToken}" />
+				<table id="allCustomers">
+					<tr>
+						<th>merge</th>
+						<th>SCORE</th>
+						<th>DUPLICATE</th>
+						<th>NAME</th>
+						<th>EMAIL</th>
+						<th>PHONE</th>
+						<th>KEEP</th>
+						<th>NAME</th>
+						<th>EMAIL</th>
+						<th>PHONE</th>
+					</tr>
+					<c:forEach var="suggestion" items="${MergeSuggestions}">
+						<c:set var="dup" value="${CustomerSnapshot.row(suggestion.duplicateId)}" />
+						<c:set var="keep" value="${CustomerSnapshot.row(suggestion.survivorId)}" />
+						<tr>
+							<td><input type="checkbox" name="merge" value="${suggestion.duplicateId}:${suggestion.survivorId}" checked /></td>
+							<td><fmt:formatNumber value="${suggestion.score}" maxFractionDigits="3" /></td>
+							<td>${suggestion.duplicateId}</td>
+							<td><c:out value="${CustomerSnapshot.firstName(dup)} ${CustomerSnapshot.lastName(dup)}" /></td>
+							<td><c:out value="${CustomerSnapshot.email(dup)}" /></td>
+							<td><c:out value="${CustomerSnapshot.phone(dup)}" /></td>
+							<td>${suggestion.survivorId}</td>
+							<td><c:out value="${CustomerSnapshot.firstName(keep)} ${CustomerSnapshot.lastName(keep)}" /></td>
+							<td><c:out value="${CustomerSnapshot.email(keep)}" /></td>
+							<td><c:out value="${CustomerSnapshot.phone(keep)}" /></td>
+						</tr>
+					</c:forEach>
+				</table>
+				<input type="submit" value="Merge Selected" />
+			</form>
+			
+			<form action="mergeAllDuplicateCustomers" method="POST">
+				<input type="hidden" name="submitToken" value="${submitToken}" />
+				<input type="hidden" name="threshold" value="${threshold}" />
+				<input type="submit" value="Merge All ${DuplicateScan.suggestions.size()}"
+					onclick="if(!(confirm('Merge every suggested duplicate? Finance records will be moved.'))) return false" />
+			</form>
+	
+			<p>
+				<a href="${pageContext.request.contextPath}/inventory/listAccounts">Back to Customers</a>
+			</p>
+		</div>
+</body>
+
+</html>
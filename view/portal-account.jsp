@@ -0,0 +1,39 @@
+<%@ taglib prefix = "c" uri = "http://java.sun.com/jsp/jstl/core" %>
+
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<!DOCTYPE html>
+
+
+<html>
+
+<head>
+	<title>My Account</title>
+	
+	<!-- Referencing CSS file -->
+	<link type="text/css"
+	rel="stylesheet"
+	href="${pageContext.request.contextPath}/resources/css/AddVehicleFormCSS.css">
+	
+</head>
+
+<body>
+		<h1>Welcome, <c:out value="${Customer.firstName}" /> <c:out value="${Customer.lastName}" /></h1>
+		
+		<div class="container">
+			<table>
+				<tr>
+					<td><label>Customer Id:</label> ${Customer.customerId}</td>
+				</tr>
+				<tr>
+					<td><label>Username:</label> <c:out value="${Customer.username}" /></td>
+				</tr>
+			</table>
+			
+			<form action="${pageContext.request.contextPath}/portal/logout" method="POST">
+				<input type="submit" value="Log Out" class="save" />
+			</form>
+		</div>
+</body>
+
+</html>
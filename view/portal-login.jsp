@@ -0,0 +1,57 @@
+<%@ taglib prefix = "c" uri = "http://java.sun.com/jsp/jstl/core" %>
+
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<!DOCTYPE html>
+
+
+<html>
+
+<head>
+	<title>Customer Login</title>
+	
+	<!-- Referencing CSS file -->
+	<link type="text/css"
+	rel="stylesheet"
+	href="${pageContext.request.contextPath}/resources/css/AddVehicleFormCSS.css">
+	
+	<style>
+		.errors{
+			font-size: 13px;
+			color:red;
+		}
+	</style>
+	
+</head>
+
+<body>
+		<h1>Customer Login</h1>
+		
+		<div class="container">
+			<form action="${pageContext.request.contextPath}/portal/login" method="POST">
+				<table>
+					<c:if test="${not empty error}">
+						<tr>
+							<td><span class="errors"><c:out value="${error}" /></span></td>
+						</tr>
+					</c:if>
+					
+					<tr>
+						<td><label>Username:</label>
+						<input type="text" name="username" value="<c:out value='${username}' />" /></td>
+					</tr>
+					
+					<tr>
+						<td><label>Password:</label>
+						<input type="password" name="password" /></td>
+					</tr>
+					
+					<tr>
+						<td><input type="submit" value="Log In" class="save" /></td>
+					</tr>
+				</table>
+			</form>
+		</div>
+</body>
+
+</html>
@@ -0,0 +1,113 @@
+<%@ taglib prefix = "c" uri = "http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="form" uri="http://www.springframework.org/tags/form"%>
+
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<!DOCTYPE html>
+
+
+<html>
+
+<head>
+	<title>Reprice Inventory</title>
+	
+	<link type="text/css"
+	rel="stylesheet"
+	href="${pageContext.request.contextPath}/resources/css/AddVehicleFormCSS.css">
+	
+	<style>
+		.errors{
+			font-size: 13px;
+			color:red;
+		}
+	</style>
+	
+</head>
+
+<body>
+		<div class="container">
+			<!-- Preview runs the rule as a dry run, Apply reprices every matching vehicle -->
+			<form:form action="repricingPreview" modelAttribute="RepricingRule" method="GET">
+				<input type="hidden" name="submitToken" value="<c:out value="${empty submitToken ? param.submitToken : submitToken}" />" />
+			
+				<table>
+					<tbody>
+					
+					<tr>
+						<td><label>Change (%):</label>
+						<form:input path="percentChange" />
+						<form:errors path="percentChange" cssClass="errors" /></td>
+					</tr>
+					
+					<tr>
+						<td><label>Min. Days on Lot:</label>
+						<form:input path="minDaysOnLot" />
+						<form:errors path="minDaysOnLot" cssClass="errors" /></td>
+					</tr>
+					
+					<tr>
+						<td><label>Min. Mileage:</label>
+						<form:input path="minMileage" />
+						<form:errors path="minMileage" cssClass="errors" /></td>
+					</tr>
+					
+					<tr>
+						<td><label>Make:</label>
+						<form:input path="make" /></td>
+					</tr>
+					
+					<tr>
+						<td><label>Model:</label>
+						<form:input path="model" /></td>
+					</tr>
+					
+					<tr>
+						<td><label>Floor Price:</label>
+						<form:input path="floorPrice" />
+						<form:errors path="floorPrice" cssClass="errors" /></td>
+					</tr>
+					
+					<tr>
+						<td><input type="submit" value="Preview" />
+						<input type="submit" value="Apply" formaction="repricingApply" formmethod="POST"
+							onclick="if(!(confirm('Reprice every matching vehicle? Changes cannot be undone.'))) return false" /></td>
+					</tr>
+					
+					</tbody>
+				</table>
+			
+			</form:form>
+			
+			<c:if test="${not empty PriceChanges}">
+				<p>${affectedCount} vehicles match, showing the first ${PriceChanges.size()}</p>
+				<table id="allCars">
+					<tr>
+						<th>VIN</th>
+						<th>MAKE</th>
+						<th>MODEL</th>
+						<th>YEAR</th>
+						<th>MILEAGE</th>
+						<th>PRICE</th>
+						<th>NEW PRICE</th>
+					</tr>
+					<c:forEach var="change" items="${PriceChanges}">
+						<tr>
+							<td>${change.vehicleIdNumber}</td>
+							<td>${change.make}</td>
+							<td>${change.model}</td>
+							<td>${change.year}</td>
+							<td>${change.mileage}</td>
+							<td>$${change.oldPrice}</td>
+							<td>$${change.newPrice}</td>
+						</tr>
+					</c:forEach>
+				</table>
+			</c:if>
+	
+			<p>
+				<a href="${pageContext.request.contextPath}/inventory/listAll" class="inventory">Back to Inventory</a>
+			</p>
+			</div>
+</body>
+
+</html>
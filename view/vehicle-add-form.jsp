@@ -37,6 +37,7 @@
 			<!-- Form -->
 			<!-- This is mapped to the showAddVehicleForm method in the controller class -->
 			<form:form action="addVehicleSave" modelAttribute="Vehicle" method="POST">
+				<input type="hidden" name="submitToken" value="<c:out value="${empty submitToken ? param.submitToken : submitToken}" />" />
 			
 				<table>
 					<tbody>
@@ -45,7 +46,9 @@
 						<td><label>VIN:</label>
 						<!-- When form is loaded/submitted, Spring MVC will call getter and setter methods for these fields -->
 						<form:input path="vehicleIdNumber" />
-						<form:errors path="vehicleIdNumber" cssClass="errors" /></td>
+						<input type="submit" value="Decode" formaction="decodeVin" formmethod="GET" />
+						<form:errors path="vehicleIdNumber" cssClass="errors" />
+						<c:if test="${VinInfo != null && !VinInfo.valid}"><span class="errors">${VinInfo.error}</span></c:if></td>
 					</tr>
 					
 					<tr>
@@ -95,6 +98,7 @@
 						<form:select path="condition">
 							<form:option value="NEW" label="NEW"/>
 							<form:option value="USED" label="USED"/>
+							<form:option value="CERTIFIED" label="CERTIFIED"/>
 						</form:select>
 						</td>
 					</tr>
@@ -128,6 +132,7 @@
 							<form:option value="MANUAL" label="MANUAL"/>
 							<form:option value="CVT" label="CVT"/>
 							<form:option value="DUAL-CLUTCH" label="DUAL-CLUTCH"/>
+							<form:option value="AUTOMATED-MANUAL" label="AUTOMATED-MANUAL"/>
 						</form:select>			
 						</td>
 					</tr>
@@ -138,6 +143,7 @@
 							<form:option value="GAS" label="GAS"/>
 							<form:option value="ELECTRIC" label="ELECTRIC"/>
 							<form:option value="HYBRID" label="HYBRID"/>
+							<form:option value="DIESEL" label="DIESEL"/>
 					</form:select>
 						</td>
 					</tr>
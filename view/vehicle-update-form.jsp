@@ -35,6 +35,7 @@
 		<div class="container">
 
 			<form:form action="updateVehicleSave" modelAttribute="Vehicle" method="POST">
+				<input type="hidden" name="submitToken" value="<c:out value="${empty submitToken ? param.submitToken : submitToken}" />" />
 			
 				<table>
 					<tbody>
@@ -92,6 +93,7 @@
 						<form:select path="condition">
 							<form:option value="NEW" label="NEW"/>
 							<form:option value="USED" label="USED"/>
+							<form:option value="CERTIFIED" label="CERTIFIED"/>
 						</form:select>
 						</td>
 					</tr>
@@ -125,6 +127,7 @@
 							<form:option value="MANUAL" label="MANUAL"/>
 							<form:option value="CVT" label="CVT"/>
 							<form:option value="DUAL-CLUTCH" label="DUAL-CLUTCH"/>
+							<form:option value="AUTOMATED-MANUAL" label="AUTOMATED-MANUAL"/>
 						</form:select>			
 						</td>
 					</tr>
@@ -135,6 +138,7 @@
 							<form:option value="GAS" label="GAS"/>
 							<form:option value="ELECTRIC" label="ELECTRIC"/>
 							<form:option value="HYBRID" label="HYBRID"/>
+							<form:option value="DIESEL" label="DIESEL"/>
 					</form:select>
 						</td>
 					</tr>